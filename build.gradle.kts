@@ -93,6 +93,28 @@ tasks.withType<Jar>().configureEach {
 
 
 
+// Indexed copies of the stdlib channels, so that a single file of a library can be read
+// without decoding the whole library (see net.sourceforge.plantuml.preproc.spm.SpxArchive)
+val stdlibIndex by tasks.registering(JavaExec::class) {
+	description = "Converts the stdlib puml/json channels to indexed archives."
+	val input = layout.projectDirectory.dir("src/main/resources/stdlib")
+	val output = layout.buildDirectory.dir("generated/stdlib-index")
+	classpath = files(tasks.compileJava.flatMap { it.destinationDirectory })
+	mainClass.set("net.sourceforge.plantuml.preproc.spm.SpxConverter")
+	inputs.dir(input)
+	outputs.dir(output)
+	doFirst {
+		delete(output)
+	}
+	argumentProviders.add(CommandLineArgumentProvider {
+		listOf(input.asFile.absolutePath, output.get().dir("stdlib").asFile.absolutePath)
+	})
+}
+
+tasks.processResources {
+	from(stdlibIndex)
+}
+
 val checkJarEntries by tasks.registering {
     dependsOn(tasks.named("jar"))
     doLast {
@@ -94,6 +94,7 @@ import smetana.core.CArrayOfStar;
 import smetana.core.CString;
 import smetana.core.Globals;
 import smetana.core.Memory;
+import smetana.core.NetworkSimplex;
 import smetana.core.ZType;
 import smetana.core.jmp_buf;
 
@@ -952,6 +953,9 @@ try {
     else
 	search_size = SEARCHSIZE;
     
+    if (zz.networkSimplex != NetworkSimplex.Mode.GRAPH)
+	return NetworkSimplex.rank2(zz, g, balance, maxiter, search_size);
+    
     return rank2 (zz, g, balance, maxiter, search_size);
 } finally {
 LEAVING("aqly8eniwjr5bmh4hzwc7ftdr","rank");
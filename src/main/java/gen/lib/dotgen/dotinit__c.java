@@ -113,6 +113,7 @@ import smetana.core.CFunction;
 import smetana.core.CFunctionAbstract;
 import smetana.core.CString;
 import smetana.core.Globals;
+import smetana.core.LayoutPhase;
 import smetana.core.ZType;
 import smetana.core.size_t;
 
@@ -353,7 +354,9 @@ try {
     dot_init_node_edge(zz, g);
     
     do {
+        long start = zz.startPhase();
         dot_rank(zz, g, asp);
+        zz.endPhase(LayoutPhase.RANK, start);
 	if (maxphase == 1) {
 	    attach_phase_attrs (g, 1);
 	    return;
@@ -363,12 +366,16 @@ UNSUPPORTED("1yu5j8tk43i6jlmu8wk9jks15"); // 	    agerr(AGWARN, "dot does not su
 UNSUPPORTED("5uwp9z6jkv5uc30iyfszyg6dw"); // 	    asp = NULL;
 UNSUPPORTED("28kbszyxsjoj03gb134ov4hag"); // 	    aspect.nextIter = 0;
 	}
+        start = zz.startPhase();
         dot_mincross(zz, g, (asp != null));
+        zz.endPhase(LayoutPhase.MINCROSS, start);
 	if (maxphase == 2) {
 	    attach_phase_attrs (g, 2);
 	    return;
 	}
+        start = zz.startPhase();
         dot_position(zz, g, asp);
+        zz.endPhase(LayoutPhase.POSITION, start);
 	if (maxphase == 3) {
 	    attach_phase_attrs (g, 2);  /* positions will be attached on output */
 	    return;
@@ -378,7 +385,9 @@ UNSUPPORTED("28kbszyxsjoj03gb134ov4hag"); // 	    aspect.nextIter = 0;
     if ((GD_flags(g) & NEW_RANK)!=0)
 	removeFill (g);
     dot_sameports(zz, g);
+    final long start = zz.startPhase();
     dot_splines(zz, g);
+    zz.endPhase(LayoutPhase.SPLINES, start);
     if (mapbool(agget(zz, g, new CString("compound"))))
 	dot_compoundEdges(g);
 } finally {
@@ -123,12 +123,19 @@ import static smetana.core.Macro.flatindex;
 import static smetana.core.debug.SmetanaDebug.ENTERING;
 import static smetana.core.debug.SmetanaDebug.LEAVING;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import gen.annotation.Difficult;
 import gen.annotation.Original;
 import gen.annotation.Reviewed;
 import gen.annotation.Unused;
 import h.ST_Agedge_s;
 import h.ST_Agnode_s;
+import h.ST_Agobj_s;
 import h.ST_Agraph_s;
 import h.ST_adjmatrix_t;
 import h.ST_elist;
@@ -143,6 +150,7 @@ import smetana.core.Globals;
 import smetana.core.Memory;
 import smetana.core.ZType;
 
+
 /* 
  * dot_mincross(g) takes a ranked graphs, and finds an ordering
  * that avoids edge crossings.  clusters are expanded.
@@ -169,6 +177,9 @@ try {
     
     init_mincross(zz, g);
     
+    if (GD_comp(g).size > 1 && parallelComponents)
+	nc = mincross_components(zz, g, doBalance);
+    else
     for (nc = c = 0; c < GD_comp(g).size; c++) {
 	init_mccomp(g, c);
 	nc += mincross_(zz, g, 0, 2, doBalance);
@@ -198,6 +209,153 @@ LEAVING("e876vp4hgkzshluz6qk77cjwk","dot_mincross");
 
 
 
+/* The connected components are independent until merge2, except for the
+ * rank lists of the root that they fill one after the other.  Each
+ * component gets its own copy of these lists, starting where the previous
+ * component ends, so that mincross runs on the fork/join pool.  The initial
+ * ranks are still built in order: they read the flat adjacency matrices
+ * left by the previous components, exactly as the sequential loop does.
+ */
+private static final ThreadLocal<Component> COMPONENT = new ThreadLocal<>();
+
+/* the result is the same either way, so this is only worth it on several processors */
+static boolean parallelComponents = ForkJoinPool.getCommonPoolParallelism() > 1;
+
+static final class Component {
+
+	private final ST_Agnode_s nlist;
+	private final CArray<ST_rank_t> rank;
+	// the rank lists once built, where the next component starts from
+	private CArray<ST_rank_t> built;
+	private final int TI_list_size;
+	private int TI_list[];
+	private int Count[];
+	private int C;
+
+	private Component(Globals zz, ST_Agraph_s root, ST_Agnode_s nlist, Component previous) {
+		this.nlist = nlist;
+		this.rank = copy(root, previous == null ? GD_rank(root) : previous.built);
+		if (previous != null) {
+			previous.built = null;
+			for (int r = GD_minrank(root); r <= GD_maxrank(root); r++) {
+				rank.get__(r).v = rank.get__(r).v.plus_(rank.get__(r).n);
+				rank.get__(r).n = 0;
+			}
+		}
+		this.TI_list_size = zz.TI_list.length;
+	}
+
+	private <T> T call(Callable<T> callable) throws Exception {
+		final Component old = COMPONENT.get();
+		COMPONENT.set(this);
+		try {
+			return callable.call();
+		} finally {
+			COMPONENT.set(old);
+		}
+	}
+
+	private static CArray<ST_rank_t> copy(ST_Agraph_s root, CArray<ST_rank_t> from) {
+		final CArray<ST_rank_t> result = CArray.<ST_rank_t>ALLOC__(GD_maxrank(root) + 2, ZType.ST_rank_t);
+		for (int r = 0; r < GD_maxrank(root) + 2; r++)
+			result.get__(r).___(from.get__(r));
+		return result;
+	}
+
+	private void copyTo(ST_Agraph_s root) {
+		for (int r = 0; r < GD_maxrank(root) + 2; r++)
+			GD_rank(root).get__(r).___(rank.get__(r));
+		GD_nlist(root, nlist);
+	}
+
+}
+
+private static int mincross_components(Globals zz, ST_Agraph_s g, boolean doBalance) {
+    final List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+    try {
+	Component comp = null;
+	for (int c = 0; c < GD_comp(g).size; c++) {
+	    comp = new Component(zz, g, GD_comp(g).list.get_(c), comp);
+	    final Component current = comp;
+	    current.call(() -> {
+		build_ranks(zz, g, 0);
+		flat_breakcycles(zz, g);
+		return null;
+	    });
+	    current.built = Component.copy(g, current.rank);
+	    tasks.add(ForkJoinTask.adapt(() -> current.call(() -> {
+		try {
+		    return mincross_(zz, g, 0, 2, doBalance, true);
+		} finally {
+		    current.TI_list = null;
+		    current.Count = null;
+		}
+	    })).fork());
+	}
+	int nc = 0;
+	for (ForkJoinTask<Integer> task : tasks)
+	    nc += task.join();
+	comp.copyTo(g);
+	return nc;
+    } catch (Exception e) {
+	for (ForkJoinTask<Integer> task : tasks)
+	    task.quietlyJoin();
+	if (e instanceof RuntimeException)
+	    throw (RuntimeException) e;
+	throw new IllegalStateException(e);
+    }
+}
+
+/* the rank lists of g, or of the component being processed by this thread */
+private static CArray<ST_rank_t> ranks(Globals zz, ST_Agraph_s g) {
+    final Component comp = COMPONENT.get();
+    if (comp != null && g == zz.Root)
+	return comp.rank;
+    return GD_rank(g);
+}
+
+private static ST_Agnode_s nlist(Globals zz, ST_Agraph_s g) {
+    final Component comp = COMPONENT.get();
+    if (comp != null && g == zz.Root)
+	return comp.nlist;
+    return GD_nlist(g);
+}
+
+private static int[] count(Globals zz, int n) {
+    final Component comp = COMPONENT.get();
+    if (comp == null) {
+	if (zz.C <= n) {
+	    zz.C = n + 1;
+	    zz.Count = ALLOC_INT(zz.C, zz.Count);
+	}
+	return zz.Count;
+    }
+    if (comp.C <= n) {
+	comp.C = n + 1;
+	comp.Count = ALLOC_INT(comp.C, comp.Count);
+    }
+    return comp.Count;
+}
+
+/* cgraph searches reorganize the dictionaries, and several components may search at once */
+private static boolean contains(Globals zz, ST_Agraph_s g, ST_Agobj_s obj) {
+    synchronized (zz) {
+	return agcontains(zz, g, obj);
+    }
+}
+
+private static int[] TI_list(Globals zz) {
+    final Component comp = COMPONENT.get();
+    if (comp == null)
+	return zz.TI_list;
+    if (comp.TI_list == null)
+	comp.TI_list = new int[comp.TI_list_size];
+    return comp.TI_list;
+}
+
+
+
+
 @Reviewed(when = "15/11/2020")
 @Original(version="2.38.0", path="lib/dotgen/mincross.c", name="", key="756bre1tpxb1tq68p7xhkrxkc", definition="static adjmatrix_t *new_matrix(int i, int j)")
 public static ST_adjmatrix_t new_matrix(int i, int j) {
@@ -356,7 +514,7 @@ try {
  	if ((ND_clust(v) != ND_clust(w)))
 		return true;
     }
-    M = GD_rank(g).get__(ND_rank(v)).flat;
+    M = ranks(zz, g).get__(ND_rank(v)).flat;
     if (M == null)
 	rv = false;
     else {
@@ -449,9 +607,9 @@ try {
     vi = ND_order(v);
     wi = ND_order(w);
     ND_order(v, wi);
-    GD_rank(zz.Root).get__(r).v.set_(wi, v);
+    ranks(zz, zz.Root).get__(r).v.set_(wi, v);
     ND_order(w, vi);
-    GD_rank(zz.Root).get__(r).v.set_(vi, w);
+    ranks(zz, zz.Root).get__(r).v.set_(vi, w);
 } finally {
 LEAVING("ba4tbr57wips1dzpgxzx3b6ja","exchange");
 }
@@ -513,10 +671,10 @@ try {
     int i, c0, c1, rv;
     ST_Agnode_s v, w;
     rv = 0;
-    GD_rank(g).get__(r).candidate= false;
-    for (i = 0; i < GD_rank(g).get__(r).n - 1; i++) {
-	v = GD_rank(g).get__(r).v.get_(i);
-	w = GD_rank(g).get__(r).v.get_(i + 1);
+    ranks(zz, g).get__(r).candidate= false;
+    for (i = 0; i < ranks(zz, g).get__(r).n - 1; i++) {
+	v = ranks(zz, g).get__(r).v.get_(i);
+	w = ranks(zz, g).get__(r).v.get_(i + 1);
 	//assert(ND_order(v) < ND_order(w));
 	if (left2right(zz, g, v, w))
 	    continue;
@@ -525,22 +683,22 @@ try {
 	    c0 += in_cross(v, w);
 	    c1 += in_cross(w, v);
 	}
-	if (GD_rank(g).get__(r + 1).n > 0) {
+	if (ranks(zz, g).get__(r + 1).n > 0) {
 	    c0 += out_cross(v, w);
 	    c1 += out_cross(w, v);
 	}
 	if ((c1 < c0) || ((c0 > 0) && reverse && (c1 == c0))) {
 	    exchange(zz, v, w);
 	    rv += (c0 - c1);
-	    GD_rank(zz.Root).get__(r).valid= 0;
-	    GD_rank(g).get__(r).candidate= true;
+	    ranks(zz, zz.Root).get__(r).valid= 0;
+	    ranks(zz, g).get__(r).candidate= true;
 	    if (r > GD_minrank(g)) {
-		GD_rank(zz.Root).get__(r - 1).valid= 0;
-		GD_rank(g).get__(r - 1).candidate= true;
+		ranks(zz, zz.Root).get__(r - 1).valid= 0;
+		ranks(zz, g).get__(r - 1).candidate= true;
 	    }
 	    if (r < GD_maxrank(g)) {
-		GD_rank(zz.Root).get__(r + 1).valid= 0;
-		GD_rank(g).get__(r + 1).candidate= true;
+		ranks(zz, zz.Root).get__(r + 1).valid= 0;
+		ranks(zz, g).get__(r + 1).candidate= true;
 	    }
 	}
     }
@@ -562,11 +720,11 @@ ENTERING("2i22bxgg5y7v5c5d40k5zppky","transpose");
 try {
     int r, delta;
     for (r = GD_minrank(g); r <= GD_maxrank(g); r++)
-	GD_rank(g).get__(r).candidate= true;
+	ranks(zz, g).get__(r).candidate= true;
     do {
 	delta = 0;
 	for (r = GD_minrank(g); r <= GD_maxrank(g); r++) {
-	    if (GD_rank(g).get__(r).candidate) {
+	    if (ranks(zz, g).get__(r).candidate) {
 		delta += transpose_step(zz, g, r, reverse);
 	    }
 	}
@@ -583,6 +741,11 @@ LEAVING("2i22bxgg5y7v5c5d40k5zppky","transpose");
 @Reviewed(when = "15/11/2020")
 @Original(version="2.38.0", path="lib/dotgen/mincross.c", name="mincross", key="7lrk2rxqnwwdau8cx85oqkpmv", definition="static int mincross(graph_t * g, int startpass, int endpass, int doBalance)")
 public static int mincross_(Globals zz, ST_Agraph_s g, int startpass, int endpass, boolean doBalance) {
+    return mincross_(zz, g, startpass, endpass, doBalance, false);
+}
+
+/* ranksBuilt: the first pass starts from ranks already built, see mincross_components */
+private static int mincross_(Globals zz, ST_Agraph_s g, int startpass, int endpass, boolean doBalance, boolean ranksBuilt) {
 ENTERING("7lrk2rxqnwwdau8cx85oqkpmv","mincross_");
 try {
     int maxthispass=0, iter, trying, pass;
@@ -590,20 +753,20 @@ try {
     
     if (startpass > 1) {
 	cur_cross = best_cross = ncross(zz, g);
-	save_best(g);
+	save_best(zz, g);
     } else
 	cur_cross = best_cross = INT_MAX;
     for (pass = startpass; pass <= endpass; pass++) {
 	if (pass <= 1) {
 	    maxthispass = Math.min(4, zz.MaxIter);
-	    if (g == dot_root(g))
+	    if (g == dot_root(g) && (pass > 0 || ranksBuilt == false))
 		build_ranks(zz, g, pass);
-	    if (pass == 0)
+	    if (pass == 0 && ranksBuilt == false)
 		flat_breakcycles(zz, g);
 	    flat_reorder(zz, g);
 	    
 	    if ((cur_cross = ncross(zz, g)) <= best_cross) {
-		save_best(g);
+		save_best(zz, g);
 		best_cross = cur_cross;
 	    }
 	    trying = 0;
@@ -625,7 +788,7 @@ try {
 		break;
 	    mincross_step(zz, g, iter);
 	    if ((cur_cross = ncross(zz, g)) <= best_cross) {
-		save_best(g);
+		save_best(zz, g);
 		if (cur_cross < zz.Convergence * best_cross)
 		    trying = 0;
 		best_cross = cur_cross;
@@ -662,12 +825,12 @@ try {
     ST_Agnode_s n;
     int r;
     
-    for (n = GD_nlist(g); n!=null; n = ND_next(n))
+    for (n = nlist(zz, g); n!=null; n = ND_next(n))
 	ND_order(n, (int)ND_coord(n).x);
     for (r = GD_minrank(g); r <= GD_maxrank(g); r++) {
-	GD_rank(zz.Root).get__(r).valid= 0;
-    qsort(zz, GD_rank(g).get__(r).v,
-    	    GD_rank(g).get__(r).n,
+	ranks(zz, zz.Root).get__(r).valid= 0;
+    qsort(zz, ranks(zz, g).get__(r).v,
+    	    ranks(zz, g).get__(r).n,
     	    mincross__c.nodeposcmpf);
     }
 } finally {
@@ -680,11 +843,11 @@ LEAVING("520049zkz9mafaeklgvm6s8e5","restore_best");
 
 @Reviewed(when = "15/11/2020")
 @Original(version="2.38.0", path="lib/dotgen/mincross.c", name="save_best", key="8uyqc48j0oul206l3np85wj9p", definition="static void save_best(graph_t * g)")
-public static void save_best(ST_Agraph_s g) {
+public static void save_best(Globals zz, ST_Agraph_s g) {
 ENTERING("8uyqc48j0oul206l3np85wj9p","save_best");
 try {
     ST_Agnode_s n;
-    for (n = GD_nlist(g); n!=null; n = ND_next(n))
+    for (n = nlist(zz, g); n!=null; n = ND_next(n))
     (ND_coord(n)).x = ND_order(n);
 } finally {
 LEAVING("8uyqc48j0oul206l3np85wj9p","save_best");
@@ -843,7 +1006,7 @@ LEAVING("arax68kzcf86dr2xu0gp962gq","neighbor");
 public static boolean is_a_normal_node_of(Globals zz, ST_Agraph_s g, ST_Agnode_s v) {
 ENTERING("1waqm8z71hi389dt1wqh0bmhr","is_a_normal_node_of");
 try {
-    return ((ND_node_type(v) == NORMAL) && agcontains(zz, g, v));
+    return ((ND_node_type(v) == NORMAL) && contains(zz, g, v));
 } finally {
 LEAVING("1waqm8z71hi389dt1wqh0bmhr","is_a_normal_node_of");
 }
@@ -862,7 +1025,7 @@ try {
 	ST_Agedge_s e = (ST_Agedge_s) ND_out(v).list.get_(0);
 	while (ED_edge_type(e) != NORMAL)
 	    e = ED_to_orig(e);
-	if (agcontains(zz, g, e))
+	if (contains(zz, g, e))
 	    return true;
     }
     return false;
@@ -1134,7 +1297,7 @@ try {
     int i;
     boolean hascl;
     ST_Agedge_s e;
-    ST_adjmatrix_t M = GD_rank(g).get__(ND_rank(v)).flat;
+    ST_adjmatrix_t M = ranks(zz, g).get__(ND_rank(v)).flat;
     
     ND_mark(v, true);
     ND_onstack(v, true);
@@ -1142,7 +1305,7 @@ try {
     if (ND_flat_out(v).list!=null)
 	for (i = 0; (e = (ST_Agedge_s) ND_flat_out(v).list.get_(i))!=null; i++) {
 	    if (hascl
-		&& !(agcontains(zz, g, agtail(e)) && agcontains(zz, g, aghead(e))))
+		&& !(contains(zz, g, agtail(e)) && contains(zz, g, aghead(e))))
 		continue;
 	    if (ED_weight(e) == 0)
 		continue;
@@ -1183,19 +1346,19 @@ try {
     
     for (r = GD_minrank(g); r <= GD_maxrank(g); r++) {
 	flat = 0;
-	for (i = 0; i < GD_rank(g).get__(r).n; i++) {
-	    v = GD_rank(g).get__(r).v.get_(i);
+	for (i = 0; i < ranks(zz, g).get__(r).n; i++) {
+	    v = ranks(zz, g).get__(r).v.get_(i);
 	    ND_mark(v, 0); ND_onstack(v, 0);
 	    flatindex(v, i);
 	    if ((ND_flat_out(v).size > 0) && (flat == 0)) {
-		GD_rank(g).get__(r).flat =
-		    new_matrix(GD_rank(g).get__(r).n, GD_rank(g).get__(r).n);
+		ranks(zz, g).get__(r).flat =
+		    new_matrix(ranks(zz, g).get__(r).n, ranks(zz, g).get__(r).n);
 		flat = 1;
 	    }
 	}
 	if (flat!=0) {
-	    for (i = 0; i < GD_rank(g).get__(r).n; i++) {
-		v = GD_rank(g).get__(r).v.get_(i);
+	    for (i = 0; i < ranks(zz, g).get__(r).n; i++) {
+		v = ranks(zz, g).get__(r).v.get_(i);
 		if (ND_mark(v) == 0)
 		    flat_search(zz, g, v);
 	    }
@@ -1265,18 +1428,18 @@ try {
     int i, r;
     
     r = ND_rank(n);
-    i = GD_rank(g).get__(r).n;
-    if (GD_rank(g).get__(r).an <= 0) {
+    i = ranks(zz, g).get__(r).n;
+    if (ranks(zz, g).get__(r).an <= 0) {
 	UNSUPPORTED("8qk1xhvvb994zhv9aq10k4v12"); // 	agerr(AGERR, "install_in_rank, line %d: %s %s rank %d i = %d an = 0\n",
 	UNSUPPORTED("53h8d82ax23hys2k21hjswp72"); // 	      1034, agnameof(g), agnameof(n), r, i);
 	return;
     }
     
-    GD_rank(g).get__(r).v.set_(i, n);
+    ranks(zz, g).get__(r).v.set_(i, n);
     ND_order(n, i);
-    GD_rank(g).get__(r).n++;
-    assert(GD_rank(g).get__(r).n <= GD_rank(g).get__(r).an);
-    if (ND_order(n) > GD_rank(zz.Root).get__(r).an) {
+    ranks(zz, g).get__(r).n++;
+    assert(ranks(zz, g).get__(r).n <= ranks(zz, g).get__(r).an);
+    if (ND_order(n) > ranks(zz, zz.Root).get__(r).an) {
 	UNSUPPORTED("399szcw1txekt1xssyw7s2x07"); // 	agerr(AGERR, "install_in_rank, line %d: ND_order(%s) [%d] > GD_rank(Root)[%d].an [%d]\n",
 	UNSUPPORTED("9puojrmsk6vb1qc0jtr8ge4g8"); // 	      1052, agnameof(n), ND_order(n), r, GD_rank(Root)[r].an);
 	return;
@@ -1286,8 +1449,8 @@ try {
 	UNSUPPORTED("d2ugluzf7bmj7osicgitgy3sr"); // 	      1057, r, GD_minrank(g), GD_maxrank(g));
 	return;
     }
-    if (GD_rank(g).get__(r).v.plus_(ND_order(n)).comparePointer_(
-	GD_rank(g).get__(r).av.plus_(GD_rank(zz.Root).get__(r).an))>0) {
+    if (ranks(zz, g).get__(r).v.plus_(ND_order(n)).comparePointer_(
+	ranks(zz, g).get__(r).av.plus_(ranks(zz, zz.Root).get__(r).an))>0) {
 	UNSUPPORTED("3eb32nc5czs5auwzz5p5mtl04"); // 	agerr(AGERR, "install_in_rank, line %d: GD_rank(g)[%d].v + ND_order(%s) [%d] > GD_rank(g)[%d].av + GD_rank(Root)[%d].an [%d]\n",
 	UNSUPPORTED("3qe3qpw5h6vse39xs1ca9sjmo"); // 	      1062, r, agnameof(n),GD_rank(g)[r].v + ND_order(n), r, r, GD_rank(g)[r].av+GD_rank(Root)[r].an);
 	return;
@@ -1316,13 +1479,13 @@ try {
     ST_nodequeue q;
     
     q = new_queue(GD_n_nodes(g));
-    for (n = GD_nlist(g); n!=null; n = ND_next(n))
+    for (n = nlist(zz, g); n!=null; n = ND_next(n))
 	ND_mark(n, 0);
     
     for (i = GD_minrank(g); i <= GD_maxrank(g); i++)
-	GD_rank(g).get__(i).n = 0;
+	ranks(zz, g).get__(i).n = 0;
     
-    for (n = GD_nlist(g); n!=null; n = ND_next(n)) {
+    for (n = nlist(zz, g); n!=null; n = ND_next(n)) {
 	otheredges = ((pass == 0) ? ND_in(n).list : ND_out(n).list);
 	if (otheredges.get_(0)!= null)
 	    continue;
@@ -1342,11 +1505,11 @@ try {
     if (dequeue(q)!=null)
     UNSUPPORTED("1b3hbd5artrq77i58q2o9kgz3"); // 	agerr(AGERR, "surprise\n");
     for (i = GD_minrank(g); i <= GD_maxrank(g); i++) {
-	GD_rank(zz.Root).get__(i).valid = 0;
-	if (GD_flip(g) && (GD_rank(g).get__(i).n > 0)) {
+	ranks(zz, zz.Root).get__(i).valid = 0;
+	if (GD_flip(g) && (ranks(zz, g).get__(i).n > 0)) {
 	    int nn, ndiv2;
-	    CArrayOfStar<ST_Agnode_s> vlist = GD_rank(g).get__(i).v;
-	    nn = GD_rank(g).get__(i).n - 1;
+	    CArrayOfStar<ST_Agnode_s> vlist = ranks(zz, g).get__(i).v;
+	    nn = ranks(zz, g).get__(i).n - 1;
 	    ndiv2 = nn / 2;
 	    for (j = 0; j <= ndiv2; j++)
 		exchange(zz, vlist.get_(j), vlist.get_(nn - j));
@@ -1460,17 +1623,17 @@ try {
     if (GD_has_flat_edges(g) == 0)
 	return;
     for (r = GD_minrank(g); r <= GD_maxrank(g); r++) {
-	if (GD_rank(g).get__(r).n == 0) continue;
-	base_order = ND_order(GD_rank(g).get__(r).v.get_(0));
-	for (i = 0; i < GD_rank(g).get__(r).n; i++)
-	    ND_mark(GD_rank(g).get__(r).v.get_(i), 0);
+	if (ranks(zz, g).get__(r).n == 0) continue;
+	base_order = ND_order(ranks(zz, g).get__(r).v.get_(0));
+	for (i = 0; i < ranks(zz, g).get__(r).n; i++)
+	    ND_mark(ranks(zz, g).get__(r).v.get_(i), 0);
 	temprank = CArrayOfStar.<ST_Agnode_s>REALLOC(i + 1, temprank, ZType.ST_Agnode_s);
 	pos = 0;
 	
 	/* construct reverse topological sort order in temprank */
-	for (i = 0; i < GD_rank(g).get__(r).n; i++) {
-	    if (GD_flip(g)) v = (ST_Agnode_s) GD_rank(g).get__(r).v.get_(i);
-	    else v = GD_rank(g).get__(r).v.get_(GD_rank(g).get__(r).n - i - 1);
+	for (i = 0; i < ranks(zz, g).get__(r).n; i++) {
+	    if (GD_flip(g)) v = (ST_Agnode_s) ranks(zz, g).get__(r).v.get_(i);
+	    else v = ranks(zz, g).get__(r).v.get_(ranks(zz, g).get__(r).n - i - 1);
 	    
 	    local_in_cnt = local_out_cnt = 0;
 	    for (j = 0; j < ND_flat_in(v).size; j++) {
@@ -1504,15 +1667,15 @@ try {
 		    right = right.plus_(-1);
 		}
 	    }
-	    for (i = 0; i < GD_rank(g).get__(r).n; i++) {
+	    for (i = 0; i < ranks(zz, g).get__(r).n; i++) {
 		v = temprank.get_(i);
-		GD_rank(g).get__(r).v.set_(i, v);
+		ranks(zz, g).get__(r).v.set_(i, v);
 		ND_order(v, i + base_order);
 	    }
 	    
 	    /* nonconstraint flat edges must be made LR */
-	    for (i = 0; i < GD_rank(g).get__(r).n; i++) {
-		v = GD_rank(g).get__(r).v.get_(i);
+	    for (i = 0; i < ranks(zz, g).get__(r).n; i++) {
+		v = ranks(zz, g).get__(r).v.get_(i);
 		if (ND_flat_out(v).list!=null) {
 		    for (j = 0; (e = (ST_Agedge_s) ND_flat_out(v).list.get_(j))!=null; j++) {
 			if ( ((GD_flip(g) == false) && (ND_order(aghead(e)) < ND_order(agtail(e)))) ||
@@ -1528,7 +1691,7 @@ try {
 	    /* postprocess to restore intended order */
 	}
 	/* else do no harm! */
-	GD_rank(zz.Root).get__(r).valid = 0;
+	ranks(zz, zz.Root).get__(r).valid = 0;
     }
     if (temprank!=null)
 	Memory.free(temprank);
@@ -1548,10 +1711,10 @@ try {
     boolean changed = false;
     int nelt;
     boolean muststay, sawclust;
-    CArrayOfStar<ST_Agnode_s> vlist = GD_rank(g).get__(r).v;
-    CArrayOfStar<ST_Agnode_s> lp, rp=null, ep = vlist.plus_(GD_rank(g).get__(r).n);
+    CArrayOfStar<ST_Agnode_s> vlist = ranks(zz, g).get__(r).v;
+    CArrayOfStar<ST_Agnode_s> lp, rp=null, ep = vlist.plus_(ranks(zz, g).get__(r).n);
     
-    for (nelt = GD_rank(g).get__(r).n - 1; nelt >= 0; nelt--) {
+    for (nelt = ranks(zz, g).get__(r).n - 1; nelt >= 0; nelt--) {
 	lp = vlist;
 	while (lp.comparePointer_(ep)<0) {
 	    /* find leftmost node that can be compared */
@@ -1589,9 +1752,9 @@ try {
 	    ep = ep.plus_(-1);
     }
     if (changed) {
-	GD_rank(zz.Root).get__(r).valid= 0;
+	ranks(zz, zz.Root).get__(r).valid= 0;
 	if (r > 0)
-	    GD_rank(zz.Root).get__(r - 1).valid= 0;
+	    ranks(zz, zz.Root).get__(r - 1).valid= 0;
     }
 } finally {
 LEAVING("inv6wazjcnh4xkzzphsdcmg4","reorder");
@@ -1701,41 +1864,39 @@ try {
     int top, bot, cross, max, i, k;
     ST_Agnode_s v;
     CArrayOfStar<ST_Agnode_s> rtop;
+    final int Count[];
     
     cross = 0;
     max = 0;
-    rtop = GD_rank(g).get__(r).v;
+    rtop = ranks(zz, g).get__(r).v;
     
-    if (zz.C <= GD_rank(zz.Root).get__(r + 1).n) {
-	zz.C = GD_rank(zz.Root).get__(r + 1).n + 1;
-	zz.Count = ALLOC_INT(zz.C, zz.Count);
-    }
+    Count = count(zz, ranks(zz, zz.Root).get__(r + 1).n);
     
-    for (i = 0; i < GD_rank(g).get__(r + 1).n; i++)
-    	zz.Count[i] = 0;
+    for (i = 0; i < ranks(zz, g).get__(r + 1).n; i++)
+    	Count[i] = 0;
     
-    for (top = 0; top < GD_rank(g).get__(r).n; top++) {
+    for (top = 0; top < ranks(zz, g).get__(r).n; top++) {
 	ST_Agedge_s e;
 	if (max > 0) {
 	    for (i = 0; (e = (ST_Agedge_s) ND_out(rtop.get_(top)).list.get_(i))!=null; i++) {
 		for (k = ND_order(aghead(e)) + 1; k <= max; k++)
-		    cross += zz.Count[k] * ED_xpenalty(e);
+		    cross += Count[k] * ED_xpenalty(e);
 	    }
 	}
 	for (i = 0; (e = (ST_Agedge_s) ND_out(rtop.get_(top)).list.get_(i))!=null; i++) {
 	    int inv = ND_order(aghead(e));
 	    if (inv > max)
 		max = inv;
-	    zz.Count[inv] += ED_xpenalty(e);
+	    Count[inv] += ED_xpenalty(e);
 	}
     }
-    for (top = 0; top < GD_rank(g).get__(r).n; top++) {
-	v = (ST_Agnode_s) GD_rank(g).get__(r).v.get_(top);
+    for (top = 0; top < ranks(zz, g).get__(r).n; top++) {
+	v = (ST_Agnode_s) ranks(zz, g).get__(r).v.get_(top);
 	if (ND_has_port(v))
 	    cross += local_cross(ND_out(v), 1);
     }
-    for (bot = 0; bot < GD_rank(g).get__(r + 1).n; bot++) {
-	v = (ST_Agnode_s) GD_rank(g).get__(r + 1).v.get_(bot);
+    for (bot = 0; bot < ranks(zz, g).get__(r + 1).n; bot++) {
+	v = (ST_Agnode_s) ranks(zz, g).get__(r + 1).v.get_(bot);
 	if (ND_has_port(v))
 	    cross += local_cross(ND_in(v), -1);
     }
@@ -1758,13 +1919,13 @@ try {
     g = zz.Root;
     count = 0;
     for (r = GD_minrank(g); r < GD_maxrank(g); r++) {
-	if (GD_rank(g).get__(r).valid!=0)
-	    count += GD_rank(g).get__(r).cache_nc;
+	if (ranks(zz, g).get__(r).valid!=0)
+	    count += ranks(zz, g).get__(r).cache_nc;
 	else {
 	    nc = rcross(zz, g, r);
-	    GD_rank(g).get__(r).cache_nc = nc;
+	    ranks(zz, g).get__(r).cache_nc = nc;
 	    count += nc;
-	    GD_rank(g).get__(r).valid = 1;
+	    ranks(zz, g).get__(r).valid = 1;
 	}
     }
     return count;
@@ -1850,9 +2011,9 @@ try {
     CArrayOfStar<ST_Agnode_s> v;
     ST_Agedge_s e;
     boolean hasfixed = false;
-    list = zz.TI_list;
-    v = GD_rank(g).get__(r0).v;
-    for (i = 0; i < GD_rank(g).get__(r0).n; i++) {
+    list = TI_list(zz);
+    v = ranks(zz, g).get__(r0).v;
+    for (i = 0; i < ranks(zz, g).get__(r0).n; i++) {
 	n = v.get_(i);
 	j = 0;
 	if (r1 > r0)
@@ -1895,7 +2056,7 @@ try {
 	    }
 	}
     }
-    for (i = 0; i < GD_rank(g).get__(r0).n; i++) {
+    for (i = 0; i < ranks(zz, g).get__(r0).n; i++) {
 	n = (ST_Agnode_s) v.get_(i);
 	if ((ND_out(n).size == 0) && (ND_in(n).size == 0))
 	    hasfixed |= flat_mval(n);
@@ -1991,8 +2152,8 @@ try {
     
     p = agget(zz, g, new CString("mclimit"));
     if (p!=null && ((f = atof(p)) > 0.0)) {
-UNSUPPORTED("4iu53eiz077u6joqgwawca8ya"); // 	MinQuit = ((1)>(MinQuit * f)?(1):(MinQuit * f));
-UNSUPPORTED("38po81l36cibw6jc3qlsscpcu"); // 	MaxIter = ((1)>(MaxIter * f)?(1):(MaxIter * f));
+	zz.MinQuit = (int) Math.max(1, zz.MinQuit * f);
+	zz.MaxIter = (int) Math.max(1, zz.MaxIter * f);
     }   
 } finally {
 LEAVING("7ru09oqbudpeofsthzveig2m2","mincross_options");
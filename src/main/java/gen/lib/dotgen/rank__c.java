@@ -49,6 +49,7 @@ import static gen.lib.cgraph.edge__c.agfstout;
 import static gen.lib.cgraph.edge__c.aghead;
 import static gen.lib.cgraph.edge__c.agnxtout;
 import static gen.lib.cgraph.edge__c.agsubedge;
+import static gen.lib.cgraph.graph__c.agnnodes;
 import static gen.lib.cgraph.id__c.agnameof;
 import static gen.lib.cgraph.node__c.agfstnode;
 import static gen.lib.cgraph.node__c.agnxtnode;
@@ -67,6 +68,7 @@ import static gen.lib.dotgen.aspect__c.rank3;
 import static gen.lib.dotgen.class1__c.class1_;
 import static gen.lib.dotgen.decomp__c.decompose;
 import static gen.lib.dotgen.dotinit__c.dot_root;
+import static smetana.core.JUtils.atof;
 import static smetana.core.JUtils.strncmp;
 import static smetana.core.Macro.CLUSTER;
 import static smetana.core.Macro.EDGE_LABEL;
@@ -588,8 +590,9 @@ try {
     int c;
     CString s;
     
+    // At least one iteration, else the ranks are not normalized
     if ((s = agget(zz, g, new CString("nslimit1")))!=null)
-    UNSUPPORTED("9tp2zk1tsr4ce9rwsr0is9u3o"); // 	maxiter = atof(s) * agnnodes(g);
+	maxiter = (int) Math.max(1, atof(s) * agnnodes(g));
     for (c = 0; c < GD_comp(g).size; c++) {
 	GD_nlist(g, GD_comp(g).list.get_(c));
 	rank(zz, g, (GD_n_cluster(g) == 0 ? 1 : 0), maxiter);	/* TB balance */
@@ -55,6 +55,7 @@ import net.sourceforge.plantuml.abel.Bag;
 import net.sourceforge.plantuml.abel.Entity;
 import net.sourceforge.plantuml.abel.EntityFactory;
 import net.sourceforge.plantuml.abel.EntityGender;
+import net.sourceforge.plantuml.abel.EntityPosition;
 import net.sourceforge.plantuml.abel.EntityPortion;
 import net.sourceforge.plantuml.abel.GroupType;
 import net.sourceforge.plantuml.abel.LeafType;
@@ -935,6 +936,20 @@ public abstract class CucaDiagram extends UmlDiagram implements GroupHierarchy,
 		return this.namespace.countByName(full);
 	}
 
+	@Override
+	public boolean canUseDisplayList() {
+		if (this.isUseSmetana() == false)
+			return true;
+
+		// Smetana computes the frontiers of the clusters having entry/exit points
+		// while drawing
+		for (Entity leaf : leafs())
+			if (leaf.getEntityPosition() != EntityPosition.NORMAL)
+				return false;
+
+		return true;
+	}
+
 	@Override
 	public final InstallationRequirement getInstallationRequirement() {
 		if (this.isUseElk())
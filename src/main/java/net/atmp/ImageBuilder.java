@@ -54,6 +54,7 @@ import net.sourceforge.plantuml.EmptyImageBuilder;
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.FileFormatOption;
 import net.sourceforge.plantuml.Scale;
+import net.sourceforge.plantuml.SharedLayout;
 import net.sourceforge.plantuml.TitledDiagram;
 import net.sourceforge.plantuml.api.ImageDataComplex;
 import net.sourceforge.plantuml.api.ImageDataSimple;
@@ -69,6 +70,7 @@ import net.sourceforge.plantuml.klimt.color.HColorGradient;
 import net.sourceforge.plantuml.klimt.color.HColorSet;
 import net.sourceforge.plantuml.klimt.color.HColorSimple;
 import net.sourceforge.plantuml.klimt.color.HColors;
+import net.sourceforge.plantuml.klimt.drawing.DisplayList;
 import net.sourceforge.plantuml.klimt.drawing.LimitFinder;
 import net.sourceforge.plantuml.klimt.drawing.UGraphic;
 import net.sourceforge.plantuml.klimt.drawing.debug.UGraphicDebug;
@@ -116,6 +118,7 @@ public class ImageBuilder {
 	private HColor backcolor = getDefaultHBackColor();
 
 	private XDimension2D dimension;
+	private boolean displayList;
 	private final FileFormatOption fileFormatOption;
 	private UDrawable udrawable;
 	private ClockwiseTopRightBottomLeft margin = ClockwiseTopRightBottomLeft.none();
@@ -161,6 +164,17 @@ public class ImageBuilder {
 		return this;
 	}
 
+	/**
+	 * Draws the drawable only once, into a {@link DisplayList} which is then used
+	 * both to compute the dimension and to draw the image. Only PNG and SVG are
+	 * supported, other formats ignore this setting, as well as the diagrams which
+	 * cannot be recorded (see {@link TitledDiagram#canUseDisplayList()}).
+	 */
+	public ImageBuilder displayList(boolean displayList) {
+		this.displayList = displayList;
+		return this;
+	}
+
 	private int getDpi() {
 		return skinParam == null ? 96 : skinParam.getDpi();
 	}
@@ -227,6 +241,38 @@ public class ImageBuilder {
 		return this;
 	}
 
+	/**
+	 * Reuses the drawable, and the dimension, of an image already written in
+	 * another format, so that the diagram is not laid out again.
+	 * 
+	 * @see SharedLayout
+	 */
+	public ImageBuilder sameLayoutAs(ImageBuilder other) {
+		this.annotations = false;
+		this.backcolor = other.backcolor;
+		this.dimension = other.dimension;
+		this.udrawable = other.udrawable;
+		this.margin = other.margin;
+		this.metadata = fileFormatOption.isWithMetadata() ? other.getMetadata() : null;
+		this.seed = other.seed;
+		this.skinParam = other.skinParam;
+		this.stringBounder = skinParam == null ? fileFormatOption.getDefaultStringBounder(SvgCharSizeHack.NO_HACK)
+				: fileFormatOption.getDefaultStringBounder(skinParam);
+		this.status = other.status;
+		this.diagram = other.diagram;
+		this.randomPixel = other.randomPixel;
+		this.warningOrError = other.warningOrError;
+		this.warnings.addAll(other.warnings);
+		return this;
+	}
+
+	private String getMetadata() {
+		if (metadata == null && diagram != null)
+			return diagram.getMetadata();
+
+		return metadata;
+	}
+
 	public ImageData write(OutputStream os) throws IOException {
 		if (annotations && diagram != null) {
 			if (!(udrawable instanceof TextBlock))
@@ -247,7 +293,9 @@ public class ImageBuilder {
 	}
 
 	private ImageData writeImageInternal(OutputStream os) throws IOException {
-		XDimension2D dim = getFinalDimension();
+		final UDrawable drawable = useDisplayList() ? recordDisplayList() : udrawable;
+
+		XDimension2D dim = getFinalDimension(drawable);
 		XDimension2D dimWarning = null;
 		if (warnings.size() > 0) {
 			dimWarning = getWarningDimension(fileFormatOption.getFileFormat().getDefaultStringBounder());
@@ -272,11 +320,14 @@ public class ImageBuilder {
 			drawRandomPoint(ug);
 
 		ug = handwritten(ug.apply(new UTranslate(margin.getLeft(), margin.getTop())));
-		udrawable.drawU(ug);
+		drawable.drawU(ug);
 		ug.flushUg();
 		ug.writeToStream(os, metadata, 96);
 		os.flush();
 
+		if (fileFormatOption.getSharedLayout() != null)
+			fileFormatOption.getSharedLayout().keep(os, this);
+
 		if (ug instanceof UGraphicG2d) {
 			final Set<Url> urls = ((UGraphicG2d) ug).getAllUrlsEncountered();
 			if (urls.size() > 0) {
@@ -355,10 +406,31 @@ public class ImageBuilder {
 		ug2.apply(color).apply(color.bg()).draw(URectangle.build(1, 1));
 	}
 
-	private XDimension2D getFinalDimension() {
+	private boolean useDisplayList() {
+		if (dimension != null || udrawable instanceof DisplayList)
+			return false;
+
+		if (diagram != null && diagram.canUseDisplayList() == false)
+			return false;
+
+		final FileFormat format = fileFormatOption.getFileFormat();
+		if (format != FileFormat.PNG && format != FileFormat.SVG)
+			return false;
+
+		return displayList || (diagram != null && diagram.getPragma().isTrue(PragmaKey.DISPLAY_LIST));
+	}
+
+	private DisplayList recordDisplayList() {
+		// The recording must see what the final UGraphic would answer
+		final String[] properties = fileFormatOption.getFileFormat() == FileFormat.SVG ? new String[] { "SVG" }
+				: new String[0];
+		return DisplayList.record(udrawable, stringBounder, fileFormatOption.getColorMapper(), backcolor, properties);
+	}
+
+	private XDimension2D getFinalDimension(UDrawable drawable) {
 		if (dimension == null) {
 			final LimitFinder limitFinder = LimitFinder.create(stringBounder, true);
-			udrawable.drawU(limitFinder);
+			drawable.drawU(limitFinder);
 			dimension = new XDimension2D(limitFinder.getMaxX() + 1 + margin.getLeft() + margin.getRight(),
 					limitFinder.getMaxY() + 1 + margin.getTop() + margin.getBottom());
 		}
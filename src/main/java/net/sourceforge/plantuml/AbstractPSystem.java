@@ -97,6 +97,7 @@ public abstract class AbstractPSystem implements Diagram, WarningHandler {
 
 	private String namespaceSeparator = null;
 	private final PreprocessingArtifact preprocessing;
+	private SharedLayout sharedLayout;
 
 	public void setNamespaceSeparator(String namespaceSeparator) {
 		this.namespaceSeparator = namespaceSeparator;
@@ -210,6 +211,9 @@ public abstract class AbstractPSystem implements Diagram, WarningHandler {
 			throws IOException {
 		final long now = System.currentTimeMillis();
 		try {
+			if (sharedLayout != null && canShareLayout())
+				return exportDiagramShared(os, index, fileFormatOption);
+
 //			if (this instanceof TitledDiagram) {
 //				final TitledDiagram titledDiagram = (TitledDiagram) this;
 //				final StyleBuilder styleBuilder = titledDiagram.getCurrentStyleBuilder();
@@ -228,6 +232,34 @@ public abstract class AbstractPSystem implements Diagram, WarningHandler {
 		}
 	}
 
+	private ImageData exportDiagramShared(OutputStream os, int index, FileFormatOption fileFormatOption)
+			throws IOException {
+		final ImageBuilder layout = sharedLayout.getLayout(index, fileFormatOption.getFileFormat());
+		if (layout != null)
+			return createImageBuilder(fileFormatOption).sameLayoutAs(layout).write(os);
+
+		final ImageData result = exportDiagramNow(os, index, sharedLayout.startExport(os, index, fileFormatOption));
+		if (result.getStatus() != 0)
+			sharedLayout.forget(index);
+
+		return result;
+	}
+
+	/**
+	 * Tells if the drawing of this diagram can be done again for another format,
+	 * without laying out the diagram again.
+	 * 
+	 * @see SharedLayout
+	 */
+	protected boolean canShareLayout() {
+		return true;
+	}
+
+	final void enableSharedLayout() {
+		if (sharedLayout == null)
+			sharedLayout = new SharedLayout();
+	}
+
 	final public void setScale(Scale scale) {
 		this.scale = scale;
 	}
@@ -35,15 +35,11 @@
  */
 package net.sourceforge.plantuml;
 
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
-import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 import net.sourceforge.plantuml.braille.BrailleCharFactory;
@@ -54,11 +50,13 @@ import net.sourceforge.plantuml.klimt.drawing.debug.StringBounderDebug;
 import net.sourceforge.plantuml.klimt.drawing.svg.SvgGraphics;
 import net.sourceforge.plantuml.klimt.font.StringBounder;
 import net.sourceforge.plantuml.klimt.font.StringBounderRaw;
+import net.sourceforge.plantuml.klimt.font.TextMeasureCache;
 import net.sourceforge.plantuml.klimt.font.UFont;
 import net.sourceforge.plantuml.klimt.geom.XDimension2D;
 import net.sourceforge.plantuml.log.Logme;
 import net.sourceforge.plantuml.png.MetadataTag;
 import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.security.SecurityUtils;
 import net.sourceforge.plantuml.text.SvgCharSizeHack;
 
 /**
@@ -211,55 +209,22 @@ public enum FileFormat {
 		};
 	}
 
-	private static final int CACHE_SIZE = 10_000;
+	private static final TextMeasureCache DIMENSION_CACHE = new TextMeasureCache(getenvTextCacheSize());
 
-	private static final Map<FontTextKey, XDimension2D> DIMENSION_CACHE = new LinkedHashMap<FontTextKey, XDimension2D>(
-			CACHE_SIZE, 0.75f, true) {
-		@Override
-		protected boolean removeEldestEntry(Map.Entry<FontTextKey, XDimension2D> eldest) {
-			return size() > CACHE_SIZE;
-		}
-	};
-
-	private static class FontTextKey {
-		private final UFont font;
-		private final String text;
-
-		FontTextKey(UFont font, String text) {
-			this.font = font;
-			this.text = text;
-		}
+	private static int getenvTextCacheSize() {
+		final String env = SecurityUtils.getenv("PLANTUML_TEXT_CACHE_SIZE");
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+"))
+			return Integer.parseInt(env);
 
-		@Override
-		public boolean equals(Object obj) {
-			final FontTextKey other = (FontTextKey) obj;
-			return font.equals(other.font) && text.equals(other.text);
-		}
+		return 10_000;
+	}
 
-		@Override
-		public int hashCode() {
-			return font.hashCode() * 31 + text.hashCode();
-		}
+	public static TextMeasureCache getDimensionCache() {
+		return DIMENSION_CACHE;
 	}
 
 	static private XDimension2D getJavaDimension(UFont font, String text) {
-		if (text.length() == 0)
-			return new XDimension2D(0, 0);
-
-		final FontTextKey key = new FontTextKey(font, text);
-
-		synchronized (DIMENSION_CACHE) {
-			XDimension2D cached = DIMENSION_CACHE.get(key);
-			if (cached != null)
-				return cached;
-
-			final Font javaFont = font.getUnderlayingFont(text);
-			final FontMetrics fm = gg.getFontMetrics(javaFont);
-			final Rectangle2D rect = fm.getStringBounds(text, gg);
-			final XDimension2D result = new XDimension2D(rect.getWidth(), rect.getHeight());
-			DIMENSION_CACHE.put(key, result);
-			return result;
-		}
+		return DIMENSION_CACHE.getDimension(font, text);
 	}
 
 	// ::comment when __CORE__
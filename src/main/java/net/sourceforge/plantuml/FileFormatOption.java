@@ -64,6 +64,7 @@ public final class FileFormatOption implements Serializable {
 	private final String preserveAspectRatio;
 	private final String watermark;
 	private final ColorMapper colorMapper;
+	private final transient SharedLayout.Page sharedLayout;
 
 	public double getScaleCoef() {
 		return scale;
@@ -71,17 +72,17 @@ public final class FileFormatOption implements Serializable {
 
 	public FileFormatOption(FileFormat fileFormat) {
 		this(fileFormat, true, false, null, false, null, TikzFontDistortion.getDefault(), 1.0, null, null,
-				ColorMapper.IDENTITY);
+				ColorMapper.IDENTITY, null);
 	}
 
 	public FileFormatOption(FileFormat fileFormat, boolean withMetadata) {
 		this(fileFormat, withMetadata, false, null, false, null, TikzFontDistortion.getDefault(), 1.0, null, null,
-				ColorMapper.IDENTITY);
+				ColorMapper.IDENTITY, null);
 	}
 
 	private FileFormatOption(FileFormat fileFormat, boolean withMetadata, boolean useRedForError, String svgLinkTarget,
 			boolean debugsvek, String hoverColor, TikzFontDistortion tikzFontDistortion, double scale,
-			String preserveAspectRatio, String watermark, ColorMapper colorMapper) {
+			String preserveAspectRatio, String watermark, ColorMapper colorMapper, SharedLayout.Page sharedLayout) {
 		this.hoverColor = hoverColor;
 		this.watermark = watermark;
 		this.fileFormat = fileFormat;
@@ -93,10 +94,15 @@ public final class FileFormatOption implements Serializable {
 		this.scale = scale;
 		this.preserveAspectRatio = preserveAspectRatio;
 		this.colorMapper = colorMapper;
+		this.sharedLayout = sharedLayout;
 	}
 
 	public StringBounder getDefaultStringBounder(SvgCharSizeHack charSizeHack) {
-		return fileFormat.getDefaultStringBounder(tikzFontDistortion, charSizeHack);
+		final StringBounder result = fileFormat.getDefaultStringBounder(tikzFontDistortion, charSizeHack);
+		if (sharedLayout != null)
+			return sharedLayout.probe(result, tikzFontDistortion, charSizeHack);
+
+		return result;
 	}
 
 	public String getSvgLinkTarget() {
@@ -113,42 +119,47 @@ public final class FileFormatOption implements Serializable {
 
 	public FileFormatOption withUseRedForError() {
 		return new FileFormatOption(fileFormat, withMetadata, true, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withTikzFontDistortion(TikzFontDistortion tikzFontDistortion) {
 		return new FileFormatOption(fileFormat, withMetadata, true, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withSvgLinkTarget(String svgLinkTarget) {
 		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withPreserveAspectRatio(String preserveAspectRatio) {
 		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withHoverColor(String hoverColor) {
 		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withScale(double scale) {
 		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withWartermark(String watermark) {
 		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	public FileFormatOption withColorMapper(ColorMapper colorMapper) {
 		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
-				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper);
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
+	}
+
+	FileFormatOption withSharedLayout(SharedLayout.Page sharedLayout) {
+		return new FileFormatOption(fileFormat, withMetadata, useRedForError, svgLinkTarget, debugsvek, hoverColor,
+				tikzFontDistortion, scale, preserveAspectRatio, watermark, colorMapper, sharedLayout);
 	}
 
 	@Override
@@ -200,4 +211,8 @@ public final class FileFormatOption implements Serializable {
 		return colorMapper;
 	}
 
+	public SharedLayout.Page getSharedLayout() {
+		return sharedLayout;
+	}
+
 }
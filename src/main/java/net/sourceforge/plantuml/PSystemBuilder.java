@@ -117,7 +117,8 @@ import net.sourceforge.plantuml.yaml.YamlDiagramFactory;
  *
  * <p>
  * Tries each of the factories (enumerated in the static block below) until one
- * succeeds.
+ * succeeds. For <code>@startuml</code> sources, the factory guessed by
+ * {@link PSystemFactoryClassifier} is tried first.
  *
  * @see AbstractPSystem
  */
@@ -153,13 +154,30 @@ public class PSystemBuilder {
 			if (diagramType == DiagramType.UNKNOWN)
 				return new PSystemUnsupported(umlSource, preprocessing);
 
+			final PSystemFactory guessed = diagramType == DiagramType.UML ? getGuessedFactory(source) : null;
+			PSystemError guessedError = null;
+			if (guessed != null) {
+				final Diagram sys = createSystem(guessed, umlSource, previous, preprocessing);
+				if (isOk(sys)) {
+					result = sys;
+					return sys;
+				}
+				guessedError = (PSystemError) sys;
+			}
+
 			final List<PSystemError> errors = new ArrayList<>();
 			for (PSystemFactory systemFactory : factories) {
 				if (diagramType != systemFactory.getDiagramType())
 					continue;
 
+				// Keep errors in the usual order, so that merging gives the same result
+				if (systemFactory == guessed) {
+					errors.add(guessedError);
+					continue;
+				}
+
 				// WasmLog.log("...trying " + systemFactory.getClass().getName() + " ...");
-				final Diagram sys = systemFactory.createSystem(umlSource, previous, preprocessing);
+				final Diagram sys = createSystem(systemFactory, umlSource, previous, preprocessing);
 				if (isOk(sys)) {
 					result = sys;
 					return sys;
@@ -183,6 +201,30 @@ public class PSystemBuilder {
 		}
 	}
 
+	private Diagram createSystem(PSystemFactory systemFactory, UmlSource umlSource, Previous previous,
+			PreprocessingArtifact preprocessing) {
+		final long now = System.currentTimeMillis();
+		final Diagram sys = systemFactory.createSystem(umlSource, previous, preprocessing);
+		// ::comment when __CORE__
+		if (GlobalConfig.getInstance().boolValue(GlobalConfigKey.ENABLE_STATS))
+			StatsUtilsIncrement.onceMoreFactoryParse(System.currentTimeMillis() - now, systemFactory.getClass(),
+					isOk(sys));
+		// ::done
+		return sys;
+	}
+
+	private static PSystemFactory getGuessedFactory(List<StringLocated> source) {
+		final Class<? extends PSystemFactory> type = PSystemFactoryClassifier.classify(source);
+		if (type == null)
+			return null;
+
+		for (PSystemFactory systemFactory : factories)
+			if (systemFactory.getClass() == type && systemFactory.getDiagramType() == DiagramType.UML)
+				return systemFactory;
+
+		return null;
+	}
+
 	private static final List<PSystemFactory> factories = new ArrayList<>();
 
 	static {
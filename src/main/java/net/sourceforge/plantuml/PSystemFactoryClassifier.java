@@ -0,0 +1,161 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.plantuml.activitydiagram.ActivityDiagramFactory;
+import net.sourceforge.plantuml.activitydiagram3.ActivityDiagramFactory3;
+import net.sourceforge.plantuml.api.PSystemFactory;
+import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.descdiagram.DescriptionDiagramFactory;
+import net.sourceforge.plantuml.statediagram.StateDiagramFactory;
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.timingdiagram.TimingDiagramFactory;
+
+/**
+ * Cheap pre-classification of a <code>@startuml</code> source.
+ *
+ * <p>
+ * The first significant lines of the source are scored against a small index
+ * of leading keywords. A keyword is only indexed for a factory when no factory
+ * tried before it in {@link PSystemBuilder} accepts a line starting with this
+ * keyword: so if the guessed factory succeeds, it is also the factory that the
+ * exhaustive loop would have selected.
+ */
+class PSystemFactoryClassifier {
+	// ::remove file when __HAXE__
+
+	private static final int MAX_LINES = 100;
+
+	private static final Map<String, Class<? extends PSystemFactory>> KEYWORDS = new HashMap<>();
+
+	static {
+		add(ClassDiagramFactory.class, "class", "interface", "abstract", "enum", "annotation");
+		add(ActivityDiagramFactory.class, "(*)");
+		add(DescriptionDiagramFactory.class, "usecase", "component", "node", "artifact", "cloud", "folder", "storage",
+				"agent", "hexagon", "person");
+		add(StateDiagramFactory.class, "state", "[*]");
+		add(ActivityDiagramFactory3.class, "start", "stop", "endwhile", "fork", "repeat", "detach", "kill");
+		add(TimingDiagramFactory.class, "robust", "concise", "clock", "binary");
+	}
+
+	private static void add(Class<? extends PSystemFactory> factory, String... keywords) {
+		for (String keyword : keywords)
+			KEYWORDS.put(keyword, factory);
+	}
+
+	/**
+	 * Guess the factory to try first.
+	 *
+	 * @return the factory class or <code>null</code> if nothing can be guessed.
+	 */
+	static Class<? extends PSystemFactory> classify(List<StringLocated> source) {
+		final Map<Class<? extends PSystemFactory>, Integer> scores = new HashMap<>();
+		int nb = 0;
+		// Skip @startuml
+		for (int i = 1; i < source.size() && nb < MAX_LINES; i++) {
+			final String line = source.get(i).getTrimmed().getString();
+			if (isSignificant(line) == false)
+				continue;
+
+			nb++;
+			final String token = StringUtils.goLowerCase(firstToken(line));
+			if (token.equals("allowmixing") || token.equals("allow_mixing"))
+				return null;
+
+			Class<? extends PSystemFactory> factory = KEYWORDS.get(token);
+			if (factory == null && line.length() > 2 && line.charAt(0) == ':' && line.endsWith(";"))
+				factory = ActivityDiagramFactory3.class;
+
+			// Containers and multiline elements are also accepted by class diagrams
+			if (factory != null && factory != ClassDiagramFactory.class && isBlockStart(line))
+				factory = null;
+
+			if (factory != null)
+				scores.merge(factory, 1, Integer::sum);
+		}
+		return best(scores);
+	}
+
+	private static Class<? extends PSystemFactory> best(Map<Class<? extends PSystemFactory>, Integer> scores) {
+		Class<? extends PSystemFactory> result = null;
+		int bestScore = 0;
+		boolean tie = false;
+		for (Map.Entry<Class<? extends PSystemFactory>, Integer> ent : scores.entrySet()) {
+			final int score = ent.getValue();
+			if (score > bestScore) {
+				bestScore = score;
+				result = ent.getKey();
+				tie = false;
+			} else if (score == bestScore) {
+				tie = true;
+			}
+		}
+		if (tie)
+			return null;
+
+		return result;
+	}
+
+	private static boolean isSignificant(String line) {
+		if (line.length() == 0 || line.startsWith("'") || line.startsWith("@"))
+			return false;
+
+		return true;
+	}
+
+	private static boolean isBlockStart(String line) {
+		return line.contains("{") || line.endsWith("[");
+	}
+
+	private static String firstToken(String line) {
+		if (line.startsWith("(*)"))
+			return "(*)";
+
+		if (line.startsWith("[*]"))
+			return "[*]";
+
+		int i = 0;
+		while (i < line.length() && Character.isLetter(line.charAt(i)))
+			i++;
+
+		return line.substring(0, i);
+	}
+
+}
@@ -103,27 +103,63 @@ public class PSystemUtils {
 		final List<FileImageData> result = new ArrayList<>();
 		final int nbImages = system.getNbImages();
 		for (int i = 0; i < nbImages; i++) {
-
-			final SFile f = suggestedFile.getFile(i);
-			if (canFileBeWritten(f) == false)
+			final FileImageData page = exportNewpagedPage(system, suggestedFile, i, fileFormat);
+			if (page == null)
 				return result;
 
-			final OutputStream fos = f.createBufferedOutputStream();
-			ImageData cmap = null;
-			try {
-				system.exportDiagram(fos, i, fileFormat);
-			} finally {
-				fos.close();
-			}
-			// if (system.hasUrl() && cmap != null && cmap.containsCMapData()) {
-			// system.exportCmap(suggestedFile, cmap);
-			// }
-			Log.info(() -> "File size : " + f.length());
-			result.add(new FileImageData(f, cmap));
+			result.add(page);
 		}
 		return result;
 	}
 
+	/**
+	 * Exports a single page of a diagram containing <code>newpage</code>. Each
+	 * page is a diagram of its own, so several pages can be exported at the same
+	 * time.
+	 *
+	 * @return <code>null</code> if the file cannot be written.
+	 */
+	public static FileImageData exportNewpagedPage(NewpagedDiagram system, SuggestedFile suggestedFile, int i,
+			FileFormatOption fileFormat) throws IOException {
+		final SFile f = suggestedFile.getFile(i);
+		if (canFileBeWritten(f) == false)
+			return null;
+
+		final OutputStream fos = f.createBufferedOutputStream();
+		ImageData cmap = null;
+		try {
+			system.exportDiagram(fos, i, fileFormat);
+		} finally {
+			fos.close();
+		}
+		// if (system.hasUrl() && cmap != null && cmap.containsCMapData()) {
+		// system.exportCmap(suggestedFile, cmap);
+		// }
+		Log.info(() -> "File size : " + f.length());
+		return new FileImageData(f, cmap);
+	}
+
+	/**
+	 * Returns the number of files generated by
+	 * {@link #exportDiagrams(Diagram, SuggestedFile, FileFormatOption, boolean)}
+	 * when metadata are not checked, or -1 if it is only known after the export.
+	 */
+	public static int getNbFiles(Diagram system, FileFormatOption fileFormatOption) {
+		if (system instanceof NewpagedDiagram || system instanceof SequenceDiagram)
+			return system.getNbImages();
+
+		// ::comment when __CORE__
+		if (system instanceof CucaDiagram && fileFormatOption.getFileFormat() == FileFormat.HTML)
+			return -1;
+		// ::done
+
+		if (system instanceof TitledDiagram && fileFormatOption.getFileFormat() == FileFormat.PNG
+				&& (system.getSplitPagesHorizontal() > 1 || system.getSplitPagesVertical() > 1))
+			return -1;
+
+		return 1;
+	}
+
 	public static boolean canFileBeWritten(SFile f) {
 		Log.info(() -> "Creating file: " + f.getAbsolutePath());
 		if (f.exists() && f.canWrite() == false) {
@@ -42,11 +42,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,6 +66,7 @@ import net.sourceforge.plantuml.core.DiagramDescription;
 import net.sourceforge.plantuml.error.PSystemError;
 import net.sourceforge.plantuml.preproc.Defines;
 import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.utils.Log;
 
 public class Pipe {
 	// ::remove file when __CORE__
@@ -81,34 +90,96 @@ public class Pipe {
 	}
 
 	public void managePipe(ErrorStatus error) throws IOException {
-		final boolean noStdErr = option.isTrue(CliFlag.PIPENOSTDERR);
+		final int nbThreads = option.getNbThreads();
+		if (option.getString(CliFlag.NB_THREAD) != null && nbThreads > 1) {
+			managePipeInParallel(error, nbThreads);
+			return;
+		}
 
 		for (String source = readFirstDiagram(); source != null; source = readSubsequentDiagram()) {
-			final Defines defines = option.getDefaultDefines();
-			final SFile newCurrentDir = option.getFileDir() == null ? null : new SFile(option.getFileDir());
-			final SourceStringReader sourceStringReader = new SourceStringReader(defines, source, UTF_8,
-					option.getConfig(), newCurrentDir);
-
-			if (option.isTrue(CliFlag.COMPUTE_URL))
-				computeUrlForDiagram(sourceStringReader);
-			else if (option.isTrue(CliFlag.SYNTAX))
-				syntaxCheckDiagram(sourceStringReader, error);
-			else if (option.isTrue(CliFlag.PIPEMAP))
-				createPipeMapForDiagram(sourceStringReader, error);
-			else
-				generateDiagram(sourceStringReader, error, noStdErr);
-
+			manageDiagram(source, option.getFileFormatOption(), ps, System.err, error);
 			ps.flush();
 		}
 	}
 
-	private void generateDiagram(SourceStringReader sourceStringReader, ErrorStatus error, boolean noStdErr)
-			throws IOException {
+	/**
+	 * Diagrams are read ahead and rendered by several threads. Each rendering
+	 * writes into its own buffers, which are copied to the output in the order of
+	 * the input, as soon as all the previous diagrams have been written.
+	 */
+	private void managePipeInParallel(ErrorStatus error, int nbThreads) throws IOException {
+		Log.info(() -> "Using several threads: " + nbThreads);
+		final ExecutorService executor = Executors.newFixedThreadPool(nbThreads);
+		final BlockingQueue<Future<PipeResult>> pending = new ArrayBlockingQueue<>(2 * nbThreads);
+		final Thread reader = new Thread(() -> readAhead(executor, pending), "Pipe-reader");
+		reader.setDaemon(true);
+		reader.start();
+		try {
+			PipeResult result;
+			while ((result = pending.take().get()) != PipeResult.END) {
+				result.writeTo(ps, System.err, error);
+				ps.flush();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			reader.interrupt();
+			executor.shutdownNow();
+		}
+	}
+
+	private void readAhead(ExecutorService executor, BlockingQueue<Future<PipeResult>> pending) {
+		try {
+			try {
+				for (String source = readFirstDiagram(); source != null; source = readSubsequentDiagram()) {
+					// @@@format lines change the format of the following diagrams only
+					final String current = source;
+					final FileFormatOption fileFormatOption = option.getFileFormatOption();
+					pending.put(executor.submit(() -> PipeResult.render(this, current, fileFormatOption)));
+				}
+				pending.put(CompletableFuture.completedFuture(PipeResult.END));
+			} catch (IOException e) {
+				final CompletableFuture<PipeResult> failed = new CompletableFuture<>();
+				failed.completeExceptionally(e);
+				pending.put(failed);
+			}
+		} catch (InterruptedException e) {
+			// The output has been stopped
+		}
+	}
+
+	private void manageDiagram(String source, FileFormatOption fileFormatOption, PrintStream out, PrintStream err,
+			ErrorStatus error) throws IOException {
+		final Defines defines = option.getDefaultDefines();
+		final SFile newCurrentDir = option.getFileDir() == null ? null : new SFile(option.getFileDir());
+		final SourceStringReader sourceStringReader = new SourceStringReader(defines, source, UTF_8,
+				option.getConfig(), newCurrentDir);
+
+		if (option.isTrue(CliFlag.COMPUTE_URL))
+			computeUrlForDiagram(sourceStringReader, out);
+		else if (option.isTrue(CliFlag.SYNTAX))
+			syntaxCheckDiagram(sourceStringReader, out, error);
+		else if (option.isTrue(CliFlag.PIPEMAP))
+			createPipeMapForDiagram(sourceStringReader, out, error);
+		else
+			generateDiagram(sourceStringReader, fileFormatOption, out, err, error);
+	}
+
+	private void generateDiagram(SourceStringReader sourceStringReader, FileFormatOption fileFormatOption,
+			PrintStream ps, PrintStream err, ErrorStatus error) throws IOException {
+		final boolean noStdErr = option.isTrue(CliFlag.PIPENOSTDERR);
 		final OutputStream os = noStdErr ? new ByteArrayOutputStream() : ps;
 		final DiagramDescription result = sourceStringReader.outputImage(os, option.getImageIndex(),
-				option.getFileFormatOption());
+				fileFormatOption);
 
-		printInfo(noStdErr ? ps : System.err, sourceStringReader);
+		printInfo(noStdErr ? ps : err, sourceStringReader);
 		if (result != null && "(error)".equalsIgnoreCase(result.getDescription())) {
 			error.incError();
 		} else {
@@ -124,7 +195,8 @@ public class Pipe {
 
 	}
 
-	private void createPipeMapForDiagram(SourceStringReader sourceStringReader, ErrorStatus error) throws IOException {
+	private void createPipeMapForDiagram(SourceStringReader sourceStringReader, PrintStream ps, ErrorStatus error)
+			throws IOException {
 		final String result = sourceStringReader.getCMapData(option.getImageIndex(),
 				new FileFormatOption(FileFormat.PNG));
 		// https://forum.plantuml.net/10049/2019-pipemap-diagrams-containing-links-give-zero-exit-code
@@ -139,13 +211,13 @@ public class Pipe {
 
 	}
 
-	private void computeUrlForDiagram(SourceStringReader sourceStringReader) throws IOException {
+	private void computeUrlForDiagram(SourceStringReader sourceStringReader, PrintStream ps) throws IOException {
 		for (BlockUml s : sourceStringReader.getBlocks())
 			ps.println(s.getEncodedUrl());
 
 	}
 
-	private void syntaxCheckDiagram(SourceStringReader sourceStringReader, ErrorStatus error) {
+	private void syntaxCheckDiagram(SourceStringReader sourceStringReader, PrintStream ps, ErrorStatus error) {
 		final Diagram system = sourceStringReader.getBlocks().get(0).getDiagram();
 		if (system instanceof UmlDiagram) {
 			error.incOk();
@@ -237,6 +309,42 @@ public class Pipe {
 			option.setFileFormatOption(new FileFormatOption(FileFormat.UTXT));
 	}
 
+	/**
+	 * Output of one diagram rendered in parallel, waiting for its turn to be
+	 * written.
+	 */
+	static class PipeResult {
+
+		static final PipeResult END = new PipeResult();
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		private final ErrorStatus status = ErrorStatus.init();
+
+		static PipeResult render(Pipe pipe, String source, FileFormatOption fileFormatOption) throws IOException {
+			final PipeResult result = new PipeResult();
+			final PrintStream out = new PrintStream(result.out);
+			final PrintStream err = new PrintStream(result.err);
+			pipe.manageDiagram(source, fileFormatOption, out, err, result.status);
+			out.flush();
+			err.flush();
+			return result;
+		}
+
+		void writeTo(PrintStream ps, PrintStream stderr, ErrorStatus error) throws IOException {
+			if (err.size() > 0) {
+				err.writeTo(stderr);
+				stderr.flush();
+			}
+			out.writeTo(ps);
+			// Each diagram is counted at most once
+			if (status.hasError())
+				error.incError();
+			else if (status.isEmpty() == false)
+				error.incOk();
+		}
+	}
+
 	enum State {
 		NO_CONTENT, START_MARK_NOT_FOUND, START_MARK_FOUND, COMPLETE
 	}
@@ -47,14 +47,16 @@ import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.UIManager;
 
+import net.sourceforge.plantuml.api.NumberAnalyzed;
 import net.sourceforge.plantuml.cli.CliAction;
 import net.sourceforge.plantuml.cli.CliFlag;
 import net.sourceforge.plantuml.cli.CliOptions;
@@ -66,10 +68,13 @@ import net.sourceforge.plantuml.cli.GlobalConfigKey;
 import net.sourceforge.plantuml.code.NoPlantumlCompressionException;
 import net.sourceforge.plantuml.code.Transcoder;
 import net.sourceforge.plantuml.code.TranscoderUtil;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.dot.DotProcessPool;
 import net.sourceforge.plantuml.dot.GraphvizRuntimeEnvironment;
 import net.sourceforge.plantuml.file.FileGroup;
 import net.sourceforge.plantuml.file.SuggestedFile;
 import net.sourceforge.plantuml.ftp.FtpServer;
+import net.sourceforge.plantuml.klimt.creole.SheetCache;
 import net.sourceforge.plantuml.klimt.drawing.svg.SvgGraphics;
 import net.sourceforge.plantuml.klimt.sprite.SpriteGrayLevel;
 import net.sourceforge.plantuml.klimt.sprite.SpriteUtils;
@@ -79,6 +84,7 @@ import net.sourceforge.plantuml.png.MetadataTag;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.security.SImageIO;
 import net.sourceforge.plantuml.security.SecurityUtils;
+import net.sourceforge.plantuml.stats.StatsUtils;
 import net.sourceforge.plantuml.swing.MainWindow;
 import net.sourceforge.plantuml.syntax.LanguageDescriptor;
 import net.sourceforge.plantuml.utils.Obfuscate;
@@ -127,6 +133,20 @@ public class Run {
 			if (timeout != null && timeout.matches("\\d+"))
 				GlobalConfig.getInstance().put(GlobalConfigKey.TIMEOUT_MS, Integer.parseInt(timeout) * 1000L);
 
+			final String pngCompression = option.getString(CliFlag.PNG_COMPRESSION);
+			if (pngCompression != null) {
+				if (pngCompression.matches("[0-9]") == false) {
+					System.err.println("Invalid value for --png-compression: " + pngCompression);
+					System.err.println("Usage: " + CliFlag.PNG_COMPRESSION.getUsage().trim());
+					Exit.exit(Exit.USAGE_ERROR);
+				}
+				GlobalConfig.getInstance().put(GlobalConfigKey.PNG_COMPRESSION_LEVEL, Integer.parseInt(pngCompression));
+			}
+
+			final String graphvizPool = option.getString(CliFlag.GRAPHVIZ_POOL);
+			if (graphvizPool != null && graphvizPool.matches("\\d+"))
+				DotProcessPool.configure(Integer.parseInt(graphvizPool));
+
 			final String charset = option.getString(CliFlag.CHARSET);
 			Log.info(() -> "Using charset " + charset);
 
@@ -219,6 +239,14 @@ public class Run {
 				runner.processInputsInParallel();
 
 		} finally {
+			Log.info(() -> "Text measurement " + FileFormat.getDimensionCache());
+			Log.info(() -> "Creole " + SheetCache.getStatistics());
+			final DotProcessPool pool = DotProcessPool.getInstance();
+			if (pool != null)
+				Log.info(() -> "Graphviz pool " + pool);
+			if (GlobalConfig.getInstance().boolValue(GlobalConfigKey.ENABLE_STATS))
+				for (Map.Entry<String, NumberAnalyzed> ent : StatsUtils.getFactoryParseStats().entrySet())
+					Log.info(() -> "Parsing with " + ent.getKey() + " " + ent.getValue());
 			if (option.isTrue(CliFlag.DURATION)) {
 				final double duration = (System.currentTimeMillis() - start) / 1000.0;
 				Log.error("Duration = " + duration + " seconds");
@@ -309,10 +337,14 @@ public class Run {
 
 	private void processInParallel(FileTask task) throws InterruptedException {
 		Log.info(() -> "Using several threads: " + option.getNbThreads());
-		final ExecutorService executor = Executors.newFixedThreadPool(option.getNbThreads());
-
-		for (File f : files)
-			executor.submit(() -> {
+		// A work-stealing pool, so that the blocks of a file can be processed by
+		// the threads which are done with their own files
+		final ForkJoinPool executor = new ForkJoinPool(option.getNbThreads());
+
+		final List<File> largestFirst = new ArrayList<>(files);
+		largestFirst.sort(Comparator.comparingLong(File::length).reversed());
+		for (File f : largestFirst)
+			executor.execute(() -> {
 				try {
 					task.processFile(f);
 				} catch (IOException | InterruptedException e) {
@@ -328,28 +360,42 @@ public class Run {
 		Log.info(() -> "Working on " + f.getPath());
 		final ISourceFileReader sourceFileReader = getSourceFileReader(f, option, charset);
 
-		if (sourceFileReader.hasError())
-			errorStatus.incError();
-		else
-			errorStatus.incOk();
-
-		if (option.isTrue(CliFlag.CHECK_ONLY))
+		if (option.isTrue(CliFlag.CHECK_ONLY)) {
+			countError(sourceFileReader);
 			return;
+		}
 
 		if (option.getFileFormatOption().getFileFormat() == FileFormat.PREPROC
 				|| option.getFileFormatOption().getFileFormat() == FileFormat.OBFUSCATE) {
+			countError(sourceFileReader);
 			extractPreprocessingSource(sourceFileReader);
 			return;
 		}
-		final List<GeneratedImage> result = sourceFileReader.getGeneratedImages();
+		final List<FileFormatOption> fileFormatOptions = option.getFileFormatOptions();
+		if (fileFormatOptions.size() > 1)
+			((SourceFileReaderAbstract) sourceFileReader).setSharedLayout(true);
+
+		final List<GeneratedImage> result = new ArrayList<>(
+				((SourceFileReaderAbstract) sourceFileReader).getGeneratedImagesInParallel());
+		// The other formats reuse the blocks, and the diagrams, already parsed
+		for (FileFormatOption other : fileFormatOptions.subList(1, fileFormatOptions.size())) {
+			sourceFileReader.setFileFormatOption(other);
+			result.addAll(((SourceFileReaderAbstract) sourceFileReader).getGeneratedImagesInParallel());
+		}
+		// After the export, which has parsed the blocks in parallel
+		countError(sourceFileReader);
+
 		final Stdrpt rpt = option.getStdrpt();
 		if (result.size() == 0) {
 			Log.error("Warning: no image in " + f.getPath());
 			rpt.printInfo(System.err, null);
 			return;
 		}
-		for (BlockUml s : sourceFileReader.getBlocks())
-			rpt.printInfo(System.err, s.getDiagram());
+		for (BlockUml s : sourceFileReader.getBlocks()) {
+			final Diagram system = ((SourceFileReaderAbstract) sourceFileReader).getDiagram(s);
+			if (system != null)
+				rpt.printInfo(System.err, system);
+		}
 
 		if (result.size() != 0) {
 			for (GeneratedImage image : result) {
@@ -364,6 +410,13 @@ public class Run {
 		}
 	}
 
+	private void countError(ISourceFileReader sourceFileReader) {
+		if (sourceFileReader.hasError())
+			errorStatus.incError();
+		else
+			errorStatus.incOk();
+	}
+
 	private static void runGui(final CliOptions option) {
 		try {
 			UIManager.setLookAndFeel("com.sun.java.swing.plaf.windows.WindowsLookAndFeel");
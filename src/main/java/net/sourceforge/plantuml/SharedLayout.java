@@ -0,0 +1,244 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2025, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import net.atmp.ImageBuilder;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.ImageData;
+import net.sourceforge.plantuml.klimt.font.StringBounder;
+import net.sourceforge.plantuml.klimt.font.UFont;
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+import net.sourceforge.plantuml.text.SvgCharSizeHack;
+
+/**
+ * Lets several exports of the same diagram share a single layout.
+ * <p>
+ * The first PNG or SVG export of a page is done as usual, but the string
+ * bounder used by the layout is probed: each measure is compared with the one
+ * the other format would give. The {@link ImageBuilder} writing this export is
+ * then kept, and a later export of the same page in a format whose measures
+ * were all identical only draws the kept drawable again, without parsing nor
+ * laying out the diagram a second time.
+ * <p>
+ * Other formats (TXT, EPS...) are exported as usual.
+ */
+public final class SharedLayout {
+	// ::remove file when __HAXE__
+
+	private static final Set<FileFormat> REUSABLE = EnumSet.of(FileFormat.PNG, FileFormat.SVG);
+
+	private final Map<Integer, Page> pages = new HashMap<>();
+
+	SharedLayout() {
+	}
+
+	/**
+	 * Enables the sharing of the layout between the exports of this diagram.
+	 * 
+	 * @return <code>false</code> if this diagram cannot share its layout
+	 */
+	public static boolean enable(Diagram diagram) {
+		if (diagram instanceof AbstractPSystem == false)
+			return false;
+
+		((AbstractPSystem) diagram).enableSharedLayout();
+		return true;
+	}
+
+	/**
+	 * Exports one page of a diagram in several formats, with a single layout when
+	 * the formats have the same text metrics.
+	 */
+	public static List<ImageData> exportDiagram(Diagram diagram, int index, List<FileFormatOption> fileFormatOptions,
+			List<OutputStream> outputs) throws IOException {
+		if (fileFormatOptions.size() != outputs.size())
+			throw new IllegalArgumentException();
+
+		enable(diagram);
+		final List<ImageData> result = new ArrayList<>();
+		for (int i = 0; i < fileFormatOptions.size(); i++)
+			result.add(diagram.exportDiagram(outputs.get(i), index, fileFormatOptions.get(i)));
+
+		return result;
+	}
+
+	synchronized ImageBuilder getLayout(int index, FileFormat fileFormat) {
+		final Page page = pages.get(index);
+		if (page == null)
+			return null;
+
+		return page.getLayout(fileFormat);
+	}
+
+	synchronized FileFormatOption startExport(OutputStream os, int index, FileFormatOption fileFormatOption) {
+		// Only the first export is probed: some text blocks keep their layout as long
+		// as they are measured by the same class of StringBounder
+		if (REUSABLE.contains(fileFormatOption.getFileFormat()) == false || pages.containsKey(index))
+			return fileFormatOption;
+
+		final Page page = new Page(os, fileFormatOption.getFileFormat());
+		pages.put(index, page);
+		return fileFormatOption.withSharedLayout(page);
+	}
+
+	synchronized void forget(int index) {
+		pages.remove(index);
+	}
+
+	/**
+	 * The first export of a page.
+	 */
+	public static final class Page {
+
+		private final OutputStream output;
+		private final FileFormat fileFormat;
+		private final Set<FileFormat> diverged = EnumSet.noneOf(FileFormat.class);
+		private ImageBuilder builder;
+		private boolean severalImages;
+
+		private Page(OutputStream output, FileFormat fileFormat) {
+			this.output = output;
+			this.fileFormat = fileFormat;
+		}
+
+		/**
+		 * Called by the {@link ImageBuilder} once it has written its image.
+		 */
+		public synchronized void keep(OutputStream os, ImageBuilder builder) {
+			if (os != output)
+				return;
+
+			if (this.builder != null)
+				severalImages = true;
+
+			this.builder = builder;
+		}
+
+		private synchronized ImageBuilder getLayout(FileFormat other) {
+			if (builder == null || severalImages || REUSABLE.contains(other) == false || diverged.contains(other))
+				return null;
+
+			return builder;
+		}
+
+		private synchronized void diverge(FileFormat other) {
+			diverged.add(other);
+		}
+
+		private synchronized boolean hasDiverged(FileFormat other) {
+			return diverged.contains(other);
+		}
+
+		StringBounder probe(StringBounder stringBounder, TikzFontDistortion tikzFontDistortion,
+				SvgCharSizeHack charSizeHack) {
+			final List<FileFormat> others = new ArrayList<>();
+			final List<StringBounder> otherBounders = new ArrayList<>();
+			for (FileFormat other : REUSABLE)
+				if (other != fileFormat) {
+					others.add(other);
+					otherBounders.add(other.getDefaultStringBounder(tikzFontDistortion, charSizeHack));
+				}
+
+			return new ProbeStringBounder(stringBounder, others, otherBounders);
+		}
+
+		private final class ProbeStringBounder implements StringBounder {
+
+			private final StringBounder stringBounder;
+			private final List<FileFormat> others;
+			private final List<StringBounder> otherBounders;
+
+			private ProbeStringBounder(StringBounder stringBounder, List<FileFormat> others,
+					List<StringBounder> otherBounders) {
+				this.stringBounder = Objects.requireNonNull(stringBounder);
+				this.others = others;
+				this.otherBounders = otherBounders;
+			}
+
+			@Override
+			public XDimension2D calculateDimension(UFont font, String text) {
+				final XDimension2D result = stringBounder.calculateDimension(font, text);
+				for (int i = 0; i < others.size(); i++)
+					if (hasDiverged(others.get(i)) == false) {
+						final XDimension2D other = otherBounders.get(i).calculateDimension(font, text);
+						if (other.getWidth() != result.getWidth() || other.getHeight() != result.getHeight())
+							diverge(others.get(i));
+					}
+
+				return result;
+			}
+
+			@Override
+			public double getDescent(UFont font, String text) {
+				final double result = stringBounder.getDescent(font, text);
+				for (int i = 0; i < others.size(); i++)
+					if (hasDiverged(others.get(i)) == false
+							&& otherBounders.get(i).getDescent(font, text) != result)
+						diverge(others.get(i));
+
+				return result;
+			}
+
+			@Override
+			public boolean matchesProperty(String propertyName) {
+				final boolean result = stringBounder.matchesProperty(propertyName);
+				for (int i = 0; i < others.size(); i++)
+					if (otherBounders.get(i).matchesProperty(propertyName) != result)
+						diverge(others.get(i));
+
+				return result;
+			}
+
+			@Override
+			public String toString() {
+				return stringBounder.toString();
+			}
+
+		}
+
+	}
+
+}
@@ -46,12 +46,19 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import net.sourceforge.plantuml.api.ImageDataSimple;
 import net.sourceforge.plantuml.cli.GlobalConfig;
@@ -77,10 +84,12 @@ public abstract class SourceFileReaderAbstract implements ISourceFileReader {
 	private FileFormatOption fileFormatOption;
 	private boolean checkMetadata;
 	private boolean noErrorImage;
+	private boolean sharedLayout;
 
 	final private Charset charset;
 
 	private final BlockUmlBuilder builder;
+	private final Map<BlockUml, Throwable> parseErrors = new ConcurrentHashMap<>();
 	private int cpt;
 
 	protected final SuggestedFile getSuggestedFile(File outputDirectory, String newName) {
@@ -110,12 +119,30 @@ public abstract class SourceFileReaderAbstract implements ISourceFileReader {
 	}
 
 	public boolean hasError() {
-		for (final BlockUml b : builder.getBlockUmls())
-			if (b.getDiagram() instanceof PSystemError)
+		for (final BlockUml b : builder.getBlockUmls()) {
+			final Diagram system = getDiagram(b);
+			if (system == null || system instanceof PSystemError)
 				return true;
+		}
 		return false;
 	}
 
+	/**
+	 * Returns the diagram of a block, or <code>null</code> if the block cannot be
+	 * parsed. The failure is kept, so that a broken block is parsed only once.
+	 */
+	final Diagram getDiagram(BlockUml blockUml) {
+		if (parseErrors.containsKey(blockUml))
+			return null;
+
+		try {
+			return blockUml.getDiagram();
+		} catch (Throwable t) {
+			parseErrors.put(blockUml, t);
+			return null;
+		}
+	}
+
 	public List<BlockUml> getBlocks() {
 		return builder.getBlockUmls();
 	}
@@ -173,16 +200,17 @@ public abstract class SourceFileReaderAbstract implements ISourceFileReader {
 		for (BlockUml blockUml : builder.getBlockUmls()) {
 			final SuggestedFile suggested = getSuggestedFile(blockUml);
 
-			final Diagram system;
-			try {
-				system = blockUml.getDiagram();
-			} catch (Throwable t) {
+			final Diagram system = getDiagram(blockUml);
+			if (system == null) {
+				final Throwable t = parseErrors.get(blockUml);
 				Logme.error(t);
 				if (GlobalConfig.getInstance().boolValue(GlobalConfigKey.SILENTLY_COMPLETELY_IGNORE_ERRORS) || noErrorImage)
 					continue;
 
 				return getCrashedImage(blockUml, t, suggested.getFile(0));
 			}
+			if (sharedLayout)
+				SharedLayout.enable(system);
 
 			if (GlobalConfig.getInstance().boolValue(GlobalConfigKey.SILENTLY_COMPLETELY_IGNORE_ERRORS) && system instanceof PSystemError)
 				continue;
@@ -214,8 +242,175 @@ public abstract class SourceFileReaderAbstract implements ISourceFileReader {
 		return Collections.unmodifiableList(result);
 	}
 
+	/**
+	 * Parses the blocks of the file with the threads of the current
+	 * {@link ForkJoinPool}, the largest blocks first.
+	 */
+	private void parseBlocksInParallel() {
+		final List<BlockUml> blocks = new ArrayList<>(builder.getBlockUmls());
+		if (blocks.size() < 2)
+			return;
+
+		blocks.sort(Comparator.comparingInt((BlockUml blockUml) -> blockUml.getData().size()).reversed());
+		final List<RecursiveAction> tasks = new ArrayList<>();
+		for (BlockUml blockUml : blocks)
+			tasks.add(inCurrentDir(() -> getDiagram(blockUml)));
+		ForkJoinTask.invokeAll(tasks);
+	}
+
+	/**
+	 * Same as {@link #getGeneratedImages()}, but each block, and each page of the
+	 * diagrams containing <code>newpage</code>, is exported by its own task of the
+	 * current {@link ForkJoinPool}, the largest first.
+	 * <p>
+	 * The names of the files are computed before the export, so they are the same
+	 * as the ones of {@link #getGeneratedImages()}. When the number of files of a
+	 * diagram is only known after its export, the whole file is processed
+	 * sequentially. The blocks are parsed only once in both cases.
+	 */
+	final List<GeneratedImage> getGeneratedImagesInParallel() throws IOException {
+		if (checkMetadata)
+			return getGeneratedImages();
+
+		parseBlocksInParallel();
+		Log.info(() -> "Reading file: " + file);
+
+		cpt = 0;
+		final List<ExportJob> jobs = new ArrayList<>();
+		List<GeneratedImage> crashed = null;
+		for (BlockUml blockUml : builder.getBlockUmls()) {
+			final SuggestedFile suggested = getSuggestedFile(blockUml);
+
+			final Diagram system = getDiagram(blockUml);
+			if (system == null) {
+				final Throwable t = parseErrors.get(blockUml);
+				Logme.error(t);
+				if (GlobalConfig.getInstance().boolValue(GlobalConfigKey.SILENTLY_COMPLETELY_IGNORE_ERRORS) || noErrorImage)
+					continue;
+
+				// As in getGeneratedImages(), the blocks before are still exported
+				crashed = getCrashedImage(blockUml, t, suggested.getFile(0));
+				break;
+			}
+			if (sharedLayout)
+				SharedLayout.enable(system);
+
+			if (GlobalConfig.getInstance().boolValue(GlobalConfigKey.SILENTLY_COMPLETELY_IGNORE_ERRORS) && system instanceof PSystemError)
+				continue;
+
+			if (noErrorImage && system instanceof PSystemError) {
+				jobs.add(new ExportJob(blockUml, system, suggested, -1, 0));
+				continue;
+			}
+
+			final int nbFiles = PSystemUtils.getNbFiles(system, fileFormatOption);
+			if (nbFiles == -1)
+				return getGeneratedImages();
+
+			if (nbFiles > 1)
+				cpt += nbFiles - 1;
+
+			final int size = blockUml.getData().size();
+			if (system instanceof NewpagedDiagram)
+				for (int i = 0; i < nbFiles; i++)
+					jobs.add(new ExportJob(blockUml, system, suggested, i, size / nbFiles));
+			else
+				jobs.add(new ExportJob(blockUml, system, suggested, -1, size));
+		}
+
+		final List<ExportJob> largestFirst = new ArrayList<>(jobs);
+		largestFirst.sort(Comparator.comparingInt((ExportJob job) -> job.size).reversed());
+		final List<RecursiveAction> tasks = new ArrayList<>();
+		for (ExportJob job : largestFirst)
+			tasks.add(inCurrentDir(job::export));
+
+		try {
+			ForkJoinTask.invokeAll(tasks);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		if (crashed != null)
+			return crashed;
+
+		final List<GeneratedImage> result = new ArrayList<>();
+		for (ExportJob job : jobs)
+			for (FileImageData fdata : job.result) {
+				final String desc = "[" + file.getName() + "] " + job.system.getDescription();
+				final SFile f = fdata.getFile();
+				exportWarnOrErrIfWord(f, job.system);
+				result.add(new GeneratedImageImpl(f, desc, job.blockUml, fdata.getStatus()));
+			}
+
+		Log.info(() -> "Number of image(s): " + result.size());
+
+		return Collections.unmodifiableList(result);
+	}
+
+	// The current directory is local to each thread
+	private static RecursiveAction inCurrentDir(Runnable runnable) {
+		final SFile dir = FileSystem.getInstance().getCurrentDir();
+		return new RecursiveAction() {
+			@Override
+			protected void compute() {
+				final SFile previous = FileSystem.getInstance().getCurrentDir();
+				FileSystem.getInstance().setCurrentDir(dir);
+				try {
+					runnable.run();
+				} finally {
+					FileSystem.getInstance().setCurrentDir(previous);
+				}
+			}
+		};
+	}
+
+	private class ExportJob {
+
+		private final BlockUml blockUml;
+		private final Diagram system;
+		private final SuggestedFile suggested;
+		private final int page;
+		private final int size;
+		private List<FileImageData> result;
+
+		ExportJob(BlockUml blockUml, Diagram system, SuggestedFile suggested, int page, int size) {
+			this.blockUml = blockUml;
+			this.system = system;
+			this.suggested = suggested;
+			this.page = page;
+			this.size = size;
+		}
+
+		void export() {
+			try {
+				if (noErrorImage && system instanceof PSystemError) {
+					result = Collections.singletonList(
+							new FileImageData(null, new ImageDataSimple(new XDimension2D(0, 0), FileImageData.ERROR)));
+				} else if (page == -1) {
+					result = PSystemUtils.exportDiagrams(system, suggested, fileFormatOption, false);
+				} else {
+					final FileImageData fdata = PSystemUtils.exportNewpagedPage((NewpagedDiagram) system, suggested,
+							page, fileFormatOption);
+					result = fdata == null ? Collections.<FileImageData>emptyList() : Collections.singletonList(fdata);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
 	abstract protected SuggestedFile getSuggestedFile(BlockUml blockUml) throws FileNotFoundException;
 
+	/**
+	 * When the same reader exports its diagrams in several formats, one after the
+	 * other, lets each diagram reuse its first layout.
+	 * 
+	 * @see SharedLayout
+	 */
+	final void setSharedLayout(boolean sharedLayout) {
+		this.sharedLayout = sharedLayout;
+	}
+
 	protected final void setNoErrorImage(boolean noErrorImage) {
 		this.noErrorImage = noErrorImage;
 
@@ -232,6 +232,15 @@ public abstract class TitledDiagram extends AbstractPSystem implements Diagram,
 		// return true;
 	}
 
+	/**
+	 * Tells if the drawing of this diagram can be recorded once and replayed (see
+	 * {@link ImageBuilder#displayList(boolean)}). Diagrams which complete their
+	 * layout while they are drawn must be drawn twice.
+	 */
+	public boolean canUseDisplayList() {
+		return true;
+	}
+
 	@Override
 	public ClockwiseTopRightBottomLeft getDefaultMargins() {
 		return ClockwiseTopRightBottomLeft.same(10);
@@ -52,7 +52,7 @@ import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDele
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDelegatorRepeat;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDelegatorSwitch;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.FtileFactoryDelegatorWhile;
-import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.UGraphicInterceptorOneSwimlane;
+import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.UGraphicInterceptorSwimlanes;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.VCompactFactory;
 import net.sourceforge.plantuml.activitydiagram3.gtile.GConnection;
 import net.sourceforge.plantuml.activitydiagram3.gtile.Gtile;
@@ -65,6 +65,7 @@ import net.sourceforge.plantuml.klimt.color.HColor;
 import net.sourceforge.plantuml.klimt.compress.CompressionMode;
 import net.sourceforge.plantuml.klimt.compress.SlotFinder;
 import net.sourceforge.plantuml.klimt.creole.Display;
+import net.sourceforge.plantuml.klimt.drawing.DisplayList;
 import net.sourceforge.plantuml.klimt.drawing.LimitFinder;
 import net.sourceforge.plantuml.klimt.drawing.UGraphic;
 import net.sourceforge.plantuml.klimt.drawing.UGraphicDelegator;
@@ -309,6 +310,18 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 		drawTitlesBackground(ug);
 
 		final XDimension2D dimensionFull = full.calculateDimension(stringBounder);
+
+		// All the swimlanes are drawn at once, each one into its own display list,
+		// so that they can be output one after the other
+		final List<DisplayList> contents = new ArrayList<>();
+		final List<UGraphic> recorders = new ArrayList<>();
+		for (Swimlane swimlane : swimlanesSpecial()) {
+			final DisplayList content = DisplayList.empty();
+			contents.add(content);
+			recorders.add(content.recorder(ug).apply(swimlane.getTranslate()).apply(titleHeightTranslate));
+		}
+		full.drawU(new UGraphicInterceptorSwimlanes(swimlanesSpecial(), recorders, swimlanes()));
+
 		int i = 0;
 		assert dividers.size() == swimlanes().size() + 1;
 		for (Swimlane swimlane : swimlanesSpecial()) {
@@ -325,8 +338,7 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 				background.draw(URectangle.build(width, height).ignoreForCompressionOnX().ignoreForCompressionOnY());
 			}
 
-			full.drawU(new UGraphicInterceptorOneSwimlane(ug, swimlane, swimlanes()).apply(swimlane.getTranslate())
-					.apply(getTitleHeightTranslate(stringBounder)));
+			contents.get(i).drawU(ug);
 
 			final double dividerWith = divider1.calculateDimension(stringBounder).getWidth();
 			divider1.drawU(ug.apply(UTranslate.dx(xpos - dividerWith)));
@@ -364,14 +376,20 @@ public class Swimlanes extends AbstractTextBlock implements TextBlock, Styleable
 
 	private void computeDrawingWidths(UGraphic ug, TextBlock full) {
 		final StringBounder stringBounder = ug.getStringBounder();
-		for (Swimlane swimlane : swimlanes()) {
+		final List<LimitFinder> limitFinders = new ArrayList<>();
+		final List<UGraphic> ugs = new ArrayList<>();
+		for (int i = 0; i < swimlanes().size(); i++) {
 			final LimitFinder limitFinder = LimitFinder.create(stringBounder, false);
-			final UGraphicInterceptorOneSwimlane interceptor = new UGraphicInterceptorOneSwimlane(
-					new UGraphicForSnake(limitFinder), swimlane, swimlanes());
-			full.drawU(interceptor);
-			interceptor.flushUg();
-			final MinMax minMax = limitFinder.getMinMax();
-			swimlane.setMinMax(minMax);
+			limitFinders.add(limitFinder);
+			ugs.add(new UGraphicForSnake(limitFinder));
+		}
+		final UGraphicInterceptorSwimlanes interceptor = new UGraphicInterceptorSwimlanes(swimlanes(), ugs,
+				swimlanes());
+		full.drawU(interceptor);
+		interceptor.flushUg();
+		for (int i = 0; i < swimlanes().size(); i++) {
+			final MinMax minMax = limitFinders.get(i).getMinMax();
+			swimlanes().get(i).setMinMax(minMax);
 		}
 	}
 
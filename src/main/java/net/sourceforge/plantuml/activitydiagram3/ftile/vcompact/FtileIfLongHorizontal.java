@@ -482,6 +482,10 @@ class FtileIfLongHorizontal extends AbstractFtile {
 		}
 
 		public void drawU(UGraphic ug) {
+			if (ug instanceof UGraphicInterceptorSwimlanes) {
+				((UGraphicInterceptorSwimlanes) ug).drawEachSwimlane(this);
+				return;
+			}
 			final StringBounder stringBounder = ug.getStringBounder();
 			final XDimension2D totalDim = calculateDimensionInternal(stringBounder);
 
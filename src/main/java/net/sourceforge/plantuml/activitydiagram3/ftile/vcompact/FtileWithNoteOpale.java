@@ -193,6 +193,11 @@ public class FtileWithNoteOpale extends AbstractFtile implements Stencil, Stylea
 	}
 
 	public void drawU(UGraphic ug) {
+		if (ug instanceof UGraphicInterceptorSwimlanes) {
+			// The note is only drawn into its own swimlane
+			((UGraphicInterceptorSwimlanes) ug).drawEachSwimlane(this);
+			return;
+		}
 		final Swimlane intoSw;
 		if (ug instanceof UGraphicInterceptorOneSwimlane)
 			intoSw = ((UGraphicInterceptorOneSwimlane) ug).getSwimlane();
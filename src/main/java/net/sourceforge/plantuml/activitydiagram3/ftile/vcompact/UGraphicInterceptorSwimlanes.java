@@ -0,0 +1,193 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.activitydiagram3.ftile.vcompact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import net.sourceforge.plantuml.activitydiagram3.ftile.Connection;
+import net.sourceforge.plantuml.activitydiagram3.ftile.Ftile;
+import net.sourceforge.plantuml.activitydiagram3.ftile.Swimlane;
+import net.sourceforge.plantuml.activitydiagram3.gtile.GConnection;
+import net.sourceforge.plantuml.activitydiagram3.gtile.GPoint;
+import net.sourceforge.plantuml.activitydiagram3.gtile.Gtile;
+import net.sourceforge.plantuml.klimt.UChange;
+import net.sourceforge.plantuml.klimt.UGroup;
+import net.sourceforge.plantuml.klimt.UShape;
+import net.sourceforge.plantuml.klimt.drawing.UGraphic;
+import net.sourceforge.plantuml.klimt.drawing.UGraphicDelegator;
+import net.sourceforge.plantuml.klimt.shape.UDrawable;
+import net.sourceforge.plantuml.url.Url;
+
+/**
+ * Draws several swimlanes in a single traversal of the tiles.
+ * <p>
+ * Each swimlane has its own {@link UGraphic}. A tile or a connection is only
+ * drawn into the swimlanes it belongs to, as
+ * {@link UGraphicInterceptorOneSwimlane} would do for each swimlane, and
+ * other shapes are drawn into all of them. As soon as a single swimlane is
+ * left, drawing goes on with a {@link UGraphicInterceptorOneSwimlane}.
+ */
+public class UGraphicInterceptorSwimlanes extends UGraphicDelegator {
+
+	private final List<Swimlane> swimlanes;
+	private final List<UGraphic> ugs;
+	private final List<Swimlane> orderedList;
+
+	public UGraphicInterceptorSwimlanes(List<Swimlane> swimlanes, List<UGraphic> ugs, List<Swimlane> orderedList) {
+		super(ugs.get(0));
+		if (swimlanes.size() != ugs.size())
+			throw new IllegalArgumentException();
+
+		this.swimlanes = swimlanes;
+		this.ugs = ugs;
+		this.orderedList = orderedList;
+	}
+
+	public void draw(UShape shape) {
+		if (shape instanceof Ftile) {
+			final Ftile tile = (Ftile) shape;
+			final Set<Swimlane> tileSwimlanes = tile.getSwimlanes();
+			final boolean[] contained = new boolean[swimlanes.size()];
+			for (int i = 0; i < contained.length; i++)
+				contained[i] = tileSwimlanes.contains(swimlanes.get(i));
+
+			drawInto(contained, tile);
+			// ::comment when __CORE__
+		} else if (shape instanceof Gtile) {
+			final Gtile tile = (Gtile) shape;
+			final Set<Swimlane> tileSwimlanes = tile.getSwimlanes();
+			final boolean[] contained = new boolean[swimlanes.size()];
+			for (int i = 0; i < contained.length; i++)
+				contained[i] = tileSwimlanes.contains(swimlanes.get(i));
+
+			drawInto(contained, tile);
+		} else if (shape instanceof GConnection) {
+			final GConnection connection = (GConnection) shape;
+			final List<GPoint> hooks = connection.getHooks();
+			final GPoint point0 = hooks.get(0);
+			final GPoint point1 = hooks.get(1);
+			final boolean[] contained = new boolean[swimlanes.size()];
+			for (int i = 0; i < contained.length; i++)
+				contained[i] = point0.match(swimlanes.get(i)) && point1.match(swimlanes.get(i));
+
+			drawInto(contained, connection);
+			// ::done
+		} else if (shape instanceof Connection) {
+			final Connection connection = (Connection) shape;
+			final Ftile tile1 = connection.getFtile1();
+			final Ftile tile2 = connection.getFtile2();
+			final Swimlane out1 = tile1 == null ? null : tile1.getSwimlaneOut();
+			final Swimlane in2 = tile2 == null ? null : tile2.getSwimlaneIn();
+			final boolean[] contained = new boolean[swimlanes.size()];
+			for (int i = 0; i < contained.length; i++)
+				contained[i] = (out1 == null || out1 == swimlanes.get(i)) && (in2 == null || in2 == swimlanes.get(i));
+
+			drawInto(contained, connection);
+		} else {
+			for (UGraphic ug : ugs)
+				ug.draw(shape);
+		}
+
+	}
+
+	private void drawInto(boolean[] contained, UDrawable drawable) {
+		final List<Swimlane> selectedSwimlanes = new ArrayList<>();
+		final List<UGraphic> selectedUgs = new ArrayList<>();
+		for (int i = 0; i < contained.length; i++)
+			if (contained[i]) {
+				selectedSwimlanes.add(swimlanes.get(i));
+				selectedUgs.add(ugs.get(i));
+			}
+
+		if (selectedSwimlanes.size() == 1)
+			drawable.drawU(new UGraphicInterceptorOneSwimlane(selectedUgs.get(0), selectedSwimlanes.get(0),
+					orderedList));
+		else if (selectedSwimlanes.size() == swimlanes.size())
+			drawable.drawU(this);
+		else if (selectedSwimlanes.size() > 1)
+			drawable.drawU(new UGraphicInterceptorSwimlanes(selectedSwimlanes, selectedUgs, orderedList));
+	}
+
+	/**
+	 * Draws separately into each swimlane, for drawings depending on the
+	 * swimlane they are drawn into.
+	 */
+	public void drawEachSwimlane(UDrawable drawable) {
+		for (int i = 0; i < swimlanes.size(); i++)
+			drawable.drawU(new UGraphicInterceptorOneSwimlane(ugs.get(i), swimlanes.get(i), orderedList));
+	}
+
+	public UGraphic apply(UChange change) {
+		final List<UGraphic> result = new ArrayList<>(ugs.size());
+		for (UGraphic ug : ugs)
+			result.add(ug.apply(change));
+
+		return new UGraphicInterceptorSwimlanes(swimlanes, result, orderedList);
+	}
+
+	@Override
+	public void startUrl(Url url) {
+		for (UGraphic ug : ugs)
+			ug.startUrl(url);
+	}
+
+	@Override
+	public void closeUrl() {
+		for (UGraphic ug : ugs)
+			ug.closeUrl();
+	}
+
+	@Override
+	public void startGroup(UGroup group) {
+		for (UGraphic ug : ugs)
+			ug.startGroup(group);
+	}
+
+	@Override
+	public void closeGroup() {
+		for (UGraphic ug : ugs)
+			ug.closeGroup();
+	}
+
+	@Override
+	public void flushUg() {
+		for (UGraphic ug : ugs)
+			ug.flushUg();
+	}
+
+}
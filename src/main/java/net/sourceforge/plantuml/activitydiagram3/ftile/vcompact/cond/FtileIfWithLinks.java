@@ -52,6 +52,7 @@ import net.sourceforge.plantuml.activitydiagram3.ftile.MergeStrategy;
 import net.sourceforge.plantuml.activitydiagram3.ftile.Snake;
 import net.sourceforge.plantuml.activitydiagram3.ftile.Swimlane;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.UGraphicInterceptorOneSwimlane;
+import net.sourceforge.plantuml.activitydiagram3.ftile.vcompact.UGraphicInterceptorSwimlanes;
 import net.sourceforge.plantuml.activitydiagram3.ftile.vertical.FtileDiamond;
 import net.sourceforge.plantuml.decoration.Rainbow;
 import net.sourceforge.plantuml.klimt.UTranslate;
@@ -428,6 +429,10 @@ public class FtileIfWithLinks extends FtileIfWithDiamonds {
 		}
 
 		public void drawU(UGraphic ug) {
+			if (ug instanceof UGraphicInterceptorSwimlanes) {
+				((UGraphicInterceptorSwimlanes) ug).drawEachSwimlane(this);
+				return;
+			}
 			final StringBounder stringBounder = ug.getStringBounder();
 			final XDimension2D totalDim = calculateDimensionInternal(stringBounder);
 
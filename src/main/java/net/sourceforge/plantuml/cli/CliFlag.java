@@ -149,6 +149,9 @@ public enum CliFlag {
 	@CliFlagDoc(value = "Set Graphviz processing timeout (in seconds)", usage = "--graphviz-timeout <seconds>", level = 1)
 	TIMEOUT("--graphviz-timeout", aliases(DEPRECATED("-timeout")), Arity.BINARY_NEXT_ARGUMENT_VALUE),
 
+	@CliFlagDoc(value = "Keep <n> Graphviz processes running and reuse them for all diagrams", usage = "--graphviz-pool <n>", level = 1)
+	GRAPHVIZ_POOL("--graphviz-pool", Arity.BINARY_NEXT_ARGUMENT_VALUE),
+
 	@CliFlagDoc(value = "Use <n> threads for processing  (auto = available processors)", usage = "--threads <n|auto>", level = 1)
 	NB_THREAD("--threads", aliases(DEPRECATED("-nbthread")), Arity.BINARY_NEXT_ARGUMENT_VALUE),
 
@@ -192,6 +195,9 @@ public enum CliFlag {
 	OVERWRITE("--overwrite", aliases("--force-overwrite", DEPRECATED("-overwrite")), Arity.UNARY_BOOLEAN,
 			() -> GlobalConfig.getInstance().put(GlobalConfigKey.OVERWRITE, true)),
 
+	@CliFlagDoc(value = "Set the PNG compression level, from 0 (fastest) to 9 (smallest)", usage = "--png-compression <0-9>", level = 1)
+	PNG_COMPRESSION("--png-compression", Arity.BINARY_NEXT_ARGUMENT_VALUE),
+
 	// Other
 
 	CLIPBOARD("--clipboard", Arity.UNARY_IMMEDIATE_ACTION, ClipboardLoop::runOnce), //
@@ -323,18 +323,38 @@ public class CliOptions {
 		if (format == null)
 			format = FileFormat.PNG;
 
-		this.fileFormatOption = new FileFormatOption(format);
+		this.fileFormatOption = createFileFormatOption(format);
+		return fileFormatOption;
+	}
+
+	/**
+	 * All the formats given on the command line, for example with
+	 * <code>--png --svg</code>. The first one is {@link #getFileFormatOption()}.
+	 */
+	public List<FileFormatOption> getFileFormatOptions() {
+		final FileFormatOption first = getFileFormatOption();
+		final List<FileFormatOption> result = new ArrayList<>();
+		result.add(first);
+		for (Object format : flags.getAllFromType(FileFormat.class))
+			if (format != first.getFileFormat())
+				result.add(createFileFormatOption((FileFormat) format));
+
+		return Collections.unmodifiableList(result);
+	}
+
+	private FileFormatOption createFileFormatOption(FileFormat format) {
+		FileFormatOption result = new FileFormatOption(format);
 
 		if (flags.isTrue(CliFlag.DEBUG_SVEK))
-			fileFormatOption.setDebugSvek(true);
+			result.setDebugSvek(true);
 
 		if (flags.isTrue(CliFlag.NO_METADATA))
-			fileFormatOption.hideMetadata();
+			result.hideMetadata();
 
 		if (flags.isTrue(CliFlag.DARK_MODE))
-			this.fileFormatOption = this.fileFormatOption.withColorMapper(ColorMapper.DARK_MODE);
+			result = result.withColorMapper(ColorMapper.DARK_MODE);
 
-		return fileFormatOption;
+		return result;
 	}
 //	// ::done
 //
@@ -103,6 +103,18 @@ public class CliParsed {
 		return null;
 	}
 
+	public List<Object> getAllFromType(Class<?> clazz) {
+		final List<Object> result = new ArrayList<>();
+		for (List<Object> list : lists.values())
+			if (list.size() == 1) {
+				final Object element = list.get(0);
+				if (element.getClass() == clazz)
+					result.add(element);
+			}
+
+		return Collections.unmodifiableList(result);
+	}
+
 	public Map<String, String> getMap(CliFlag flag) {
 		final Map<String, String> result = maps.get(flag);
 		if (result == null)
@@ -42,6 +42,8 @@ public final class Exit {
 
 	public static final String DISABLE_PROPERTY = "plantuml.noSystemExit";
 
+	public static final int USAGE_ERROR = 2;
+
 	public static void exit(int status) {
 		if (Boolean.getBoolean(DISABLE_PROPERTY))
 			throw new ExitRequest(status);
@@ -46,7 +46,8 @@ public enum GlobalConfigKey {
 	ENABLE_STATS(defaultForStats()), //
 	SILENTLY_COMPLETELY_IGNORE_ERRORS(Boolean.FALSE), //
 	FILE_SEPARATOR("_"), //
-	TIMEOUT_MS(30_000L);// 30 seconds
+	TIMEOUT_MS(30_000L), // 30 seconds
+	PNG_COMPRESSION_LEVEL(7);
 
 	private final Object defaultValue;
 
@@ -45,6 +45,10 @@ public interface Command<D extends Diagram> {
 
 	CommandControl isValid(BlocLines lines);
 
-	boolean isEligibleFor(ParserPass pass);	
+	boolean isEligibleFor(ParserPass pass);
+
+	default MultilinesValidator newValidator() {
+		return new FullMultilinesValidator(this);
+	}
 
 }
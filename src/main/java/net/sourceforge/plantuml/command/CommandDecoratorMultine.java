@@ -36,6 +36,8 @@
 package net.sourceforge.plantuml.command;
 
 import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.text.BackSlash;
+import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.utils.BlocLines;
 
 public class CommandDecoratorMultine<D extends Diagram> implements Command<D> {
@@ -63,10 +65,34 @@ public class CommandDecoratorMultine<D extends Diagram> implements Command<D> {
 	}
 
 	public CommandControl isValid(BlocLines lines) {
+		return isValidSingleLine(lines.toSingleLineWithHiddenNewLine());
+	}
+
+	@Override
+	public MultilinesValidator newValidator() {
+		return new MultilinesValidator() {
+			private final StringBuilder sb = new StringBuilder();
+			private int size;
+
+			@Override
+			public void add(StringLocated line) {
+				if (size > 0)
+					sb.append(BackSlash.hiddenNewLine());
+				sb.append(line.getString());
+				size++;
+			}
+
+			@Override
+			public CommandControl validate() {
+				return isValidSingleLine(BlocLines.singleString(sb.toString()));
+			}
+		};
+	}
+
+	private CommandControl isValidSingleLine(BlocLines lines) {
 		if (cmd.isCommandForbidden())
 			return CommandControl.NOT_OK;
 
-		lines = lines.toSingleLineWithHiddenNewLine();
 		if (cmd.isForbidden(lines.getFirst().getString()))
 			return CommandControl.NOT_OK;
 
@@ -80,6 +106,10 @@ public class CommandDecoratorMultine<D extends Diagram> implements Command<D> {
 		return CommandControl.OK_PARTIAL;
 	}
 
+	SingleLineCommand2<D> getDecoratedCommand() {
+		return cmd;
+	}
+
 	public int getNbMaxLines() {
 		return nbMaxLines;
 	}
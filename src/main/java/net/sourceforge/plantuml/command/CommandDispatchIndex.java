@@ -0,0 +1,185 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.regex.IRegex;
+import net.sourceforge.plantuml.regex.Pattern2;
+import net.sourceforge.plantuml.text.StringLocated;
+
+/**
+ * Dispatch index used by {@link PSystemCommandFactory} to select the commands
+ * that may accept a line.
+ * <p>
+ * Commands are grouped by the two first characters of the trimmed line. A
+ * command is kept in a group only if its starting pattern can match a line
+ * beginning with those characters: this is checked with the regex engine itself
+ * (a match, or a failure that has hit the end of the prefix). Commands whose
+ * starting pattern is unknown are kept in every group. Each group preserves the
+ * original order of the commands, so the first matching command is the same as
+ * with a full scan.
+ * <p>
+ * Groups are computed lazily, the first time a prefix is seen.
+ */
+final class CommandDispatchIndex {
+
+	private static final int ASCII = 128;
+
+	private final List<Command<?>> all;
+	private final Pattern[] starts;
+	private final AtomicReferenceArray<List<Command<?>>> groups = new AtomicReferenceArray<>(ASCII * (ASCII + 1));
+
+	CommandDispatchIndex(List<? extends Command<?>> cmds) {
+		this.all = Collections.unmodifiableList(new ArrayList<>(cmds));
+		this.starts = new Pattern[all.size()];
+		for (int i = 0; i < starts.length; i++)
+			starts[i] = getStartingPattern(all.get(i));
+	}
+
+	List<Command<?>> getAllCommands() {
+		return all;
+	}
+
+	List<Command<?>> getCandidates(StringLocated line) {
+		final String s = line.getTrimmed().getString();
+		if (s.length() == 0)
+			return all;
+
+		final char c0 = s.charAt(0);
+		if (c0 >= ASCII)
+			return all;
+
+		final int c1;
+		if (s.length() == 1)
+			c1 = 0;
+		else if (s.charAt(1) < ASCII)
+			c1 = 1 + s.charAt(1);
+		else
+			return all;
+
+		final int idx = c0 * (ASCII + 1) + c1;
+		List<Command<?>> result = groups.get(idx);
+		if (result == null) {
+			result = computeGroup(s.substring(0, Math.min(2, s.length())));
+			groups.set(idx, result);
+		}
+		return result;
+	}
+
+	private List<Command<?>> computeGroup(String prefix) {
+		final List<Command<?>> result = new ArrayList<>();
+		for (int i = 0; i < starts.length; i++)
+			if (starts[i] == null || mayStartWith(starts[i], prefix))
+				result.add(all.get(i));
+
+		if (result.size() == all.size())
+			return all;
+
+		return Collections.unmodifiableList(result);
+	}
+
+	private static boolean mayStartWith(Pattern pattern, String prefix) {
+		final Matcher m = pattern.matcher(prefix);
+		// If the engine fails without reading the whole prefix, no longer line
+		// starting with this prefix can match.
+		return m.find() || m.hitEnd();
+	}
+
+	/**
+	 * Returns the pattern matched against the first trimmed line of the command,
+	 * or null if the command is not known.
+	 */
+	private static Pattern getStartingPattern(Command<?> cmd) {
+		if (cmd instanceof ProtectedCommand)
+			return getStartingPattern(((ProtectedCommand<?>) cmd).getDecoratedCommand());
+
+		if (cmd instanceof CommandDecoratorMultine)
+			return getStartingPattern(((CommandDecoratorMultine<?>) cmd).getDecoratedCommand());
+
+		if (cmd instanceof SingleLineCommand2) {
+			final SingleLineCommand2<?> single = (SingleLineCommand2<?>) cmd;
+			if (single.isTrimmed() == false)
+				return null;
+			return compile(single.getPattern());
+		}
+		if (cmd instanceof CommandMultilines2)
+			return compile(((CommandMultilines2<?>) cmd).getStartingPattern());
+
+		if (cmd instanceof CommandMultilines3)
+			return compile(((CommandMultilines3<?>) cmd).getStartingPattern());
+
+		if (cmd instanceof CommandMultilines)
+			return compile(((CommandMultilines<?>) cmd).getStartingPattern().pattern());
+
+		if (cmd instanceof CommandMultilinesBracket)
+			return compile(((CommandMultilinesBracket<?>) cmd).getStartingPattern().pattern());
+
+		return null;
+	}
+
+	/**
+	 * Returns the command that decides whether a single line is accepted: a
+	 * multiline decorator accepts any first line, the following lines decide.
+	 */
+	static Command<?> singleLineCommand(Command<?> cmd) {
+		if (cmd instanceof ProtectedCommand)
+			return singleLineCommand(((ProtectedCommand<?>) cmd).getDecoratedCommand());
+
+		if (cmd instanceof CommandDecoratorMultine)
+			return ((CommandDecoratorMultine<?>) cmd).getDecoratedCommand();
+
+		return cmd;
+	}
+
+	private static Pattern compile(IRegex regex) {
+		return compile(regex.getPatternAsString());
+	}
+
+	private static Pattern compile(String pattern) {
+		// Without anchor, the pattern may match anywhere in the line
+		if (pattern.startsWith("^") == false)
+			return null;
+
+		return Pattern2.compileInternal(pattern);
+	}
+
+}
@@ -38,6 +38,7 @@ package net.sourceforge.plantuml.command;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.regex.Matcher2;
 import net.sourceforge.plantuml.regex.Pattern2;
+import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.utils.BlocLines;
 
 public abstract class CommandMultilines<S extends Diagram> implements Command<S> {
@@ -73,6 +74,37 @@ public abstract class CommandMultilines<S extends Diagram> implements Command<S>
 		return finalVerification();
 	}
 
+	@Override
+	public MultilinesValidator newValidator() {
+		return new MultilinesValidator() {
+			private int size;
+			private boolean firstOk;
+			private StringLocated last;
+
+			@Override
+			public void add(StringLocated line) {
+				size++;
+				if (size == 1)
+					firstOk = starting.matcher(line.getTrimmed().getString()).matches();
+				last = line;
+			}
+
+			@Override
+			public CommandControl validate() {
+				if (isCommandForbidden() || firstOk == false)
+					return CommandControl.NOT_OK;
+
+				if (size == 1)
+					return CommandControl.OK_PARTIAL;
+
+				if (ending.matcher(last.getTrimmed().getString()).matches() == false)
+					return CommandControl.OK_PARTIAL;
+
+				return finalVerification();
+			}
+		};
+	}
+
 	protected boolean isCommandForbidden() {
 		return false;
 	}
@@ -35,6 +35,9 @@
  */
 package net.sourceforge.plantuml.command;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.sourceforge.plantuml.Lazy;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.klimt.color.NoSuchColorException;
@@ -105,6 +108,71 @@ public abstract class CommandMultilines2<S extends Diagram> implements Command<S
 		return finalVerification(lines);
 	}
 
+	@Override
+	public MultilinesValidator newValidator() {
+		return new MultilinesValidator() {
+			private final List<StringLocated> kept = new ArrayList<>();
+			private Boolean firstOk;
+			private Boolean firstWithBracketOk;
+
+			@Override
+			public void add(StringLocated line) {
+				if (strategy.isKept(line))
+					kept.add(line);
+			}
+
+			@Override
+			public CommandControl validate() {
+				if (isCommandForbidden() || kept.size() == 0)
+					return CommandControl.NOT_OK;
+
+				final StringLocated first = kept.get(0);
+				int size = kept.size();
+				final boolean ok;
+				if (syntaxWithFinalBracket() && first.getTrimmed().getString().endsWith("{") == false) {
+					if (size == 1)
+						return isFirstWithBracketOk() ? CommandControl.OK_PARTIAL : CommandControl.NOT_OK;
+
+					if (kept.get(1).getTrimmed().getString().equals("{")) {
+						// The bracket is moved at the end of the first line
+						ok = isFirstWithBracketOk();
+						size--;
+					} else {
+						ok = isFirstOk();
+					}
+				} else {
+					ok = isFirstOk();
+				}
+				if (ok == false)
+					return CommandControl.NOT_OK;
+
+				if (size == 1)
+					return CommandControl.OK_PARTIAL;
+
+				if (end.get().matcher(trimEnd.trim(kept.get(kept.size() - 1))).matches() == false)
+					return CommandControl.OK_PARTIAL;
+
+				BlocLines lines = BlocLines.from(new ArrayList<>(kept));
+				if (syntaxWithFinalBracket())
+					lines = lines.eventuallyMoveBracket();
+
+				return finalVerification(lines);
+			}
+
+			private boolean isFirstOk() {
+				if (firstOk == null)
+					firstOk = starting.match(kept.get(0).getTrimmed());
+				return firstOk;
+			}
+
+			private boolean isFirstWithBracketOk() {
+				if (firstWithBracketOk == null)
+					firstWithBracketOk = starting.match(kept.get(0).append(" {").getTrimmed());
+				return firstWithBracketOk;
+			}
+		};
+	}
+
 	public final CommandExecutionResult execute(S system, BlocLines lines, ParserPass currentPass) {
 		lines = lines.cleanList(strategy);
 		if (syntaxWithFinalBracket())
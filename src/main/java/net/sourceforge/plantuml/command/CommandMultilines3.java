@@ -91,6 +91,50 @@ public abstract class CommandMultilines3<S extends Diagram> implements Command<S
 		return finalVerification();
 	}
 
+	@Override
+	public MultilinesValidator newValidator() {
+		return new MultilinesValidator() {
+			private int size;
+			private boolean firstOk;
+			private StringLocated last;
+
+			@Override
+			public void add(StringLocated line) {
+				if (strategy.isKept(line)) {
+					size++;
+					if (size == 1)
+						firstOk = starting.match(line.getTrimmed());
+					last = line;
+				}
+			}
+
+			@Override
+			public CommandControl validate() {
+				if (isCommandForbidden())
+					return CommandControl.NOT_OK;
+
+				if (size == 0 || firstOk == false)
+					return CommandControl.NOT_OK;
+
+				if (size == 1)
+					return CommandControl.OK_PARTIAL;
+
+				final StringLocated potentialLast;
+				if (trimEnd == Trim.NONE)
+					potentialLast = last;
+				else if (trimEnd == Trim.BOTH)
+					potentialLast = last.getTrimmed();
+				else
+					throw new IllegalStateException();
+
+				if (patternEnd.match(potentialLast) == false)
+					return CommandControl.OK_PARTIAL;
+
+				return finalVerification();
+			}
+		};
+	}
+
 	public final CommandExecutionResult execute(S system, BlocLines lines, ParserPass currentPass)
 			throws NoSuchColorException {
 		lines = lines.cleanList(strategy);
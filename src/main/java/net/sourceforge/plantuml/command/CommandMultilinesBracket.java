@@ -99,5 +99,56 @@ public abstract class CommandMultilinesBracket<S extends Diagram> implements Com
 		return finalVerification();
 	}
 
+	@Override
+	public MultilinesValidator newValidator() {
+		return new MultilinesValidator() {
+			private int size;
+			private boolean firstOk;
+			private boolean consistent = true;
+			private int level = 1;
+
+			@Override
+			public void add(StringLocated line) {
+				size++;
+				if (size == 1)
+					firstOk = starting.matcher(line.getTrimmed().getString()).matches();
+				else if (consistent)
+					addLine(line.getTrimmed().getString());
+			}
+
+			@Override
+			public CommandControl validate() {
+				if (isCommandForbidden() || firstOk == false)
+					return CommandControl.NOT_OK;
+
+				if (size == 1)
+					return CommandControl.OK_PARTIAL;
+
+				if (consistent == false)
+					return CommandControl.NOT_OK;
+
+				if (level != 0)
+					return CommandControl.OK_PARTIAL;
+
+				return finalVerification();
+			}
+
+			private void addLine(String s) {
+				if (isLineConsistent(s, level) == false) {
+					consistent = false;
+					return;
+				}
+				if (s.endsWith("{"))
+					level++;
+
+				if (s.endsWith("}"))
+					level--;
+
+				if (level < 0)
+					consistent = false;
+			}
+		};
+	}
+
 	protected abstract boolean isLineConsistent(String line, int level);
 }
@@ -58,6 +58,10 @@ public enum MultilinesStrategy {
 		}
 	}
 
+	boolean isKept(StringLocated s) {
+		return this != REMOVE_STARTING_QUOTE || hasStartingQuote(s) == false;
+	}
+
 	private boolean hasStartingQuote(StringLocated s) {
 		return s.getTrimmed().getString().startsWith("\'");
 	}
@@ -59,6 +59,7 @@ import net.sourceforge.plantuml.version.IteratorCounter2;
 public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 
 	private final List<Command> cmds = new ArrayList<>();
+	private CommandDispatchIndex index;
 
 	protected abstract void initCommandsList(List<Command> cmds);
 
@@ -164,14 +165,27 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 
 	}
 
-	private Step getCandidate(final IteratorCounter2 it) {
-		final BlocLines single = BlocLines.single(it.peek());
+	final List<Command<?>> getCommands() {
 		synchronized (cmds) {
 			if (cmds.size() == 0)
 				initCommandsList(cmds);
+			final List<Command<?>> result = new ArrayList<>();
+			for (Command cmd : cmds)
+				result.add(cmd);
+			return result;
 		}
+	}
 
-		for (Command cmd : cmds) {
+	private Step getCandidate(final IteratorCounter2 it) {
+		final BlocLines single = BlocLines.single(it.peek());
+		final CommandDispatchIndex current;
+		synchronized (cmds) {
+			if (index == null)
+				index = new CommandDispatchIndex(getCommands());
+			current = index;
+		}
+
+		for (Command cmd : current.getCandidates(it.peek())) {
 			final CommandControl result = cmd.isValid(single);
 			if (result == CommandControl.OK) {
 				it.next();
@@ -191,16 +205,17 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 	}
 
 	private BlocLines isMultilineCommandOk(IteratorCounter2 it, Command cmd) {
-		BlocLines lines = BlocLines.create();
+		final MultilinesValidator validator = cmd.newValidator();
+		final List<StringLocated> lines = new ArrayList<>();
 		int nb = 0;
 		while (it.hasNext()) {
-			lines = addOneSingleLineManageEmbedded2(it, lines);
-			final CommandControl result = cmd.isValid(lines);
+			addOneSingleLineManageEmbedded2(it, lines, validator);
+			final CommandControl result = validator.validate();
 			if (result == CommandControl.NOT_OK)
 				return null;
 
 			if (result == CommandControl.OK)
-				return lines;
+				return BlocLines.from(lines);
 
 			nb++;
 			if (cmd instanceof CommandDecoratorMultine && nb > ((CommandDecoratorMultine) cmd).getNbMaxLines())
@@ -210,26 +225,27 @@ public abstract class PSystemCommandFactory extends PSystemAbstractFactory {
 		return null;
 	}
 
-	private static BlocLines addOneSingleLineManageEmbedded2(IteratorCounter2 it, BlocLines lines) {
+	private static void addOneSingleLineManageEmbedded2(IteratorCounter2 it, List<StringLocated> lines,
+			MultilinesValidator validator) {
 		final StringLocated linetoBeAdded = it.next();
-		lines = lines.add(linetoBeAdded);
+		lines.add(linetoBeAdded);
+		validator.add(linetoBeAdded);
 		if (EmbeddedDiagram.getEmbeddedType(linetoBeAdded.getTrimmed().getString()) != null) {
 			int nested = 1;
 			while (it.hasNext()) {
 				final StringLocated s = it.next();
-				lines = lines.add(s);
+				lines.add(s);
+				validator.add(s);
 				if (EmbeddedDiagram.getEmbeddedType(s.getTrimmed().getString()) != null)
 					// if (s.getTrimmed().getString().startsWith(EmbeddedDiagram.EMBEDDED_START))
 					nested++;
 				else if (s.getTrimmed().getString().equals(EmbeddedDiagram.EMBEDDED_END)) {
 					nested--;
 					if (nested == 0)
-						return lines;
+						return;
 				}
 			}
 		}
-
-		return lines;
 	}
 
 }
@@ -71,10 +71,19 @@ public class ProtectedCommand<S extends Diagram> implements Command<S> {
 		}
 	}
 
+	Command<S> getDecoratedCommand() {
+		return cmd;
+	}
+
 	public CommandControl isValid(BlocLines lines) {
 		return cmd.isValid(lines);
 	}
 
+	@Override
+	public MultilinesValidator newValidator() {
+		return cmd.newValidator();
+	}
+
 	@Override
 	public boolean isEligibleFor(ParserPass pass) {
 		return cmd.isEligibleFor(pass);
@@ -60,6 +60,14 @@ public abstract class SingleLineCommand2<S extends Diagram> implements Command<S
 		this.pattern = Objects.requireNonNull(pattern);
 	}
 
+	final IRegex getPattern() {
+		return pattern;
+	}
+
+	final boolean isTrimmed() {
+		return doTrim;
+	}
+
 	public boolean syntaxWithFinalBracket() {
 		return false;
 	}
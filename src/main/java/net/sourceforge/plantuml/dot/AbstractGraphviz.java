@@ -43,6 +43,7 @@ import java.util.Objects;
 
 import net.sourceforge.plantuml.StringUtils;
 import net.sourceforge.plantuml.cli.GlobalConfig;
+import net.sourceforge.plantuml.cli.GlobalConfigKey;
 import net.sourceforge.plantuml.log.Logme;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.style.ISkinParam;
@@ -103,6 +104,13 @@ abstract class AbstractGraphviz implements Graphviz {
 			throw new IllegalStateException();
 
 		final String cmd[] = getCommandLine();
+		final DotProcessPool pool = DotProcessPool.getInstance();
+		if (pool != null && type.length == 1 && type[0].equals("svg")) {
+			final long timeoutMs = (Long) GlobalConfig.getInstance().value(GlobalConfigKey.TIMEOUT_MS);
+			final ProcessState state = pool.run(cmd, dotString.getBytes(), os, timeoutMs);
+			if (state != null)
+				return state;
+		}
 		ProcessRunner p = null;
 		ProcessState state = null;
 		try {
@@ -0,0 +1,301 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.dot;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.security.SecurityUtils;
+import net.sourceforge.plantuml.utils.Log;
+
+/**
+ * Pool of long-lived Graphviz processes used to generate SVG.
+ * <p>
+ * dot reads the graphs one after the other on its standard input, and writes
+ * the result of each graph as soon as it is laid out. So a process can be kept
+ * running and reused for many diagrams, instead of starting a new one each
+ * time. After each graph, a small sentinel graph is sent: its output marks the
+ * end of the result, even when dot was not able to render the graph.
+ * <p>
+ * A process is replaced when it is found dead, when a job fails or takes
+ * longer than the timeout, and after a given number of jobs. The pool is
+ * disabled by default: it is enabled with <code>--graphviz-pool &lt;n&gt;</code>
+ * or the <code>PLANTUML_DOT_POOL</code> environment variable.
+ */
+public class DotProcessPool {
+	// ::remove file when __CORE__
+
+	static final String SENTINEL = "plantuml_pool_sentinel";
+	private static final byte[] SENTINEL_GRAPH = ("\ndigraph " + SENTINEL + " {}\n").getBytes(UTF_8);
+	private static final String SENTINEL_TITLE = "<title>" + SENTINEL + "</title>";
+
+	private static DotProcessPool instance = fromEnvironment();
+
+	private final int maxJobs;
+	private final Semaphore permits;
+	private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+		final Thread thread = new Thread(r, "DotProcessPool-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final LongAdder started = new LongAdder();
+	private final LongAdder jobs = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	DotProcessPool(int processes, int maxJobs) {
+		this.permits = new Semaphore(processes);
+		this.maxJobs = maxJobs;
+	}
+
+	private static DotProcessPool fromEnvironment() {
+		final int processes = getenvInt("PLANTUML_DOT_POOL", 0);
+		if (processes == 0)
+			return null;
+
+		return new DotProcessPool(processes, getenvInt("PLANTUML_DOT_POOL_JOBS", 1000));
+	}
+
+	private static int getenvInt(String name, int defaultValue) {
+		final String env = SecurityUtils.getenv(name);
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+"))
+			return Integer.parseInt(env);
+
+		return defaultValue;
+	}
+
+	/**
+	 * Returns the pool, or <code>null</code> if it is disabled.
+	 */
+	public static synchronized DotProcessPool getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Sets the number of processes of the pool. Zero disables the pool.
+	 */
+	public static synchronized void configure(int processes) {
+		if (instance != null)
+			instance.shutdown();
+
+		instance = processes == 0 ? null
+				: new DotProcessPool(processes, getenvInt("PLANTUML_DOT_POOL_JOBS", 1000));
+	}
+
+	/**
+	 * Lays out one graph with a process of the pool.
+	 *
+	 * @return the state of the job, or <code>null</code> if the graph could not be
+	 *         processed by the pool and should be processed by a new process.
+	 */
+	public ProcessState run(String[] cmd, byte[] dotString, OutputStream os, long timeoutMs) {
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		try {
+			final Worker worker = borrow(cmd);
+			final byte[] result;
+			try {
+				result = worker.execute(dotString, timeoutMs);
+			} catch (IOException e) {
+				worker.destroy();
+				if (worker.timedOut) {
+					timeouts.increment();
+					return ProcessState.TIMEOUT();
+				}
+				failures.increment();
+				Log.info(() -> "Graphviz pool: " + e);
+				return null;
+			}
+			jobs.increment();
+			if (worker.nbJobs >= maxJobs)
+				worker.close();
+			else
+				idle.add(worker);
+
+			if (result.length == 0) {
+				failures.increment();
+				return null;
+			}
+			os.write(result);
+			return ProcessState.TERMINATED_OK();
+		} catch (IOException e) {
+			failures.increment();
+			Log.info(() -> "Graphviz pool: " + e);
+			return null;
+		} finally {
+			permits.release();
+		}
+	}
+
+	private Worker borrow(String[] cmd) throws IOException {
+		Worker worker;
+		while ((worker = idle.poll()) != null) {
+			if (Arrays.equals(worker.cmd, cmd) && worker.process.isAlive())
+				return worker;
+
+			worker.destroy();
+		}
+		started.increment();
+		return new Worker(cmd);
+	}
+
+	public void shutdown() {
+		Worker worker;
+		while ((worker = idle.poll()) != null)
+			worker.close();
+
+		watchdog.shutdownNow();
+	}
+
+	@Override
+	public String toString() {
+		return "started=" + started.sum() + " jobs=" + jobs.sum() + " timeouts=" + timeouts.sum() + " failures="
+				+ failures.sum();
+	}
+
+	private class Worker {
+
+		private final String[] cmd;
+		private final Process process;
+		private final OutputStream stdin;
+		private final InputStream stdout;
+		private int nbJobs;
+		private volatile boolean timedOut;
+
+		Worker(String[] cmd) throws IOException {
+			this.cmd = cmd;
+			this.process = new ProcessBuilder(cmd).start();
+			this.stdin = process.getOutputStream();
+			this.stdout = new BufferedInputStream(process.getInputStream());
+			final Thread stderr = new Thread(() -> drain(process.getErrorStream()), "DotProcessPool-stderr");
+			stderr.setDaemon(true);
+			stderr.start();
+		}
+
+		private void drain(InputStream is) {
+			try (BufferedReader br = new BufferedReader(new InputStreamReader(is, UTF_8))) {
+				String line;
+				while ((line = br.readLine()) != null) {
+					final String message = line;
+					Log.info(() -> "Graphviz: " + message);
+				}
+			} catch (IOException e) {
+				// The process has been stopped
+			}
+		}
+
+		/**
+		 * Sends a graph followed by the sentinel, and returns the output of the graph
+		 * (empty if dot did not render it).
+		 */
+		byte[] execute(byte[] dotString, long timeoutMs) throws IOException {
+			nbJobs++;
+			final ScheduledFuture<?> kill = watchdog.schedule(() -> {
+				timedOut = true;
+				process.destroyForcibly();
+			}, timeoutMs, TimeUnit.MILLISECONDS);
+			try {
+				stdin.write(dotString);
+				stdin.write(SENTINEL_GRAPH);
+				stdin.flush();
+				return readUntilSentinel();
+			} finally {
+				kill.cancel(false);
+			}
+		}
+
+		private byte[] readUntilSentinel() throws IOException {
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			final ByteArrayOutputStream line = new ByteArrayOutputStream();
+			int documentStart = 0;
+			int sentinelStart = -1;
+			int c;
+			while ((c = stdout.read()) != -1) {
+				line.write(c);
+				if (c != '\n')
+					continue;
+
+				final String s = new String(line.toByteArray(), UTF_8);
+				if (s.startsWith("<?xml"))
+					documentStart = output.size();
+				if (s.contains(SENTINEL_TITLE))
+					sentinelStart = documentStart;
+
+				line.writeTo(output);
+				line.reset();
+				if (sentinelStart != -1 && s.trim().equals("</svg>"))
+					return Arrays.copyOf(output.toByteArray(), sentinelStart);
+			}
+			throw new IOException("Graphviz process ended");
+		}
+
+		void close() {
+			try {
+				stdin.close();
+			} catch (IOException e) {
+				destroy();
+			}
+		}
+
+		void destroy() {
+			process.destroyForcibly();
+		}
+	}
+
+}
@@ -51,6 +51,10 @@ public class AParentFolderStdlib implements AParentFolder {
 		this.libname = libname;
 	}
 
+	public String getLibname() {
+		return libname;
+	}
+
 	@Override
 	public AFile getAFile(String nameOrPath) throws IOException {
 		throw new IllegalStateException();
@@ -36,8 +36,10 @@
 package net.sourceforge.plantuml.klimt.creole;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.plantuml.klimt.geom.HorizontalAlignment;
 
@@ -45,6 +47,9 @@ public class Sheet implements Iterable<Stripe> {
 
 	private final List<Stripe> stripes = new ArrayList<>();
 	private final HorizontalAlignment horizontalAlignment;
+	// Layouts computed by SheetBlock1, by line break strategy and StringBounder
+	// class
+	private final Map<Object, SheetBlock1.Layout> layouts = new HashMap<>();
 
 	public Sheet(HorizontalAlignment horizontalAlignment) {
 		this.horizontalAlignment = horizontalAlignment;
@@ -76,6 +81,18 @@ public class Sheet implements Iterable<Stripe> {
 		return stripes.get(size - 1);
 	}
 
+	synchronized SheetBlock1.Layout getLayout(Object key) {
+		final SheetBlock1.Layout result = layouts.get(key);
+		SheetCache.countLayout(result != null);
+		return result;
+	}
+
+	synchronized void putLayout(Object key, SheetBlock1.Layout layout) {
+		if (layouts.size() >= 8)
+			layouts.clear();
+		layouts.put(key, layout);
+	}
+
 	public final HorizontalAlignment getHorizontalAlignment() {
 		return horizontalAlignment;
 	}
@@ -36,6 +36,7 @@
 package net.sourceforge.plantuml.klimt.creole;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,11 +62,7 @@ public class SheetBlock1 extends AbstractTextBlock implements TextBlock, Atom, S
     // ::remove folder when __HAXE__
 
 	private final Sheet sheet;
-	private List<Stripe> stripes;
-	private Map<Stripe, Double> heights;
-	private Map<Stripe, Double> widths;
-	private Map<Atom, Position> positions;
-	private MinMax minMax;
+	private Layout layout;
 	private final LineBreakStrategy maxWidth;
 	private final ClockwiseTopRightBottomLeft padding;
 	private final double marginX1;
@@ -101,6 +98,7 @@ public class SheetBlock1 extends AbstractTextBlock implements TextBlock, Atom, S
 	}
 
 	public HorizontalAlignment getCellAlignment() {
+		final List<Stripe> stripes = layout.stripes;
 		if (stripes.size() != 1)
 			return HorizontalAlignment.LEFT;
 
@@ -120,72 +118,93 @@ public class SheetBlock1 extends AbstractTextBlock implements TextBlock, Atom, S
 		if (lastCaller == currentCaller)
 			return;
 		this.lastCaller = currentCaller;
-		stripes = new ArrayList<>();
-		for (Stripe stripe : sheet)
-			stripes.addAll(new Fission(stripe, maxWidth).getSplitted(stringBounder));
-
-		positions = new LinkedHashMap<>();
-		widths = new LinkedHashMap<>();
-		heights = new LinkedHashMap<>();
-		minMax = MinMax.getEmpty(true);
-		double y = 0;
-		for (Stripe stripe : stripes) {
-			if (stripe.getAtoms().size() == 0)
-				continue;
-
-			final Sea sea = new Sea(stringBounder);
-			for (Atom atom : stripe.getAtoms())
-				sea.add(atom);
-
-			sea.doAlign();
-			if (stringBounder.matchesProperty("TIKZ")) {
-				sea.doAlignTikz();
-			}
-			sea.translateMinYto(y);
-			final double width = sea.getWidth();
-			widths.put(stripe, width);
-			minMax = sea.update(minMax);
-			final double height = sea.getHeight();
-			heights.put(stripe, height);
-			y += height;
-			if (stringBounder.matchesProperty("TIKZ")) {
-				sea.doAlignTikzBaseline();
-			}
-			sea.exportAllPositions(positions);
+		// The sheet is shared by all the blocks displaying the same text, so is the
+		// layout
+		final Object key = layoutKey(stringBounder, maxWidth);
+		layout = sheet.getLayout(key);
+		if (layout == null) {
+			layout = new Layout(sheet, maxWidth, stringBounder);
+			sheet.putLayout(key, layout);
 		}
-		final int coef;
-		if (sheet.getHorizontalAlignment() == HorizontalAlignment.CENTER)
-			coef = 2;
-		else if (sheet.getHorizontalAlignment() == HorizontalAlignment.RIGHT)
-			coef = 1;
-		else
-			coef = 0;
-
-		if (coef != 0) {
-			double maxWidth = 0;
-			for (Double v : widths.values())
-				if (v > maxWidth)
-					maxWidth = v;
-
-			for (Map.Entry<Stripe, Double> ent : widths.entrySet()) {
-				// final double diff = maxWidth - ent.getValue() + this.marginX1 +
-				// this.marginX2;
-				final double diff = maxWidth - ent.getValue();
-				if (diff > 0) {
-					for (Atom atom : ent.getKey().getAtoms()) {
-						final Position pos = positions.get(atom);
-						positions.put(atom, pos.translateX(diff / coef));
+	}
+
+	static Object layoutKey(StringBounder stringBounder, LineBreakStrategy maxWidth) {
+		return Arrays.asList(stringBounder.getClass(), maxWidth.toString());
+	}
+
+	/**
+	 * Stripes and positions of the atoms of a sheet, which depend only on the
+	 * sheet, the line break strategy and the StringBounder.
+	 */
+	static final class Layout {
+
+		private final List<Stripe> stripes = new ArrayList<>();
+		private final Map<Atom, Position> positions = new LinkedHashMap<>();
+		private final MinMax minMax;
+
+		private Layout(Sheet sheet, LineBreakStrategy maxWidth, StringBounder stringBounder) {
+			for (Stripe stripe : sheet)
+				stripes.addAll(new Fission(stripe, maxWidth).getSplitted(stringBounder));
+
+			final Map<Stripe, Double> widths = new LinkedHashMap<>();
+			MinMax minMax = MinMax.getEmpty(true);
+			double y = 0;
+			for (Stripe stripe : stripes) {
+				if (stripe.getAtoms().size() == 0)
+					continue;
+
+				final Sea sea = new Sea(stringBounder);
+				for (Atom atom : stripe.getAtoms())
+					sea.add(atom);
+
+				sea.doAlign();
+				if (stringBounder.matchesProperty("TIKZ")) {
+					sea.doAlignTikz();
+				}
+				sea.translateMinYto(y);
+				final double width = sea.getWidth();
+				widths.put(stripe, width);
+				minMax = sea.update(minMax);
+				final double height = sea.getHeight();
+				y += height;
+				if (stringBounder.matchesProperty("TIKZ")) {
+					sea.doAlignTikzBaseline();
+				}
+				sea.exportAllPositions(positions);
+			}
+			this.minMax = minMax;
+			final int coef;
+			if (sheet.getHorizontalAlignment() == HorizontalAlignment.CENTER)
+				coef = 2;
+			else if (sheet.getHorizontalAlignment() == HorizontalAlignment.RIGHT)
+				coef = 1;
+			else
+				coef = 0;
+
+			if (coef != 0) {
+				double maxWidthValue = 0;
+				for (Double v : widths.values())
+					if (v > maxWidthValue)
+						maxWidthValue = v;
+
+				for (Map.Entry<Stripe, Double> ent : widths.entrySet()) {
+					final double diff = maxWidthValue - ent.getValue();
+					if (diff > 0) {
+						for (Atom atom : ent.getKey().getAtoms()) {
+							final Position pos = positions.get(atom);
+							positions.put(atom, pos.translateX(diff / coef));
+						}
 					}
+
 				}
 
 			}
-
 		}
 	}
 
 	public XDimension2D calculateDimension(StringBounder stringBounder) {
 		initMap(stringBounder);
-		return minMax.getDimension().delta(padding.getBottom() + padding.getTop());
+		return layout.minMax.getDimension().delta(padding.getBottom() + padding.getTop());
 	}
 
 	@Override
@@ -198,9 +217,9 @@ public class SheetBlock1 extends AbstractTextBlock implements TextBlock, Atom, S
 		if (padding.getLeft() > 0 || padding.getTop() > 0)
 			ug = ug.apply(new UTranslate(padding.getLeft(), padding.getTop()));
 
-		for (Stripe stripe : stripes)
+		for (Stripe stripe : layout.stripes)
 			for (Atom atom : stripe.getAtoms()) {
-				final Position position = positions.get(atom);
+				final Position position = layout.positions.get(atom);
 				atom.drawU(position.translate(ug));
 				// position.drawDebug(ug);
 			}
@@ -0,0 +1,100 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.klimt.creole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded thread-safe cache of the {@link Sheet}s parsed by a
+ * {@link SheetBuilder}, with global hit statistics.
+ * <p>
+ * Parsers are shared by all the elements of a diagram using the same fonts,
+ * alignment and creole mode, so repeated labels, stereotypes and members are
+ * parsed once. As the sheets are shared, the layouts computed by
+ * {@link SheetBlock1} are kept in the sheets themselves, and are counted here
+ * too.
+ */
+public final class SheetCache {
+	// ::remove file when __HAXE__
+
+	private static final int CAPACITY = 1_000;
+
+	private static final LongAdder sheetHits = new LongAdder();
+	private static final LongAdder sheetMisses = new LongAdder();
+	private static final LongAdder layoutHits = new LongAdder();
+	private static final LongAdder layoutMisses = new LongAdder();
+
+	private final Map<Display, Sheet> sheets = new LinkedHashMap<Display, Sheet>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Display, Sheet> eldest) {
+			return size() > CAPACITY;
+		}
+	};
+
+	public synchronized Sheet get(Display display) {
+		final Sheet result = sheets.get(display);
+		if (result == null)
+			sheetMisses.increment();
+		else
+			sheetHits.increment();
+		return result;
+	}
+
+	public synchronized void put(Display display, Sheet sheet) {
+		sheets.put(display, sheet);
+	}
+
+	static void countLayout(boolean hit) {
+		if (hit)
+			layoutHits.increment();
+		else
+			layoutMisses.increment();
+	}
+
+	private static String hitRate(LongAdder hits, LongAdder misses) {
+		final long h = hits.sum();
+		final long total = h + misses.sum();
+		final long percent = total == 0 ? 0 : 100 * h / total;
+		return h + "/" + total + " (" + percent + "%)";
+	}
+
+	public static String getStatistics() {
+		return "sheets " + hitRate(sheetHits, sheetMisses) + " layouts " + hitRate(layoutHits, layoutMisses);
+	}
+
+}
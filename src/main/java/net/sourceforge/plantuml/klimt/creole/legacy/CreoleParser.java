@@ -36,10 +36,8 @@
 package net.sourceforge.plantuml.klimt.creole.legacy;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 import net.sourceforge.plantuml.EmbeddedDiagram;
@@ -51,6 +49,7 @@ import net.sourceforge.plantuml.klimt.creole.Display;
 import net.sourceforge.plantuml.klimt.creole.Parser;
 import net.sourceforge.plantuml.klimt.creole.Sheet;
 import net.sourceforge.plantuml.klimt.creole.SheetBuilder;
+import net.sourceforge.plantuml.klimt.creole.SheetCache;
 import net.sourceforge.plantuml.klimt.creole.Stripe;
 import net.sourceforge.plantuml.klimt.creole.atom.Atom;
 import net.sourceforge.plantuml.klimt.font.FontConfiguration;
@@ -118,7 +117,7 @@ public class CreoleParser implements SheetBuilder {
 		return line.matches("^\\=?\\s*(\\<#\\w+(,#?\\w+)?\\>).*");
 	}
 
-	private final Map<Display, Sheet> cache = new HashMap<>();
+	private final SheetCache cache = new SheetCache();
 
 	public Sheet createSheet(Display display) {
 		if (Jaws.TRACE)
@@ -139,6 +139,14 @@ public abstract class AbstractCommonUGraphic implements UGraphic {
 		this.enlargeClip = true;
 	}
 
+	final boolean isClipEnlarged() {
+		return enlargeClip;
+	}
+
+	final UClip getClipNotEnlarged() {
+		return clip;
+	}
+
 	final public UParam getParam() {
 		return new UParam() {
 
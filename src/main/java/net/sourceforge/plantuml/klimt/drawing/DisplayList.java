@@ -0,0 +1,309 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2025, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml.klimt.drawing;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import net.sourceforge.plantuml.klimt.UAntiAliasing;
+import net.sourceforge.plantuml.klimt.UChange;
+import net.sourceforge.plantuml.klimt.UClip;
+import net.sourceforge.plantuml.klimt.UGroup;
+import net.sourceforge.plantuml.klimt.UPattern;
+import net.sourceforge.plantuml.klimt.UShape;
+import net.sourceforge.plantuml.klimt.UStroke;
+import net.sourceforge.plantuml.klimt.UTranslate;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.color.HColor;
+import net.sourceforge.plantuml.klimt.font.StringBounder;
+import net.sourceforge.plantuml.klimt.shape.UDrawable;
+import net.sourceforge.plantuml.klimt.shape.UHidden;
+import net.sourceforge.plantuml.url.Url;
+
+/**
+ * Retained drawing of a {@link UDrawable}.
+ * <p>
+ * The drawable is traversed once: every shape is recorded with the translation,
+ * clip and {@link net.sourceforge.plantuml.klimt.UParam} it was drawn with, as
+ * well as urls and groups. The recording can then be replayed as many times as
+ * needed, for example first into a {@link LimitFinder} to compute the size of
+ * the image, and then into the real {@link UGraphic}.
+ * <p>
+ * The recording must be done with the same {@link StringBounder},
+ * {@link ColorMapper} and default background as the {@link UGraphic} it will be
+ * replayed into. Shapes can also be recorded one by one through
+ * {@link #recorder(UGraphic)}.
+ */
+public final class DisplayList implements UDrawable {
+	// ::remove file when __HAXE__
+
+	private final List<Item> items = new ArrayList<>();
+
+	private DisplayList() {
+	}
+
+	public static DisplayList record(UDrawable drawable, StringBounder stringBounder, ColorMapper colorMapper,
+			HColor defaultBackground, String... properties) {
+		final DisplayList result = new DisplayList();
+		final List<String> names = Arrays.asList(properties);
+		final Recorder recorder = new Recorder(stringBounder, result.items,
+				name -> names.stream().anyMatch(name::equalsIgnoreCase));
+		recorder.basicCopy(defaultBackground, colorMapper);
+		drawable.drawU(recorder);
+		return result;
+	}
+
+	public static DisplayList empty() {
+		return new DisplayList();
+	}
+
+	/**
+	 * Returns an {@link UGraphic} recording into this list, to be replayed into
+	 * the given one.
+	 */
+	public UGraphic recorder(UGraphic target) {
+		final Recorder recorder = new Recorder(target.getStringBounder(), items, target::matchesProperty);
+		recorder.basicCopy(target.getDefaultBackground(), target.getColorMapper());
+		return recorder;
+	}
+
+	public int size() {
+		return items.size();
+	}
+
+	@Override
+	public void drawU(UGraphic ug) {
+		final boolean limitFinder = ug instanceof LimitFinder;
+		State last = null;
+		UGraphic current = ug;
+		for (Item item : items) {
+			if (item.state != last) {
+				last = item.state;
+				current = last.applyTo(ug, limitFinder);
+			}
+			item.replay(current);
+		}
+	}
+
+	static private final class State {
+
+		private final UTranslate translate;
+		private final UClip clip;
+		private final boolean enlargeClip;
+		private final UStroke stroke;
+		private final UPattern pattern;
+		private final boolean hidden;
+		private final HColor color;
+		private final HColor backColor;
+		private final UAntiAliasing antiAliasing;
+
+		State(Recorder recorder) {
+			this.translate = recorder.getTranslate();
+			this.clip = recorder.getClipNotEnlarged();
+			this.enlargeClip = recorder.isClipEnlarged();
+			this.stroke = recorder.getParam().getStroke();
+			this.pattern = recorder.getParam().getPattern();
+			this.hidden = recorder.getParam().isHidden();
+			this.color = recorder.getParam().getColor();
+			this.backColor = recorder.getParam().getBackcolor();
+			this.antiAliasing = recorder.antiAliasing;
+		}
+
+		UGraphic applyTo(UGraphic ug, boolean limitFinder) {
+			// The clip is recorded relative to the origin, so it goes before the translation
+			if (clip != null) {
+				ug = ug.apply(clip);
+				if (enlargeClip && ug instanceof AbstractCommonUGraphic)
+					((AbstractCommonUGraphic) ug).enlargeClip();
+			}
+
+			ug = ug.apply(translate).apply(stroke).apply(color).apply(backColor.bg());
+			if (hidden)
+				ug = ug.apply(UHidden.HIDDEN);
+			if (pattern != UPattern.FULL && limitFinder == false)
+				ug = ug.apply(pattern);
+			if (antiAliasing != UAntiAliasing.ANTI_ALIASING_ON)
+				ug = ug.apply(antiAliasing);
+
+			return ug;
+		}
+	}
+
+	static private abstract class Item {
+
+		protected final State state;
+
+		Item(State state) {
+			this.state = state;
+		}
+
+		abstract void replay(UGraphic ug);
+	}
+
+	static private final class ShapeItem extends Item {
+
+		private final UShape shape;
+
+		ShapeItem(State state, UShape shape) {
+			super(state);
+			this.shape = shape;
+		}
+
+		@Override
+		void replay(UGraphic ug) {
+			ug.draw(shape);
+		}
+	}
+
+	static private final class UrlItem extends Item {
+
+		private final Url url;
+		private final boolean start;
+
+		UrlItem(State state, Url url, boolean start) {
+			super(state);
+			this.url = url;
+			this.start = start;
+		}
+
+		@Override
+		void replay(UGraphic ug) {
+			if (start == false)
+				ug.closeUrl();
+			else
+				ug.startUrl(url);
+		}
+	}
+
+	static private final class GroupItem extends Item {
+
+		private final UGroup group;
+		private final boolean start;
+
+		GroupItem(State state, UGroup group, boolean start) {
+			super(state);
+			this.group = group;
+			this.start = start;
+		}
+
+		@Override
+		void replay(UGraphic ug) {
+			if (start == false)
+				ug.closeGroup();
+			else
+				ug.startGroup(group);
+		}
+	}
+
+	static private final class Recorder extends AbstractCommonUGraphic {
+
+		private final List<Item> items;
+		private final Predicate<String> properties;
+		private UAntiAliasing antiAliasing = UAntiAliasing.ANTI_ALIASING_ON;
+		private State state;
+
+		Recorder(StringBounder stringBounder, List<Item> items, Predicate<String> properties) {
+			super(stringBounder);
+			this.items = items;
+			this.properties = properties;
+		}
+
+		@Override
+		protected AbstractCommonUGraphic copyUGraphic() {
+			final Recorder result = new Recorder(getStringBounder(), items, properties);
+			result.basicCopy(this);
+			result.antiAliasing = this.antiAliasing;
+			return result;
+		}
+
+		@Override
+		public UGraphic apply(UChange change) {
+			final Recorder copy = (Recorder) super.apply(change);
+			if (change instanceof UAntiAliasing)
+				copy.antiAliasing = (UAntiAliasing) change;
+
+			return copy;
+		}
+
+		private State getState() {
+			// This UGraphic does not change once created, except for enlargeClip()
+			if (state == null || state.enlargeClip != isClipEnlarged())
+				state = new State(this);
+
+			return state;
+		}
+
+		@Override
+		public <SHAPE extends UShape> void draw(SHAPE shape) {
+			items.add(new ShapeItem(getState(), shape));
+		}
+
+		@Override
+		public void startUrl(Url url) {
+			items.add(new UrlItem(getState(), url, true));
+		}
+
+		@Override
+		public void closeUrl() {
+			items.add(new UrlItem(getState(), null, false));
+		}
+
+		@Override
+		public void startGroup(UGroup group) {
+			items.add(new GroupItem(getState(), group, true));
+		}
+
+		@Override
+		public void closeGroup() {
+			items.add(new GroupItem(getState(), null, false));
+		}
+
+		@Override
+		public boolean matchesProperty(String propertyName) {
+			return properties.test(propertyName);
+		}
+
+		@Override
+		public void writeToStream(OutputStream os, String metadata, int dpi) {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+}
@@ -39,9 +39,9 @@ import java.util.Random;
 import net.sourceforge.plantuml.klimt.UChange;
 import net.sourceforge.plantuml.klimt.UPath;
 import net.sourceforge.plantuml.klimt.UShape;
+import net.sourceforge.plantuml.klimt.drawing.AbstractCommonUGraphic;
 import net.sourceforge.plantuml.klimt.drawing.UGraphic;
 import net.sourceforge.plantuml.klimt.drawing.UGraphicDelegator;
-import net.sourceforge.plantuml.klimt.drawing.svg.UGraphicSvg;
 import net.sourceforge.plantuml.klimt.shape.DotPath;
 import net.sourceforge.plantuml.klimt.shape.UEllipse;
 import net.sourceforge.plantuml.klimt.shape.ULine;
@@ -54,8 +54,9 @@ public class UGraphicHandwritten extends UGraphicDelegator implements UGraphic {
 
 	public UGraphicHandwritten(UGraphic ug) {
 		super(ug);
-		if (ug instanceof UGraphicSvg) {
-			((UGraphicSvg) ug).enlargeClip();
+		// Also true for a DisplayList recording an SVG drawing
+		if (ug instanceof AbstractCommonUGraphic && ug.matchesProperty("SVG")) {
+			((AbstractCommonUGraphic) ug).enlargeClip();
 		}
 	}
 
@@ -0,0 +1,273 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2025, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml.klimt.drawing.svg;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lightweight replacement of <code>org.w3c.dom.Element</code> used by
+ * {@link SvgGraphics}.
+ * <p>
+ * Children are serialized as soon as they are appended, so that only the
+ * elements still open (the root, the definitions, the pending groups and
+ * links) are kept in memory. The output is the one of the JDK XML
+ * Transformer with the <code>us-ascii</code> encoding: attributes sorted by
+ * name, namespace declarations first, and non ASCII characters written as
+ * character references.
+ */
+final class SvgElement {
+	// ::remove file when __HAXE__
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private final String tagName;
+	// Names and values, sorted by name
+	private final List<String> attributes = new ArrayList<>(8);
+	private StringBuilder content;
+
+	SvgElement(String tagName) {
+		this.tagName = tagName;
+	}
+
+	String getTagName() {
+		return tagName;
+	}
+
+	void setAttribute(String name, String value) {
+		if (value == null)
+			value = "";
+
+		int i = 0;
+		for (; i < attributes.size(); i += 2) {
+			final int cmp = attributes.get(i).compareTo(name);
+			if (cmp == 0) {
+				attributes.set(i + 1, value);
+				return;
+			}
+			if (cmp > 0)
+				break;
+		}
+		attributes.add(i, value);
+		attributes.add(i, name);
+	}
+
+	void setTextContent(String text) {
+		content = null;
+		if (text != null && text.length() > 0)
+			appendText(content(), text);
+	}
+
+	void appendChild(SvgElement child) {
+		child.writeTo(content());
+	}
+
+	void appendCData(String text) {
+		appendCData(content(), text);
+	}
+
+	void appendComment(String text) {
+		final StringBuilder sb = content();
+		sb.append("<!--");
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			// "--" is not allowed in a comment
+			if (c == '-' && i > 0 && text.charAt(i - 1) == '-')
+				sb.append(" -");
+			else if (c == '\n')
+				sb.append(LINE_SEPARATOR);
+			else if (c >= 0x80) {
+				// Characters that cannot be encoded are replaced
+				sb.append('?');
+				if (Character.isHighSurrogate(c) && i + 1 < text.length()
+						&& Character.isLowSurrogate(text.charAt(i + 1)))
+					i++;
+			} else
+				sb.append(c);
+		}
+		if (text.endsWith("-"))
+			sb.append(' ');
+		sb.append("-->");
+	}
+
+	/**
+	 * Appends some already serialized XML.
+	 */
+	void appendRaw(String xml) {
+		content().append(xml);
+	}
+
+	boolean hasChildNodes() {
+		return content != null && content.length() > 0;
+	}
+
+	private StringBuilder content() {
+		if (content == null)
+			content = new StringBuilder();
+
+		return content;
+	}
+
+	void writeTo(StringBuilder sb) {
+		appendStartTag(sb);
+		if (hasChildNodes()) {
+			sb.append('>');
+			sb.append(content);
+			appendEndTag(sb);
+		} else {
+			sb.append("/>");
+		}
+	}
+
+	/**
+	 * Writes the start tag, without its closing bracket.
+	 */
+	void appendStartTag(StringBuilder sb) {
+		sb.append('<').append(tagName);
+		for (int i = 0; i < attributes.size(); i += 2)
+			if (isNamespaceDeclaration(attributes.get(i)))
+				appendAttribute(sb, attributes.get(i), attributes.get(i + 1));
+
+		for (int i = 0; i < attributes.size(); i += 2)
+			if (isNamespaceDeclaration(attributes.get(i)) == false)
+				appendAttribute(sb, attributes.get(i), attributes.get(i + 1));
+	}
+
+	void appendEndTag(StringBuilder sb) {
+		sb.append("</").append(tagName).append('>');
+	}
+
+	void writeContentTo(Writer writer) throws IOException {
+		if (content == null)
+			return;
+
+		final char[] buffer = new char[8192];
+		for (int start = 0; start < content.length(); start += buffer.length) {
+			final int end = Math.min(content.length(), start + buffer.length);
+			content.getChars(start, end, buffer, 0);
+			writer.write(buffer, 0, end - start);
+		}
+	}
+
+	private static boolean isNamespaceDeclaration(String name) {
+		return name.equals("xmlns") || name.startsWith("xmlns:");
+	}
+
+	private static void appendAttribute(StringBuilder sb, String name, String value) {
+		sb.append(' ').append(name).append("=\"");
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '&')
+				sb.append("&amp;");
+			else if (c == '<')
+				sb.append("&lt;");
+			else if (c == '>')
+				sb.append("&gt;");
+			else if (c == '"')
+				sb.append("&quot;");
+			else if (c < 0x20 || c >= 0x80)
+				i = appendCharacterReference(sb, value, i);
+			else
+				sb.append(c);
+		}
+		sb.append('"');
+	}
+
+	private static void appendText(StringBuilder sb, String text) {
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '&')
+				sb.append("&amp;");
+			else if (c == '<')
+				sb.append("&lt;");
+			else if (c == '>')
+				sb.append("&gt;");
+			else if (c == '\n')
+				sb.append(LINE_SEPARATOR);
+			else if (c == '\t')
+				sb.append(c);
+			else if (c < 0x20 || c >= 0x7F)
+				i = appendCharacterReference(sb, text, i);
+			else
+				sb.append(c);
+		}
+	}
+
+	private static void appendCData(StringBuilder sb, String text) {
+		boolean open = text.length() > 0 && isEscapedInCData(text.charAt(0)) == false;
+		if (open)
+			sb.append("<![CDATA[");
+
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (isEscapedInCData(c)) {
+				if (open)
+					sb.append("]]>");
+				open = false;
+				i = appendCharacterReference(sb, text, i);
+				continue;
+			}
+			if (c == '\n') {
+				sb.append(LINE_SEPARATOR);
+				continue;
+			}
+			if (open == false)
+				sb.append("<![CDATA[");
+			open = true;
+			if (c == ']' && text.startsWith("]]>", i)) {
+				sb.append("]]]]><![CDATA[>");
+				i += 2;
+			} else {
+				sb.append(c);
+			}
+		}
+		if (open)
+			sb.append("]]>");
+	}
+
+	private static boolean isEscapedInCData(char c) {
+		return c >= 0x80 || (c < 0x20 && c != '\t' && c != '\n' && c != '\r');
+	}
+
+	private static int appendCharacterReference(StringBuilder sb, String s, int i) {
+		final int codePoint = s.codePointAt(i);
+		sb.append("&#").append(codePoint).append(';');
+		return i + Character.charCount(codePoint) - 1;
+	}
+
+}
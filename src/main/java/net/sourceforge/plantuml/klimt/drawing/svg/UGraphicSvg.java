@@ -38,7 +38,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Map;
 
-import javax.xml.transform.TransformerException;
 
 import net.sourceforge.plantuml.klimt.ClipContainer;
 import net.sourceforge.plantuml.klimt.UGroup;
@@ -130,14 +129,10 @@ public class UGraphicSvg extends AbstractUGraphic<SvgGraphics> implements ClipCo
 
 	@Override
 	public void writeToStream(OutputStream os, String metadata, int dpi) throws IOException {
-		try {
-			if (metadata != null)
-				getGraphicObject().addCommentMetadata(metadata);
-
-			getGraphicObject().createXml(os);
-		} catch (TransformerException e) {
-			throw new IOException(e);
-		}
+		if (metadata != null)
+			getGraphicObject().addCommentMetadata(metadata);
+
+		getGraphicObject().createXml(os);
 	}
 
 	@Override
@@ -0,0 +1,193 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.klimt.font;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+
+/**
+ * Thread-safe cache of measured text dimensions.
+ * <p>
+ * The cache is split into independent segments, each one being a small
+ * access-ordered map guarded by its own lock, so that the global eviction
+ * order is an approximate LRU. Measurements are always computed outside of any
+ * lock, using a per-thread {@link Graphics2D}, so that cache misses of
+ * different threads run in parallel.
+ */
+public final class TextMeasureCache {
+	// ::remove file when __HAXE__
+
+	private static final int SEGMENTS = 16;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private static final ThreadLocal<Graphics2D> graphics = ThreadLocal.withInitial(TextMeasureCache::createGraphics);
+
+	public TextMeasureCache(int capacity) {
+		final int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++)
+			segments[i] = new Segment(segmentCapacity);
+	}
+
+	private static Graphics2D createGraphics() {
+		final BufferedImage im = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D result = im.createGraphics();
+		result.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		result.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+		return result;
+	}
+
+	public XDimension2D getDimension(UFont font, String text) {
+		if (text.length() == 0)
+			return new XDimension2D(0, 0);
+
+		final FontTextKey key = new FontTextKey(font, text);
+		final Segment segment = segments[spread(key.hashCode()) & (SEGMENTS - 1)];
+
+		final XDimension2D cached = segment.get(key);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+
+		final XDimension2D result = measure(font, text);
+		segment.put(key, result);
+		return result;
+	}
+
+	private static XDimension2D measure(UFont font, String text) {
+		final Graphics2D gg = graphics.get();
+		final Font javaFont = font.getUnderlayingFont(text);
+		final FontMetrics fm = gg.getFontMetrics(javaFont);
+		final Rectangle2D rect = fm.getStringBounds(text, gg);
+		return new XDimension2D(rect.getWidth(), rect.getHeight());
+	}
+
+	private static int spread(int h) {
+		return h ^ (h >>> 16);
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public int size() {
+		int result = 0;
+		for (Segment segment : segments)
+			result += segment.size();
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "TextMeasureCache[size=" + size() + " hits=" + getHits() + " misses=" + getMisses() + " evictions="
+				+ getEvictions() + "]";
+	}
+
+	private final class Segment {
+
+		private final Map<FontTextKey, XDimension2D> map;
+
+		Segment(final int capacity) {
+			this.map = new LinkedHashMap<FontTextKey, XDimension2D>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<FontTextKey, XDimension2D> eldest) {
+					if (size() > capacity) {
+						evictions.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+
+		synchronized XDimension2D get(FontTextKey key) {
+			return map.get(key);
+		}
+
+		synchronized void put(FontTextKey key, XDimension2D value) {
+			map.put(key, value);
+		}
+
+		synchronized int size() {
+			return map.size();
+		}
+	}
+
+	private static class FontTextKey {
+		private final UFont font;
+		private final String text;
+
+		FontTextKey(UFont font, String text) {
+			this.font = font;
+			this.text = text;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			final FontTextKey other = (FontTextKey) obj;
+			return font.equals(other.font) && text.equals(other.text);
+		}
+
+		@Override
+		public int hashCode() {
+			return font.hashCode() * 31 + text.hashCode();
+		}
+	}
+
+}
@@ -49,7 +49,7 @@ import java.io.PrintWriter;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.net.URLEncoder;
+import java.net.SocketTimeoutException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -67,7 +67,6 @@ import net.sourceforge.plantuml.code.TranscoderUtil;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.core.ImageData;
 import net.sourceforge.plantuml.eggs.QuoteUtils;
-import net.sourceforge.plantuml.error.PSystemError;
 import net.sourceforge.plantuml.error.PSystemErrorUtils;
 import net.sourceforge.plantuml.json.Json;
 import net.sourceforge.plantuml.json.JsonArray;
@@ -83,8 +82,14 @@ import net.sourceforge.plantuml.version.Version;
 public class PicoWebServer implements Runnable {
 	// ::remove folder when __CORE__
 
+	private static final int KEEP_ALIVE_TIMEOUT_MS = 15_000;
+	private static final int MAX_KEEP_ALIVE_REQUESTS = 100;
+
 	private final Socket connect;
+	private boolean keepAlive;
 	static boolean enableStop;
+	private static volatile WorkerPool workers;
+	private static final RenderCache renderCache = RenderCache.fromEnvironment();
 
 	public PicoWebServer(Socket c) {
 		this.connect = c;
@@ -96,91 +101,165 @@ public class PicoWebServer implements Runnable {
 
 	public static void startServer(final int port, final String bindAddress, final boolean argEnableStop)
 			throws IOException {
+		startServer(port, bindAddress, argEnableStop, WorkerPool.getenvInt("PLANTUML_PICOWEB_BACKLOG", 50));
+	}
+
+	public static void startServer(final int port, final String bindAddress, final boolean argEnableStop,
+			final int backlog) throws IOException {
 		PicoWebServer.enableStop = argEnableStop;
 		final InetAddress bindAddress1 = bindAddress == null ? null : InetAddress.getByName(bindAddress);
-		final ServerSocket serverConnect = new ServerSocket(port, 50, bindAddress1);
+		final ServerSocket serverConnect = new ServerSocket(port, backlog, bindAddress1);
 		System.err.println("webPort=" + serverConnect.getLocalPort());
 		serverLoop(serverConnect);
 	}
 
 	public static void serverLoop(final ServerSocket serverConnect) throws IOException {
-		while (true) {
-			final PicoWebServer myServer = new PicoWebServer(serverConnect.accept());
-			final Thread thread = new Thread(myServer);
-			thread.start();
+		serverLoop(serverConnect, WorkerPool.fromEnvironment());
+	}
+
+	public static void serverLoop(final ServerSocket serverConnect, final WorkerPool pool) throws IOException {
+		PicoWebServer.workers = pool;
+		try {
+			while (true) {
+				final Socket socket = serverConnect.accept();
+				if (pool.submit(new PicoWebServer(socket)) == false)
+					sendServiceUnavailable(socket);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void sendServiceUnavailable(Socket socket) {
+		try {
+			final OutputStream out = socket.getOutputStream();
+			final byte[] body = "Server too busy".getBytes(UTF_8);
+			final String header = "HTTP/1.1 503 Service Unavailable\r\n" //
+					+ "Retry-After: 1\r\n" //
+					+ "Connection: close\r\n" //
+					+ "Content-type: text/plain\r\n" //
+					+ "Content-length: " + body.length + "\r\n\r\n";
+			out.write(header.getBytes(UTF_8));
+			out.write(body);
+			out.flush();
+		} catch (IOException e) {
+			Logme.error(e);
+		} finally {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				Logme.error(e);
+			}
 		}
 	}
 
 	public void run() {
+		final WorkerPool pool = workers;
+		boolean keepAliveReserved = false;
 		BufferedInputStream in = null;
 		BufferedOutputStream out = null;
 
 		try {
+			connect.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
 			in = new BufferedInputStream(connect.getInputStream());
 			out = new BufferedOutputStream(connect.getOutputStream());
 
-			final ReceivedHTTPRequest request = ReceivedHTTPRequest.fromStream(in);
-			if (request.getMethod().equals("GET")) {
-				if (request.getPath().startsWith("/png/") && handleGET(request, out, FileFormat.PNG))
-					return;
-				if (request.getPath().startsWith("/plantuml/png/") && handleGET(request, out, FileFormat.PNG))
-					return;
-				if (request.getPath().startsWith("/svg/") && handleGET(request, out, FileFormat.SVG))
-					return;
-				if (request.getPath().startsWith("/plantuml/svg/") && handleGET(request, out, FileFormat.SVG))
-					return;
-				if (request.getPath().startsWith("/txt/") && handleGET(request, out, FileFormat.ATXT))
-					return;
-				if (request.getPath().startsWith("/plantuml/txt/") && handleGET(request, out, FileFormat.ATXT))
-					return;
-				if (request.getPath().startsWith("/utxt/") && handleGET(request, out, FileFormat.UTXT))
-					return;
-				if (request.getPath().startsWith("/plantuml/utxt/") && handleGET(request, out, FileFormat.UTXT))
-					return;
-				if (request.getPath().startsWith("/serverinfo") && handleInfo(out))
-					return;
-				if (request.getPath().startsWith("/plantuml/serverinfo") && handleInfo(out))
-					return;
-				if (request.getPath().startsWith("/language") && handleLanguage(out))
-					return;
-				if (enableStop && (request.getPath().startsWith("/stopserver")
-						|| request.getPath().startsWith("/plantuml/stopserver")) && handleStop(out))
-					return;
-
-			} else if (request.getMethod().equals("POST") && request.getPath().equals("/render")) {
-				handleRenderRequest(request, out);
-				return;
+			// Requests sent on the same connection are processed in order, which also
+			// handles HTTP/1.1 pipelining
+			for (int i = 0; i < MAX_KEEP_ALIVE_REQUESTS; i++) {
+				final ReceivedHTTPRequest request = ReceivedHTTPRequest.fromStream(in);
+				if (request == null)
+					break;
+
+				keepAlive = request.isKeepAlive() && i < MAX_KEEP_ALIVE_REQUESTS - 1;
+				// The worker stays blocked while waiting for the next request
+				if (keepAlive && pool != null && keepAliveReserved == false)
+					keepAlive = keepAliveReserved = pool.acquireKeepAlive();
+
+				handleRequest(request, out);
+				if (keepAlive == false)
+					break;
 			}
-			write(out, "HTTP/1.1 302 Found");
-			write(out, "Location: /plantuml/png/oqbDJyrBuGh8ISmh2VNrKGZ8JCuFJqqAJYqgIotY0aefG5G00000");
-			write(out, "");
-			out.flush();
 
+		} catch (SocketTimeoutException e) {
+			// Idle keep-alive connection: simply close it
 		} catch (Throwable e) {
 			try {
+				keepAlive = false;
 				sendError(e, out);
 			} catch (Throwable e1) {
 				Logme.error(e);
 			}
 		} finally {
 			try {
-				in.close();
-				out.close();
+				if (in != null)
+					in.close();
+				if (out != null)
+					out.close();
 				connect.close();
 			} catch (Throwable e) {
 				Logme.error(e);
 			}
+			if (keepAliveReserved)
+				pool.releaseKeepAlive();
 		}
 	}
 
+	private void handleRequest(ReceivedHTTPRequest request, BufferedOutputStream out) throws Exception {
+		if (request.getMethod().equals("GET")) {
+			if (request.getPath().startsWith("/png/") && handleGET(request, out, FileFormat.PNG))
+				return;
+			if (request.getPath().startsWith("/plantuml/png/") && handleGET(request, out, FileFormat.PNG))
+				return;
+			if (request.getPath().startsWith("/svg/") && handleGET(request, out, FileFormat.SVG))
+				return;
+			if (request.getPath().startsWith("/plantuml/svg/") && handleGET(request, out, FileFormat.SVG))
+				return;
+			if (request.getPath().startsWith("/txt/") && handleGET(request, out, FileFormat.ATXT))
+				return;
+			if (request.getPath().startsWith("/plantuml/txt/") && handleGET(request, out, FileFormat.ATXT))
+				return;
+			if (request.getPath().startsWith("/utxt/") && handleGET(request, out, FileFormat.UTXT))
+				return;
+			if (request.getPath().startsWith("/plantuml/utxt/") && handleGET(request, out, FileFormat.UTXT))
+				return;
+			if (request.getPath().startsWith("/serverinfo") && handleInfo(out))
+				return;
+			if (request.getPath().startsWith("/plantuml/serverinfo") && handleInfo(out))
+				return;
+			if (request.getPath().startsWith("/language") && handleLanguage(out))
+				return;
+			if (enableStop && (request.getPath().startsWith("/stopserver")
+					|| request.getPath().startsWith("/plantuml/stopserver")) && handleStop(out))
+				return;
+
+		} else if (request.getMethod().equals("POST") && request.getPath().equals("/render")) {
+			handleRenderRequest(request, out);
+			return;
+		}
+		write(out, "HTTP/1.1 302 Found");
+		write(out, "Location: /plantuml/png/oqbDJyrBuGh8ISmh2VNrKGZ8JCuFJqqAJYqgIotY0aefG5G00000");
+		writeConnection(out);
+		write(out, "Content-length: 0");
+		write(out, "");
+		out.flush();
+	}
+
+	private void writeConnection(OutputStream out) throws IOException {
+		write(out, "Connection: " + (keepAlive ? "keep-alive" : "close"));
+	}
+
 	private boolean handleStop(BufferedOutputStream out) throws IOException {
+		keepAlive = false;
+		final byte[] body = "<html>Stoping...</html>\r\n".getBytes(UTF_8);
 		write(out, "HTTP/1.1 " + "200");
 		write(out, "Cache-Control: no-cache");
 		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
 		write(out, "Date: " + new Date());
+		writeConnection(out);
+		write(out, "Content-length: " + body.length);
 		write(out, "");
-
-		write(out, "<html>Stoping...</html>");
+		out.write(body);
 
 		out.flush();
 
@@ -200,13 +279,6 @@ public class PicoWebServer implements Runnable {
 	}
 
 	private boolean handleInfo(BufferedOutputStream out) throws IOException {
-		write(out, "HTTP/1.1 " + "200");
-		write(out, "Cache-Control: no-cache");
-		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
-		write(out, "Date: " + new Date());
-		write(out, "Content-Type: application/json");
-		write(out, "");
-
 		final JsonArray formats = new JsonArray();
 		formats.add("png");
 		formats.add("svg");
@@ -215,7 +287,20 @@ public class PicoWebServer implements Runnable {
 				.add("version", Version.versionString()) //
 				.add("PicoWebServer", true) //
 				.add("formats", formats); //
-		write(out, json.toString());
+		final WorkerPool pool = workers;
+		if (pool != null)
+			json.add("workers", pool.toJson());
+		final byte[] body = (json.toString() + "\r\n").getBytes(UTF_8);
+
+		write(out, "HTTP/1.1 " + "200");
+		write(out, "Cache-Control: no-cache");
+		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
+		write(out, "Date: " + new Date());
+		write(out, "Content-Type: application/json");
+		writeConnection(out);
+		write(out, "Content-length: " + body.length);
+		write(out, "");
+		out.write(body);
 
 		out.flush();
 
@@ -223,15 +308,20 @@ public class PicoWebServer implements Runnable {
 	}
 
 	private boolean handleLanguage(BufferedOutputStream out) throws IOException {
+		final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		final PrintStream ps = new PrintStream(body);
+		new LanguageDescriptor().print(ps);
+		ps.flush();
+
 		write(out, "HTTP/1.1 " + "200");
 		write(out, "Cache-Control: no-cache");
 		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
 		write(out, "Date: " + new Date());
 		write(out, "Content-Type: text/text");
+		writeConnection(out);
+		write(out, "Content-length: " + body.size());
 		write(out, "");
-
-		final PrintStream ps = new PrintStream(out);
-		new LanguageDescriptor().print(ps);
+		body.writeTo(out);
 
 		out.flush();
 
@@ -242,6 +332,13 @@ public class PicoWebServer implements Runnable {
 			throws IOException {
 		final int x = request.getPath().lastIndexOf('/');
 		final String compressed = request.getPath().substring(x + 1);
+		final String key = RenderCache.key(compressed, format);
+		final RenderedDiagram cached = renderCache.get(key);
+		if (cached != null) {
+			sendDiagram(out, cached, request.getIfNoneMatch());
+			return true;
+		}
+
 		final Transcoder transcoder = TranscoderUtil.getDefaultTranscoderProtected();
 		final String source = transcoder.decode(compressed);
 		final SourceStringReader ssr = new SourceStringReader(source);
@@ -253,8 +350,12 @@ public class PicoWebServer implements Runnable {
 			final ByteArrayOutputStream os = new ByteArrayOutputStream();
 			final ImageData imageData = system.exportDiagram(os, 0, fileFormatOption);
 			os.close();
-			sendDiagram(out, system, fileFormatOption, httpReturnCode(imageData.getStatus()), imageData,
-					os.toByteArray());
+			final RenderedDiagram rendered = RenderedDiagram.build(httpReturnCode(imageData.getStatus()),
+					format.getMimeType(), system, imageData, os.toByteArray());
+			if (RenderCache.isCacheable(source))
+				renderCache.put(key, rendered);
+
+			sendDiagram(out, rendered, request.getIfNoneMatch());
 			return true;
 		}
 		return false;
@@ -272,16 +373,32 @@ public class PicoWebServer implements Runnable {
 			throw new BadRequest400("Error parsing request json: " + e.getMessage(), e);
 		}
 
-		handleRenderRequest(renderRequest, out);
+		handleRenderRequest(renderRequest, out, request.getIfNoneMatch());
 	}
 
 	public void handleRenderRequest(RenderRequest renderRequest, BufferedOutputStream out) throws Exception {
+		handleRenderRequest(renderRequest, out, null);
+	}
+
+	private void handleRenderRequest(RenderRequest renderRequest, BufferedOutputStream out, String ifNoneMatch)
+			throws Exception {
 
 		final CliOptions option = CliParser.parse(renderRequest.getOptions());
 
 		final String source = renderRequest.getSource().startsWith("@start") ? renderRequest.getSource()
 				: "@startuml\n" + renderRequest.getSource() + "\n@enduml";
 
+		final FileFormat format = option.getFileFormatOption().getFileFormat();
+		final boolean cacheable = RenderCache.isCacheable(source) && RenderCache.isCacheable(option.getConfig());
+		final String key = RenderCache.key(source, format, option.getConfig(), renderRequest.getOptions());
+		if (cacheable) {
+			final RenderedDiagram cached = renderCache.get(key);
+			if (cached != null) {
+				sendDiagram(out, cached, ifNoneMatch);
+				return;
+			}
+		}
+
 		final SFile newCurrentDir = option.getFileDir() == null ? null : new SFile(option.getFileDir());
 		final SourceStringReader ssr = new SourceStringReader(option.getDefaultDefines(), source, UTF_8,
 				option.getConfig(), newCurrentDir);
@@ -300,35 +417,42 @@ public class PicoWebServer implements Runnable {
 			imageData = system.exportDiagram(os, 0, option.getFileFormatOption());
 		}
 
-		sendDiagram(out, system, option.getFileFormatOption(), "200", imageData, os.toByteArray());
+		final RenderedDiagram rendered = RenderedDiagram.build("200", format.getMimeType(), system, imageData,
+				os.toByteArray());
+		if (cacheable)
+			renderCache.put(key, rendered);
+
+		sendDiagram(out, rendered, ifNoneMatch);
 	}
 
-	private void sendDiagram(final BufferedOutputStream out, final Diagram system,
-			final FileFormatOption fileFormatOption, final String returnCode, final ImageData imageData,
-			final byte[] fileData) throws IOException {
+	private void sendDiagram(final BufferedOutputStream out, final RenderedDiagram rendered, final String ifNoneMatch)
+			throws IOException {
 
-		write(out, "HTTP/1.1 " + returnCode);
+		if (rendered.matches(ifNoneMatch)) {
+			write(out, "HTTP/1.1 304 Not Modified");
+			write(out, "Cache-Control: no-cache");
+			write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
+			write(out, "Date: " + new Date());
+			write(out, "ETag: " + rendered.getEtag());
+			write(out, "Access-Control-Allow-Origin: *");
+			writeConnection(out);
+			write(out, "");
+			out.flush();
+			return;
+		}
+
+		final byte[] fileData = rendered.getData();
+		write(out, "HTTP/1.1 " + rendered.getReturnCode());
 		write(out, "Cache-Control: no-cache");
 		write(out, "Server: PlantUML PicoWebServer " + Version.versionString());
 		write(out, "Date: " + new Date());
+		write(out, "ETag: " + rendered.getEtag());
 		write(out, "Access-Control-Allow-Origin: *");
-		write(out, "Content-type: " + fileFormatOption.getFileFormat().getMimeType());
+		writeConnection(out);
+		write(out, "Content-type: " + rendered.getMimeType());
 		write(out, "Content-length: " + fileData.length);
-		write(out, "X-PlantUML-Diagram-Width: " + imageData.getWidth());
-		write(out, "X-PlantUML-Diagram-Height: " + imageData.getHeight());
-		write(out, "X-PlantUML-Diagram-Description: " + system.getDescription().getDescription());
-		if (system instanceof PSystemError) {
-			final PSystemError error = (PSystemError) system;
-			for (ErrorUml err : error.getErrorsUml()) {
-				write(out, "X-PlantUML-Diagram-Error: " + err.getError());
-				write(out, "X-PlantUML-Diagram-Error-Line: " + (1 + err.getLineLocation().getPosition()));
-			}
-		}
-		if (system.getTitleDisplay() != null && system.getTitleDisplay().size() == 1) {
-			final String encode = URLEncoder.encode(system.getTitleDisplay().asList().get(0).toString(), "UTF-8");
-			if (encode.length() < 256)
-				write(out, "X-PlantUML-Diagram-Title: " + encode);
-		}
+		for (String header : rendered.getDiagramHeaders())
+			write(out, header);
 
 		write(out, "X-Patreon: Support us on https://plantuml.com/patreon");
 		write(out, "X-Donate: https://plantuml.com/paypal");
@@ -351,6 +475,7 @@ public class PicoWebServer implements Runnable {
 		printWriter.close();
 
 		write(out, "HTTP/1.1 " + (e instanceof BadRequest400 ? "400 Bad Request" : "500 Internal Server Error"));
+		writeConnection(out);
 		write(out, "Content-type: text/plain");
 		write(out, "Content-length: " + baos.size());
 		write(out, "");
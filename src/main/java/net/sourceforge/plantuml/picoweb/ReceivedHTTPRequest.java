@@ -7,11 +7,19 @@ import java.util.StringTokenizer;
 public class ReceivedHTTPRequest {
 
 	private static final String CONTENT_LENGTH_HEADER = "content-length: ";
+	private static final String CONNECTION_HEADER = "connection:";
+	private static final String IF_NONE_MATCH_HEADER = "if-none-match:";
 
 	private String method;
 
 	private String path;
 
+	private String version;
+
+	private String connection;
+
+	private String ifNoneMatch;
+
 	private byte[] body;
 
 	public String getMethod() {
@@ -26,10 +34,40 @@ public class ReceivedHTTPRequest {
 		return body;
 	}
 
+	public String getIfNoneMatch() {
+		return ifNoneMatch;
+	}
+
+	/**
+	 * Tells if the client wants to keep the connection open after the response.
+	 * This is the default for HTTP/1.1, and must be requested for HTTP/1.0.
+	 */
+	public boolean isKeepAlive() {
+		if (connection != null && connection.contains("close"))
+			return false;
+
+		if ("HTTP/1.0".equals(version))
+			return connection != null && connection.contains("keep-alive");
+
+		return true;
+	}
+
+	/**
+	 * Reads the next request of the connection.
+	 *
+	 * @return <code>null</code> if the connection has been closed by the client
+	 *         before a new request.
+	 */
 	public static ReceivedHTTPRequest fromStream(InputStream in) throws IOException {
 		final ReceivedHTTPRequest request = new ReceivedHTTPRequest();
 
-		final String requestLine = readLine(in);
+		String requestLine = readLine(in);
+		// Some clients send an extra CRLF after the body of a POST request
+		if (requestLine != null && requestLine.isEmpty())
+			requestLine = readLine(in);
+
+		if (requestLine == null)
+			return null;
 
 		final StringTokenizer tokenizer = new StringTokenizer(requestLine);
 		if (tokenizer.countTokens() != 3) {
@@ -38,16 +76,21 @@ public class ReceivedHTTPRequest {
 
 		request.method = tokenizer.nextToken().toUpperCase();
 		request.path = tokenizer.nextToken();
+		request.version = tokenizer.nextToken().toUpperCase();
 
 		// Headers
 		int contentLength = 0;
 
 		while (true) {
 			String line = readLine(in);
-			if (line.isEmpty()) {
+			if (line == null || line.isEmpty()) {
 				break;
 			} else if (line.toLowerCase().startsWith(CONTENT_LENGTH_HEADER)) {
 				contentLength = parseContentLengthHeader(line);
+			} else if (line.toLowerCase().startsWith(CONNECTION_HEADER)) {
+				request.connection = line.substring(CONNECTION_HEADER.length()).trim().toLowerCase();
+			} else if (line.toLowerCase().startsWith(IF_NONE_MATCH_HEADER)) {
+				request.ifNoneMatch = line.substring(IF_NONE_MATCH_HEADER.length()).trim();
 			}
 		}
 
@@ -96,6 +139,9 @@ public class ReceivedHTTPRequest {
 
 		while (true) {
 			int c = in.read();
+			if (c == -1 && builder.length() == 0) {
+				return null;
+			}
 			if (c == -1 || c == '\n') {
 				break;
 			}
@@ -0,0 +1,190 @@
+package net.sourceforge.plantuml.picoweb;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.log.Logme;
+import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.security.SecurityUtils;
+import net.sourceforge.plantuml.utils.SignatureUtils;
+import net.sourceforge.plantuml.version.Version;
+
+/**
+ * Content-addressed cache of rendered diagrams used by {@link PicoWebServer}.
+ * <p>
+ * Entries are keyed by the source (or encoded source), the output format, the
+ * PlantUML version and the rendering options. The memory used by the entries
+ * is bounded, the least recently used entries being evicted first. When a
+ * directory is configured, entries are also written to disk so that they
+ * survive a restart of the server.
+ */
+public class RenderCache {
+	// ::remove folder when __HAXE__
+
+	// Sources whose result may change from one rendering to another, because
+	// they read files or the environment
+	private static final Pattern NOT_CACHEABLE = Pattern.compile("(?i)(!include|!import|!theme|<img|%date|%now"
+			+ "|%random|%getenv|%load_json|%file_exists|%filedate|%filename|%dirpath)");
+
+	private final long maxBytes;
+	private final SFile diskDir;
+	private final Map<String, RenderedDiagram> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long currentBytes;
+
+	public RenderCache(long maxBytes, SFile diskDir) {
+		this.maxBytes = maxBytes;
+		this.diskDir = diskDir;
+		if (diskDir != null)
+			diskDir.mkdirs();
+	}
+
+	public static RenderCache fromEnvironment() {
+		final String size = SecurityUtils.getenv("PLANTUML_PICOWEB_CACHE_MB");
+		final long maxBytes;
+		if (StringUtils.isNotEmpty(size) && size.matches("\\d+"))
+			maxBytes = Long.parseLong(size) * 1024 * 1024;
+		else
+			maxBytes = 64L * 1024 * 1024;
+
+		final String dir = SecurityUtils.getenv("PLANTUML_PICOWEB_CACHE_DIR");
+		return new RenderCache(maxBytes, StringUtils.isNotEmpty(dir) ? new SFile(dir) : null);
+	}
+
+	public static boolean isCacheable(String source) {
+		return NOT_CACHEABLE.matcher(source).find() == false;
+	}
+
+	public static boolean isCacheable(List<String> config) {
+		for (String line : config)
+			if (isCacheable(line) == false)
+				return false;
+
+		return true;
+	}
+
+	public static String key(String source, FileFormat fileFormat, String... options) {
+		return key(source, fileFormat, Collections.<String>emptyList(), options);
+	}
+
+	/**
+	 * Computes the key of a diagram rendered with some options.
+	 *
+	 * @param config the lines read from the files given by the options (such as
+	 *               <code>-config</code>), so that a change of these files
+	 *               changes the key
+	 */
+	public static String key(String source, FileFormat fileFormat, List<String> config, String... options) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(Version.versionString());
+		sb.append('\u0000');
+		sb.append(fileFormat.name());
+		for (String option : options) {
+			sb.append('\u0000');
+			sb.append(option);
+		}
+		for (String line : config) {
+			sb.append('\u0001');
+			sb.append(line);
+		}
+		sb.append('\u0000');
+		sb.append(source);
+		return SignatureUtils.getSHA512Hex(sb.toString()).substring(0, 48);
+	}
+
+	public boolean isEnabled() {
+		return maxBytes > 0;
+	}
+
+	public RenderedDiagram get(String key) {
+		if (isEnabled() == false)
+			return null;
+
+		synchronized (this) {
+			final RenderedDiagram result = entries.get(key);
+			if (result != null)
+				return result;
+		}
+		final RenderedDiagram result = readFromDisk(key);
+		if (result != null)
+			putInMemory(key, result);
+
+		return result;
+	}
+
+	public void put(String key, RenderedDiagram diagram) {
+		if (isEnabled() == false || diagram.isOk() == false)
+			return;
+
+		putInMemory(key, diagram);
+		writeToDisk(key, diagram);
+	}
+
+	private synchronized void putInMemory(String key, RenderedDiagram diagram) {
+		final long weight = diagram.weight();
+		if (weight > maxBytes)
+			return;
+
+		final RenderedDiagram previous = entries.put(key, diagram);
+		if (previous != null)
+			currentBytes -= previous.weight();
+		currentBytes += weight;
+
+		for (Iterator<RenderedDiagram> it = entries.values().iterator(); currentBytes > maxBytes && it.hasNext();) {
+			currentBytes -= it.next().weight();
+			it.remove();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getCurrentBytes() {
+		return currentBytes;
+	}
+
+	private RenderedDiagram readFromDisk(String key) {
+		if (diskDir == null)
+			return null;
+
+		final SFile file = diskDir.file(key + ".bin");
+		if (file.exists() == false)
+			return null;
+
+		try (InputStream is = file.openFile()) {
+			if (is == null)
+				return null;
+			return RenderedDiagram.readFrom(new DataInputStream(is));
+		} catch (IOException e) {
+			Logme.error(e);
+			return null;
+		}
+	}
+
+	private void writeToDisk(String key, RenderedDiagram diagram) {
+		if (diskDir == null)
+			return;
+
+		final SFile tmp = diskDir.file(key + ".tmp" + Thread.currentThread().getId());
+		try (DataOutputStream dos = new DataOutputStream(tmp.createBufferedOutputStream())) {
+			diagram.writeTo(dos);
+		} catch (IOException e) {
+			Logme.error(e);
+			tmp.delete();
+			return;
+		}
+		if (tmp.renameTo(diskDir.file(key + ".bin")) == false)
+			tmp.delete();
+	}
+
+}
@@ -0,0 +1,158 @@
+package net.sourceforge.plantuml.picoweb;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.plantuml.ErrorUml;
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.ImageData;
+import net.sourceforge.plantuml.error.PSystemError;
+import net.sourceforge.plantuml.utils.SignatureUtils;
+
+/**
+ * Immutable result of a rendering: the generated bytes and the diagram related
+ * HTTP headers. Instances can be stored in a {@link RenderCache}.
+ */
+public class RenderedDiagram {
+	// ::remove folder when __HAXE__
+
+	private final String returnCode;
+	private final String mimeType;
+	private final List<String> diagramHeaders;
+	private final byte[] data;
+	private final String etag;
+
+	private RenderedDiagram(String returnCode, String mimeType, List<String> diagramHeaders, byte[] data) {
+		this.returnCode = returnCode;
+		this.mimeType = mimeType;
+		this.diagramHeaders = Collections.unmodifiableList(diagramHeaders);
+		this.data = data;
+		this.etag = computeEtag(data);
+	}
+
+	public static RenderedDiagram build(String returnCode, String mimeType, Diagram system, ImageData imageData,
+			byte[] data) throws UnsupportedEncodingException {
+		final List<String> headers = new ArrayList<>();
+		headers.add("X-PlantUML-Diagram-Width: " + imageData.getWidth());
+		headers.add("X-PlantUML-Diagram-Height: " + imageData.getHeight());
+		headers.add("X-PlantUML-Diagram-Description: " + system.getDescription().getDescription());
+		if (system instanceof PSystemError) {
+			final PSystemError error = (PSystemError) system;
+			for (ErrorUml err : error.getErrorsUml()) {
+				headers.add("X-PlantUML-Diagram-Error: " + err.getError());
+				headers.add("X-PlantUML-Diagram-Error-Line: " + (1 + err.getLineLocation().getPosition()));
+			}
+		}
+		if (system.getTitleDisplay() != null && system.getTitleDisplay().size() == 1) {
+			final String encode = URLEncoder.encode(system.getTitleDisplay().asList().get(0).toString(), "UTF-8");
+			if (encode.length() < 256)
+				headers.add("X-PlantUML-Diagram-Title: " + encode);
+		}
+		return new RenderedDiagram(returnCode, mimeType, headers, data);
+	}
+
+	private static String computeEtag(byte[] data) {
+		try {
+			final MessageDigest msgDigest = MessageDigest.getInstance("SHA-256");
+			final byte[] digest = msgDigest.digest(data);
+			return "\"" + SignatureUtils.toHexString(digest).substring(0, 32) + "\"";
+		} catch (NoSuchAlgorithmException e) {
+			throw new UnsupportedOperationException(e);
+		}
+	}
+
+	public String getReturnCode() {
+		return returnCode;
+	}
+
+	public String getMimeType() {
+		return mimeType;
+	}
+
+	public List<String> getDiagramHeaders() {
+		return diagramHeaders;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+
+	/**
+	 * Strong entity tag of the generated bytes, including the surrounding double
+	 * quotes.
+	 */
+	public String getEtag() {
+		return etag;
+	}
+
+	public boolean isOk() {
+		return returnCode.startsWith("200");
+	}
+
+	public boolean matches(String ifNoneMatch) {
+		if (ifNoneMatch == null)
+			return false;
+
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.equals("*") || tag.equals(etag))
+				return true;
+		}
+		return false;
+	}
+
+	long weight() {
+		return data.length + 256L * (1 + diagramHeaders.size());
+	}
+
+	void writeTo(DataOutputStream dos) throws IOException {
+		dos.writeUTF(returnCode);
+		dos.writeUTF(mimeType);
+		dos.writeInt(diagramHeaders.size());
+		for (String header : diagramHeaders)
+			dos.write(encodeString(header));
+		dos.writeInt(data.length);
+		dos.write(data);
+	}
+
+	static RenderedDiagram readFrom(DataInputStream dis) throws IOException {
+		final String returnCode = dis.readUTF();
+		final String mimeType = dis.readUTF();
+		final int nbHeaders = dis.readInt();
+		final List<String> headers = new ArrayList<>(nbHeaders);
+		for (int i = 0; i < nbHeaders; i++)
+			headers.add(decodeString(dis));
+		final byte[] data = new byte[dis.readInt()];
+		dis.readFully(data);
+		return new RenderedDiagram(returnCode, mimeType, headers, data);
+	}
+
+	// writeUTF() is limited to 64K, which may be too short for descriptions
+	private static byte[] encodeString(String s) {
+		final byte[] bytes = s.getBytes(UTF_8);
+		final byte[] result = new byte[bytes.length + 4];
+		result[0] = (byte) (bytes.length >>> 24);
+		result[1] = (byte) (bytes.length >>> 16);
+		result[2] = (byte) (bytes.length >>> 8);
+		result[3] = (byte) bytes.length;
+		System.arraycopy(bytes, 0, result, 4, bytes.length);
+		return result;
+	}
+
+	private static String decodeString(DataInputStream dis) throws IOException {
+		final byte[] bytes = new byte[dis.readInt()];
+		dis.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+}
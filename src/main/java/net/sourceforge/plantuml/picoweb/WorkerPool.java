@@ -0,0 +1,202 @@
+package net.sourceforge.plantuml.picoweb;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.json.Json;
+import net.sourceforge.plantuml.json.JsonObject;
+import net.sourceforge.plantuml.security.SecurityUtils;
+
+/**
+ * Bounded executor used by {@link PicoWebServer} to serve connections.
+ * <p>
+ * Virtual threads are used when the running JVM provides them (Java 21+),
+ * otherwise a fixed pool of platform threads is used. In both cases, the number
+ * of admitted connections (running or waiting) is limited: when the limit is
+ * reached, {@link #submit(Runnable)} returns <code>false</code> so that the
+ * caller can answer <code>503 Service Unavailable</code>.
+ * <p>
+ * A kept-alive connection holds its worker while it waits for the next
+ * request, so only half of the threads may be used by such connections (see
+ * {@link #acquireKeepAlive()}): idle clients cannot make the pool refuse new
+ * ones.
+ */
+public class WorkerPool {
+	// ::remove folder when __HAXE__
+
+	private final ExecutorService executor;
+	private final Semaphore admission;
+	private final Semaphore keepAlive;
+	private final boolean virtualThreads;
+	private final int threads;
+	private final int queueLimit;
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder totalQueueNanos = new LongAdder();
+	private final AtomicLong maxQueueNanos = new AtomicLong();
+	private final AtomicInteger active = new AtomicInteger();
+
+	public WorkerPool(int threads, int queueLimit) {
+		this.threads = threads;
+		this.queueLimit = queueLimit;
+		this.admission = new Semaphore(threads + queueLimit);
+		this.keepAlive = new Semaphore(Math.max(1, threads / 2));
+		final ExecutorService virtual = newVirtualThreadExecutor();
+		this.virtualThreads = virtual != null;
+		if (virtual != null)
+			this.executor = virtual;
+		else
+			this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<Runnable>(), new PicoWebThreadFactory());
+	}
+
+	public static WorkerPool fromEnvironment() {
+		final int threads = getenvInt("PLANTUML_PICOWEB_THREADS",
+				Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+		final int queueLimit = getenvInt("PLANTUML_PICOWEB_QUEUE", 100);
+		return new WorkerPool(threads, queueLimit);
+	}
+
+	static int getenvInt(String name, int defaultValue) {
+		final String env = SecurityUtils.getenv(name);
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+"))
+			return Integer.parseInt(env);
+
+		return defaultValue;
+	}
+
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			final Method method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Submits a task if the pool is not saturated.
+	 *
+	 * @return <code>false</code> if the task has been rejected.
+	 */
+	public boolean submit(final Runnable task) {
+		if (admission.tryAcquire() == false) {
+			rejected.increment();
+			return false;
+		}
+		final long queued = System.nanoTime();
+		try {
+			executor.execute(() -> {
+				final long wait = System.nanoTime() - queued;
+				totalQueueNanos.add(wait);
+				updateMax(wait);
+				active.incrementAndGet();
+				try {
+					task.run();
+				} finally {
+					active.decrementAndGet();
+					admission.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			admission.release();
+			rejected.increment();
+			return false;
+		}
+		accepted.increment();
+		return true;
+	}
+
+	/**
+	 * Reserves the right to keep a connection open after its current request.
+	 * The caller must call {@link #releaseKeepAlive()} when the connection is
+	 * closed.
+	 *
+	 * @return <code>false</code> if too many connections are already kept alive,
+	 *         so that this one should be closed.
+	 */
+	public boolean acquireKeepAlive() {
+		return keepAlive.tryAcquire();
+	}
+
+	public void releaseKeepAlive() {
+		keepAlive.release();
+	}
+
+	private void updateMax(long wait) {
+		long current;
+		do {
+			current = maxQueueNanos.get();
+			if (wait <= current)
+				return;
+		} while (maxQueueNanos.compareAndSet(current, wait) == false);
+	}
+
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public long getAccepted() {
+		return accepted.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public int getActive() {
+		return active.get();
+	}
+
+	public double getAverageQueueMillis() {
+		final long count = accepted.sum();
+		if (count == 0)
+			return 0;
+		return totalQueueNanos.sum() / 1e6 / count;
+	}
+
+	public double getMaxQueueMillis() {
+		return maxQueueNanos.get() / 1e6;
+	}
+
+	public JsonObject toJson() {
+		return Json.object() //
+				.add("virtualThreads", virtualThreads) //
+				.add("threads", threads) //
+				.add("queueLimit", queueLimit) //
+				.add("active", getActive()) //
+				.add("keepAliveAvailable", keepAlive.availablePermits()) //
+				.add("accepted", getAccepted()) //
+				.add("rejected", getRejected()) //
+				.add("averageQueueMs", getAverageQueueMillis()) //
+				.add("maxQueueMs", getMaxQueueMillis());
+	}
+
+	static class PicoWebThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			final Thread thread = new Thread(r, "PicoWebServer-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+}
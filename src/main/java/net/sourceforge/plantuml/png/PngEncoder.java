@@ -0,0 +1,554 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2025, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml.png;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes PNG images without ImageIO.
+ * <p>
+ * Indexed images are written with their palette, using 1, 2 or 4 bits per
+ * pixel when the palette is small enough. Other rows are filtered with the
+ * filter giving the smallest sum of absolute values.
+ * <p>
+ * The filtered rows are deflated by blocks, in parallel, the way pigz does: each
+ * block is compressed with the end of the previous one as dictionary and ends
+ * with a sync flush, so that the blocks put one after the other make a single
+ * zlib stream.
+ */
+public final class PngEncoder {
+
+	private static final byte[] SIGNATURE = { (byte) 137, 80, 78, 71, 13, 10, 26, 10 };
+	private static final String COPYLEFT = "Generated by https://plantuml.com";
+
+	private static final int COLOR_TYPE_RGB = 2;
+	private static final int COLOR_TYPE_PALETTE = 3;
+	private static final int COLOR_TYPE_RGBA = 6;
+
+	// Size of the filtered data deflated by each task
+	private static final int BLOCK_SIZE = 1 << 19;
+	private static final int DICTIONARY_SIZE = 1 << 15;
+	private static final int IDAT_SIZE = 1 << 16;
+
+	private final BufferedImage image;
+	private final int width;
+	private final int height;
+	private final int level;
+	private final IndexColorModel palette;
+	private final int colorType;
+	private final int bitDepth;
+	// Bytes per complete pixel, used by the filters
+	private final int bpp;
+	private final int rowBytes;
+
+	private PngEncoder(BufferedImage image, int level) {
+		this.image = image;
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.level = level;
+		if (image.getType() == BufferedImage.TYPE_BYTE_INDEXED) {
+			this.palette = (IndexColorModel) image.getColorModel();
+			this.colorType = COLOR_TYPE_PALETTE;
+			this.bitDepth = getBitDepth(palette.getMapSize());
+			this.bpp = 1;
+			this.rowBytes = (width * bitDepth + 7) / 8;
+		} else {
+			this.palette = null;
+			this.colorType = image.getColorModel().hasAlpha() ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB;
+			this.bitDepth = 8;
+			this.bpp = colorType == COLOR_TYPE_RGBA ? 4 : 3;
+			this.rowBytes = width * bpp;
+		}
+	}
+
+	/**
+	 * @param level the deflate level, from 0 (no compression) to 9
+	 */
+	public static void write(BufferedImage image, OutputStream os, String metadata, int dpi, int level)
+			throws IOException {
+		new PngEncoder(image, level).write(os, metadata, dpi);
+	}
+
+	private static int getBitDepth(int mapSize) {
+		if (mapSize <= 2)
+			return 1;
+		if (mapSize <= 4)
+			return 2;
+		if (mapSize <= 16)
+			return 4;
+		return 8;
+	}
+
+	private void write(OutputStream os, String metadata, int dpi) throws IOException {
+		os.write(SIGNATURE);
+
+		final ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+		writeInt(header, width);
+		writeInt(header, height);
+		header.write(bitDepth);
+		header.write(colorType);
+		header.write(0); // deflate
+		header.write(0); // adaptive filtering
+		header.write(0); // no interlace
+		writeChunk(os, "IHDR", header.toByteArray());
+
+		if (palette != null)
+			writePalette(os);
+
+		if (dpi != 96) {
+			final ByteArrayOutputStream physical = new ByteArrayOutputStream(9);
+			final int pixelsPerMeter = (int) Math.round(dpi / 0.0254);
+			writeInt(physical, pixelsPerMeter);
+			writeInt(physical, pixelsPerMeter);
+			physical.write(1); // meter
+			writeChunk(os, "pHYs", physical.toByteArray());
+		}
+
+		writeChunk(os, "tEXt", ("copyleft\0" + COPYLEFT).getBytes(ISO_8859_1));
+		if (metadata != null)
+			writeChunk(os, "iTXt", getInternationalText("plantuml", metadata));
+
+		writeImageData(os);
+		writeChunk(os, "IEND", new byte[0]);
+	}
+
+	private void writePalette(OutputStream os) throws IOException {
+		final int size = palette.getMapSize();
+		final byte[] rgb = new byte[3 * size];
+		final byte[] alpha = new byte[size];
+		int lastTransparent = -1;
+		for (int i = 0; i < size; i++) {
+			rgb[3 * i] = (byte) palette.getRed(i);
+			rgb[3 * i + 1] = (byte) palette.getGreen(i);
+			rgb[3 * i + 2] = (byte) palette.getBlue(i);
+			alpha[i] = (byte) palette.getAlpha(i);
+			if (palette.getAlpha(i) != 255)
+				lastTransparent = i;
+		}
+		writeChunk(os, "PLTE", rgb);
+		if (lastTransparent != -1) {
+			final byte[] transparency = new byte[lastTransparent + 1];
+			System.arraycopy(alpha, 0, transparency, 0, transparency.length);
+			writeChunk(os, "tRNS", transparency);
+		}
+	}
+
+	private static byte[] getInternationalText(String keyword, String text) throws IOException {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		result.write(keyword.getBytes(ISO_8859_1));
+		result.write(0);
+		result.write(1); // compressed
+		result.write(0); // deflate
+		result.write(0); // no language tag
+		result.write(0); // no translated keyword
+		try (DeflaterOutputStream compressed = new DeflaterOutputStream(result)) {
+			compressed.write(text.getBytes(UTF_8));
+		}
+		return result.toByteArray();
+	}
+
+	private void writeImageData(OutputStream os) throws IOException {
+		final int rowsPerBlock = Math.max(1, BLOCK_SIZE / (rowBytes + 1));
+		final int nbBlocks = (height + rowsPerBlock - 1) / rowsPerBlock;
+
+		final IdatOutputStream idat = new IdatOutputStream(os);
+		idat.write(0x78);
+		idat.write(getZlibFlags());
+
+		final ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+		final int window = nbBlocks == 1 ? 1 : 2 * pool.getParallelism();
+		final Block[] blocks = new Block[nbBlocks];
+		long adler = 1;
+		int next = 0;
+		for (int i = 0; i < nbBlocks; i++) {
+			for (; next < nbBlocks && next < i + window; next++) {
+				blocks[next] = new Block(next * rowsPerBlock, Math.min(height, (next + 1) * rowsPerBlock));
+				if (nbBlocks > 1)
+					blocks[next].fork();
+			}
+			final Block block = blocks[i];
+			if (nbBlocks > 1)
+				block.join();
+			else
+				block.invoke();
+
+			idat.write(block.compressed, 0, block.compressedLength);
+			adler = combineAdler32(adler, block.adler, block.length);
+			blocks[i] = null;
+		}
+
+		writeInt(idat, (int) adler);
+		idat.flush();
+	}
+
+	private int getZlibFlags() {
+		// The check bits make CMF * 256 + FLG a multiple of 31
+		if (level < 2)
+			return 0x01;
+		if (level < 6)
+			return 0x5E;
+		if (level == 6)
+			return 0x9C;
+		return 0xDA;
+	}
+
+	/**
+	 * Same as <code>adler32_combine()</code> of zlib.
+	 */
+	static long combineAdler32(long adler1, long adler2, long length2) {
+		final long base = 65521;
+		final long rem = length2 % base;
+		long sum1 = adler1 & 0xFFFF;
+		long sum2 = (rem * sum1) % base;
+		sum1 += (adler2 & 0xFFFF) + base - 1;
+		sum2 += ((adler1 >> 16) & 0xFFFF) + ((adler2 >> 16) & 0xFFFF) + base - rem;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum1 >= base)
+			sum1 -= base;
+		if (sum2 >= (base << 1))
+			sum2 -= (base << 1);
+		if (sum2 >= base)
+			sum2 -= base;
+		return sum1 | (sum2 << 16);
+	}
+
+	/**
+	 * Some rows, filtered and deflated.
+	 */
+	private final class Block extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int first;
+		private final int last;
+		private byte[] compressed;
+		private int compressedLength;
+		private long adler;
+		private long length;
+
+		private Block(int first, int last) {
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			// The rows just before this block are filtered again to get the dictionary
+			final int dictionaryRows = (DICTIONARY_SIZE + rowBytes) / (rowBytes + 1);
+			final int start = Math.max(0, first - dictionaryRows);
+			final byte[] filtered = new byte[(last - start) * (rowBytes + 1)];
+
+			final RowFilter filter = new RowFilter();
+			if (start > 0)
+				filter.read(start - 1, filter.prior);
+			for (int y = start; y < last; y++) {
+				filter.read(y, filter.current);
+				filter.filter(filtered, (y - start) * (rowBytes + 1));
+				filter.next();
+			}
+
+			final int offset = (first - start) * (rowBytes + 1);
+			length = filtered.length - offset;
+			final Adler32 checksum = new Adler32();
+			checksum.update(filtered, offset, (int) length);
+			adler = checksum.getValue();
+
+			final Deflater deflater = new Deflater(level, true);
+			try {
+				final int dictionaryLength = Math.min(DICTIONARY_SIZE, offset);
+				if (dictionaryLength > 0)
+					deflater.setDictionary(filtered, offset - dictionaryLength, dictionaryLength);
+
+				deflater.setInput(filtered, offset, (int) length);
+				compressed = new byte[Math.max(64, (int) length / 4)];
+				if (last == height) {
+					deflater.finish();
+					while (deflater.finished() == false)
+						deflate(deflater, Deflater.NO_FLUSH);
+				} else {
+					// A sync flush writes everything, and the output is complete when
+					// there is some space left in the buffer
+					while (deflate(deflater, Deflater.SYNC_FLUSH) == 0)
+						;
+				}
+			} finally {
+				deflater.end();
+			}
+		}
+
+		private int deflate(Deflater deflater, int flush) {
+			if (compressedLength == compressed.length) {
+				final byte[] larger = new byte[compressed.length * 2];
+				System.arraycopy(compressed, 0, larger, 0, compressedLength);
+				compressed = larger;
+			}
+			compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength,
+					flush);
+			return compressed.length - compressedLength;
+		}
+
+	}
+
+	/**
+	 * Chooses, for each row, the filter giving the smallest sum of absolute
+	 * differences, as the ImageIO writer does. Palette images are not filtered, as
+	 * advised by the PNG specification.
+	 */
+	private final class RowFilter {
+
+		private byte[] prior = new byte[rowBytes];
+		private byte[] current = new byte[rowBytes];
+		private final byte[][] candidates = new byte[5][];
+		// Pixels of the image, reused from one row to the other
+		private Object pixels;
+
+		private RowFilter() {
+			if (palette == null)
+				for (int i = 1; i < 5; i++)
+					candidates[i] = new byte[rowBytes];
+		}
+
+		private void read(int y, byte[] row) {
+			if (palette != null) {
+				pixels = image.getRaster().getDataElements(0, y, width, 1, pixels);
+				final byte[] indexes = (byte[]) pixels;
+				if (bitDepth == 8) {
+					System.arraycopy(indexes, 0, row, 0, width);
+					return;
+				}
+				final int pixelsPerByte = 8 / bitDepth;
+				for (int i = 0; i < rowBytes; i++) {
+					int value = 0;
+					for (int j = 0; j < pixelsPerByte; j++) {
+						final int x = i * pixelsPerByte + j;
+						value <<= bitDepth;
+						if (x < width)
+							value |= indexes[x] & 0xFF;
+					}
+					row[i] = (byte) value;
+				}
+				return;
+			}
+
+			final int[] argb = readArgb(y);
+			int i = 0;
+			for (int x = 0; x < width; x++) {
+				final int pixel = argb[x];
+				row[i++] = (byte) (pixel >> 16);
+				row[i++] = (byte) (pixel >> 8);
+				row[i++] = (byte) pixel;
+				if (bpp == 4)
+					row[i++] = (byte) (pixel >>> 24);
+			}
+		}
+
+		private int[] readArgb(int y) {
+			final int type = image.getType();
+			if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+				pixels = image.getRaster().getDataElements(0, y, width, 1, pixels);
+			else
+				pixels = image.getRGB(0, y, width, 1, (int[]) pixels, 0, width);
+
+			return (int[]) pixels;
+		}
+
+		private void next() {
+			final byte[] tmp = prior;
+			prior = current;
+			current = tmp;
+		}
+
+		private void filter(byte[] dest, int offset) {
+			int best = 0;
+			if (palette == null) {
+				final int[] badness = { none(), sub(), up(), average(), paeth() };
+				for (int type = 1; type < 5; type++)
+					if (badness[type] < badness[best])
+						best = type;
+			}
+			dest[offset] = (byte) best;
+			System.arraycopy(best == 0 ? current : candidates[best], 0, dest, offset + 1, rowBytes);
+		}
+
+		private int none() {
+			int badness = 0;
+			for (int i = 0; i < rowBytes; i++)
+				badness += current[i] & 0xFF;
+			return badness;
+		}
+
+		private int sub() {
+			final byte[] out = candidates[1];
+			int badness = 0;
+			for (int i = 0; i < rowBytes; i++) {
+				final int left = i < bpp ? 0 : current[i - bpp] & 0xFF;
+				final int difference = (current[i] & 0xFF) - left;
+				out[i] = (byte) difference;
+				badness += Math.abs(difference);
+			}
+			return badness;
+		}
+
+		private int up() {
+			final byte[] out = candidates[2];
+			int badness = 0;
+			for (int i = 0; i < rowBytes; i++) {
+				final int difference = (current[i] & 0xFF) - (prior[i] & 0xFF);
+				out[i] = (byte) difference;
+				badness += Math.abs(difference);
+			}
+			return badness;
+		}
+
+		private int average() {
+			final byte[] out = candidates[3];
+			int badness = 0;
+			for (int i = 0; i < rowBytes; i++) {
+				final int left = i < bpp ? 0 : current[i - bpp] & 0xFF;
+				final int difference = (current[i] & 0xFF) - ((left + (prior[i] & 0xFF)) >> 1);
+				out[i] = (byte) difference;
+				badness += Math.abs(difference);
+			}
+			return badness;
+		}
+
+		private int paeth() {
+			final byte[] out = candidates[4];
+			int badness = 0;
+			for (int i = 0; i < rowBytes; i++) {
+				final int left = i < bpp ? 0 : current[i - bpp] & 0xFF;
+				final int upLeft = i < bpp ? 0 : prior[i - bpp] & 0xFF;
+				final int difference = (current[i] & 0xFF) - paethPredictor(left, prior[i] & 0xFF, upLeft);
+				out[i] = (byte) difference;
+				badness += Math.abs(difference);
+			}
+			return badness;
+		}
+
+	}
+
+	private static int paethPredictor(int a, int b, int c) {
+		final int p = a + b - c;
+		final int pa = Math.abs(p - a);
+		final int pb = Math.abs(p - b);
+		final int pc = Math.abs(p - c);
+		if (pa <= pb && pa <= pc)
+			return a;
+		if (pb <= pc)
+			return b;
+		return c;
+	}
+
+	/**
+	 * Splits the zlib stream into IDAT chunks.
+	 */
+	private static final class IdatOutputStream extends OutputStream {
+
+		private final OutputStream os;
+		private final byte[] buffer = new byte[IDAT_SIZE];
+		private int count;
+
+		private IdatOutputStream(OutputStream os) {
+			this.os = os;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (count == buffer.length)
+				flush();
+			buffer[count++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while (len > 0) {
+				if (count == buffer.length)
+					flush();
+				final int n = Math.min(len, buffer.length - count);
+				System.arraycopy(b, off, buffer, count, n);
+				count += n;
+				off += n;
+				len -= n;
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (count > 0)
+				writeChunk(os, "IDAT", buffer, count);
+			count = 0;
+		}
+
+	}
+
+	private static void writeChunk(OutputStream os, String type, byte[] data) throws IOException {
+		writeChunk(os, type, data, data.length);
+	}
+
+	private static void writeChunk(OutputStream os, String type, byte[] data, int length) throws IOException {
+		final byte[] name = type.getBytes(ISO_8859_1);
+		final CRC32 crc = new CRC32();
+		crc.update(name);
+		crc.update(data, 0, length);
+		writeInt(os, length);
+		os.write(name);
+		os.write(data, 0, length);
+		writeInt(os, (int) crc.getValue());
+	}
+
+	private static void writeInt(OutputStream os, int value) throws IOException {
+		os.write(value >>> 24);
+		os.write(value >>> 16);
+		os.write(value >>> 8);
+		os.write(value);
+	}
+
+}
@@ -40,6 +40,8 @@ import java.awt.image.RenderedImage;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import net.sourceforge.plantuml.cli.GlobalConfig;
+import net.sourceforge.plantuml.cli.GlobalConfigKey;
 import net.sourceforge.plantuml.klimt.color.ColorMapper;
 import net.sourceforge.plantuml.png.quant.QuantUtils;
 import net.sourceforge.plantuml.png.quant.Quantify555;
@@ -89,7 +91,8 @@ public class PngIO {
 				image = tmp;
 		}
 
-		PngIOMetadata.writeWithMetadata(image, os, metadata, dpi, null, 7);
+		final int level = (Integer) GlobalConfig.getInstance().value(GlobalConfigKey.PNG_COMPRESSION_LEVEL);
+		PngEncoder.write((BufferedImage) image, os, metadata, dpi, level);
 	}
 
 //	/** writes a BufferedImage of type TYPE_INT_ARGB to PNG using PNGJ */
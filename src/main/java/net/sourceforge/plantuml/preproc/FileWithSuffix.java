@@ -170,6 +170,18 @@ public class FileWithSuffix {
 		return description;
 	}
 
+	/**
+	 * Changes when the underlying file is modified.
+	 */
+	public String getModificationStamp() {
+		if (file == null)
+			return description;
+
+		final SFile underlying = file.getUnderlyingFile();
+		return underlying.getAbsolutePath() + "!" + suffix + "!" + entry + "!" + underlying.lastModified() + "!"
+				+ underlying.length();
+	}
+
 	public final String getSuffix() {
 		return suffix;
 	}
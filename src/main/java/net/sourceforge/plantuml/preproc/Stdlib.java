@@ -44,6 +44,7 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,6 +58,7 @@ import net.sourceforge.plantuml.emoji.SvgNanoParser;
 import net.sourceforge.plantuml.klimt.sprite.Sprite;
 import net.sourceforge.plantuml.log.Logme;
 import net.sourceforge.plantuml.preproc.spm.SpmChannel;
+import net.sourceforge.plantuml.preproc.spm.SpxArchive;
 import net.sourceforge.plantuml.utils.Log;
 // ::uncomment when __CORE__
 //import java.io.FileInputStream;
@@ -82,6 +84,7 @@ public class Stdlib {
 	private final Map<String, StdlibSprite> sprites = new HashMap<>();
 	private final Map<String, SvgNanoParser> svgs = new HashMap<>();
 	private final List<FutureBufferedImage> images = new ArrayList<>();
+	private final Map<SpmChannel, SpxArchive> archives = new EnumMap<>(SpmChannel.class);
 
 	private final String name;
 	private final Map<String, String> info = new HashMap<String, String>();
@@ -137,16 +140,37 @@ public class Stdlib {
 	}
 
 	private byte[] loadPumlResource(String file) throws IOException {
-		synchronized (puml) {
-			initMapIfNeeded(puml, SpmChannel.PUML);
-			return puml.get(file);
-		}
+		return loadResource(puml, SpmChannel.PUML, file);
 	}
 
 	private byte[] loadJsonResource(String file) throws IOException {
-		synchronized (json) {
-			initMapIfNeeded(json, SpmChannel.JSON);
-			return json.get(file);
+		return loadResource(json, SpmChannel.JSON, file);
+	}
+
+	private byte[] loadResource(Map<String, byte[]> map, SpmChannel channel, String file) throws IOException {
+		synchronized (map) {
+			// When the channel has been indexed, only the requested file is inflated
+			final SpxArchive archive = getIndexedArchive(channel);
+			if (archive != null) {
+				byte[] result = map.get(file);
+				if (result == null) {
+					result = archive.read(file);
+					if (result != null)
+						map.put(file, result);
+				}
+				return result;
+			}
+			initMapIfNeeded(map, channel);
+			return map.get(file);
+		}
+	}
+
+	private SpxArchive getIndexedArchive(SpmChannel channel) throws IOException {
+		synchronized (archives) {
+			if (archives.containsKey(channel) == false)
+				archives.put(channel, channel.getIndexedArchive(name));
+
+			return archives.get(channel);
 		}
 	}
 
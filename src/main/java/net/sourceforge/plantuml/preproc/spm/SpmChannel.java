@@ -51,10 +51,14 @@ public enum SpmChannel {
 	SVG, //
 	IMAGE;
 
-	private String getFileName() {
+	String getFileName() {
 		return name().toLowerCase().replace('_', '-') + ".spm";
 	}
 
+	String getIndexedFileName() {
+		return name().toLowerCase().replace('_', '-') + ".spx";
+	}
+
 //	public Path getPath(Path rootFolder, String name) throws IOException {
 //		final Path dir = rootFolder.resolve(name);
 //		return getPath(dir);
@@ -70,6 +74,14 @@ public enum SpmChannel {
 		return new BrotliInputStream(inputStream(path));
 	}
 
+	/**
+	 * Returns the indexed version of the channel, or <code>null</code> if it has
+	 * not been generated.
+	 */
+	public SpxArchive getIndexedArchive(String libname) throws IOException {
+		return SpxArchive.open("stdlib/" + libname + "/" + getIndexedFileName());
+	}
+
 	public static InputStream inputStream(String path) throws IOException {
 		InputStream result = Stdlib.class.getResourceAsStream("/" + path);
 		if (result == null)
@@ -0,0 +1,373 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.preproc.spm;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.sourceforge.plantuml.FileUtils;
+import net.sourceforge.plantuml.preproc.Stdlib;
+
+/**
+ * Indexed archive of a stdlib channel (<code>.spx</code> file).
+ * <p>
+ * Unlike a <code>.spm</code> channel, which has to be decoded as a whole, each
+ * entry is compressed on its own and a table of contents gives its position.
+ * So a single entry can be read without decoding the others:
+ *
+ * <pre>
+ * int     magic ("SPX1")
+ * int     number of entries
+ * int     length of the names
+ * repeated for each entry, sorted by name:
+ *   int   start of the name
+ *   int   offset of the data, from the start of the compressed data
+ *   int   compressed length
+ *   int   length
+ * names (UTF-8)
+ * int     length of the dictionary
+ * int     compressed length of the dictionary
+ * compressed dictionary (raw deflate)
+ * compressed data (raw deflate, using the dictionary) of the entries
+ * </pre>
+ *
+ * The table of contents is searched where it is, so opening an archive does
+ * not depend on its number of entries. The entries of a library are small and
+ * look alike, so they are compressed with a preset dictionary made of some of
+ * them: without it, the archive is several times larger than the
+ * <code>.spm</code> channel.
+ * <p>
+ * When the archive is a plain file, it is memory-mapped. When it is inside a
+ * jar, its entry is compressed by the jar too, so it is inflated once when the
+ * archive is opened and the entries are then read from memory.
+ */
+public final class SpxArchive {
+
+	static final int MAGIC = 0x53505831;
+
+	private static final int RECORD = 16;
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+
+	private final int count;
+	private final int namesLength;
+	private final ByteBuffer toc;
+	private final byte[] dictionary;
+	private final int dataStart;
+	private final ByteBuffer data;
+
+	private SpxArchive(ByteBuffer data) throws IOException {
+		this.data = data;
+		final DataInputStream dis = new DataInputStream(new ByteBufferInputStream(data.duplicate()));
+		if (dis.readInt() != MAGIC)
+			throw new IOException("Not a stdlib archive");
+
+		this.count = dis.readInt();
+		this.namesLength = dis.readInt();
+		final int tocLength = count * RECORD + namesLength;
+		this.toc = ByteBuffer.wrap(FileUtils.readExactly(dis, tocLength));
+
+		final int dictionaryLength = dis.readInt();
+		final int dictionaryCompressedLength = dis.readInt();
+		this.dictionary = inflate(FileUtils.readExactly(dis, dictionaryCompressedLength), dictionaryLength, null);
+		this.dataStart = 20 + tocLength + dictionaryCompressedLength;
+	}
+
+	/**
+	 * Opens the archive from the classpath or, failing that, from the file
+	 * system.
+	 *
+	 * @return <code>null</code> if there is no such archive.
+	 */
+	public static SpxArchive open(String path) throws IOException {
+		final URL url = Stdlib.class.getResource("/" + path);
+		if (url != null && "file".equals(url.getProtocol()))
+			try {
+				return map(new File(url.toURI()));
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				// Read as a stream below
+			}
+
+		if (url != null)
+			try (InputStream is = url.openStream()) {
+				return new SpxArchive(ByteBuffer.wrap(FileUtils.copyToByteArray(is)));
+			}
+
+		final File file = new File(path);
+		if (file.isFile())
+			return map(file);
+
+		return null;
+	}
+
+	private static SpxArchive map(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return new SpxArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public List<String> getNames() {
+		final List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final int start = nameStart(i);
+			result.add(new String(toc.array(), count * RECORD + start, nameEnd(i) - start, UTF_8));
+		}
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * Reads and inflates a single entry.
+	 *
+	 * @return <code>null</code> if the archive has no such entry.
+	 */
+	public byte[] read(String name) throws IOException {
+		final int i = indexOf(name.getBytes(UTF_8));
+		if (i == -1)
+			return null;
+
+		final int offset = toc.getInt(i * RECORD + 4);
+		final int compressedLength = toc.getInt(i * RECORD + 8);
+		final int length = toc.getInt(i * RECORD + 12);
+		final byte[] compressed = new byte[compressedLength];
+		final ByteBuffer buffer = data.duplicate();
+		buffer.position(dataStart + offset);
+		buffer.get(compressed);
+		return inflate(compressed, length, dictionary);
+	}
+
+	private int indexOf(byte[] key) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int cmp = compareName(mid, key);
+			if (cmp < 0)
+				low = mid + 1;
+			else if (cmp > 0)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -1;
+	}
+
+	private int compareName(int i, byte[] key) {
+		final byte[] array = toc.array();
+		final int start = count * RECORD + nameStart(i);
+		final int len = nameEnd(i) - nameStart(i);
+		for (int k = 0; k < len && k < key.length; k++) {
+			final int diff = (array[start + k] & 0xFF) - (key[k] & 0xFF);
+			if (diff != 0)
+				return diff;
+		}
+		return len - key.length;
+	}
+
+	private int nameStart(int i) {
+		return toc.getInt(i * RECORD);
+	}
+
+	private int nameEnd(int i) {
+		return i + 1 < count ? nameStart(i + 1) : namesLength;
+	}
+
+	private static byte[] inflate(byte[] compressed, int length, byte[] dictionary) throws IOException {
+		final Inflater inflater = new Inflater(true);
+		try {
+			if (dictionary != null && dictionary.length > 0)
+				inflater.setDictionary(dictionary);
+			inflater.setInput(compressed);
+			final byte[] result = new byte[length];
+			int offset = 0;
+			while (offset < result.length) {
+				final int read = inflater.inflate(result, offset, result.length - offset);
+				if (read == 0 && (inflater.finished() || inflater.needsInput()))
+					throw new IOException("Truncated data");
+				offset += read;
+			}
+			return result;
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Writes an archive containing the given entries.
+	 */
+	public static void write(Map<String, byte[]> content, OutputStream os) throws IOException {
+		final List<byte[]> names = new ArrayList<>();
+		for (String name : content.keySet())
+			names.add(name.getBytes(UTF_8));
+		names.sort(SpxArchive::compareBytes);
+		final List<byte[]> values = new ArrayList<>();
+		for (byte[] name : names)
+			values.add(content.get(new String(name, UTF_8)));
+
+		final byte[] dictionary = buildDictionary(values);
+		final ByteArrayOutputStream withDictionary = new ByteArrayOutputStream();
+		final byte[] toc1 = writeEntries(names, values, dictionary, withDictionary);
+		final byte[] compressedDictionary = deflate(dictionary, null);
+
+		final ByteArrayOutputStream withoutDictionary = new ByteArrayOutputStream();
+		final byte[] toc2 = writeEntries(names, values, null, withoutDictionary);
+
+		final DataOutputStream dos = new DataOutputStream(os);
+		dos.writeInt(MAGIC);
+		if (withDictionary.size() + compressedDictionary.length < withoutDictionary.size()) {
+			dos.write(toc1);
+			dos.writeInt(dictionary.length);
+			dos.writeInt(compressedDictionary.length);
+			dos.write(compressedDictionary);
+			withDictionary.writeTo(dos);
+		} else {
+			dos.write(toc2);
+			dos.writeInt(0);
+			dos.writeInt(0);
+			withoutDictionary.writeTo(dos);
+		}
+		dos.flush();
+	}
+
+	private static int compareBytes(byte[] a, byte[] b) {
+		for (int k = 0; k < a.length && k < b.length; k++) {
+			final int diff = (a[k] & 0xFF) - (b[k] & 0xFF);
+			if (diff != 0)
+				return diff;
+		}
+		return a.length - b.length;
+	}
+
+	// Entries taken evenly from the whole library
+	private static byte[] buildDictionary(List<byte[]> values) {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final int step = Math.max(1, values.size() / 64);
+		for (int i = 0; i < values.size() && result.size() < DICTIONARY_SIZE; i += step) {
+			final byte[] data = values.get(i);
+			result.write(data, 0, Math.min(data.length, DICTIONARY_SIZE - result.size()));
+		}
+		return result.toByteArray();
+	}
+
+	private static byte[] writeEntries(List<byte[]> names, List<byte[]> values, byte[] dictionary,
+			ByteArrayOutputStream data) throws IOException {
+		final ByteArrayOutputStream toc = new ByteArrayOutputStream();
+		final DataOutputStream records = new DataOutputStream(toc);
+		final ByteArrayOutputStream blob = new ByteArrayOutputStream();
+		records.writeInt(names.size());
+		int namesLength = 0;
+		for (byte[] name : names)
+			namesLength += name.length;
+		records.writeInt(namesLength);
+		for (int i = 0; i < names.size(); i++) {
+			final byte[] value = values.get(i);
+			final int offset = data.size();
+			data.write(deflate(value, dictionary));
+			records.writeInt(blob.size());
+			records.writeInt(offset);
+			records.writeInt(data.size() - offset);
+			records.writeInt(value.length);
+			blob.write(names.get(i));
+		}
+		blob.writeTo(records);
+		records.flush();
+		return toc.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] input, byte[] dictionary) {
+		final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+		try {
+			if (dictionary != null && dictionary.length > 0)
+				deflater.setDictionary(dictionary);
+			deflater.setInput(input);
+			deflater.finish();
+			final ByteArrayOutputStream result = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			while (deflater.finished() == false) {
+				final int len = deflater.deflate(buffer);
+				result.write(buffer, 0, len);
+			}
+			return result.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	static class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			if (buffer.hasRemaining() == false)
+				return -1;
+			return buffer.get() & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (buffer.hasRemaining() == false)
+				return -1;
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+	}
+
+}
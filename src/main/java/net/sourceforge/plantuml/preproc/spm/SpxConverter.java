@@ -0,0 +1,105 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.preproc.spm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.sourceforge.plantuml.FileUtils;
+import net.sourceforge.plantuml.brotli.BrotliInputStream;
+
+/**
+ * Converts the <code>puml.spm</code> and <code>json.spm</code> channels of a
+ * stdlib folder to indexed archives (see {@link SpxArchive}).
+ * <p>
+ * Usage: <code>SpxConverter &lt;stdlib folder&gt; &lt;output folder&gt;</code>
+ */
+public class SpxConverter {
+	// ::remove file when __CORE__
+	// ::remove file when __HAXE__
+
+	private static final SpmChannel[] CHANNELS = { SpmChannel.PUML, SpmChannel.JSON };
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: SpxConverter <stdlib folder> <output folder>");
+			System.exit(1);
+		}
+		final File[] libs = new File(args[0]).listFiles(File::isDirectory);
+		if (libs == null)
+			throw new IOException("Cannot read " + args[0]);
+
+		int nb = 0;
+		for (File lib : libs)
+			for (SpmChannel channel : CHANNELS) {
+				final File spm = new File(lib, channel.getFileName());
+				if (spm.isFile() == false)
+					continue;
+
+				final File spx = new File(new File(args[1], lib.getName()), channel.getIndexedFileName());
+				spx.getParentFile().mkdirs();
+				convert(spm, spx);
+				nb++;
+			}
+		System.out.println(nb + " archive(s) written to " + args[1]);
+	}
+
+	public static void convert(File spm, File spx) throws IOException {
+		final Map<String, byte[]> content = new LinkedHashMap<>();
+		try (DataInputStream dis = new DataInputStream(
+				new BrotliInputStream(new BufferedInputStream(new FileInputStream(spm))))) {
+			final int nb = dis.readInt();
+			for (int i = 0; i < nb; i++) {
+				final String name = dis.readUTF();
+				final int len = dis.readInt();
+				// Same keys as the ones used by Stdlib
+				content.put(name.toLowerCase(), FileUtils.readExactly(dis, len));
+			}
+		}
+		try (OutputStream os = new BufferedOutputStream(new FileOutputStream(spx))) {
+			SpxArchive.write(content, os);
+		}
+	}
+
+}
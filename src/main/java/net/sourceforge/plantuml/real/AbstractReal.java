@@ -35,9 +35,14 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Collection;
+
 abstract class AbstractReal implements Real {
 
 	private final RealLine line;
+	// Value computed for the current version
+	private double value;
+	private int version = -1;
 
 	AbstractReal(RealLine line) {
 		this.line = line;
@@ -50,10 +55,32 @@ abstract class AbstractReal implements Real {
 
 	abstract double getCurrentValueInternal();
 
+	/**
+	 * Returns a number which changes each time the value of this real may change.
+	 */
+	int getVersion() {
+		return line.getVersion();
+	}
+
+	/**
+	 * Adds the {@link RealImpl} whose moves may change the value of this real.
+	 */
+	abstract void addDependencies(Collection<RealImpl> result);
+
+	static void addDependencies(Real real, Collection<RealImpl> result) {
+		// Other reals, like the absolute min and max, do not change while compiling
+		if (real instanceof AbstractReal)
+			((AbstractReal) real).addDependencies(result);
+	}
+
 	final public double getCurrentValue() {
-		final double result = getCurrentValueInternal();
-		line.register(result);
-		return result;
+		final int currentVersion = getVersion();
+		if (version != currentVersion) {
+			value = getCurrentValueInternal();
+			version = currentVersion;
+		}
+		line.register(value);
+		return value;
 	}
 
 	public Real getMaxAbsolute() {
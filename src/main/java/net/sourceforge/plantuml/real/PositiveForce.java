@@ -35,6 +35,9 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import net.sourceforge.plantuml.log.Logme;
 
 class PositiveForce {
@@ -44,6 +47,8 @@ class PositiveForce {
 	private final double minimunDistance;
 	private final boolean trace = false;
 	private final Throwable creationPoint;
+	private RealImpl[] dependencies;
+	private RealImpl[] moved;
 
 	public PositiveForce(Real fixedPoint, RealMoveable movingPoint, double minimunDistance) {
 		if (fixedPoint == movingPoint) {
@@ -61,6 +66,34 @@ class PositiveForce {
 		return "PositiveForce fixed=" + fixedPoint + " moving=" + movingPoint + " min=" + minimunDistance;
 	}
 
+	/**
+	 * Returns the {@link RealImpl} whose moves may make this force apply again.
+	 * <p>
+	 * As {@link RealMax} and {@link RealMin} do not change once computed, this
+	 * must only be called after the force has been applied once.
+	 */
+	RealImpl[] getDependencies() {
+		if (dependencies == null) {
+			final Set<RealImpl> result = new LinkedHashSet<>();
+			AbstractReal.addDependencies(fixedPoint, result);
+			movingPoint.addDependencies(result);
+			dependencies = result.toArray(new RealImpl[result.size()]);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Returns the {@link RealImpl} that this force moves when applied.
+	 */
+	RealImpl[] getMoved() {
+		if (moved == null) {
+			final Set<RealImpl> result = new LinkedHashSet<>();
+			movingPoint.addDependencies(result);
+			moved = result.toArray(new RealImpl[result.size()]);
+		}
+		return moved;
+	}
+
 	public boolean apply() {
 		if (trace) {
 			System.err.println("apply " + this);
@@ -35,15 +35,31 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Collection;
+
 class RealDelta extends RealMoveable {
 
 	private final Real delegated;
 	private final double diff;
+	// The RealImpl at the end of a chain of deltas, if any
+	private final RealImpl root;
 
 	RealDelta(Real delegated, double diff) {
-		super(((AbstractReal) delegated).getLine(), "[Delegated {" + delegated.getName() + "} d=" + diff + "]");
+		// The name is only built when needed, as deltas of deltas can be deeply nested
+		super(((AbstractReal) delegated).getLine(), null);
 		this.delegated = delegated;
 		this.diff = diff;
+		if (delegated instanceof RealDelta)
+			this.root = ((RealDelta) delegated).root;
+		else if (delegated instanceof RealImpl)
+			this.root = (RealImpl) delegated;
+		else
+			this.root = null;
+	}
+
+	@Override
+	public String getName() {
+		return "[Delegated {" + delegated.getName() + "} d=" + diff + "]";
 	}
 
 	@Override
@@ -51,6 +67,22 @@ class RealDelta extends RealMoveable {
 		return delegated.getCurrentValue() + diff;
 	}
 
+	@Override
+	int getVersion() {
+		if (root == null)
+			return super.getVersion();
+
+		return root.getVersion();
+	}
+
+	@Override
+	void addDependencies(Collection<RealImpl> result) {
+		if (root == null)
+			addDependencies(delegated, result);
+		else
+			result.add(root);
+	}
+
 	public Real addAtLeast(double delta) {
 		return new RealDelta(delegated.addAtLeast(delta), diff);
 	}
@@ -35,9 +35,12 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Collection;
+
 class RealImpl extends RealMoveable implements RealOrigin {
 
 	private double currentValue;
+	private int moves;
 
 	public RealImpl(String name, RealLine line, double currentValue) {
 		super(line, name);
@@ -46,6 +49,13 @@ class RealImpl extends RealMoveable implements RealOrigin {
 
 	void move(double delta) {
 		this.currentValue += delta;
+		this.moves++;
+		getLine().incVersion();
+	}
+
+	@Override
+	int getVersion() {
+		return moves;
 	}
 
 	@Override
@@ -53,6 +63,11 @@ class RealImpl extends RealMoveable implements RealOrigin {
 		return currentValue;
 	}
 
+	@Override
+	void addDependencies(Collection<RealImpl> result) {
+		result.add(this);
+	}
+
 	public Real addAtLeast(double delta) {
 		final RealImpl result = new RealImpl(getName() + ".addAtLeast" + delta, getLine(), this.currentValue + delta);
 		getLine().addForce(new PositiveForce(this, result, delta));
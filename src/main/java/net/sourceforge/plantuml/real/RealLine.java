@@ -36,6 +36,7 @@
 package net.sourceforge.plantuml.real;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -49,6 +50,8 @@ class RealLine {
 	private double min;
 	private double max;
 	private Set<AbstractReal> all = new HashSet<>();
+	// Changed each time a real moves, so that computed values can be kept until then
+	private int version;
 
 	void register(double v) {
 		// System.err.println("RealLine::register " + v);
@@ -60,6 +63,14 @@ class RealLine {
 		all.add(abstractReal);
 	}
 
+	int getVersion() {
+		return version;
+	}
+
+	void incVersion() {
+		version++;
+	}
+
 	public double getAbsoluteMin() {
 		return min;
 	}
@@ -74,29 +85,42 @@ class RealLine {
 
 	static private int CPT;
 
+	/**
+	 * Applies the forces until none of them changes anything.
+	 * <p>
+	 * The result is the one of applying all the forces in order, pass after
+	 * pass, but from the second pass on, only the forces depending on a
+	 * {@link RealImpl} moved since their last application are applied again.
+	 */
 	public void compile() {
 		int cpt = 0;
 		final Map<PositiveForce, Integer> counter = new HashMap<PositiveForce, Integer>();
+		// The first pass applies all the forces, so that every RealMax and RealMin
+		// is computed before looking at dependencies
+		final BitSet pending = new BitSet(forces.size());
+		pending.set(0, forces.size());
+		final BitSet changed = new BitSet(forces.size());
+		Map<RealImpl, BitSet> dependents = null;
 		do {
-			boolean done = true;
-			for (PositiveForce f : forces) {
-				// System.err.println("force=" + f);
+			changed.clear();
+			for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+				pending.clear(i);
+				final PositiveForce f = forces.get(i);
 				final boolean change = f.apply();
 				if (change) {
 					incCounter(counter, f);
-					// System.err.println("changed! " + f);
-					done = false;
+					changed.set(i);
+					if (dependents != null)
+						for (RealImpl real : f.getMoved())
+							pending.or(dependents.get(real));
 				}
 			}
-			if (done) {
-				// System.err.println("cpt=" + cpt + " size=" + forces.size());
+			if (changed.isEmpty()) {
 				CPT += cpt;
-				// System.err.println("CPT=" + CPT);
 				min = 0;
 				max = 0;
 				for (AbstractReal real : all) {
 					final double v = real.getCurrentValue();
-					// System.err.println("RealLine::compile v=" + v);
 					if (v > max)
 						max = v;
 
@@ -104,18 +128,67 @@ class RealLine {
 						min = v;
 
 				}
-				// System.err.println("RealLine::compile min=" + min + " max=" + max);
+				incVersion();
 				return;
 			}
+			if (dependents == null) {
+				dependents = getDependents();
+				for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1))
+					for (RealImpl real : forces.get(i).getMoved())
+						pending.or(dependents.get(real));
+			}
 			cpt++;
 			if (cpt > 99999) {
 				printCounter(counter);
-				throw new IllegalStateException("Inifinite Loop?");
+				throw new IllegalStateException("Cannot satisfy cyclic constraints: " + getCycle(changed, dependents));
 			}
 		} while (true);
 
 	}
 
+	private Map<RealImpl, BitSet> getDependents() {
+		final Map<RealImpl, BitSet> result = new HashMap<>();
+		for (int i = 0; i < forces.size(); i++) {
+			for (RealImpl real : forces.get(i).getDependencies()) {
+				BitSet bitSet = result.get(real);
+				if (bitSet == null) {
+					bitSet = new BitSet(forces.size());
+					result.put(real, bitSet);
+				}
+				bitSet.set(i);
+			}
+		}
+		// A force may move a real no force depends on
+		for (PositiveForce force : forces)
+			for (RealImpl real : force.getMoved())
+				if (result.containsKey(real) == false)
+					result.put(real, new BitSet());
+
+		return result;
+	}
+
+	private List<PositiveForce> getCycle(BitSet changed, Map<RealImpl, BitSet> dependents) {
+		// Walks through the forces that keep on changing until one is met again
+		final List<Integer> path = new ArrayList<>();
+		int current = changed.nextSetBit(0);
+		while (path.contains(current) == false) {
+			path.add(current);
+			final BitSet next = new BitSet();
+			for (RealImpl real : forces.get(current).getMoved())
+				next.or(dependents.get(real));
+			next.and(changed);
+			next.clear(current);
+			if (next.isEmpty())
+				break;
+			current = next.nextSetBit(0);
+		}
+		final List<PositiveForce> result = new ArrayList<>();
+		for (int i = Math.max(0, path.indexOf(current)); i < path.size(); i++)
+			result.add(forces.get(path.get(i)));
+
+		return result;
+	}
+
 	private void printCounter(Map<PositiveForce, Integer> counter) {
 		for (PositiveForce f : forces)
 			System.err.println("force=" + f);
@@ -35,6 +35,8 @@
  */
 package net.sourceforge.plantuml.real;
 
+import java.util.Collection;
+
 class RealMiddle2 extends RealMoveable {
 
 	private final RealMoveable p1;
@@ -52,6 +54,12 @@ class RealMiddle2 extends RealMoveable {
 		return (p1.getCurrentValue() + p2.getCurrentValue()) / 2;
 	}
 
+	@Override
+	void addDependencies(Collection<RealImpl> result) {
+		p1.addDependencies(result);
+		p2.addDependencies(result);
+	}
+
 	// public Real addFixed(double diff) {
 	// return new RealMiddle2(p1, p2, delta + diff);
 	// }
@@ -70,6 +70,15 @@ class RealMin extends AbstractReal implements Real {
 		return result;
 	}
 
+	@Override
+	void addDependencies(Collection<RealImpl> result) {
+		// Once computed, the value is cached and does not change any more
+		if (cache == Double.MAX_VALUE)
+			for (Real real : all)
+				addDependencies(real, result);
+
+	}
+
 	public Real addFixed(double delta) {
 		return new RealDelta(this, delta);
 	}
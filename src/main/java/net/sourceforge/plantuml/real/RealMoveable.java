@@ -65,10 +65,10 @@ abstract class RealMoveable extends AbstractReal implements Real {
 
 	@Override
 	public final String toString() {
-		return "#" + cpt + "_" + name;
+		return "#" + cpt + "_" + getName();
 	}
 
-	final public String getName() {
+	public String getName() {
 		return name;
 	}
 }
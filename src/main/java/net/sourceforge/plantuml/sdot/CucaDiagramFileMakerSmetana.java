@@ -46,6 +46,7 @@ import static gen.lib.gvc.gvlayout__c.gvLayoutJobs;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -93,6 +94,7 @@ import net.sourceforge.plantuml.klimt.shape.TextBlock;
 import net.sourceforge.plantuml.klimt.shape.TextBlockUtils;
 import net.sourceforge.plantuml.log.Logme;
 import net.sourceforge.plantuml.skin.AlignmentParam;
+import net.sourceforge.plantuml.skin.PragmaKey;
 import net.sourceforge.plantuml.skin.UmlDiagramType;
 import net.sourceforge.plantuml.skin.VisibilityModifier;
 import net.sourceforge.plantuml.skin.rose.Rose;
@@ -110,11 +112,14 @@ import net.sourceforge.plantuml.svek.IEntityImage;
 import net.sourceforge.plantuml.svek.SvekNode;
 import net.sourceforge.plantuml.svek.image.EntityImageNote;
 import net.sourceforge.plantuml.svek.image.EntityImageNoteLink;
+import net.sourceforge.plantuml.utils.Log;
 import net.sourceforge.plantuml.utils.Position;
 import smetana.core.CString;
 import smetana.core.Globals;
 import smetana.core.JUtils;
+import smetana.core.LayoutPhase;
 import smetana.core.Macro;
+import smetana.core.NetworkSimplex;
 import smetana.core.debug.SmetanaDebug;
 
 @DuplicateCode(reference = "SvekEdge, CucaDiagramFileMakerElk, CucaDiagramFileMakerSmetana")
@@ -129,6 +134,9 @@ public class CucaDiagramFileMakerSmetana extends CucaDiagramFileMaker {
 
 	private final Rankdir rankdir;
 
+	private static final List<String> LAYOUT_LIMITS = Arrays.asList("mclimit", "nslimit", "nslimit1", "searchsize",
+			"remincross");
+
 	public CucaDiagramFileMakerSmetana(CucaDiagram diagram) {
 		super(diagram);
 		this.rankdir = diagram.getSkinParam().getRankdir();
@@ -488,13 +496,50 @@ public class CucaDiagramFileMakerSmetana extends CucaDiagramFileMaker {
 		SmetanaDebug.reset();
 		if (rankdir == Rankdir.LEFT_TO_RIGHT)
 			agsafeset(zz, g, new CString("rankdir"), new CString("LR"), new CString("LR"));
+		exportLayoutLimits(zz, g, diagram.getPragma().getValue(PragmaKey.GRAPH_ATTRIBUTES));
+		zz.networkSimplex = getNetworkSimplexMode();
 		gvLayoutJobs(zz, gvc, g);
 		SmetanaDebug.printMe();
+		Log.info(() -> "Smetana layout: rank " + zz.getPhaseDurationMillis(LayoutPhase.RANK) + " ms, mincross "
+				+ zz.getPhaseDurationMillis(LayoutPhase.MINCROSS) + " ms, position "
+				+ zz.getPhaseDurationMillis(LayoutPhase.POSITION) + " ms, splines "
+				+ zz.getPhaseDurationMillis(LayoutPhase.SPLINES) + " ms");
 
 		final TextBlock drawable = new Drawing();
 		return drawable;
 	}
 
+	// Lets "!pragma graphattributes mclimit=0.5;nslimit=2" trade quality for speed
+	static void exportLayoutLimits(Globals zz, ST_Agraph_s g, String attributes) {
+		if (attributes == null)
+			return;
+
+		for (String attribute : attributes.split("[;,\\s]+")) {
+			final int idx = attribute.indexOf('=');
+			if (idx == -1)
+				continue;
+
+			final String name = StringUtils.goLowerCase(attribute.substring(0, idx));
+			final String value = StringUtils.eventuallyRemoveStartingAndEndingDoubleQuote(attribute.substring(idx + 1));
+			if (LAYOUT_LIMITS.contains(name))
+				agsafeset(zz, g, new CString(name), new CString(value), new CString(value));
+		}
+	}
+
+	// "!pragma networksimplex array" solves the network simplex on primitive
+	// arrays, "!pragma networksimplex validate" checks it against the original one
+	private NetworkSimplex.Mode getNetworkSimplexMode() {
+		final String value = diagram.getPragma().getValue(PragmaKey.NETWORK_SIMPLEX);
+		if (value == null)
+			return NetworkSimplex.Mode.GRAPH;
+
+		for (NetworkSimplex.Mode mode : NetworkSimplex.Mode.values())
+			if (mode.name().equalsIgnoreCase(value.trim()))
+				return mode;
+
+		return NetworkSimplex.Mode.GRAPH;
+	}
+
 	private void exportGroups(Globals zz, ST_Agraph_s graph, Entity parent) {
 		for (Entity g : diagram.getChildrenGroups(parent)) {
 			if (g.isRemoved())
@@ -304,6 +304,17 @@ public class SequenceDiagram extends UmlDiagram {
 		return GlobalConfig.FORCE_TEOZ || getPragma().isTrue(PragmaKey.TEOZ);
 	}
 
+	@Override
+	protected boolean canShareLayout() {
+		// Teoz completes its layout while drawing
+		return modeTeoz() == false;
+	}
+
+	@Override
+	public boolean canUseDisplayList() {
+		return modeTeoz() == false;
+	}
+
 	@Override
 	public ImageBuilder createImageBuilder(FileFormatOption fileFormatOption) throws IOException {
 		return super.createImageBuilder(fileFormatOption).annotations(false);
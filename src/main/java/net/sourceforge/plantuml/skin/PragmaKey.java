@@ -50,12 +50,14 @@ public enum PragmaKey {
 	COMPACT, //
 	DEFAULT_LABEL_ANGLE, //
 	DEFAULT_LABEL_DISTANCE, //
+	DISPLAY_LIST, //
 	EDGE_CORNER_RADIUS, //
 	GRAPH_ATTRIBUTES, //
 	HORIZONTAL_LINE_BETWEEN_DIFFERENT_PACKAGE_ALLOWED, //
 	KERMOR, //
 	LABEL_ANGLE, //
 	LABEL_DISTANCE, //
+	NETWORK_SIMPLEX, //
 	RATIO, //
 	SHOW_DEPRECATION, //
 	SVG_FONT, //
@@ -51,6 +51,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import net.sourceforge.plantuml.Previous;
@@ -1217,18 +1218,16 @@ public class SkinParam implements ISkinParam {
 		return sheet(fontConfiguration, horizontalAlignment, creoleMode, stereotype);
 	}
 
-	private final Map<Object, CreoleParser> cache = new HashMap<>();
+	// Parsers are shared, so that each one keeps its parsed sheets for all the
+	// texts using the same fonts
+	private final Map<Object, CreoleParser> cache = new ConcurrentHashMap<>();
 
 	@Override
 	public SheetBuilder sheet(FontConfiguration fontConfiguration, HorizontalAlignment horizontalAlignment,
 			CreoleMode creoleMode, FontConfiguration stereo) {
 		final Object key = Arrays.asList(horizontalAlignment, creoleMode, fontConfiguration, stereo);
-		CreoleParser result = cache.get(key);
-		if (result == null) {
-			result = new CreoleParser(fontConfiguration, horizontalAlignment, this, creoleMode, stereo);
-			cache.put(key, result);
-		}
-		return result;
+		return cache.computeIfAbsent(key,
+				k -> new CreoleParser(fontConfiguration, horizontalAlignment, this, creoleMode, stereo));
 	}
 
 	@Override
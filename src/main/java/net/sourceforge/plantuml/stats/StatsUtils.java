@@ -40,6 +40,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Filter;
@@ -51,6 +54,7 @@ import java.util.prefs.Preferences;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 
+import net.sourceforge.plantuml.api.NumberAnalyzed;
 import net.sourceforge.plantuml.log.Logme;
 import net.sourceforge.plantuml.security.SFile;
 import net.sourceforge.plantuml.security.SecurityUtils;
@@ -66,6 +70,8 @@ public class StatsUtils {
 	static ConcurrentMap<String, ParsedGenerated> byTypeEver = new ConcurrentHashMap<String, ParsedGenerated>();
 	static ConcurrentMap<String, ParsedGenerated> byTypeCurrent = new ConcurrentHashMap<String, ParsedGenerated>();
 
+	static ConcurrentMap<String, NumberAnalyzed> byFactoryCurrent = new ConcurrentHashMap<String, NumberAnalyzed>();
+
 	static FormatCounter formatCounterCurrent = new FormatCounter("currentformat.");
 	static FormatCounter formatCounterEver = new FormatCounter("format.");
 
@@ -198,6 +204,14 @@ public class StatsUtils {
 		}
 	}
 
+	/**
+	 * Parsing durations of the current session, by factory. Failed attempts are
+	 * counted separately, with a <code>.failed</code> suffix.
+	 */
+	public static Map<String, NumberAnalyzed> getFactoryParseStats() {
+		return Collections.unmodifiableMap(new TreeMap<String, NumberAnalyzed>(byFactoryCurrent));
+	}
+
 	public static void dumpStats() {
 		new TextConverter(getStats()).printMe(System.out);
 	}
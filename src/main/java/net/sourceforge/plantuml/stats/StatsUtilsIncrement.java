@@ -42,6 +42,8 @@ import java.util.prefs.Preferences;
 
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.activitydiagram3.ActivityDiagram3;
+import net.sourceforge.plantuml.api.NumberAnalyzed;
+import net.sourceforge.plantuml.api.PSystemFactory;
 import net.sourceforge.plantuml.core.Diagram;
 import net.sourceforge.plantuml.directdot.PSystemDot;
 import net.sourceforge.plantuml.eggs.PSystemWelcome;
@@ -58,6 +60,8 @@ public class StatsUtilsIncrement {
 	final private static ConcurrentMap<String, ParsedGenerated> byTypeEver = StatsUtils.byTypeEver;
 	final private static ConcurrentMap<String, ParsedGenerated> byTypeCurrent = StatsUtils.byTypeCurrent;
 
+	final private static ConcurrentMap<String, NumberAnalyzed> byFactoryCurrent = StatsUtils.byFactoryCurrent;
+
 	final private static FormatCounter formatCounterCurrent = StatsUtils.formatCounterCurrent;
 	final private static FormatCounter formatCounterEver = StatsUtils.formatCounterEver;
 
@@ -77,6 +81,16 @@ public class StatsUtilsIncrement {
 		realTimeExport();
 	}
 
+	public static void onceMoreFactoryParse(long duration, Class<? extends PSystemFactory> factory, boolean ok) {
+		final String name = factory.getSimpleName() + (ok ? "" : ".failed");
+		NumberAnalyzed n = byFactoryCurrent.get(name);
+		if (n == null) {
+			byFactoryCurrent.putIfAbsent(name, new NumberAnalyzed(name));
+			n = byFactoryCurrent.get(name);
+		}
+		n.addValue(duration);
+	}
+
 	public static void onceMoreGenerate(long duration, Class<? extends Diagram> type, FileFormat fileFormat) {
 		if (StatsUtils.fullEver == null || StatsUtils.historicalData == null) {
 			return;
@@ -35,9 +35,11 @@
  */
 package net.sourceforge.plantuml.style;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -68,6 +70,7 @@ public class StyleBuilder implements AutomaticCounter {
 		final StyleBuilder result = new StyleBuilder();
 		result.storage.putAll(storage);
 		result.counter = this.counter;
+		result.mergedStyleCache.putAll(mergedStyleCache);
 		return result;
 
 	}
@@ -90,8 +93,10 @@ public class StyleBuilder implements AutomaticCounter {
 		result.counter = this.counter;
 		result.storage.putAll(storage);
 
+		final List<StyleSignatureBasic> changed = new ArrayList<>();
 		for (Style modifiedStyle : modifiedStyles) {
 			final StyleSignatureBasic signature = modifiedStyle.getSignature();
+			changed.add(signature);
 
 			final Style orig = result.storage.get(signature);
 			if (orig == null) {
@@ -102,13 +107,28 @@ public class StyleBuilder implements AutomaticCounter {
 			}
 
 		}
+		// A merged style is still valid if none of the changed styles take part in it
+		for (Entry<StyleSignatureBasic, Style> ent : mergedStyleCache.entrySet())
+			if (isMatchedByAny(changed, ent.getKey()) == false)
+				result.mergedStyleCache.put(ent.getKey(), ent.getValue());
+
 		return result;
 	}
 
+	private static boolean isMatchedByAny(List<StyleSignatureBasic> declarations, StyleSignatureBasic signature) {
+		for (StyleSignatureBasic declaration : declarations)
+			if (declaration.matchAll(signature))
+				return true;
+
+		return false;
+	}
+
 	public void loadInternal(StyleSignatureBasic signature, Style newStyle) {
 		if (signature.isStarred())
 			throw new IllegalArgumentException();
 
+		mergedStyleCache.clear();
+
 		final Style orig = this.storage.get(signature);
 		if (orig == null) {
 			this.storage.put(newStyle);
@@ -143,13 +163,9 @@ public class StyleBuilder implements AutomaticCounter {
 			Log.info(() -> "Using style " + signature);
 
 		Style mergedStyle = null;
-		for (Style style : storage.getStyles()) {
-			final StyleSignatureBasic key = style.getSignature();
-			if (key.matchAll(signature) == false)
-				continue;
-
+		for (Style style : storage.getMatchingStyles(signature)) {
 			Style tmp = style;
-			if (key.isStarred())
+			if (style.getSignature().isStarred())
 				tmp = tmp.deltaPriority(deltaPriority);
 
 			if (mergedStyle == null)
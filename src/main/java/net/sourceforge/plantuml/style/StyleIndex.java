@@ -0,0 +1,165 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml.style;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the styles of a {@link StyleStorage}, used to find the styles
+ * matching a signature without scanning all of them.
+ * <p>
+ * Each style is put in a single bucket, keyed by its least frequent stereotype,
+ * or else by its least frequent {@link SName}. A signature can only match the
+ * styles of the buckets of its own stereotypes and names, plus the styles
+ * having neither. Candidates are then checked with
+ * {@link StyleSignatureBasic#matchAll} in the original order of the storage,
+ * so that merges give the same result as a full scan.
+ */
+final class StyleIndex {
+	// ::remove file when __HAXE__
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Style[] styles;
+	private final int[] others;
+	private final Map<SName, int[]> bySName = new EnumMap<>(SName.class);
+	private final Map<String, int[]> byStereotype = new HashMap<>();
+
+	StyleIndex(List<Style> all) {
+		this.styles = all.toArray(new Style[0]);
+
+		final Map<SName, Integer> snameCount = new EnumMap<>(SName.class);
+		final Map<String, Integer> stereotypeCount = new HashMap<>();
+		for (Style style : styles) {
+			final StyleSignatureBasic signature = style.getSignature();
+			for (String stereotype : signature.getStereotypes())
+				stereotypeCount.merge(stereotype, 1, Integer::sum);
+			for (SName name : signature.getKey().snames)
+				snameCount.merge(name, 1, Integer::sum);
+		}
+
+		final List<Integer> othersList = new ArrayList<>();
+		final Map<SName, List<Integer>> snameLists = new EnumMap<>(SName.class);
+		final Map<String, List<Integer>> stereotypeLists = new HashMap<>();
+		for (int i = 0; i < styles.length; i++) {
+			final StyleSignatureBasic signature = styles[i].getSignature();
+			final String stereotype = leastFrequent(signature.getStereotypes(), stereotypeCount);
+			if (stereotype != null) {
+				stereotypeLists.computeIfAbsent(stereotype, k -> new ArrayList<>()).add(i);
+				continue;
+			}
+			final SName name = leastFrequent(signature.getKey().snames, snameCount);
+			if (name != null)
+				snameLists.computeIfAbsent(name, k -> new ArrayList<>()).add(i);
+			else
+				othersList.add(i);
+		}
+
+		this.others = toArray(othersList);
+		for (Map.Entry<SName, List<Integer>> ent : snameLists.entrySet())
+			bySName.put(ent.getKey(), toArray(ent.getValue()));
+		for (Map.Entry<String, List<Integer>> ent : stereotypeLists.entrySet())
+			byStereotype.put(ent.getKey(), toArray(ent.getValue()));
+	}
+
+	private static <K extends Comparable<K>> K leastFrequent(Iterable<K> keys, Map<K, Integer> count) {
+		K result = null;
+		for (K key : keys) {
+			if (result == null)
+				result = key;
+			else {
+				final int cmp = count.get(key) - count.get(result);
+				// Ties are broken on the key itself, so that buckets do not depend on the
+				// iteration order of a HashSet
+				if (cmp < 0 || (cmp == 0 && key.compareTo(result) < 0))
+					result = key;
+			}
+		}
+		return result;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		final int[] result = new int[list.size()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = list.get(i);
+		return result;
+	}
+
+	/**
+	 * Returns the styles matching the signature, in the order of the storage.
+	 */
+	List<Style> getMatchingStyles(StyleSignatureBasic signature) {
+		final int[][] buckets = new int[1 + signature.getKey().snames.size() + signature.getStereotypes().size()][];
+		int nb = 0;
+		int size = others.length;
+		buckets[nb++] = others;
+		for (SName name : signature.getKey().snames) {
+			final int[] bucket = bySName.getOrDefault(name, EMPTY);
+			size += bucket.length;
+			buckets[nb++] = bucket;
+		}
+		for (String stereotype : signature.getStereotypes()) {
+			final int[] bucket = byStereotype.getOrDefault(stereotype, EMPTY);
+			size += bucket.length;
+			buckets[nb++] = bucket;
+		}
+		if (size == 0)
+			return Collections.emptyList();
+
+		// Each style is in a single bucket, so there are no duplicates
+		final int[] candidates = new int[size];
+		int pos = 0;
+		for (int i = 0; i < nb; i++) {
+			System.arraycopy(buckets[i], 0, candidates, pos, buckets[i].length);
+			pos += buckets[i].length;
+		}
+		Arrays.sort(candidates);
+
+		final List<Style> result = new ArrayList<>();
+		for (int candidate : candidates)
+			if (styles[candidate].getSignature().matchAll(signature))
+				result.add(styles[candidate]);
+
+		return result;
+	}
+
+}
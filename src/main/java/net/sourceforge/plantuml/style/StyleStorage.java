@@ -35,37 +35,56 @@
  */
 package net.sourceforge.plantuml.style;
 
-import java.util.AbstractCollection;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.NoSuchElementException;
-
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Styles of a {@link StyleBuilder}, iterated in insertion order.
+ * <p>
+ * Styles are kept in persistent tries, so that copying a storage is
+ * immediate and a change only copies the path to the modified style.
+ */
 public class StyleStorage {
 	// ::remove file when __HAXE__
 
-	private final Map<StyleSignatureBasic, Style> legacy = new LinkedHashMap<StyleSignatureBasic, Style>();
+	private static final Comparator<StyleTrie.Entry<?>> BY_ORDER = Comparator.comparingInt(entry -> entry.order);
+
+	private StyleTrie<StyleSignatureBasic> legacy = StyleTrie.empty();
+
+	private StyleTrie<StyleKey> plain = StyleTrie.empty();
 
-	private final Map<StyleKey, Style> plain = new LinkedHashMap<StyleKey, Style>();
+	// Order of the next new style
+	private int order;
+
+	// Built on first use, and dropped on any change
+	private volatile List<Style> styles;
+	private volatile StyleIndex index;
 
 	public void printMe() {
-		for (Entry<StyleSignatureBasic, Style> ent : legacy.entrySet())
-			ent.getValue().printMe();
+		for (StyleTrie.Entry<StyleSignatureBasic> ent : sorted(legacy))
+			ent.style.printMe();
 
 	}
 
 	public void putAll(StyleStorage other) {
-		legacy.putAll(other.legacy);
-		plain.putAll(other.plain);
+		if (legacy.size() == 0 && plain.size() == 0) {
+			// Nothing to merge: share everything
+			legacy = other.legacy;
+			plain = other.plain;
+			order = other.order;
+			styles = other.styles;
+			index = other.index;
+			return;
+		}
+		for (Style style : other.getStyles())
+			put(style);
 
 	}
 
 	public Style get(StyleSignatureBasic signature) {
-//		if (signature.getStereotypes().size() > 1)
-//			System.err.println("get " + signature);
-
 		if (signature.getStereotypes().size() == 0)
 			return plain.get(signature.getKey());
 
@@ -73,39 +92,58 @@ public class StyleStorage {
 	}
 
 	public void put(Style modifiedStyle) {
-//		if (signature.getStereotypes().size() > 1)
-//			System.err.println("put " + signature);
-		
 		final StyleSignatureBasic signature = modifiedStyle.getSignature();
 
 		if (signature.getStereotypes().size() == 0)
-			plain.put(signature.getKey(), modifiedStyle);
+			plain = plain.put(signature.getKey(), modifiedStyle, order++);
 		else
-			legacy.put(signature, modifiedStyle);
+			legacy = legacy.put(signature, modifiedStyle, order++);
 
+		styles = null;
+		index = null;
+	}
+
+	private static <K> List<StyleTrie.Entry<K>> sorted(StyleTrie<K> trie) {
+		final List<StyleTrie.Entry<K>> result = new ArrayList<>(trie.size());
+		trie.addEntriesTo(result);
+		Collections.sort(result, BY_ORDER);
+		return result;
 	}
 
 	public Collection<Style> getStyles() {
-		return new AbstractCollection<Style>() {
-			@Override
-			public Iterator<Style> iterator() {
-				return new ConcatIterator<>(legacy.values().iterator(), plain.values().iterator());
-			}
-
-			@Override
-			public int size() {
-				return legacy.size() + plain.size();
-			}
-		};
+		return getStyleList();
+	}
+
+	private List<Style> getStyleList() {
+		List<Style> result = styles;
+		if (result == null) {
+			result = new ArrayList<>(legacy.size() + plain.size());
+			for (StyleTrie.Entry<StyleSignatureBasic> ent : sorted(legacy))
+				result.add(ent.style);
+			for (StyleTrie.Entry<StyleKey> ent : sorted(plain))
+				result.add(ent.style);
+			result = Collections.unmodifiableList(result);
+			styles = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the styles matching the signature, in the order of
+	 * {@link #getStyles()}.
+	 */
+	public List<Style> getMatchingStyles(StyleSignatureBasic signature) {
+		StyleIndex result = index;
+		if (result == null) {
+			result = new StyleIndex(getStyleList());
+			index = result;
+		}
+		return result.getMatchingStyles(signature);
 	}
-	
+
 	public Style computeMergedStyle(StyleSignatureBasic signature) {
 		Style mergedStyle = null;
-		for (Style style : getStyles()) {
-			final StyleSignatureBasic key = style.getSignature();
-			if (key.matchAll(signature) == false)
-				continue;
-
+		for (Style style : getMatchingStyles(signature)) {
 			if (mergedStyle == null)
 				mergedStyle = style;
 			else
@@ -115,32 +153,4 @@ public class StyleStorage {
 		return mergedStyle;
 	}
 
-
-
-}
-
-class ConcatIterator<T> implements Iterator<T> {
-	private final Iterator<T> first;
-	private final Iterator<T> second;
-
-	public ConcatIterator(Iterator<T> first, Iterator<T> second) {
-		this.first = first;
-		this.second = second;
-	}
-
-	@Override
-	public boolean hasNext() {
-		return first.hasNext() || second.hasNext();
-	}
-
-	@Override
-	public T next() {
-		if (first.hasNext())
-			return first.next();
-		else if (second.hasNext())
-			return second.next();
-		else
-			throw new NoSuchElementException();
-
-	}
 }
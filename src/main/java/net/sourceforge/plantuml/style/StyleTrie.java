@@ -0,0 +1,215 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ *
+ */
+package net.sourceforge.plantuml.style;
+
+import java.util.List;
+
+/**
+ * Persistent hash array mapped trie of styles.
+ * <p>
+ * A {@link #put} returns a new trie and leaves this one unchanged: only the
+ * nodes on the path to the key are copied, the others are shared. Each entry
+ * keeps the order of the first insertion of its key, so that a
+ * {@link StyleStorage} can iterate its styles like a
+ * <code>LinkedHashMap</code>.
+ */
+final class StyleTrie<K> {
+	// ::remove file when __HAXE__
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	static final class Entry<K> {
+		final K key;
+		final int hash;
+		final Style style;
+		final int order;
+
+		private Entry(K key, int hash, Style style, int order) {
+			this.key = key;
+			this.hash = hash;
+			this.style = style;
+			this.order = order;
+		}
+	}
+
+	// Children are either an Entry or a Node. Past the last level, a Node is a
+	// list of entries having the same hash.
+	private static final class Node {
+		final int bitmap;
+		final Object[] array;
+
+		Node(int bitmap, Object[] array) {
+			this.bitmap = bitmap;
+			this.array = array;
+		}
+	}
+
+	private static final StyleTrie<?> EMPTY = new StyleTrie<>(new Node(0, new Object[0]), 0);
+
+	private final Node root;
+	private final int size;
+
+	private StyleTrie(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <K> StyleTrie<K> empty() {
+		return (StyleTrie<K>) EMPTY;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private static int hash(Object key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	Style get(K key) {
+		final Entry<K> entry = getEntry(key);
+		return entry == null ? null : entry.style;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Entry<K> getEntry(K key) {
+		final int hash = hash(key);
+		Node node = root;
+		for (int shift = 0;; shift += BITS) {
+			if (shift >= 32) {
+				for (Object o : node.array)
+					if (((Entry<K>) o).key.equals(key))
+						return (Entry<K>) o;
+				return null;
+			}
+			final int bit = 1 << ((hash >>> shift) & MASK);
+			if ((node.bitmap & bit) == 0)
+				return null;
+			final Object child = node.array[Integer.bitCount(node.bitmap & (bit - 1))];
+			if (child instanceof Node) {
+				node = (Node) child;
+				continue;
+			}
+			final Entry<K> entry = (Entry<K>) child;
+			return entry.hash == hash && entry.key.equals(key) ? entry : null;
+		}
+	}
+
+	/**
+	 * Returns a trie where the key is mapped to the style. A new key gets the
+	 * given order, an existing key keeps its own.
+	 */
+	StyleTrie<K> put(K key, Style style, int order) {
+		final Entry<K> previous = getEntry(key);
+		final int hash = hash(key);
+		if (previous == null)
+			return new StyleTrie<>(put(root, new Entry<>(key, hash, style, order), 0), size + 1);
+
+		return new StyleTrie<>(put(root, new Entry<>(key, hash, style, previous.order), 0), size);
+	}
+
+	private static Node put(Node node, Entry<?> entry, int shift) {
+		if (shift >= 32) {
+			for (int i = 0; i < node.array.length; i++)
+				if (((Entry<?>) node.array[i]).key.equals(entry.key))
+					return new Node(0, with(node.array, i, entry));
+			return new Node(0, inserted(node.array, node.array.length, entry));
+		}
+		final int bit = 1 << ((entry.hash >>> shift) & MASK);
+		final int idx = Integer.bitCount(node.bitmap & (bit - 1));
+		if ((node.bitmap & bit) == 0)
+			return new Node(node.bitmap | bit, inserted(node.array, idx, entry));
+
+		final Object child = node.array[idx];
+		if (child instanceof Node)
+			return new Node(node.bitmap, with(node.array, idx, put((Node) child, entry, shift + BITS)));
+
+		final Entry<?> other = (Entry<?>) child;
+		if (other.hash == entry.hash && other.key.equals(entry.key))
+			return new Node(node.bitmap, with(node.array, idx, entry));
+
+		return new Node(node.bitmap, with(node.array, idx, pair(other, entry, shift + BITS)));
+	}
+
+	private static Node pair(Entry<?> e1, Entry<?> e2, int shift) {
+		if (shift >= 32)
+			return new Node(0, new Object[] { e1, e2 });
+
+		final int b1 = (e1.hash >>> shift) & MASK;
+		final int b2 = (e2.hash >>> shift) & MASK;
+		if (b1 == b2)
+			return new Node(1 << b1, new Object[] { pair(e1, e2, shift + BITS) });
+
+		if (b1 < b2)
+			return new Node((1 << b1) | (1 << b2), new Object[] { e1, e2 });
+
+		return new Node((1 << b1) | (1 << b2), new Object[] { e2, e1 });
+	}
+
+	private static Object[] with(Object[] array, int idx, Object value) {
+		final Object[] result = array.clone();
+		result[idx] = value;
+		return result;
+	}
+
+	private static Object[] inserted(Object[] array, int idx, Object value) {
+		final Object[] result = new Object[array.length + 1];
+		System.arraycopy(array, 0, result, 0, idx);
+		result[idx] = value;
+		System.arraycopy(array, idx, result, idx + 1, array.length - idx);
+		return result;
+	}
+
+	/**
+	 * Adds all the entries to the list, in no particular order.
+	 */
+	void addEntriesTo(List<Entry<K>> list) {
+		addEntriesTo(root, list);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <K> void addEntriesTo(Node node, List<Entry<K>> list) {
+		for (Object child : node.array)
+			if (child instanceof Node)
+				addEntriesTo((Node) child, list);
+			else
+				list.add((Entry<K>) child);
+	}
+
+}
@@ -0,0 +1,136 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ * 
+ *
+ */
+package net.sourceforge.plantuml.svek;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions of the titles and colors found in the SVG generated by GraphViz.
+ * <p>
+ * The SVG is scanned once, the first time a position is requested. Each key is
+ * the exact text searched for (for example <code>&lt;title&gt;ent0002&lt;/title&gt;</code>
+ * or <code>stroke="#010203"</code>) so that a lookup returns the same position
+ * as <code>String.indexOf()</code> would.
+ */
+final class SvgIndex {
+
+	private static final String TITLE_START = "<title>";
+	private static final String TITLE_END = "</title>";
+
+	private final String svg;
+	private Map<String, List<Integer>> positions;
+
+	SvgIndex(String svg) {
+		this.svg = svg;
+	}
+
+	static String titleKey(String title) {
+		return TITLE_START + title + TITLE_END;
+	}
+
+	/**
+	 * Returns the first position of <code>key</code> in <code>[from, to)</code>,
+	 * or -1.
+	 */
+	int indexOf(String key, int from, int to) {
+		if (positions == null)
+			positions = build();
+
+		final List<Integer> list = positions.get(key);
+		if (list == null)
+			return -1;
+
+		int low = 0;
+		int high = list.size();
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (list.get(mid) < from)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		if (low == list.size())
+			return -1;
+
+		final int result = list.get(low);
+		if (result + key.length() > to)
+			return -1;
+
+		return result;
+	}
+
+	private Map<String, List<Integer>> build() {
+		final Map<String, List<Integer>> result = new HashMap<>();
+		for (int p = svg.indexOf(TITLE_START); p != -1; p = svg.indexOf(TITLE_START, p + 1)) {
+			final int end = svg.indexOf(TITLE_END, p + TITLE_START.length());
+			if (end == -1)
+				break;
+			add(result, svg.substring(p, end + TITLE_END.length()), p);
+		}
+		for (int p = svg.indexOf('#'); p != -1; p = svg.indexOf('#', p + 1)) {
+			if (p + 8 > svg.length())
+				break;
+			final String color = svg.substring(p, p + 7);
+			final char after = svg.charAt(p + 7);
+			if (after == '"') {
+				if (svg.startsWith("=\"", p - 2))
+					add(result, "=\"" + color + "\"", p - 2);
+				if (svg.startsWith("stroke=\"", p - 8))
+					add(result, "stroke=\"" + color + "\"", p - 8);
+				if (svg.startsWith("fill=\"", p - 6))
+					add(result, "fill=\"" + color + "\"", p - 6);
+			} else if (after == ';' && svg.startsWith("stroke:", p - 7)) {
+				add(result, "stroke:" + color + ";", p - 7);
+				if (svg.startsWith(";", p - 8))
+					add(result, ";stroke:" + color + ";", p - 8);
+			}
+		}
+		return result;
+	}
+
+	private static void add(Map<String, List<Integer>> map, String key, int position) {
+		List<Integer> list = map.get(key);
+		if (list == null) {
+			list = new ArrayList<>();
+			map.put(key, list);
+		}
+		list.add(position);
+	}
+
+}
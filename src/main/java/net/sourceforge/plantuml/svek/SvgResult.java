@@ -46,16 +46,33 @@ import net.sourceforge.plantuml.klimt.geom.XCubicCurve2D;
 import net.sourceforge.plantuml.klimt.geom.XPoint2D;
 import net.sourceforge.plantuml.klimt.shape.DotPath;
 
+/**
+ * Part of the SVG generated by GraphViz.
+ * <p>
+ * Substrings are views on the same SVG: they share the string and its
+ * {@link SvgIndex}, so that nothing is copied when nodes, clusters and edges
+ * look for their own part of the SVG.
+ */
 public class SvgResult {
 
 	public static final String D_EQUALS = "d=\"";
 	public static final String POINTS_EQUALS = "points=\"";
 
 	private final String svg;
+	private final int start;
+	private final int end;
+	private final SvgIndex index;
 	private final Point2DFunction function;
 
 	public SvgResult(String svg, Point2DFunction function) {
+		this(svg, 0, svg.length(), new SvgIndex(svg), function);
+	}
+
+	private SvgResult(String svg, int start, int end, SvgIndex index, Point2DFunction function) {
 		this.svg = svg;
+		this.start = start;
+		this.end = end;
+		this.index = index;
 		this.function = function;
 	}
 
@@ -76,18 +93,16 @@ public class SvgResult {
 	}
 
 	public int getIndexFromColor(int color) {
-		String s = "stroke=\"" + StringUtils.goLowerCase(StringUtils.sharp000000(color)) + "\"";
-		int idx = svg.indexOf(s);
+		final String colorString = StringUtils.goLowerCase(StringUtils.sharp000000(color));
+		int idx = indexOfIndexed("stroke=\"" + colorString + "\"");
 		if (idx != -1)
 			return idx;
 
-		s = ";stroke:" + StringUtils.goLowerCase(StringUtils.sharp000000(color)) + ";";
-		idx = svg.indexOf(s);
+		idx = indexOfIndexed(";stroke:" + colorString + ";");
 		if (idx != -1)
 			return idx;
 
-		s = "fill=\"" + StringUtils.goLowerCase(StringUtils.sharp000000(color)) + "\"";
-		idx = svg.indexOf(s);
+		idx = indexOfIndexed("fill=\"" + colorString + "\"");
 		if (idx != -1)
 			return idx;
 
@@ -97,9 +112,33 @@ public class SvgResult {
 
 	}
 
+	/**
+	 * Position of a color used as attribute value, or as stroke in a style.
+	 */
+	public int getIndexFromClusterColor(int color) {
+		final String colorString = StringUtils.goLowerCase(StringUtils.sharp000000(color));
+		final int idx = indexOfIndexed("=\"" + colorString + "\"");
+		if (idx != -1)
+			return idx;
+
+		return indexOfIndexed("stroke:" + colorString + ";");
+	}
+
+	public int getIndexFromTitle(String title) {
+		return indexOfIndexed(SvgIndex.titleKey(title));
+	}
+
+	private int indexOfIndexed(String key) {
+		final int idx = index.indexOf(key, start, end);
+		if (idx == -1)
+			return -1;
+
+		return idx - start;
+	}
+
 	public List<XPoint2D> getPoints(String separator) {
 		try {
-			final StringTokenizer st = new StringTokenizer(svg, separator);
+			final StringTokenizer st = new StringTokenizer(getSvg(), separator);
 			final List<XPoint2D> result = new ArrayList<XPoint2D>();
 			while (st.hasMoreTokens())
 				result.add(getFirstPoint(st.nextToken()));
@@ -111,7 +150,7 @@ public class SvgResult {
 	}
 
 	public XPoint2D getNextPoint() {
-		return getFirstPoint(svg);
+		return getFirstPoint(getSvg());
 	}
 
 	private XPoint2D getFirstPoint(final String tmp) {
@@ -122,19 +161,26 @@ public class SvgResult {
 	}
 
 	public int indexOf(String s, int pos) {
-		return svg.indexOf(s, pos);
+		final int idx = svg.indexOf(s, start + Math.max(0, pos));
+		if (idx == -1 || idx + s.length() > end)
+			return -1;
+
+		return idx - start;
 	}
 
 	public SvgResult substring(int pos) {
-		return new SvgResult(svg.substring(pos), function);
+		return substring(pos, end - start);
 	}
 
 	public SvgResult substring(int start, int end) {
-		return new SvgResult(svg.substring(start, end), function);
+		if (start < 0 || end > this.end - this.start || start > end)
+			throw new StringIndexOutOfBoundsException("begin " + start + ", end " + end);
+
+		return new SvgResult(svg, this.start + start, this.start + end, index, function);
 	}
 
 	public final String getSvg() {
-		return svg;
+		return svg.substring(start, end);
 	}
 
 	public DotPath toDotPath() {
@@ -169,7 +215,7 @@ public class SvgResult {
 	}
 
 	public boolean isPathConsistent() {
-		if (this.getSvg().startsWith("M") == false)
+		if (start == end || svg.charAt(start) != 'M')
 			return false;
 
 		return true;
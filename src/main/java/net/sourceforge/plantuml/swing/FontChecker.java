@@ -48,8 +48,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
-import javax.xml.transform.TransformerException;
-
 import net.atmp.ImageBuilder;
 import net.sourceforge.plantuml.FileFormat;
 import net.sourceforge.plantuml.FileFormatOption;
@@ -154,7 +152,7 @@ public class FontChecker {
 
 	}
 
-	public void printChar(final PrintWriter pw, char c) throws IOException, TransformerException {
+	public void printChar(final PrintWriter pw, char c) throws IOException {
 		pw.println("<p>");
 		final int ascii = (int) c;
 		pw.println(ascii + " - " + Integer.toHexString(ascii) + " - ");
@@ -163,7 +161,7 @@ public class FontChecker {
 		pw.println(svg);
 	}
 
-	private String getSvgImage(char c) throws IOException, TransformerException {
+	private String getSvgImage(char c) throws IOException {
 		final SvgGraphics svg = new SvgGraphics(42, SvgOption.basic());
 		svg.setStrokeColor("black");
 		svg.svgImage(getBufferedImage(c), 0, 0);
@@ -208,7 +206,7 @@ public class FontChecker {
 	// return ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
 	// }
 
-	public static void main(String[] args) throws IOException, TransformerException {
+	public static void main(String[] args) throws IOException {
 
 		final String name = args[0];
 		final int size = Integer.parseInt(args[1]);
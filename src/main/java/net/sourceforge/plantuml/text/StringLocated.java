@@ -56,6 +56,7 @@ final public class StringLocated {
 	private final String preprocessorError;
 
 	private StringLocated trimmed;
+	private StringLocated withoutInnerComment;
 	private long fox = -1;
 	private TLineType type;
 
@@ -242,6 +243,15 @@ final public class StringLocated {
 
 	@JawsStrange
 	public StringLocated removeInnerComment() {
+		// Lines of function bodies are read again on each call: keep the result so
+		// that its type is not computed again
+		if (withoutInnerComment == null)
+			withoutInnerComment = removeInnerCommentInternal();
+
+		return withoutInnerComment;
+	}
+
+	private StringLocated removeInnerCommentInternal() {
 		final String string = s.toString();
 		final String trim = string.replace('\t', ' ').trim();
 		if (trim.startsWith("/'")) {
@@ -41,6 +41,7 @@ import net.sourceforge.plantuml.json.Json;
 import net.sourceforge.plantuml.json.JsonValue;
 import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.text.TLineType;
+import net.sourceforge.plantuml.tim.expression.CompiledExpression;
 import net.sourceforge.plantuml.tim.expression.TValue;
 import net.sourceforge.plantuml.tim.expression.Token;
 import net.sourceforge.plantuml.tim.expression.TokenStack;
@@ -85,8 +86,31 @@ public abstract class Eater {
 			// System.err.println("json=" + json);
 			return TValue.fromJson(json);
 		}
-		final TokenStack tokenStack = eatTokenStack();
-		return tokenStack.getResult(getStringLocated(), context, memory);
+		return eatCompiledExpression(context).evaluate(getStringLocated(), context, memory);
+	}
+
+	final protected CompiledExpression eatCompiledExpression(TContext context) throws EaterException {
+		return eatCompiled(context, false);
+	}
+
+	final protected CompiledExpression eatCompiledArgument(TContext context) throws EaterException {
+		return eatCompiled(context, true);
+	}
+
+	// The same lines are read again on each call of a function, so expressions are
+	// looked up by their text before being tokenized
+	private CompiledExpression eatCompiled(TContext context, boolean argument) throws EaterException {
+		final String remaining = stringLocated.getString().substring(i);
+		CompiledExpression result = context.getCompiledExpression(remaining, argument);
+		if (result != null) {
+			i += result.getLength();
+			return result;
+		}
+		final int start = i;
+		final TokenStack tokenStack = argument ? TokenStack.eatUntilCloseParenthesisOrComma(this) : eatTokenStack();
+		result = CompiledExpression.compile(tokenStack, i - start, stringLocated);
+		context.putCompiledExpression(remaining, argument, result);
+		return result;
 	}
 
 	final protected TokenStack eatTokenStack() throws EaterException {
@@ -42,7 +42,6 @@ import java.util.Map;
 
 import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.tim.expression.TValue;
-import net.sourceforge.plantuml.tim.expression.TokenStack;
 
 public class EaterFunctionCall extends Eater {
 
@@ -99,14 +98,10 @@ public class EaterFunctionCall extends Eater {
 					skipSpaces();
 					checkAndEatChar('=');
 					skipSpaces();
-					final TokenStack tokens = TokenStack.eatUntilCloseParenthesisOrComma(this).withoutSpace();
-					tokens.guessFunctions(getStringLocated());
-					final TValue result = tokens.getResult(getStringLocated(), context, memory);
+					final TValue result = eatCompiledArgument(context).evaluate(getStringLocated(), context, memory);
 					namedArguments.put(varname, result);
 				} else {
-					final TokenStack tokens = TokenStack.eatUntilCloseParenthesisOrComma(this).withoutSpace();
-					tokens.guessFunctions(getStringLocated());
-					final TValue result = tokens.getResult(getStringLocated(), context, memory);
+					final TValue result = eatCompiledArgument(context).evaluate(getStringLocated(), context, memory);
 					values.add(result);
 				}
 			}
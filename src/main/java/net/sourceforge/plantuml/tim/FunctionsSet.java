@@ -34,9 +34,11 @@
  */
 package net.sourceforge.plantuml.tim;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,7 +47,10 @@ import net.sourceforge.plantuml.text.StringLocated;
 public class FunctionsSet {
 
 	private final Map<TFunctionSignature, TFunction> functions = new HashMap<TFunctionSignature, TFunction>();
+	private final Map<String, List<TFunction>> functionsByName = new HashMap<String, List<TFunction>>();
 	private final Set<TFunctionSignature> functionsFinal = new HashSet<>();
+	// All the functions added, in order (see IncludeUnit)
+	private final List<TFunction> history = new ArrayList<TFunction>();
 	private final Trie functions3 = new TrieImpl();
 	private TFunctionImpl pendingFunction;
 
@@ -54,6 +59,15 @@ public class FunctionsSet {
 		if (func != null)
 			return func;
 
+		final List<TFunction> sameName = getFunctions(searched.getFunctionName());
+		if (sameName.size() <= 1) {
+			for (TFunction candidate : sameName)
+				if (candidate.canCover(searched.getNbArg(), searched.getNamedArguments()))
+					return candidate;
+
+			return null;
+		}
+
 		for (TFunction candidate : this.functions.values()) {
 			if (candidate.getSignature().sameFunctionNameAs(searched) == false)
 				continue;
@@ -73,6 +87,18 @@ public class FunctionsSet {
 		return Collections.unmodifiableMap(functions);
 	}
 
+	/**
+	 * Returns all the functions having this name, whatever their number of
+	 * arguments.
+	 */
+	public List<TFunction> getFunctions(String functionName) {
+		final List<TFunction> result = functionsByName.get(functionName);
+		if (result == null)
+			return Collections.emptyList();
+
+		return Collections.unmodifiableList(result);
+	}
+
 	public String getLonguestMatchStartingIn(String s, int pos) {
 		return functions3.getLonguestMatchStartingIn(s, pos);
 	}
@@ -85,8 +111,54 @@ public class FunctionsSet {
 		if (func.getFunctionType() == TFunctionType.LEGACY_DEFINELONG)
 			((TFunctionImpl) func).finalizeEnddefinelong();
 
-		this.functions.put(func.getSignature(), func);
-		this.functions3.add(func.getSignature().getFunctionName() + "(");
+		put(func);
+	}
+
+	private void put(TFunction func) {
+		final String functionName = func.getSignature().getFunctionName();
+		final TFunction previous = this.functions.put(func.getSignature(), func);
+		final List<TFunction> sameName = this.functionsByName.computeIfAbsent(functionName,
+				k -> new ArrayList<TFunction>());
+		if (previous != null)
+			sameName.remove(previous);
+
+		sameName.add(func);
+		this.functions3.add(functionName + "(");
+		this.history.add(func);
+	}
+
+	int getHistorySize() {
+		return history.size();
+	}
+
+	List<TFunction> getHistory(int from) {
+		return Collections.unmodifiableList(history.subList(from, history.size()));
+	}
+
+	Set<TFunctionSignature> getFinalSignatures() {
+		return Collections.unmodifiableSet(functionsFinal);
+	}
+
+	/**
+	 * Sorted definition keys of the functions declared by the diagram, the final
+	 * ones being flagged.
+	 */
+	List<String> getUserDefinitionKeys() {
+		final List<String> result = new ArrayList<String>();
+		for (Map.Entry<TFunctionSignature, TFunction> ent : functions.entrySet())
+			if (ent.getValue() instanceof TFunctionImpl)
+				result.add(((TFunctionImpl) ent.getValue()).getDefinitionKey()
+						+ (functionsFinal.contains(ent.getKey()) ? "!final" : ""));
+
+		Collections.sort(result);
+		return result;
+	}
+
+	void importFunctions(List<TFunction> functions, Set<TFunctionSignature> finalSignatures) {
+		for (TFunction func : functions)
+			put(func);
+
+		this.functionsFinal.addAll(finalSignatures);
 	}
 
 	public void executeEndfunction() {
@@ -101,9 +173,7 @@ public class FunctionsSet {
 
 		final EaterLegacyDefine legacyDefine = new EaterLegacyDefine(s);
 		legacyDefine.analyze(context, memory);
-		final TFunction function = legacyDefine.getFunction();
-		this.functions.put(function.getSignature(), function);
-		this.functions3.add(function.getSignature().getFunctionName() + "(");
+		put(legacyDefine.getFunction());
 	}
 
 	public void executeLegacyDefineLong(TContext context, TMemory memory, StringLocated s)
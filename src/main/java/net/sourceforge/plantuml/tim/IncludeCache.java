@@ -0,0 +1,142 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ */
+package net.sourceforge.plantuml.tim;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.plantuml.StringUtils;
+import net.sourceforge.plantuml.security.SecurityUtils;
+import net.sourceforge.plantuml.utils.Log;
+
+/**
+ * Cache of {@link IncludeUnit}, shared by all the diagrams processed by this
+ * JVM.
+ * <p>
+ * Units are keyed by the identity of the included resource (and its
+ * modification stamp for regular files) and by the state of the preprocessor
+ * when the include is executed: global variables, user functions and already
+ * included files. So a library included the same way by many diagrams, in a
+ * batch run or by the server, is executed only once.
+ * <p>
+ * The number of units kept is set with the <code>PLANTUML_INCLUDE_CACHE</code>
+ * environment variable (64 by default, 0 disables the cache).
+ */
+public class IncludeCache {
+
+	// Functions whose result depends on something else than their arguments and
+	// the state of the preprocessor
+	private static final Set<String> NOT_DETERMINISTIC = new HashSet<>(Arrays.asList("%date", "%now", "%random",
+			"%getenv", "%load_json", "%file_exists", "%filedate", "%filename", "%filename_no_extension", "%dirpath",
+			"%get_current_theme", "%xargs"));
+
+	private static final IncludeCache INSTANCE = new IncludeCache(getMaxUnits());
+
+	private final int maxUnits;
+	private final Map<String, IncludeUnit> units = new LinkedHashMap<>(16, 0.75f, true);
+	private long hits;
+	private long misses;
+
+	IncludeCache(int maxUnits) {
+		this.maxUnits = maxUnits;
+	}
+
+	public static IncludeCache getInstance() {
+		return INSTANCE;
+	}
+
+	private static int getMaxUnits() {
+		final String env = SecurityUtils.getenv("PLANTUML_INCLUDE_CACHE");
+		if (StringUtils.isNotEmpty(env) && env.matches("\\d+"))
+			return Integer.parseInt(env);
+
+		return 64;
+	}
+
+	public static boolean isDeterministic(TFunction function) {
+		return NOT_DETERMINISTIC.contains(function.getSignature().getFunctionName()) == false;
+	}
+
+	public boolean isEnabled() {
+		return maxUnits > 0;
+	}
+
+	public synchronized IncludeUnit get(String key) {
+		final IncludeUnit result = units.get(key);
+		if (result != null && result.isUpToDate() == false) {
+			units.remove(key);
+			misses++;
+			return null;
+		}
+		if (result == null)
+			misses++;
+		else
+			hits++;
+
+		return result;
+	}
+
+	public synchronized void put(String key, IncludeUnit unit) {
+		units.put(key, unit);
+		for (Iterator<IncludeUnit> it = units.values().iterator(); units.size() > maxUnits && it.hasNext();) {
+			it.next();
+			it.remove();
+		}
+		Log.info(() -> "Include cache: " + key.substring(0, 16) + " " + unit);
+	}
+
+	public synchronized void clear() {
+		units.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized int size() {
+		return units.size();
+	}
+
+}
@@ -0,0 +1,190 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ */
+package net.sourceforge.plantuml.tim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.plantuml.preproc.FileWithSuffix;
+import net.sourceforge.plantuml.preproc.Sub;
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.tim.expression.TValue;
+
+/**
+ * Immutable result of the execution of an included file: the functions it has
+ * declared, the global variables it has set or removed and the lines it has
+ * emitted.
+ * <p>
+ * A unit is built by a {@link Recorder} that compares the state of the
+ * {@link TContext} before and after the execution of the include. It can then
+ * be applied to another {@link TContext} in the same state (see
+ * {@link IncludeCache}) instead of executing the file again.
+ */
+public final class IncludeUnit {
+
+	private final List<TFunction> functions;
+	private final Set<TFunctionSignature> finalFunctions;
+	private final Map<String, TValue> variables;
+	private final Set<String> removedVariables;
+	private final List<StringLocated> lines;
+	private final List<StringLocated> debug;
+	private final Map<FileWithSuffix, String> files;
+
+	private IncludeUnit(Recorder recorder, TContext context, TMemory memory) {
+		this.functions = new ArrayList<>(context.functionsSet.getHistory(recorder.historySize));
+		this.finalFunctions = new HashSet<>(context.functionsSet.getFinalSignatures());
+		this.finalFunctions.removeAll(recorder.finalFunctions);
+
+		this.variables = new HashMap<>();
+		for (String name : memory.variablesNames()) {
+			final TValue value = memory.getVariable(name);
+			if (value != recorder.variables.get(name))
+				variables.put(name, value);
+		}
+		this.removedVariables = new HashSet<>(recorder.variables.keySet());
+		this.removedVariables.removeAll(memory.variablesNames());
+
+		this.lines = new ArrayList<>(context.getResultList().subList(recorder.resultSize, context.getResultList().size()));
+		this.debug = new ArrayList<>(context.getDebug().subList(recorder.debugSize, context.getDebug().size()));
+
+		this.files = new HashMap<>();
+		for (FileWithSuffix file : context.getFilesUsedCurrent())
+			if (recorder.files.contains(file) == false)
+				files.put(file, file.getModificationStamp());
+	}
+
+	/**
+	 * Tells if the files included by this unit have not been modified since it has
+	 * been recorded.
+	 */
+	public boolean isUpToDate() {
+		for (Map.Entry<FileWithSuffix, String> ent : files.entrySet())
+			if (ent.getKey().getModificationStamp().equals(ent.getValue()) == false)
+				return false;
+
+		return true;
+	}
+
+	public void applyTo(TContext context, TMemory memory) throws EaterException {
+		context.functionsSet.importFunctions(functions, finalFunctions);
+		for (Map.Entry<String, TValue> ent : variables.entrySet())
+			memory.putVariable(ent.getKey(), ent.getValue(), TVariableScope.GLOBAL, null);
+
+		for (String name : removedVariables)
+			memory.removeVariable(name);
+
+		context.importIncludeUnit(lines, debug, files.keySet());
+	}
+
+	/**
+	 * Key part describing a value, including its type.
+	 */
+	static String fingerprint(TValue value) {
+		if (value == null)
+			return "-";
+
+		if (value.isNumber())
+			return "i" + value;
+
+		if (value.isJson())
+			return "j" + value.toJson();
+
+		return "s" + value;
+	}
+
+	/**
+	 * Captures the state of a {@link TContext} before an include is executed.
+	 */
+	static class Recorder {
+
+		private final int historySize;
+		private final Set<TFunctionSignature> finalFunctions;
+		private final Map<String, TValue> variables = new HashMap<>();
+		private final int resultSize;
+		private final StringLocated lastLine;
+		private final int debugSize;
+		private final Set<FileWithSuffix> files;
+		private final Map<String, Sub> subs;
+		private boolean deterministic = true;
+
+		Recorder(TContext context, TMemory memory) {
+			this.historySize = context.functionsSet.getHistorySize();
+			this.finalFunctions = new HashSet<>(context.functionsSet.getFinalSignatures());
+			for (String name : memory.variablesNames())
+				variables.put(name, memory.getVariable(name));
+
+			this.resultSize = context.getResultList().size();
+			this.lastLine = resultSize == 0 ? null : context.getResultList().get(resultSize - 1);
+			this.debugSize = context.getDebug().size();
+			this.files = new HashSet<>(context.getFilesUsedCurrent());
+			this.subs = new HashMap<>(context.getSubs());
+		}
+
+		/**
+		 * Called when the include does something that cannot be replayed, for example
+		 * reading the current date or writing a log.
+		 */
+		void notDeterministic() {
+			this.deterministic = false;
+		}
+
+		/**
+		 * @return <code>null</code> if the execution cannot be replayed.
+		 */
+		IncludeUnit stop(TContext context, TMemory memory) {
+			if (deterministic == false || context.isInTheMiddleOfALine() || subs.equals(context.getSubs()) == false)
+				return null;
+
+			// A procedure call may have been appended to the previous line
+			final List<StringLocated> result = context.getResultList();
+			if (result.size() < resultSize || (resultSize > 0 && result.get(resultSize - 1) != lastLine))
+				return null;
+
+			return new IncludeUnit(this, context, memory);
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return "IncludeUnit " + functions.size() + " function(s) " + variables.size() + " variable(s) "
+				+ lines.size() + " line(s)";
+	}
+
+}
@@ -39,14 +39,18 @@ import static java.util.Objects.requireNonNull;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 
 import net.sourceforge.plantuml.DefinitionsContainer;
 import net.sourceforge.plantuml.FileSystem;
@@ -154,6 +158,7 @@ import net.sourceforge.plantuml.tim.builtin.Tabulation;
 import net.sourceforge.plantuml.tim.builtin.Upper;
 import net.sourceforge.plantuml.tim.builtin.VariableExists;
 import net.sourceforge.plantuml.tim.builtin.Xargs;
+import net.sourceforge.plantuml.tim.expression.CompiledExpression;
 import net.sourceforge.plantuml.tim.expression.Knowledge;
 import net.sourceforge.plantuml.tim.expression.TValue;
 import net.sourceforge.plantuml.tim.iterator.CodeIterator;
@@ -170,6 +175,7 @@ import net.sourceforge.plantuml.tim.iterator.CodeIteratorShortComment;
 import net.sourceforge.plantuml.tim.iterator.CodeIteratorSub;
 import net.sourceforge.plantuml.tim.iterator.CodeIteratorWhile;
 import net.sourceforge.plantuml.utils.LineLocation;
+import net.sourceforge.plantuml.utils.SignatureUtils;
 
 public class TContext {
 
@@ -189,6 +195,16 @@ public class TContext {
 
 	private final PreprocessingArtifact preprocessingArtifact = new PreprocessingArtifact();
 
+	// Expressions are compiled once and shared by all the calls of a function.
+	// Top-level lines are rarely read twice, so the least recently used
+	// expressions are dropped first: the bodies of the functions stay cached.
+	private static final int MAX_COMPILED_EXPRESSIONS = 10000;
+	private final Map<String, CompiledExpression> compiledExpressions = new CompiledExpressionCache();
+	private final Map<String, CompiledExpression> compiledArguments = new CompiledExpressionCache();
+
+	// Includes being recorded for the IncludeCache, the innermost first
+	private final Deque<IncludeUnit.Recorder> recorders = new ArrayDeque<>();
+
 	public Set<FileWithSuffix> getFilesUsedCurrent() {
 		return Collections.unmodifiableSet(filesUsedCurrent);
 	}
@@ -300,7 +316,7 @@ public class TContext {
 			}
 
 			public TFunction getFunction(TFunctionSignature name) {
-				return functionsSet.getFunctionSmart(name);
+				return getFunctionSmart(name);
 			}
 		};
 	}
@@ -468,6 +484,7 @@ public class TContext {
 	}
 
 	private void executeDumpMemory(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		final EaterDumpMemory condition = new EaterDumpMemory(s);
 		condition.analyze(this, memory);
 	}
@@ -478,6 +495,7 @@ public class TContext {
 	}
 
 	private void executeOption(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		final EaterOption condition = new EaterOption(s);
 		condition.analyze(this, memory);
 	}
@@ -534,7 +552,7 @@ public class TContext {
 				call.analyze(this, memory);
 				final TFunctionSignature signature = new TFunctionSignature(presentFunction, call.getValues().size(),
 						call.getNamedArguments().keySet());
-				final TFunction function = functionsSet.getFunctionSmart(signature);
+				final TFunction function = getFunctionSmart(signature);
 				if (function == null)
 					throw new EaterException("Function not found " + presentFunction, str);
 
@@ -589,6 +607,7 @@ public class TContext {
 	}
 
 	private void executeImport(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		final EaterImport _import = new EaterImport(s.getTrimmed());
 		_import.analyze(this, memory);
 
@@ -608,6 +627,7 @@ public class TContext {
 	}
 
 	private void executeLog(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		final EaterLog log = new EaterLog(s.getTrimmed());
 		log.analyze(this, memory);
 	}
@@ -620,6 +640,7 @@ public class TContext {
 	}
 
 	private void executeIncludesub(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		ImportedFiles saveImportedFiles = null;
 		try {
 			final EaterIncludesub include = new EaterIncludesub(s.getTrimmed());
@@ -667,6 +688,7 @@ public class TContext {
 	}
 
 	private void executeIncludeDef(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		final EaterIncludeDef include = new EaterIncludeDef(s.getTrimmed());
 		include.analyze(this, memory);
 		final String definitionName = include.getLocation();
@@ -702,6 +724,7 @@ public class TContext {
 	}
 
 	private void executeTheme(TMemory memory, StringLocated s) throws EaterException {
+		notDeterministic();
 		final EaterTheme eater = new EaterTheme(s.getTrimmed(), importedFiles);
 		eater.analyze(this, memory);
 		final Theme theme = eater.getTheme();
@@ -782,8 +805,10 @@ public class TContext {
 
 		ReadLine reader = null;
 		ImportedFiles saveImportedFiles = null;
+		String includeKey = null;
 		try {
 			if (what.startsWith("http://") || what.startsWith("https://")) {
+				notDeterministic();
 				final SURL url = SURL.create(what);
 				if (url == null)
 					throw new EaterException("Cannot open URL", s);
@@ -792,15 +817,24 @@ public class TContext {
 			} else if (what.startsWith("<") && what.endsWith(">")) {
 				final String stdlibPath = what.substring(1, what.length() - 1);
 				final String libname = stdlibPath.substring(0, stdlibPath.indexOf('/'));
+				includeKey = getIncludeKey(memory, what + "!" + suf);
+				if (applyCachedInclude(memory, includeKey, null))
+					return;
+
 				saveImportedFiles = this.importedFiles;
 				this.importedFiles = this.importedFiles.withCurrentDir(new AParentFolderStdlib(s, libname));
 				reader = PreprocessorUtils.getReaderStdlibInclude(s, stdlibPath);
 				// ::comment when __CORE__
 			} else if (what.startsWith("[") && what.endsWith("]")) {
+				notDeterministic();
 				reader = PreprocessorUtils.getReaderNonstandardInclude(s, what.substring(1, what.length() - 1));
 				// ::done
 			} else if (importedFiles.getCurrentDir() instanceof AParentFolderStdlib) {
 				final AParentFolderStdlib folderStdlib = (AParentFolderStdlib) importedFiles.getCurrentDir();
+				includeKey = getIncludeKey(memory, "<" + folderStdlib.getLibname() + "/" + what + ">!" + suf);
+				if (applyCachedInclude(memory, includeKey, null))
+					return;
+
 				reader = folderStdlib.getReader(what);
 			} else {
 				final FileWithSuffix f2 = importedFiles.getFile(what, suf);
@@ -811,6 +845,10 @@ public class TContext {
 					if (strategy == PreprocessorIncludeStrategy.ONCE && filesUsedCurrent.contains(f2))
 						throw new EaterException("This file has already been included", s);
 
+					includeKey = getIncludeKey(memory, f2.getModificationStamp());
+					if (applyCachedInclude(memory, includeKey, f2))
+						return;
+
 					if (StartDiagramExtractReader.containsStartDiagram(f2, s, charset)) {
 						reader = StartDiagramExtractReader.build(f2, s, charset);
 					} else {
@@ -833,7 +871,7 @@ public class TContext {
 					do {
 						final StringLocated sl = reader.readLine();
 						if (sl == null) {
-							executeLines(memory, body, null, false);
+							executeIncludeBody(memory, body, includeKey);
 							return;
 						}
 						body.add(sl);
@@ -860,28 +898,105 @@ public class TContext {
 		throw new EaterException("cannot include " + what, s);
 	}
 
+	private boolean applyCachedInclude(TMemory memory, String includeKey, FileWithSuffix file)
+			throws EaterException {
+		if (includeKey == null)
+			return false;
+
+		final IncludeUnit unit = IncludeCache.getInstance().get(includeKey);
+		if (unit == null)
+			return false;
+
+		unit.applyTo(this, memory);
+		if (file != null)
+			filesUsedCurrent.add(file);
+
+		return true;
+	}
+
+	private void executeIncludeBody(TMemory memory, List<StringLocated> body, String includeKey)
+			throws EaterException {
+		if (includeKey == null) {
+			executeLines(memory, body, null, false);
+			return;
+		}
+		final IncludeUnit.Recorder recorder = new IncludeUnit.Recorder(this, memory);
+		recorders.addFirst(recorder);
+		try {
+			executeLines(memory, body, null, false);
+		} finally {
+			recorders.removeFirst();
+		}
+		final IncludeUnit unit = recorder.stop(this, memory);
+		if (unit != null)
+			IncludeCache.getInstance().put(includeKey, unit);
+	}
+
+	// Everything an include may read when it is executed. Must be computed before
+	// the included file is marked as used.
+	private String getIncludeKey(TMemory memory, String unitId) {
+		if (IncludeCache.getInstance().isEnabled() == false || memory instanceof TMemoryGlobal == false
+				|| isInTheMiddleOfALine())
+			return null;
+
+		final StringBuilder sb = new StringBuilder();
+		sb.append(unitId).append('\0').append(charset.name());
+		for (String name : new TreeSet<>(memory.variablesNames()))
+			sb.append('\0').append(name).append('=').append(IncludeUnit.fingerprint(memory.getVariable(name)));
+
+		for (String function : functionsSet.getUserDefinitionKeys())
+			sb.append('\0').append(function);
+
+		final List<String> files = new ArrayList<>();
+		for (FileWithSuffix file : filesUsedCurrent)
+			files.add(file.getModificationStamp());
+		Collections.sort(files);
+		for (String file : files)
+			sb.append('\0').append(file);
+
+		return SignatureUtils.getSHA512Hex(sb.toString());
+	}
+
+	/**
+	 * Tells the includes being recorded that they cannot be replayed.
+	 */
+	private void notDeterministic() {
+		for (IncludeUnit.Recorder recorder : recorders)
+			recorder.notDeterministic();
+	}
+
+	boolean isInTheMiddleOfALine() {
+		return pendingAdd != null || functionsSet.pendingFunction() != null;
+	}
+
+	void importIncludeUnit(List<StringLocated> lines, List<StringLocated> debugLines, Set<FileWithSuffix> files) {
+		resultList.addAll(lines);
+		debug.addAll(debugLines);
+		filesUsedCurrent.addAll(files);
+	}
+
+	Map<String, Sub> getSubs() {
+		return subs;
+	}
+
 	public boolean isLegacyDefine(String functionName) {
-		for (Map.Entry<TFunctionSignature, TFunction> ent : functionsSet.functions().entrySet())
-			if (ent.getKey().getFunctionName().equals(functionName) && ent.getValue().getFunctionType().isLegacy())
+		for (TFunction function : functionsSet.getFunctions(functionName))
+			if (function.getFunctionType().isLegacy())
 				return true;
 
 		return false;
 	}
 
 	public boolean isUnquoted(String functionName) {
-		for (Map.Entry<TFunctionSignature, TFunction> ent : functionsSet.functions().entrySet())
-			if (ent.getKey().getFunctionName().equals(functionName) && ent.getValue().isUnquoted())
+		for (TFunction function : functionsSet.getFunctions(functionName))
+			if (function.isUnquoted())
 				return true;
 
 		return false;
 	}
 
 	public boolean doesFunctionExist(String functionName) {
-		for (Map.Entry<TFunctionSignature, TFunction> ent : functionsSet.functions().entrySet())
-			if (ent.getKey().getFunctionName().equals(functionName))
-				return true;
-
-		return false;
+		return functionsSet.getFunctions(functionName).isEmpty() == false;
 	}
 
 	@JawsStrange
@@ -928,7 +1043,11 @@ public class TContext {
 	}
 
 	public TFunction getFunctionSmart(TFunctionSignature signature) {
-		return functionsSet.getFunctionSmart(signature);
+		final TFunction result = functionsSet.getFunctionSmart(signature);
+		if (result != null && recorders.isEmpty() == false && IncludeCache.isDeterministic(result) == false)
+			notDeterministic();
+
+		return result;
 	}
 
 	/**
@@ -946,6 +1065,28 @@ public class TContext {
 		return Optional.of(first.substring(idx + 1).trim());
 	}
 
+	public CompiledExpression getCompiledExpression(String text, boolean argument) {
+		return (argument ? compiledArguments : compiledExpressions).get(text);
+	}
+
+	public void putCompiledExpression(String text, boolean argument, CompiledExpression expression) {
+		(argument ? compiledArguments : compiledExpressions).put(text, expression);
+	}
+
+	private static class CompiledExpressionCache extends LinkedHashMap<String, CompiledExpression> {
+
+		private static final long serialVersionUID = 1L;
+
+		CompiledExpressionCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+			return size() > MAX_COMPILED_EXPRESSIONS;
+		}
+	}
+
 	public PreprocessingArtifact getPreprocessingArtifact() {
 		return preprocessingArtifact;
 	}
@@ -46,6 +46,7 @@ import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.text.TLineType;
 import net.sourceforge.plantuml.tim.expression.TValue;
 import net.sourceforge.plantuml.utils.LineLocation;
+import net.sourceforge.plantuml.utils.SignatureUtils;
 
 public class TFunctionImpl implements TFunction {
 
@@ -56,6 +57,7 @@ public class TFunctionImpl implements TFunction {
 	private /* final */ TFunctionType functionType;// = TFunctionType.VOID;
 	private String legacyDefinition;
 	private boolean containsReturn;
+	private String definitionKey;
 
 	public TFunctionImpl(String functionName, List<TFunctionArgument> args, boolean unquoted,
 			TFunctionType functionType) {
@@ -211,4 +213,25 @@ public class TFunctionImpl implements TFunction {
 		return containsReturn;
 	}
 
+	/**
+	 * Identifies the definition of this function, whatever the diagram that has
+	 * declared it. Used to build the keys of {@link IncludeCache}.
+	 */
+	String getDefinitionKey() {
+		if (definitionKey == null) {
+			final StringBuilder sb = new StringBuilder();
+			sb.append(functionType).append(unquoted ? " unquoted " : " ").append(signature.getFunctionName());
+			for (TFunctionArgument arg : args)
+				sb.append('\0').append(arg.getName()).append('=')
+						.append(IncludeUnit.fingerprint(arg.getOptionalDefaultValue()));
+
+			sb.append('\0').append(legacyDefinition);
+			for (StringLocated line : body)
+				sb.append('\n').append(line.getString());
+
+			definitionKey = SignatureUtils.getSHA512Hex(sb.toString());
+		}
+		return definitionKey;
+	}
+
 }
@@ -78,8 +78,8 @@ public class TMemoryGlobal extends ExecutionContexts implements TMemory {
 		if (scope == TVariableScope.LOCAL)
 			throw new EaterException("Cannot use local variable here", location);
 
-		this.globalVariables.put(varname, value);
-		this.variables.add(varname);
+		if (this.globalVariables.put(varname, value) == null)
+			this.variables.add(varname);
 	}
 
 	@Override
@@ -85,16 +85,15 @@ public class TMemoryLocal extends ExecutionContexts implements TMemory {
 			return;
 		}
 		if (scope == TVariableScope.LOCAL || overridenVariables01.containsKey(varname)) {
-			this.overridenVariables01.put(varname, value);
-			if (this.overridenVariables00 != null)
+			if (this.overridenVariables01.put(varname, value) == null && this.overridenVariables00 != null)
 				this.overridenVariables00.add(varname);
 
 			Log.info(() -> "[MemLocal/overrriden] Setting " + varname);
 		} else if (memoryGlobal.getVariable(varname) != null) {
 			memoryGlobal.putVariable(varname, value, scope, location);
 		} else {
-			this.localVariables01.put(varname, value);
-			this.localVariables00.add(varname);
+			if (this.localVariables01.put(varname, value) == null)
+				this.localVariables00.add(varname);
 			Log.info(() -> "[MemLocal/local] Setting " + varname);
 		}
 	}
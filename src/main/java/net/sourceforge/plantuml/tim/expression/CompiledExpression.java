@@ -0,0 +1,112 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * Project Info:  https://plantuml.com
+ *
+ * If you like this project or if you find it useful, you can support us at:
+ *
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ *
+ * This file is part of PlantUML.
+ *
+ * PlantUML is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * PlantUML distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ *
+ * Original Author:  Arnaud Roques
+ *
+ */
+package net.sourceforge.plantuml.tim.expression;
+
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.tim.EaterException;
+import net.sourceforge.plantuml.tim.TContext;
+import net.sourceforge.plantuml.tim.TMemory;
+
+/**
+ * Expression already converted into Reverse Polish Notation.
+ * <p>
+ * Tokenizing and running the Shunting Yard algorithm only depend on the text of
+ * the expression, so it is done once. Variables are kept as
+ * {@link TokenType#PLAIN_TEXT} tokens and resolved against the memory each time
+ * the expression is evaluated.
+ */
+public class CompiledExpression {
+
+	private final TokenStack queue;
+	private final boolean hasVariables;
+	private final int length;
+
+	private CompiledExpression(TokenStack queue, int length) {
+		this.queue = queue;
+		this.length = length;
+		boolean variables = false;
+		for (TokenIterator it = queue.tokenIterator(); it.hasMoreTokens();)
+			if (it.nextToken().getTokenType() == TokenType.PLAIN_TEXT)
+				variables = true;
+
+		this.hasVariables = variables;
+	}
+
+	/**
+	 * @param length number of characters of the source line that have been eaten
+	 *               to build the token stack.
+	 */
+	public static CompiledExpression compile(TokenStack tokenStack, int length, StringLocated location)
+			throws EaterException {
+		final TokenStack tmp = tokenStack.withoutSpace();
+		tmp.guessFunctions(location);
+		final ShuntingYard shuntingYard = new ShuntingYard(tmp.tokenIterator(), null, location);
+		return new CompiledExpression(shuntingYard.getQueue(), length);
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public TValue evaluate(StringLocated location, TContext context, TMemory memory) throws EaterException {
+		final Knowledge knowledge = context.asKnowledge(memory, location.getLocation());
+		final ReversePolishInterpretor rpn = new ReversePolishInterpretor(location, resolveVariables(location, knowledge),
+				knowledge, memory, context);
+		return rpn.getResult();
+	}
+
+	// Variables are resolved in the order of the expression before any function
+	// is called, as it was done by the Shunting Yard algorithm
+	private TokenStack resolveVariables(StringLocated location, Knowledge knowledge) throws EaterException {
+		if (hasVariables == false)
+			return queue;
+
+		final TokenStack result = new TokenStack();
+		for (TokenIterator it = queue.tokenIterator(); it.hasMoreTokens();) {
+			final Token token = it.nextToken();
+			if (token.getTokenType() == TokenType.PLAIN_TEXT)
+				result.add(ShuntingYard.resolveVariable(token, knowledge, location));
+			else
+				result.add(token);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return queue.toString();
+	}
+
+}
@@ -36,6 +36,7 @@ package net.sourceforge.plantuml.tim.expression;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.regex.Pattern;
 
 import net.sourceforge.plantuml.text.StringLocated;
 import net.sourceforge.plantuml.tim.EaterException;
@@ -69,17 +70,11 @@ public class ShuntingYard {
 				ouputQueue.add(token);
 			} else if (token.getTokenType() == TokenType.FUNCTION_NAME) {
 				operatorStack.addFirst(token);
+			} else if (token.getTokenType() == TokenType.PLAIN_TEXT && knowledge == null) {
+				// Variables will be resolved at evaluation time (see CompiledExpression)
+				ouputQueue.add(token);
 			} else if (token.getTokenType() == TokenType.PLAIN_TEXT) {
-				final String name = token.getSurface();
-				final TValue variable = knowledge.getVariable(name);
-				if (variable == null) {
-					if (isVariableName(name) == false)
-						throw new EaterException("Parsing syntax error about " + name, location);
-
-					ouputQueue.add(new Token(name, TokenType.QUOTED_STRING, null));
-				} else {
-					ouputQueue.add(variable.toToken());
-				}
+				ouputQueue.add(resolveVariable(token, knowledge, location));
 			} else if (isOperatorOrAffectation(token)) {
 				while ((thereIsAFunctionAtTheTopOfTheOperatorStack() //
 						|| thereIsAnOperatorAtTheTopOfTheOperatorStackWithGreaterPrecedence(token) //
@@ -124,8 +119,22 @@ public class ShuntingYard {
 		// System.err.println("ouputQueue=" + ouputQueue);
 	}
 
-	private boolean isVariableName(String name) {
-		return name.matches("[a-zA-Z0-9.$_]+");
+	static Token resolveVariable(Token token, Knowledge knowledge, StringLocated location) throws EaterException {
+		final String name = token.getSurface();
+		final TValue variable = knowledge.getVariable(name);
+		if (variable != null)
+			return variable.toToken();
+
+		if (isVariableName(name) == false)
+			throw new EaterException("Parsing syntax error about " + name, location);
+
+		return new Token(name, TokenType.QUOTED_STRING, null);
+	}
+
+	private static final Pattern VARIABLE_NAME = Pattern.compile("[a-zA-Z0-9.$_]+");
+
+	private static boolean isVariableName(String name) {
+		return VARIABLE_NAME.matcher(name).matches();
 	}
 
 	private boolean thereIsAFunctionAtTheTopOfTheOperatorStack() {
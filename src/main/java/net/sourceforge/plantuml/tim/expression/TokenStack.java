@@ -211,15 +211,7 @@ public class TokenStack {
 	}
 
 	public TValue getResult(StringLocated location, TContext context, TMemory memory) throws EaterException {
-		final Knowledge knowledge = context.asKnowledge(memory, location.getLocation());
-		final TokenStack tmp = withoutSpace();
-		tmp.guessFunctions(location);
-		final TokenIterator it = tmp.tokenIterator();
-		final ShuntingYard shuntingYard = new ShuntingYard(it, knowledge, location);
-		final ReversePolishInterpretor rpn = new ReversePolishInterpretor(location, shuntingYard.getQueue(), knowledge,
-				memory, context);
-		return rpn.getResult();
-
+		return CompiledExpression.compile(this, 0, location).evaluate(location, context, memory);
 	}
 
 }
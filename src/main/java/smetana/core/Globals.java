@@ -326,6 +326,24 @@ final public class Globals {
 	public int isz;
 	public CArray<ST_pointf> ispline;
 
+	// Implementation of the network simplex used by the rank and position phases
+	public NetworkSimplex.Mode networkSimplex = NetworkSimplex.Mode.GRAPH;
+
+	// Time spent in each phase of the layout, in nanoseconds
+	private final long phaseDurations[] = new long[LayoutPhase.values().length];
+
+	public long startPhase() {
+		return System.nanoTime();
+	}
+
+	public void endPhase(LayoutPhase phase, long start) {
+		phaseDurations[phase.ordinal()] += System.nanoTime() - start;
+	}
+
+	public long getPhaseDurationMillis(LayoutPhase phase) {
+		return phaseDurations[phase.ordinal()] / 1_000_000L;
+	}
+
 	private ST_shape_desc __Shapes__(String s, ST_shape_functions shape_functions, ST_polygon_t polygon) {
 		ST_shape_desc result = new ST_shape_desc();
 		result.name = s == null ? null : new CString(s);
@@ -0,0 +1,851 @@
+/* ========================================================================
+ * PlantUML : a free UML diagram generator
+ * ========================================================================
+ *
+ * Project Info:  https://plantuml.com
+ * 
+ * If you like this project or if you find it useful, you can support us at:
+ * 
+ * https://plantuml.com/patreon (only 1$ per month!)
+ * https://plantuml.com/paypal
+ * 
+ * This file is part of Smetana.
+ * Smetana is a partial translation of Graphviz/Dot sources from C to Java.
+ *
+ * (C) Copyright 2009-2024, Arnaud Roques
+ *
+ * This translation is distributed under the same Licence as the original C program.
+ * 
+ * THE ACCOMPANYING PROGRAM IS PROVIDED UNDER THE TERMS OF THIS ECLIPSE PUBLIC
+ * LICENSE ("AGREEMENT"). [Eclipse Public License - v 1.0]
+ * 
+ * ANY USE, REPRODUCTION OR DISTRIBUTION OF THE PROGRAM CONSTITUTES
+ * RECIPIENT'S ACCEPTANCE OF THIS AGREEMENT.
+ * 
+ * You may obtain a copy of the License at
+ * 
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package smetana.core;
+
+import static gen.lib.cgraph.edge__c.aghead;
+import static gen.lib.cgraph.edge__c.agtail;
+import static smetana.core.Macro.ED_cutvalue;
+import static smetana.core.Macro.ED_minlen;
+import static smetana.core.Macro.ED_tree_index;
+import static smetana.core.Macro.ED_weight;
+import static smetana.core.Macro.GD_nlist;
+import static smetana.core.Macro.ND_in;
+import static smetana.core.Macro.ND_lim;
+import static smetana.core.Macro.ND_low;
+import static smetana.core.Macro.ND_mark;
+import static smetana.core.Macro.ND_next;
+import static smetana.core.Macro.ND_node_type;
+import static smetana.core.Macro.ND_out;
+import static smetana.core.Macro.ND_par;
+import static smetana.core.Macro.ND_priority;
+import static smetana.core.Macro.ND_rank;
+import static smetana.core.Macro.NORMAL;
+import static smetana.core.Macro.SEARCHSIZE;
+import static smetana.core.Macro.SEQ;
+
+import gen.lib.common.ns__c;
+import h.ST_Agedge_s;
+import h.ST_Agnode_s;
+import h.ST_Agraph_s;
+import h.ST_elist;
+
+/**
+ * Network simplex of <code>lib/common/ns.c</code> working on primitive arrays.
+ * <p>
+ * The auxiliary graph is copied into int arrays (adjacency lists in CSR form,
+ * tree lists, lim/low/par), solved there, and the ranks and the other node and
+ * edge fields written by {@link ns__c#rank2} are copied back. Nodes and edges
+ * are visited in the same order as in {@link ns__c}, so that both
+ * implementations return exactly the same ranks.
+ */
+public final class NetworkSimplex {
+
+	public enum Mode {
+		// ns__c working on the graph structures
+		GRAPH,
+		// This class
+		ARRAY,
+		// Both, checking that they return the same ranks
+		VALIDATE
+	}
+
+	private final int n;
+	private final int m;
+	private final ST_Agnode_s nodes[];
+	private final ST_Agedge_s edges[];
+
+	// Edges
+	private final int tail[];
+	private final int head[];
+	private final int minlen[];
+	private final int weight[];
+	private final int cutvalue[];
+	private final int treeIndex[];
+
+	// Nodes, with the out and in edges of node v stored in
+	// outList[outStart[v]..outStart[v+1]) and inList[inStart[v]..inStart[v+1])
+	private final int outStart[];
+	private final int outList[];
+	private final int inStart[];
+	private final int inList[];
+	private final int treeOut[];
+	private final int treeOutSize[];
+	private final int treeIn[];
+	private final int treeInSize[];
+	private final int rank[];
+	private final int low[];
+	private final int lim[];
+	// Index of the parent edge, or -1 for the root, or -2 when unchanged
+	private final int par[];
+	private final int priority[];
+	private final boolean mark[];
+	private final boolean normal[];
+
+	private final int treeEdge[];
+	private int treeEdgeSize;
+	private final int treeNode[];
+	private int treeNodeSize;
+
+	private int searchIndex;
+	private int searchSize;
+	private int enter, slack, lowSearch, limSearch;
+	private int minrank, maxrank;
+
+	private NetworkSimplex(ST_Agnode_s nodes[], ST_Agedge_s edges[], int outStart[], int inStart[]) {
+		this.n = nodes.length;
+		this.m = edges.length;
+		this.nodes = nodes;
+		this.edges = edges;
+		this.tail = new int[m];
+		this.head = new int[m];
+		this.minlen = new int[m];
+		this.weight = new int[m];
+		this.cutvalue = new int[m];
+		this.treeIndex = new int[m];
+		this.outStart = outStart;
+		this.outList = new int[outStart[n]];
+		this.inStart = inStart;
+		this.inList = new int[inStart[n]];
+		this.treeOut = new int[outStart[n]];
+		this.treeOutSize = new int[n];
+		this.treeIn = new int[inStart[n]];
+		this.treeInSize = new int[n];
+		this.rank = new int[n];
+		this.low = new int[n];
+		this.lim = new int[n];
+		this.par = new int[n];
+		this.priority = new int[n];
+		this.mark = new boolean[n];
+		this.normal = new boolean[n];
+		this.treeEdge = new int[n];
+		this.treeNode = new int[n];
+	}
+
+	/**
+	 * Replaces {@link ns__c#rank2} according to <code>zz.networkSimplex</code>.
+	 */
+	public static int rank2(Globals zz, ST_Agraph_s g, int balance, int maxiter, int search_size) {
+		if (zz.networkSimplex == Mode.VALIDATE)
+			return validate(zz, g, balance, maxiter, search_size);
+
+		final NetworkSimplex ns = load(g);
+		if (ns == null)
+			return ns__c.rank2(zz, g, balance, maxiter, search_size);
+
+		return ns.solve(zz, g, balance, maxiter, search_size);
+	}
+
+	private static int validate(Globals zz, ST_Agraph_s g, int balance, int maxiter, int search_size) {
+		int count = 0;
+		for (ST_Agnode_s v = GD_nlist(g); v != null; v = ND_next(v))
+			count++;
+
+		final int initial[] = new int[count];
+		int i = 0;
+		for (ST_Agnode_s v = GD_nlist(g); v != null; v = ND_next(v))
+			initial[i++] = ND_rank(v);
+
+		final NetworkSimplex ns = load(g);
+		final int result = ns == null ? -1 : ns.solve(zz, g, balance, maxiter, search_size);
+		final int ranks[] = new int[count];
+		i = 0;
+		for (ST_Agnode_s v = GD_nlist(g); v != null; v = ND_next(v)) {
+			ranks[i] = ND_rank(v);
+			ND_rank(v, initial[i++]);
+		}
+
+		final int expected = ns__c.rank2(zz, g, balance, maxiter, search_size);
+		if (ns == null)
+			return expected;
+
+		if (result != expected)
+			throw new IllegalStateException("network simplex returned " + result + " instead of " + expected);
+
+		i = 0;
+		for (ST_Agnode_s v = GD_nlist(g); v != null; v = ND_next(v), i++)
+			if (ranks[i] != ND_rank(v))
+				throw new IllegalStateException(
+						"network simplex ranked node " + i + " at " + ranks[i] + " instead of " + ND_rank(v));
+
+		return expected;
+	}
+
+	/**
+	 * Copies the graph into arrays, or returns <code>null</code> when an edge
+	 * list refers to a node or an edge which is not in the graph.
+	 */
+	private static NetworkSimplex load(ST_Agraph_s g) {
+		int nodeCount = 0;
+		int outCount = 0;
+		int inCount = 0;
+		for (ST_Agnode_s v = GD_nlist(g); v != null; v = ND_next(v)) {
+			nodeCount++;
+			outCount += length(ND_out(v));
+			inCount += length(ND_in(v));
+		}
+
+		final ST_Agnode_s nodes[] = new ST_Agnode_s[nodeCount];
+		final ST_Agedge_s edges[] = new ST_Agedge_s[outCount];
+		final int outStart[] = new int[nodeCount + 1];
+		final int inStart[] = new int[nodeCount + 1];
+		int i = 0;
+		for (ST_Agnode_s v = GD_nlist(g); v != null; v = ND_next(v), i++) {
+			nodes[i] = v;
+			outStart[i + 1] = outStart[i] + length(ND_out(v));
+			inStart[i + 1] = inStart[i] + length(ND_in(v));
+		}
+		// ND_priority and ED_tree_index hold the indexes while loading: both are
+		// set by init_graph, and written back at the end
+		final int oldPriority[] = new int[nodeCount];
+		for (i = 0; i < nodeCount; i++) {
+			oldPriority[i] = ND_priority(nodes[i]);
+			ND_priority(nodes[i], i);
+		}
+		final int oldTreeIndex[] = new int[outCount];
+		int e = 0;
+		for (i = 0; i < nodeCount; i++) {
+			final ST_elist out = ND_out(nodes[i]);
+			for (int j = 0; j < outStart[i + 1] - outStart[i]; j++, e++) {
+				edges[e] = out.list.get_(j);
+				oldTreeIndex[e] = ED_tree_index(edges[e]);
+				ED_tree_index(edges[e], e);
+			}
+		}
+
+		final NetworkSimplex ns = new NetworkSimplex(nodes, edges, outStart, inStart);
+		final boolean ok = ns.loadEdges();
+		for (i = 0; i < nodeCount; i++)
+			ND_priority(nodes[i], oldPriority[i]);
+		for (e = 0; e < outCount; e++)
+			ED_tree_index(edges[e], oldTreeIndex[e]);
+
+		return ok ? ns : null;
+	}
+
+	private boolean loadEdges() {
+		for (int e = 0; e < m; e++) {
+			tail[e] = nodeIndex(agtail(edges[e]));
+			head[e] = nodeIndex(aghead(edges[e]));
+			if (tail[e] == -1 || head[e] == -1)
+				return false;
+			minlen[e] = ED_minlen(edges[e]);
+			weight[e] = ED_weight(edges[e]);
+			cutvalue[e] = ED_cutvalue(edges[e]);
+		}
+		int e = 0;
+		for (int v = 0; v < n; v++)
+			for (int j = outStart[v]; j < outStart[v + 1]; j++)
+				outList[j] = e++;
+
+		for (int v = 0; v < n; v++) {
+			final ST_elist in = ND_in(nodes[v]);
+			for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+				final ST_Agedge_s edge = in.list.get_(j - inStart[v]);
+				final int index = ED_tree_index(edge);
+				if (index < 0 || index >= m || edges[index] != edge)
+					return false;
+				inList[j] = index;
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			rank[v] = ND_rank(nodes[v]);
+			low[v] = ND_low(nodes[v]);
+			lim[v] = ND_lim(nodes[v]);
+			par[v] = -2;
+			priority[v] = ND_priority(nodes[v]);
+			normal[v] = ND_node_type(nodes[v]) == NORMAL;
+		}
+		return true;
+	}
+
+	private int nodeIndex(ST_Agnode_s v) {
+		final int index = ND_priority(v);
+		if (index < 0 || index >= n || nodes[index] != v)
+			return -1;
+		return index;
+	}
+
+	private static int length(ST_elist list) {
+		int i = 0;
+		while (list.list.get_(i) != null)
+			i++;
+		return i;
+	}
+
+	private void store(Globals zz, ST_Agraph_s g) {
+		for (int v = 0; v < n; v++) {
+			final ST_Agnode_s node = nodes[v];
+			ND_rank(node, rank[v]);
+			ND_mark(node, mark[v]);
+			ND_priority(node, priority[v]);
+			ND_low(node, low[v]);
+			ND_lim(node, lim[v]);
+			if (par[v] != -2)
+				ND_par(node, par[v] == -1 ? null : edges[par[v]]);
+		}
+		for (int e = 0; e < m; e++) {
+			ED_cutvalue(edges[e], cutvalue[e]);
+			ED_tree_index(edges[e], treeIndex[e]);
+		}
+		zz.G_ns = g;
+		zz.N_nodes = n;
+		zz.N_edges = m;
+		zz.S_i = searchIndex;
+		zz.Search_size = searchSize;
+		zz.Minrank = minrank;
+		zz.Maxrank = maxrank;
+	}
+
+	private int solve(Globals zz, ST_Agraph_s g, int balance, int maxiter, int search_size) {
+		searchSize = zz.Search_size;
+		minrank = zz.Minrank;
+		maxrank = zz.Maxrank;
+		try {
+			return rank2(balance, maxiter, search_size);
+		} finally {
+			store(zz, g);
+		}
+	}
+
+	// rank2
+	private int rank2(int balance, int maxiter, int search_size) {
+		if (initGraph() == false)
+			initRank();
+		if (maxiter <= 0) {
+			freeTreeList();
+			return 0;
+		}
+		searchSize = search_size >= 0 ? search_size : SEARCHSIZE;
+		if (feasibleTree()) {
+			freeTreeList();
+			return 1;
+		}
+		int iter = 0;
+		int e;
+		while ((e = leaveEdge()) != -1) {
+			update(e, enterEdge(e));
+			if (++iter >= maxiter)
+				break;
+		}
+		if (balance == 1) {
+			tbBalance();
+		} else if (balance == 2) {
+			lrBalance();
+		} else {
+			scanAndNormalize();
+			freeTreeList();
+		}
+		return 0;
+	}
+
+	// init_graph, returns true if the current ranks are feasible
+	private boolean initGraph() {
+		searchIndex = 0;
+		treeNodeSize = 0;
+		treeEdgeSize = 0;
+		boolean feasible = true;
+		for (int v = 0; v < n; v++) {
+			mark[v] = false;
+			priority[v] = 0;
+			for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+				final int e = inList[j];
+				priority[v]++;
+				cutvalue[e] = 0;
+				treeIndex[e] = -1;
+				if (feasible && rank[head[e]] - rank[tail[e]] < minlen[e])
+					feasible = false;
+			}
+			treeInSize[v] = 0;
+			treeOutSize[v] = 0;
+		}
+		return feasible;
+	}
+
+	// init_rank
+	private void initRank() {
+		final int queue[] = new int[n];
+		int first = 0;
+		int last = 0;
+		for (int v = 0; v < n; v++)
+			if (priority[v] == 0)
+				queue[last++] = v;
+
+		while (first < last) {
+			final int v = queue[first++];
+			rank[v] = 0;
+			for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+				final int e = inList[j];
+				rank[v] = Math.max(rank[v], rank[tail[e]] + minlen[e]);
+			}
+			for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+				final int w = head[outList[j]];
+				if (--priority[w] <= 0)
+					queue[last++] = w;
+			}
+		}
+		if (first != n)
+			throw new UnsupportedOperationException("trouble in init_rank");
+	}
+
+	private int slack(int e) {
+		return rank[head[e]] - rank[tail[e]] - minlen[e];
+	}
+
+	// add_tree_edge
+	private void addTreeEdge(int e) {
+		if (treeIndex[e] >= 0)
+			throw new UnsupportedOperationException("add_tree_edge: missing tree edge");
+		treeIndex[e] = treeEdgeSize;
+		treeEdge[treeEdgeSize++] = e;
+		final int t = tail[e];
+		final int h = head[e];
+		if (mark[t] == false)
+			treeNode[treeNodeSize++] = t;
+		if (mark[h] == false)
+			treeNode[treeNodeSize++] = h;
+		mark[t] = true;
+		treeOut[outStart[t] + treeOutSize[t]++] = e;
+		mark[h] = true;
+		treeIn[inStart[h] + treeInSize[h]++] = e;
+	}
+
+	// exchange_tree_edges
+	private void exchangeTreeEdges(int e, int f) {
+		treeIndex[f] = treeIndex[e];
+		treeEdge[treeIndex[e]] = f;
+		treeIndex[e] = -1;
+
+		removeTreeEdge(treeOut, outStart[tail[e]], --treeOutSize[tail[e]], e);
+		removeTreeEdge(treeIn, inStart[head[e]], --treeInSize[head[e]], e);
+		treeOut[outStart[tail[f]] + treeOutSize[tail[f]]++] = f;
+		treeIn[inStart[head[f]] + treeInSize[head[f]]++] = f;
+	}
+
+	private static void removeTreeEdge(int list[], int start, int last, int e) {
+		int j = start;
+		while (j < start + last && list[j] != e)
+			j++;
+		list[j] = list[start + last];
+	}
+
+	// incident, returns -1 for a null node
+	private int incident(int e) {
+		if (mark[tail[e]]) {
+			if (mark[head[e]] == false)
+				return tail[e];
+		} else if (mark[head[e]]) {
+			return head[e];
+		}
+		return -1;
+	}
+
+	// leave_edge
+	private int leaveEdge() {
+		int rv = -1;
+		int cnt = 0;
+		final int j = searchIndex;
+		while (searchIndex < treeEdgeSize) {
+			final int f = treeEdge[searchIndex];
+			if (cutvalue[f] < 0) {
+				if (rv == -1 || cutvalue[rv] > cutvalue[f])
+					rv = f;
+				if (++cnt >= searchSize)
+					return rv;
+			}
+			searchIndex++;
+		}
+		if (j > 0) {
+			searchIndex = 0;
+			while (searchIndex < j) {
+				final int f = treeEdge[searchIndex];
+				if (cutvalue[f] < 0) {
+					if (rv == -1 || cutvalue[rv] > cutvalue[f])
+						rv = f;
+					if (++cnt >= searchSize)
+						return rv;
+				}
+				searchIndex++;
+			}
+		}
+		return rv;
+	}
+
+	// dfs_enter_outedge
+	private void dfsEnterOutEdge(int v) {
+		for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+			final int e = outList[j];
+			if (treeIndex[e] < 0) {
+				if (SEQ(lowSearch, lim[head[e]], limSearch) == false) {
+					final int s = slack(e);
+					if (s < slack || enter == -1) {
+						enter = e;
+						slack = s;
+					}
+				}
+			} else if (lim[head[e]] < lim[v]) {
+				dfsEnterOutEdge(head[e]);
+			}
+		}
+		for (int j = inStart[v]; j < inStart[v] + treeInSize[v] && slack > 0; j++) {
+			final int e = treeIn[j];
+			if (lim[tail[e]] < lim[v])
+				dfsEnterOutEdge(tail[e]);
+		}
+	}
+
+	// dfs_enter_inedge
+	private void dfsEnterInEdge(int v) {
+		for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+			final int e = inList[j];
+			if (treeIndex[e] < 0) {
+				if (SEQ(lowSearch, lim[tail[e]], limSearch) == false) {
+					final int s = slack(e);
+					if (s < slack || enter == -1) {
+						enter = e;
+						slack = s;
+					}
+				}
+			} else if (lim[tail[e]] < lim[v]) {
+				dfsEnterInEdge(tail[e]);
+			}
+		}
+		for (int j = outStart[v]; j < outStart[v] + treeOutSize[v] && slack > 0; j++) {
+			final int e = treeOut[j];
+			if (lim[head[e]] < lim[v])
+				dfsEnterInEdge(head[e]);
+		}
+	}
+
+	// enter_edge, returns -1 for a null edge
+	private int enterEdge(int e) {
+		final int v;
+		final boolean outsearch;
+		// v is the down node
+		if (lim[tail[e]] < lim[head[e]]) {
+			v = tail[e];
+			outsearch = false;
+		} else {
+			v = head[e];
+			outsearch = true;
+		}
+		enter = -1;
+		slack = Integer.MAX_VALUE;
+		lowSearch = low[v];
+		limSearch = lim[v];
+		if (outsearch)
+			dfsEnterOutEdge(v);
+		else
+			dfsEnterInEdge(v);
+		return enter;
+	}
+
+	// treesearch
+	private boolean treeSearch(int v) {
+		for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+			final int e = outList[j];
+			if (mark[head[e]] == false && slack(e) == 0) {
+				addTreeEdge(e);
+				if (treeEdgeSize == n - 1 || treeSearch(head[e]))
+					return true;
+			}
+		}
+		for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+			final int e = inList[j];
+			if (mark[tail[e]] == false && slack(e) == 0) {
+				addTreeEdge(e);
+				if (treeEdgeSize == n - 1 || treeSearch(tail[e]))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	// tight_tree
+	private int tightTree() {
+		for (int v = 0; v < n; v++) {
+			mark[v] = false;
+			treeInSize[v] = 0;
+			treeOutSize[v] = 0;
+		}
+		for (int i = 0; i < treeEdgeSize; i++)
+			treeIndex[treeEdge[i]] = -1;
+
+		treeNodeSize = 0;
+		treeEdgeSize = 0;
+		for (int v = 0; v < n && treeEdgeSize == 0; v++)
+			treeSearch(v);
+		return treeNodeSize;
+	}
+
+	// feasible_tree, returns true if the graph is not connected
+	private boolean feasibleTree() {
+		if (n <= 1)
+			return false;
+		while (tightTree() < n) {
+			int e = -1;
+			for (int j = 0; j < m; j++) {
+				// The out lists are stored in node order
+				final int f = outList[j];
+				if (treeIndex[f] < 0 && incident(f) != -1 && (e == -1 || slack(f) < slack(e)))
+					e = f;
+			}
+			if (e == -1)
+				return true;
+
+			int delta = slack(e);
+			if (delta != 0) {
+				if (incident(e) == head[e])
+					delta = -delta;
+				for (int i = 0; i < treeNodeSize; i++)
+					rank[treeNode[i]] += delta;
+			}
+		}
+		// init_cutvalues
+		dfsRange(0, -1, 1);
+		dfsCutval(0, -1);
+		return false;
+	}
+
+	// treeupdate
+	private int treeUpdate(int v, int w, int cv, boolean dir) {
+		while (SEQ(low[v], lim[w], lim[v]) == false) {
+			final int e = par[v];
+			final boolean d = v == tail[e] ? dir : !dir;
+			if (d)
+				cutvalue[e] += cv;
+			else
+				cutvalue[e] -= cv;
+			v = lim[tail[e]] > lim[head[e]] ? tail[e] : head[e];
+		}
+		return v;
+	}
+
+	// rerank
+	private void rerank(int v, int delta) {
+		rank[v] -= delta;
+		for (int j = outStart[v]; j < outStart[v] + treeOutSize[v]; j++)
+			if (treeOut[j] != par[v])
+				rerank(head[treeOut[j]], delta);
+		for (int j = inStart[v]; j < inStart[v] + treeInSize[v]; j++)
+			if (treeIn[j] != par[v])
+				rerank(tail[treeIn[j]], delta);
+	}
+
+	// update
+	private void update(int e, int f) {
+		final int delta = slack(f);
+		// "for (v = in nodes in tail side of e) do ND_rank(v) -= delta;"
+		if (delta > 0) {
+			final int t = tail[e];
+			final int h = head[e];
+			if (treeInSize[t] + treeOutSize[t] == 1)
+				rerank(t, delta);
+			else if (treeInSize[h] + treeOutSize[h] == 1)
+				rerank(h, -delta);
+			else if (lim[t] < lim[h])
+				rerank(t, delta);
+			else
+				rerank(h, -delta);
+		}
+		final int cv = cutvalue[e];
+		final int lca = treeUpdate(tail[f], head[f], cv, true);
+		if (treeUpdate(head[f], tail[f], cv, false) != lca)
+			throw new UnsupportedOperationException("update: mismatched lca in treeupdates");
+		cutvalue[f] = -cv;
+		cutvalue[e] = 0;
+		exchangeTreeEdges(e, f);
+		dfsRange(lca, par[lca], low[lca]);
+	}
+
+	// scan_and_normalize
+	private void scanAndNormalize() {
+		minrank = Integer.MAX_VALUE;
+		maxrank = -Integer.MAX_VALUE;
+		for (int v = 0; v < n; v++)
+			if (normal[v]) {
+				minrank = Math.min(minrank, rank[v]);
+				maxrank = Math.max(maxrank, rank[v]);
+			}
+		if (minrank != 0) {
+			for (int v = 0; v < n; v++)
+				rank[v] -= minrank;
+			maxrank -= minrank;
+			minrank = 0;
+		}
+	}
+
+	// freeTreeList
+	private void freeTreeList() {
+		for (int v = 0; v < n; v++)
+			mark[v] = false;
+	}
+
+	// LR_balance
+	private void lrBalance() {
+		for (int i = 0; i < treeEdgeSize; i++) {
+			final int e = treeEdge[i];
+			if (cutvalue[e] != 0)
+				continue;
+			final int f = enterEdge(e);
+			if (f == -1)
+				continue;
+			final int delta = slack(f);
+			if (delta <= 1)
+				continue;
+			if (lim[tail[e]] < lim[head[e]])
+				rerank(tail[e], delta / 2);
+			else
+				rerank(head[e], -delta / 2);
+		}
+		freeTreeList();
+	}
+
+	// TB_balance
+	private void tbBalance() {
+		scanAndNormalize();
+		// find nodes that are not tight and move to less populated ranks
+		final int nrank[] = new int[maxrank + 1];
+		for (int v = 0; v < n; v++)
+			if (normal[v])
+				nrank[rank[v]]++;
+		for (int v = 0; v < n; v++) {
+			if (normal[v] == false)
+				continue;
+			int inweight = 0;
+			int outweight = 0;
+			int low = 0;
+			int high = maxrank;
+			for (int j = inStart[v]; j < inStart[v + 1]; j++) {
+				final int e = inList[j];
+				inweight += weight[e];
+				low = Math.max(low, rank[tail[e]] + minlen[e]);
+			}
+			for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+				final int e = outList[j];
+				outweight += weight[e];
+				high = Math.min(high, rank[head[e]] - minlen[e]);
+			}
+			if (low < 0)
+				low = 0; // vnodes can have ranks < 0
+			if (inweight == outweight) {
+				int choice = low;
+				for (int i = low + 1; i <= high; i++)
+					if (nrank[i] < nrank[choice])
+						choice = i;
+				nrank[rank[v]]--;
+				nrank[choice]++;
+				rank[v] = choice;
+			}
+			mark[v] = false;
+		}
+	}
+
+	// x_cutval: set cut value of f, assuming values of edges on one side were
+	// already set
+	private void xCutval(int f) {
+		// set v to the node on the side of the edge already searched
+		final int v;
+		final int dir;
+		if (par[tail[f]] == f) {
+			v = tail[f];
+			dir = 1;
+		} else {
+			v = head[f];
+			dir = -1;
+		}
+		int sum = 0;
+		for (int j = outStart[v]; j < outStart[v + 1]; j++)
+			sum += xVal(outList[j], v, dir);
+		for (int j = inStart[v]; j < inStart[v + 1]; j++)
+			sum += xVal(inList[j], v, dir);
+		cutvalue[f] = sum;
+	}
+
+	// x_val
+	private int xVal(int e, int v, int dir) {
+		final int other = tail[e] == v ? head[e] : tail[e];
+		final boolean f;
+		int rv;
+		if (SEQ(low[v], lim[other], lim[v]) == false) {
+			f = true;
+			rv = weight[e];
+		} else {
+			f = false;
+			rv = treeIndex[e] >= 0 ? cutvalue[e] : 0;
+			rv -= weight[e];
+		}
+		int d;
+		if (dir > 0)
+			d = head[e] == v ? 1 : -1;
+		else
+			d = tail[e] == v ? 1 : -1;
+		if (f)
+			d = -d;
+		if (d < 0)
+			rv = -rv;
+		return rv;
+	}
+
+	// dfs_cutval
+	private void dfsCutval(int v, int parent) {
+		for (int j = outStart[v]; j < outStart[v] + treeOutSize[v]; j++)
+			if (treeOut[j] != parent)
+				dfsCutval(head[treeOut[j]], treeOut[j]);
+		for (int j = inStart[v]; j < inStart[v] + treeInSize[v]; j++)
+			if (treeIn[j] != parent)
+				dfsCutval(tail[treeIn[j]], treeIn[j]);
+		if (parent != -1)
+			xCutval(parent);
+	}
+
+	// dfs_range
+	private int dfsRange(int v, int parent, int lowValue) {
+		int limValue = lowValue;
+		par[v] = parent;
+		low[v] = lowValue;
+		for (int j = outStart[v]; j < outStart[v] + treeOutSize[v]; j++)
+			if (treeOut[j] != parent)
+				limValue = dfsRange(head[treeOut[j]], treeOut[j], limValue);
+		for (int j = inStart[v]; j < inStart[v] + treeInSize[v]; j++)
+			if (treeIn[j] != parent)
+				limValue = dfsRange(tail[treeIn[j]], treeIn[j], limValue);
+		lim[v] = limValue;
+		return limValue + 1;
+	}
+
+}
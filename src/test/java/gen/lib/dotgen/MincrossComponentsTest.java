@@ -0,0 +1,56 @@
+package gen.lib.dotgen;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+class MincrossComponentsTest {
+
+	private static String render(String diagram, boolean parallel) throws IOException {
+		final boolean old = mincross__c.parallelComponents;
+		mincross__c.parallelComponents = parallel;
+		try {
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			new SourceStringReader(diagram, UTF_8).outputImage(baos, 0, new FileFormatOption(FileFormat.SVG));
+			return new String(baos.toByteArray(), UTF_8);
+		} finally {
+			mincross__c.parallelComponents = old;
+		}
+	}
+
+	// Several connected components, with flat edges, labels and packages
+	private static String diagram(String direction) {
+		final StringBuilder sb = new StringBuilder("@startuml\n!pragma layout smetana\n" + direction);
+		for (int c = 0; c < 4; c++) {
+			sb.append("package p" + c + " {\n");
+			for (int i = 0; i < 5; i++)
+				sb.append("class C" + c + "_" + i + "\n");
+			sb.append("}\n");
+			for (int i = 0; i < 8; i++)
+				sb.append("C" + c + "_" + (i % 5) + (i % 3 == 0 ? " -> " : " --> ") + "C" + c + "_"
+						+ ((i * 3 + 1) % 5) + (i % 2 == 0 ? " : l" + i : "") + "\n");
+			sb.append("D" + c + " --> E" + c + "\nD" + c + " -> F" + c + "\n");
+		}
+		return sb.append("@enduml\n").toString();
+	}
+
+	@Test
+	void should_give_the_same_layout_as_the_sequential_loop() throws IOException {
+		for (String direction : new String[] { "", "left to right direction\n" }) {
+			final String diagram = diagram(direction);
+			final String sequential = render(diagram, false);
+
+			assertThat(sequential).doesNotContain("An error has occured").contains("C3_4");
+			assertThat(render(diagram, true)).isEqualTo(sequential);
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package net.sourceforge.plantuml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class DisplayListPragmaTest {
+
+	private static String svg(String source, boolean displayList) throws IOException {
+		final String withPragma = source.replaceFirst("@startuml\n",
+				"@startuml\n!pragma displaylist " + displayList + "\n");
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		new SourceStringReader(withPragma).outputImage(os, new FileFormatOption(FileFormat.SVG));
+		// The encoded source differs because of the pragma
+		return new String(os.toByteArray(), "UTF-8").replaceAll("<!--SRC=\\[[^\\]]*\\]-->", "");
+	}
+
+	private static void assertSameOutput(String source) throws IOException {
+		assertThat(svg(source, true)).isEqualTo(svg(source, false));
+	}
+
+	@Test
+	void should_not_change_a_class_diagram() throws IOException {
+		assertSameOutput("@startuml\n!pragma layout smetana\nclass A {\n+field : int\n}\nA --> B : uses\n"
+				+ "note right of B : note\n@enduml\n");
+	}
+
+	@Test
+	void should_not_change_a_teoz_diagram() throws IOException {
+		assertSameOutput("@startuml\n!pragma teoz true\nBob -> Alice : message\n& note right of Alice: ok\n"
+				+ "activate Bob\nBob -> Alice --: deactivate\n& note right of Alice: ok\n"
+				+ "Bob -> Alice ++: activate\n& note right of Alice: ok\ndeactivate Alice\n@enduml\n");
+	}
+
+	@Test
+	void should_not_change_smetana_ports() throws IOException {
+		assertSameOutput("@startuml\n!pragma layout smetana\ncomponent c1 {\nportout p1\n}\n"
+				+ "component c2 {\nportin p2\n}\np1 --> p2\n@enduml\n");
+	}
+
+}
@@ -0,0 +1,72 @@
+package net.sourceforge.plantuml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.activitydiagram3.ActivityDiagramFactory3;
+import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.descdiagram.DescriptionDiagramFactory;
+import net.sourceforge.plantuml.statediagram.StateDiagramFactory;
+import net.sourceforge.plantuml.text.StringLocated;
+
+class PSystemFactoryClassifierTest {
+
+	@Test
+	void test_state() {
+		assertThat(PSystemFactoryClassifier.classify(source("[*] --> A", "state A : desc", "A --> [*]")))
+				.isEqualTo(StateDiagramFactory.class);
+	}
+
+	@Test
+	void test_activity3() {
+		assertThat(PSystemFactoryClassifier.classify(source("start", ":Hello;", "stop")))
+				.isEqualTo(ActivityDiagramFactory3.class);
+	}
+
+	@Test
+	void test_class() {
+		assertThat(PSystemFactoryClassifier.classify(source("class A {", "  +foo()", "}", "interface B")))
+				.isEqualTo(ClassDiagramFactory.class);
+	}
+
+	@Test
+	void test_description() {
+		assertThat(PSystemFactoryClassifier.classify(source("node A", "component B", "A --> B")))
+				.isEqualTo(DescriptionDiagramFactory.class);
+	}
+
+	@Test
+	void test_container_is_not_guessed() {
+		assertThat(PSystemFactoryClassifier.classify(source("component a {", "}"))).isNull();
+	}
+
+	@Test
+	void test_sequence_is_not_guessed() {
+		assertThat(PSystemFactoryClassifier.classify(source("A -> B", "B --> A"))).isNull();
+	}
+
+	@Test
+	void test_allowmixing_is_not_guessed() {
+		assertThat(PSystemFactoryClassifier.classify(source("allowmixing", "component A", "component B")))
+				.isNull();
+	}
+
+	@Test
+	void test_tie_is_not_guessed() {
+		assertThat(PSystemFactoryClassifier.classify(source("state A", "usecase U"))).isNull();
+	}
+
+	private static List<StringLocated> source(String... lines) {
+		final List<StringLocated> result = new ArrayList<>();
+		result.add(new StringLocated("@startuml", null));
+		for (String s : lines)
+			result.add(new StringLocated(s, null));
+		result.add(new StringLocated("@enduml", null));
+		return result;
+	}
+
+}
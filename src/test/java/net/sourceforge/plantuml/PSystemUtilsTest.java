@@ -56,10 +56,40 @@ class PSystemUtilsTest extends AbstractCliTest {
 		assertThat(tempDir.toFile().listFiles()).hasSize(1);
 	}
 
+	@Test
+	void test_getNbFiles_splitPng() throws Exception {
+		final Diagram diagram = parse("" + "@startuml\n" + "page 3x2\n" + "class foo\n" + "@enduml\n");
+
+		assertThat(PSystemUtils.getNbFiles(diagram, new FileFormatOption(PNG))).isEqualTo(-1);
+		assertThat(PSystemUtils.getNbFiles(diagram, new FileFormatOption(FileFormat.SVG))).isEqualTo(1);
+	}
+
+	@Test
+	void test_getNbFiles_html() throws Exception {
+		final Diagram diagram = parse("" + "@startuml\n" + "class foo\n" + "@enduml\n");
+
+		assertThat(PSystemUtils.getNbFiles(diagram, new FileFormatOption(FileFormat.HTML))).isEqualTo(-1);
+		assertThat(PSystemUtils.getNbFiles(diagram, new FileFormatOption(PNG))).isEqualTo(1);
+	}
+
+	@Test
+	void test_getNbFiles_pages() throws Exception {
+		final Diagram newpaged = parse("" + "@startuml\n" + "class foo\n" + "newpage\n" + "class bar\n" + "@enduml\n");
+		final Diagram sequence = parse("" + "@startuml\n" + "a -> b\n" + "newpage\n" + "b -> a\n" + "newpage\n"
+				+ "a -> b\n" + "@enduml\n");
+
+		assertThat(PSystemUtils.getNbFiles(newpaged, new FileFormatOption(PNG))).isEqualTo(2);
+		assertThat(PSystemUtils.getNbFiles(sequence, new FileFormatOption(PNG))).isEqualTo(3);
+	}
+
 	//
 	// Test DSL
 	//
 
+	private static Diagram parse(String source) {
+		return new SourceStringReader(source).getBlocks().get(0).getDiagram();
+	}
+
 	private static List<FileImageData> render(String source, Path tempDir) throws IOException {
 		final SourceStringReader reader = new SourceStringReader(Defines.createEmpty(), source, UTF_8.name(),
 				Collections.<String>emptyList());
@@ -188,6 +188,21 @@ class PipeTest {
 		}
 	}
 
+	@ParameterizedTest
+	@MethodSource("managePipeTestCases")
+	void should_managePipe_give_same_results_with_several_threads(TestCase testCase) throws IOException {
+		option = CliParser.parse(("-nbthread 4 " + testCase.getOptions()).trim().split(" "));
+		pipe = new Pipe(option, ps, new ByteArrayInputStream(testCase.getInput().getBytes(UTF_8)), UTF_8.name());
+
+		pipe.managePipe(errorStatus);
+
+		try (AutoCloseableSoftAssertions softly = new AutoCloseableSoftAssertions()) {
+			softly.assertThat(errorStatus.hasError()).isEqualTo(testCase.isExpectedHasErrors());
+			softly.assertThat(errorStatus.isEmpty()).isEqualTo(testCase.isExpectedIsNoData());
+			testCase.getExpectedOutVerification().assertOk(softly, baos, testCase.getExpectedOut());
+		}
+	}
+
 	@Test
 	void should_readFirstDiagram_return_null_for_empty_input() throws IOException {
 		pipe = new Pipe(option, null, new ByteArrayInputStream(new byte[0]), UTF_8.name());
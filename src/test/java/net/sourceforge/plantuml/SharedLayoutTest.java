@@ -0,0 +1,43 @@
+package net.sourceforge.plantuml;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.core.Diagram;
+import net.sourceforge.plantuml.core.ImageData;
+
+class SharedLayoutTest {
+
+	private static final String SOURCE = "@startuml\nstart\n:hello;\nif (ok?) then\n:world;\nendif\nstop\n@enduml";
+
+	private static Diagram parse() {
+		return new SourceStringReader(SOURCE).getBlocks().get(0).getDiagram();
+	}
+
+	private static byte[] export(FileFormat fileFormat) throws IOException {
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		parse().exportDiagram(os, 0, new FileFormatOption(fileFormat));
+		return os.toByteArray();
+	}
+
+	@Test
+	void should_give_the_same_images_as_separate_exports() throws IOException {
+		final ByteArrayOutputStream png = new ByteArrayOutputStream();
+		final ByteArrayOutputStream svg = new ByteArrayOutputStream();
+		final List<ImageData> result = SharedLayout.exportDiagram(parse(), 0,
+				Arrays.asList(new FileFormatOption(FileFormat.PNG), new FileFormatOption(FileFormat.SVG)),
+				Arrays.<OutputStream>asList(png, svg));
+
+		assertThat(result).hasSize(2);
+		assertThat(png.toByteArray()).isEqualTo(export(FileFormat.PNG));
+		assertThat(new String(svg.toByteArray(), "UTF-8")).isEqualTo(new String(export(FileFormat.SVG), "UTF-8"));
+	}
+
+}
@@ -0,0 +1,122 @@
+package net.sourceforge.plantuml.activitydiagram3;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+/**
+ * Checks the drawing of the swimlanes with the DEBUG output, which does not
+ * depend on the fonts. The expected lane positions are the ones given by the
+ * previous drawing, which traversed the tiles once per swimlane.
+ */
+class SwimlanesTest {
+
+	private static final String SOURCE = String.join("\n", "@startuml", //
+			"skinparam conditionEndStyle hline", //
+			"|Alpha|", "start", ":first step;", "note right: note in alpha", //
+			"|Beta|", ":second step;", "note left", "note in beta", "end note", //
+			"if (ready?) then (yes)", ":ready;", "|Gamma|", ":gamma work;", "note right: note in gamma", //
+			"else (no)", ":not ready;", "endif", //
+			"|Delta|", "fork", ":fork one;", "fork again", ":fork two;", "end fork", //
+			"repeat", ":repeat body;", "|Alpha|", ":back in alpha;", "repeat while (again?)", //
+			"|Beta|", "switch (which?)", "case (a)", ":case a;", "case (b)", "|Gamma|", ":case b;", "endswitch", //
+			"|Delta|", "while (more?)", ":loop body;", "note left: note in delta", "endwhile", //
+			"|Alpha|", "if (last?) then", ":alpha end;", "endif", "stop", //
+			"@enduml");
+
+	private static final Pattern POINT = Pattern.compile("\\[ ([-\\d.]+) ; ([-\\d.]+) \\]");
+
+	private static List<String> shapes;
+
+	@BeforeAll
+	static void render() throws IOException {
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		new SourceStringReader(SOURCE).outputImage(os, new FileFormatOption(FileFormat.DEBUG));
+		shapes = Arrays.asList(new String(os.toByteArray(), StandardCharsets.UTF_8).split("\\R\\R"));
+	}
+
+	@Test
+	void lane_widths_are_unchanged() {
+		assertThat(getDividers()).containsExactly(15.0, 420.792, 785.0309, 1310.9217, 1810.7499);
+	}
+
+	@Test
+	void each_text_is_drawn_once_in_its_own_lane() {
+		final List<Double> dividers = getDividers();
+		assertLane(dividers, 0, "note in alpha", "first step", "back in alpha", "alpha end");
+		assertLane(dividers, 1, "note in beta", "second step", "ready", "case a");
+		assertLane(dividers, 2, "note in gamma", "gamma work", "not ready", "case b");
+		assertLane(dividers, 3, "note in delta", "fork one", "fork two", "repeat body", "loop body");
+	}
+
+	@Test
+	void hline_is_drawn_once() {
+		final List<String> hlines = new ArrayList<>();
+		for (String shape : shapes)
+			if (shape.startsWith("LINE:") && shape.contains("[ 863.4357 ; 327.5000 ]")
+					&& shape.contains("[ 1241.1079 ; 327.5000 ]"))
+				hlines.add(shape);
+
+		assertThat(hlines).hasSize(1);
+	}
+
+	@Test
+	void no_shape_is_drawn_twice() {
+		final List<String> drawn = new ArrayList<>();
+		for (String shape : shapes)
+			if (shape.startsWith("LINE:") || shape.startsWith("TEXT:") || shape.startsWith("RECTANGLE:"))
+				drawn.add(shape);
+
+		assertThat(drawn).doesNotHaveDuplicates();
+	}
+
+	private static void assertLane(List<Double> dividers, int lane, String... texts) {
+		for (String text : texts) {
+			final List<Double> positions = new ArrayList<>();
+			for (String shape : shapes)
+				if (shape.startsWith("TEXT:") && shape.contains("\n  text: " + text + "\n"))
+					positions.add(getX(shape));
+
+			assertThat(positions).as(text).hasSize(1);
+			assertThat(positions.get(0)).as(text).isBetween(dividers.get(lane), dividers.get(lane + 1));
+		}
+	}
+
+	// The dividers are the only vertical lines drawn from the top of the titles
+	private static List<Double> getDividers() {
+		final List<Double> result = new ArrayList<>();
+		for (String shape : shapes)
+			if (shape.startsWith("LINE:")) {
+				final Matcher m = POINT.matcher(shape);
+				m.find();
+				final String x1 = m.group(1);
+				final String y1 = m.group(2);
+				m.find();
+				if (x1.equals(m.group(1)) && y1.equals("12.5000"))
+					result.add(Double.parseDouble(x1));
+			}
+
+		return result;
+	}
+
+	private static double getX(String shape) {
+		final Matcher m = POINT.matcher(shape);
+		m.find();
+		return Double.parseDouble(m.group(1));
+	}
+
+}
@@ -1,15 +1,24 @@
 package net.sourceforge.plantuml.cli;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junitpioneer.jupiter.StdErr;
 import org.junitpioneer.jupiter.StdIo;
 
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.GeneratedImage;
 import net.sourceforge.plantuml.Run;
+import net.sourceforge.plantuml.SourceFileReader;
 
 class RunFlagNbThreadTest extends AbstractCliTest {
 
@@ -25,4 +34,43 @@ class RunFlagNbThreadTest extends AbstractCliTest {
 
 	}
 
+	@StdIo
+	@Test
+	void testSeveralBlocks(StdErr err) throws Exception {
+		final String source = String.join(System.lineSeparator(), //
+				"@startuml", "alice -> bob : one", "@enduml", //
+				"@startuml", "class A", "newpage", "class B", "newpage", "class C", "@enduml", //
+				"@startuml", "alice -> bob : page 1", "newpage", "bob -> alice : page 2", "newpage",
+				"alice -> bob : page 3", "@enduml", //
+				"@startuml", "this is not a diagram", "@enduml", //
+				"@startuml", "start", ":last;", "stop", "@enduml");
+
+		final Path parallel = Files.createDirectory(tempDir.resolve("parallel"));
+		final Path file = Files.write(parallel.resolve("test.txt"), source.getBytes(StandardCharsets.UTF_8));
+		assertExit(200, () -> {
+			Run.main(new String[] { "-nbthread", "4", "-svg", file.toAbsolutePath().toString() });
+		});
+
+		final Path sequential = Files.createDirectory(tempDir.resolve("sequential"));
+		final Path reference = Files.write(sequential.resolve("test.txt"), source.getBytes(StandardCharsets.UTF_8));
+		final List<GeneratedImage> images = new SourceFileReader(reference.toFile(), sequential.toFile(),
+				new FileFormatOption(FileFormat.SVG)).getGeneratedImages();
+		assertEquals(9, images.size());
+
+		final String expected = "[test.svg, test.txt, test_001.svg, test_002.svg, test_003.svg, test_004.svg, "
+				+ "test_005.svg, test_006.svg, test_007.svg, test_008.svg]";
+		assertLs(expected, sequential);
+		assertLs(expected, parallel);
+
+		for (GeneratedImage image : images) {
+			final String name = image.getPngFile().getName();
+			final byte[] actual = Files.readAllBytes(parallel.resolve(name));
+			// An error image contains random pixels
+			if (name.equals("test_007.svg"))
+				assertTrue(new String(actual, StandardCharsets.UTF_8).contains("this is not a diagram"));
+			else
+				assertArrayEquals(Files.readAllBytes(sequential.resolve(name)), actual, name);
+		}
+	}
+
 }
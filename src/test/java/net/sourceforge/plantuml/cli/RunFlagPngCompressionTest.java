@@ -0,0 +1,48 @@
+package net.sourceforge.plantuml.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junitpioneer.jupiter.StdErr;
+import org.junitpioneer.jupiter.StdIo;
+
+import net.sourceforge.plantuml.Run;
+
+class RunFlagPngCompressionTest extends AbstractCliTest {
+
+	@AfterEach
+	void resetLevel() {
+		GlobalConfig.getInstance().put(GlobalConfigKey.PNG_COMPRESSION_LEVEL,
+				GlobalConfigKey.PNG_COMPRESSION_LEVEL.getDefaultValue());
+	}
+
+	@Test
+	void testValidLevel() throws Exception {
+		final Path file = aliceBob_hello(tempDir, "test.txt");
+		Run.main(new String[] { "-tpng", "--png-compression", "1", file.toAbsolutePath().toString() });
+
+		assertEquals(1, GlobalConfig.getInstance().value(GlobalConfigKey.PNG_COMPRESSION_LEVEL));
+		assertLs("[test.png, test.txt]", tempDir);
+	}
+
+	@StdIo
+	@ParameterizedTest
+	@ValueSource(strings = { "10", "-1", "fast", "" })
+	void testInvalidLevel(String level, StdErr err) throws Exception {
+		final Path file = aliceBob_hello(tempDir, "test.txt");
+		assertExit(Exit.USAGE_ERROR, () -> {
+			Run.main(new String[] { "-tpng", "--png-compression", level, file.toAbsolutePath().toString() });
+		});
+
+		assertTrue(err.capturedString().contains("Invalid value for --png-compression"));
+		assertEquals(7, GlobalConfig.getInstance().value(GlobalConfigKey.PNG_COMPRESSION_LEVEL));
+		assertLs("[test.txt]", tempDir);
+	}
+
+}
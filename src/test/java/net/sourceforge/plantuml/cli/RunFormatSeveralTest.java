@@ -0,0 +1,29 @@
+package net.sourceforge.plantuml.cli;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.Run;
+
+class RunFormatSeveralTest extends AbstractCliTest {
+
+	@Test
+	void testPngSvgTxt() throws IOException, InterruptedException {
+		final Path file = aliceBob_hello(tempDir, "test.txt");
+
+		Run.main(new String[] { "--png", "--svg", "--txt", file.toAbsolutePath().toString() });
+
+		assertLs("[test.atxt, test.png, test.svg, test.txt]", tempDir);
+
+		final String svg = new String(Files.readAllBytes(tempDir.resolve("test.svg")),
+				java.nio.charset.StandardCharsets.UTF_8);
+		assertTrue(svg.contains("<svg "));
+		assertTrue(svg.contains("hello"));
+	}
+
+}
@@ -0,0 +1,90 @@
+package net.sourceforge.plantuml.command;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import net.sourceforge.plantuml.activitydiagram3.ActivityDiagramFactory3;
+import net.sourceforge.plantuml.classdiagram.ClassDiagramFactory;
+import net.sourceforge.plantuml.descdiagram.DescriptionDiagramFactory;
+import net.sourceforge.plantuml.sequencediagram.SequenceDiagramFactory;
+import net.sourceforge.plantuml.statediagram.StateDiagramFactory;
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.utils.BlocLines;
+
+/**
+ * Compares the number of lines per second dispatched by a full scan of the
+ * commands and by {@link CommandDispatchIndex}.
+ * <p>
+ * Run it as a plain Java application. Arguments are the directories where the
+ * diagrams are searched for (default is the nonreg corpus).
+ */
+public class CommandDispatchBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws IOException {
+		final List<StringLocated> lines = new ArrayList<>();
+		if (args.length == 0)
+			args = new String[] { "src/test/java/nonreg" };
+		for (String dir : args)
+			readDiagramLines(Paths.get(dir), lines);
+
+		System.out.println(String.format("%,d lines", lines.size()));
+		final PSystemCommandFactory[] factories = { new SequenceDiagramFactory(), new ClassDiagramFactory(),
+				new DescriptionDiagramFactory(), new StateDiagramFactory(), new ActivityDiagramFactory3() };
+		for (PSystemCommandFactory factory : factories) {
+			final List<Command<?>> cmds = factory.getCommands();
+			final CommandDispatchIndex index = new CommandDispatchIndex(cmds);
+
+			double scan = 0;
+			double indexed = 0;
+			for (int i = 0; i < ROUNDS; i++) {
+				scan = Math.max(scan, run(lines, null, cmds));
+				indexed = Math.max(indexed, run(lines, index, cmds));
+			}
+			System.out.println(String.format("%-28s %3d commands  scan %,10.0f lines/s  index %,10.0f lines/s",
+					factory.getClass().getSimpleName(), cmds.size(), scan, indexed));
+		}
+	}
+
+	private static double run(List<StringLocated> lines, CommandDispatchIndex index, List<Command<?>> cmds) {
+		final long start = System.nanoTime();
+		int found = 0;
+		for (StringLocated line : lines) {
+			final BlocLines single = BlocLines.single(line);
+			for (Command<?> cmd : index == null ? cmds : index.getCandidates(line))
+				if (CommandDispatchIndex.singleLineCommand(cmd).isValid(single) != CommandControl.NOT_OK) {
+					found++;
+					break;
+				}
+		}
+		final long duration = System.nanoTime() - start;
+		if (found < 0)
+			throw new IllegalStateException();
+		return 1e9 * lines.size() / duration;
+	}
+
+	private static void readDiagramLines(Path dir, List<StringLocated> result) throws IOException {
+		final List<Path> files = new ArrayList<>();
+		try (Stream<Path> stream = Files.walk(dir)) {
+			stream.filter(Files::isRegularFile).forEach(files::add);
+		}
+		for (Path file : files) {
+			boolean inside = false;
+			for (String s : Files.readAllLines(file)) {
+				if (s.startsWith("@startuml"))
+					inside = true;
+				else if (s.startsWith("@enduml"))
+					inside = false;
+				else if (inside)
+					result.add(new StringLocated(s, null));
+			}
+		}
+	}
+
+}
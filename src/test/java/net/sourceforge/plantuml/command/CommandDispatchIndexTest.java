@@ -0,0 +1,52 @@
+package net.sourceforge.plantuml.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.sourceforge.plantuml.sequencediagram.SequenceDiagramFactory;
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.utils.BlocLines;
+
+class CommandDispatchIndexTest {
+
+	private static List<Command<?>> cmds;
+	private static CommandDispatchIndex index;
+
+	@BeforeAll
+	static void init() {
+		final PSystemCommandFactory factory = new SequenceDiagramFactory();
+		cmds = factory.getCommands();
+		index = new CommandDispatchIndex(cmds);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "participant Alice", "actor Bob as B #red", "Alice -> Bob : hello", "A -> B++: Get data",
+			"activate A", "note left of A : text", "note over A", "== section ==", "...", "||45||", "alt success",
+			"end", "autonumber 10", "hide footbox", "skinparam monochrome true", "title Hello", "}", "'comment",
+			"/' comment '/", "@enduml", "", "élève -> b", "a" })
+	void same_first_command_as_full_scan(String s) {
+		final StringLocated line = new StringLocated(s, null);
+		assertThat(first(index.getCandidates(line), line)).isSameAs(first(cmds, line));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "participant Alice", "activate A", "== section ==" })
+	void fewer_candidates_than_commands(String s) {
+		assertThat(index.getCandidates(new StringLocated(s, null)).size()).isLessThan(cmds.size());
+	}
+
+	private static Command<?> first(List<Command<?>> candidates, StringLocated line) {
+		final BlocLines single = BlocLines.single(line);
+		for (Command<?> cmd : candidates)
+			if (CommandDispatchIndex.singleLineCommand(cmd).isValid(single) != CommandControl.NOT_OK)
+				return cmd;
+
+		return null;
+	}
+
+}
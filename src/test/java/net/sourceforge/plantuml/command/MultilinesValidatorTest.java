@@ -0,0 +1,45 @@
+package net.sourceforge.plantuml.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.utils.BlocLines;
+
+class MultilinesValidatorTest {
+
+	@Test
+	void legend_is_validated_line_by_line() {
+		assertSameAsIsValid(CommandMultilinesLegend.ME, "legend top left", "first line", "' a comment", "second line",
+				"endlegend");
+	}
+
+	@Test
+	void title_is_validated_line_by_line() {
+		assertSameAsIsValid(CommandMultilinesTitle.ME, "title", "first line", "end title", "endtitle");
+	}
+
+	@Test
+	void skinparam_brackets_are_counted() {
+		assertSameAsIsValid(CommandSkinParamMultilines.ME, "skinparam {", "ArrowColor red", "class {",
+				"BackgroundColor blue", "}", "}");
+	}
+
+	@Test
+	void skinparam_inconsistent_line_is_rejected() {
+		assertSameAsIsValid(CommandSkinParamMultilines.ME, "skinparam {", "}", "}", "}");
+	}
+
+	private static void assertSameAsIsValid(Command<?> cmd, String... lines) {
+		final MultilinesValidator validator = cmd.newValidator();
+		BlocLines all = BlocLines.create();
+		for (String s : lines) {
+			final StringLocated line = new StringLocated(s, null);
+			all = all.add(line);
+			validator.add(line);
+			assertThat(validator.validate()).as(s).isEqualTo(cmd.isValid(all));
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package net.sourceforge.plantuml.dot;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Uses a shell script standing for dot: for each graph, it prints a small SVG
+ * with the name of the graph and its own pid. The graph "slow" never ends and
+ * the graph "bad" has no output.
+ */
+@DisabledOnOs(OS.WINDOWS)
+class DotProcessPoolTest {
+
+	private static final String FAKE_DOT = "" //
+			+ "#!/bin/sh\n" //
+			+ "while read -r line; do\n" //
+			+ "  case \"$line\" in\n" //
+			+ "    digraph*)\n" //
+			+ "      set -- $line\n" //
+			+ "      if [ \"$2\" = slow ]; then exec sleep 30; fi\n" //
+			+ "      if [ \"$2\" != bad ]; then\n" //
+			+ "        printf '<?xml version=\"1.0\"?>\\n<svg>\\n<title>%s</title>\\n<!-- %s -->\\n</svg>\\n' \"$2\" $$\n" //
+			+ "      fi\n" //
+			+ "      ;;\n" //
+			+ "  esac\n" //
+			+ "done\n";
+
+	private static final Pattern PID = Pattern.compile("<!-- (\\d+) -->");
+
+	@TempDir
+	Path tempDir;
+
+	private String[] cmd;
+	private DotProcessPool pool;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		final Path script = tempDir.resolve("dot");
+		Files.write(script, FAKE_DOT.getBytes(UTF_8));
+		assertThat(script.toFile().setExecutable(true)).isTrue();
+		cmd = new String[] { script.toString(), "-Tsvg" };
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (pool != null)
+			pool.shutdown();
+	}
+
+	private String layout(String name, long timeoutMs) {
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		final ProcessState state = pool.run(cmd, ("digraph " + name + " {\na -> b\n}\n").getBytes(UTF_8), os,
+				timeoutMs);
+		if (state == null)
+			return null;
+
+		return state + "\n" + new String(os.toByteArray(), UTF_8);
+	}
+
+	private static String pid(String result) {
+		final Matcher m = PID.matcher(result);
+		assertThat(m.find()).isTrue();
+		return m.group(1);
+	}
+
+	@Test
+	void test_process_is_reused() {
+		pool = new DotProcessPool(1, 100);
+		final String first = layout("first", 10000);
+		final String second = layout("second", 10000);
+
+		assertThat(first).startsWith("TERMINATED_OK").contains("<title>first</title>")
+				.doesNotContain(DotProcessPool.SENTINEL);
+		assertThat(second).startsWith("TERMINATED_OK").contains("<title>second</title>")
+				.doesNotContain(DotProcessPool.SENTINEL);
+		assertThat(pid(second)).isEqualTo(pid(first));
+	}
+
+	@Test
+	void test_process_is_recycled_after_max_jobs() {
+		pool = new DotProcessPool(1, 2);
+		final String first = layout("g1", 10000);
+		final String second = layout("g2", 10000);
+		final String third = layout("g3", 10000);
+
+		assertThat(pid(second)).isEqualTo(pid(first));
+		assertThat(pid(third)).isNotEqualTo(pid(first));
+	}
+
+	@Test
+	void test_empty_output_falls_back() {
+		pool = new DotProcessPool(1, 100);
+		final String first = layout("g1", 10000);
+
+		assertThat(layout("bad", 10000)).isNull();
+		assertThat(pid(layout("g2", 10000))).isEqualTo(pid(first));
+	}
+
+	@Test
+	void test_timeout_replaces_the_process() {
+		pool = new DotProcessPool(1, 100);
+		final String first = layout("g1", 10000);
+
+		assertThat(layout("slow", 200)).startsWith("TIMEOUT");
+
+		final String next = layout("g2", 10000);
+		assertThat(next).startsWith("TERMINATED_OK").contains("<title>g2</title>");
+		assertThat(pid(next)).isNotEqualTo(pid(first));
+	}
+
+}
@@ -0,0 +1,59 @@
+package net.sourceforge.plantuml.klimt.creole;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.klimt.LineBreakStrategy;
+import net.sourceforge.plantuml.klimt.font.FontConfiguration;
+import net.sourceforge.plantuml.klimt.font.StringBounder;
+import net.sourceforge.plantuml.klimt.font.UFont;
+import net.sourceforge.plantuml.klimt.geom.HorizontalAlignment;
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+import net.sourceforge.plantuml.preproc.ConfigurationStore;
+import net.sourceforge.plantuml.skin.Pragma;
+import net.sourceforge.plantuml.skin.SkinParam;
+import net.sourceforge.plantuml.skin.UmlDiagramType;
+
+class SheetCacheTest {
+
+	private static final Display TEXT = Display.create("**Alice** and //Bob// are having a long conversation",
+			"|= a |= b |", "| 1 | 2 |");
+
+	private static SheetBuilder sheetBuilder() {
+		final SkinParam skinParam = SkinParam.create(UmlDiagramType.CLASS, Pragma.createEmpty(),
+				ConfigurationStore.createEmpty());
+		final FontConfiguration font = FontConfiguration.blackBlueTrue(UFont.sansSerif(12));
+		return skinParam.sheet(font, HorizontalAlignment.CENTER, CreoleMode.FULL);
+	}
+
+	@Test
+	void should_share_sheets_between_texts() {
+		final SheetBuilder builder = sheetBuilder();
+		assertThat(builder.createSheet(Display.create(TEXT.asList()))).isSameAs(builder.createSheet(TEXT));
+	}
+
+	@Test
+	void should_share_layouts_between_blocks() {
+		final StringBounder stringBounder = FileFormat.SVG.getDefaultStringBounder();
+		final Sheet sheet = sheetBuilder().createSheet(TEXT);
+		final XDimension2D first = new SheetBlock1(sheet, LineBreakStrategy.NONE, 0)
+				.calculateDimension(stringBounder);
+		final Object key = SheetBlock1.layoutKey(stringBounder, LineBreakStrategy.NONE);
+		final SheetBlock1.Layout layout = sheet.getLayout(key);
+		assertThat(layout).isNotNull();
+
+		final XDimension2D second = new SheetBlock1(sheet, LineBreakStrategy.NONE, 0)
+				.calculateDimension(stringBounder);
+		assertThat(sheet.getLayout(key)).isSameAs(layout);
+		assertThat(second.toString()).isEqualTo(first.toString());
+
+		final LineBreakStrategy narrow = new LineBreakStrategy("60");
+		assertThat(new SheetBlock1(sheet, narrow, 0).calculateDimension(stringBounder).getWidth())
+				.isLessThan(first.getWidth());
+		assertThat(sheet.getLayout(SheetBlock1.layoutKey(stringBounder, narrow))).isNotSameAs(layout);
+		assertThat(sheet.getLayout(key)).isSameAs(layout);
+	}
+
+}
@@ -0,0 +1,80 @@
+package net.sourceforge.plantuml.klimt.drawing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import net.atmp.ImageBuilder;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.klimt.UClip;
+import net.sourceforge.plantuml.klimt.UStroke;
+import net.sourceforge.plantuml.klimt.UTranslate;
+import net.sourceforge.plantuml.klimt.color.ColorMapper;
+import net.sourceforge.plantuml.klimt.color.HColors;
+import net.sourceforge.plantuml.klimt.font.FontConfiguration;
+import net.sourceforge.plantuml.klimt.font.StringBounder;
+import net.sourceforge.plantuml.klimt.font.UFont;
+import net.sourceforge.plantuml.klimt.shape.UDrawable;
+import net.sourceforge.plantuml.klimt.shape.URectangle;
+import net.sourceforge.plantuml.klimt.shape.UText;
+import net.sourceforge.plantuml.url.Url;
+
+class DisplayListTest {
+
+	private static final UDrawable DRAWABLE = new UDrawable() {
+		@Override
+		public void drawU(UGraphic ug) {
+			ug.apply(HColors.RED).apply(HColors.BLUE.bg()).apply(UStroke.withThickness(2))
+					.draw(URectangle.build(100, 40));
+			ug.startUrl(new Url("https://plantuml.com", "tooltip", "label"));
+			final FontConfiguration font = FontConfiguration.blackBlueTrue(UFont.monospaced(12));
+			ug.apply(new UTranslate(10, 30)).draw(UText.build("hello", font));
+			ug.closeUrl();
+			final UGraphic clipped = ug.apply(new UTranslate(50, 50)).apply(new UClip(0, 0, 20, 20));
+			clipped.apply(UTranslate.dx(5)).draw(URectangle.build(80, 80));
+		}
+	};
+
+	@Test
+	void should_compute_the_same_limits() {
+		final StringBounder stringBounder = FileFormat.PNG.getDefaultStringBounder();
+		final LimitFinder direct = LimitFinder.create(stringBounder, true);
+		DRAWABLE.drawU(direct);
+
+		final DisplayList displayList = DisplayList.record(DRAWABLE, stringBounder, ColorMapper.IDENTITY,
+				HColors.WHITE);
+		final LimitFinder replayed = LimitFinder.create(stringBounder, true);
+		displayList.drawU(replayed);
+
+		assertThat(displayList.size()).isEqualTo(5);
+		assertThat(replayed.getMinMax().toString()).isEqualTo(direct.getMinMax().toString());
+	}
+
+	@Test
+	void should_record_through_a_recorder() {
+		final StringBounder stringBounder = FileFormat.PNG.getDefaultStringBounder();
+		final LimitFinder direct = LimitFinder.create(stringBounder, true);
+		DRAWABLE.drawU(direct);
+
+		final LimitFinder replayed = LimitFinder.create(stringBounder, true);
+		final DisplayList displayList = DisplayList.empty();
+		DRAWABLE.drawU(displayList.recorder(replayed));
+		displayList.drawU(replayed);
+
+		assertThat(displayList.size()).isEqualTo(5);
+		assertThat(replayed.getMinMax().toString()).isEqualTo(direct.getMinMax().toString());
+	}
+
+	@Test
+	void should_draw_the_same_svg() throws IOException {
+		final FileFormatOption option = new FileFormatOption(FileFormat.SVG);
+		final byte[] direct = ImageBuilder.create(option, DRAWABLE).writeByteArray();
+		final byte[] replayed = ImageBuilder.create(option, DRAWABLE).displayList(true).writeByteArray();
+
+		assertThat(new String(replayed, "UTF-8")).isEqualTo(new String(direct, "UTF-8"));
+	}
+
+}
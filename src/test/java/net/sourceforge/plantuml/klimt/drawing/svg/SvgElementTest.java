@@ -0,0 +1,47 @@
+package net.sourceforge.plantuml.klimt.drawing.svg;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SvgElementTest {
+
+	private static String toXml(SvgElement element) {
+		final StringBuilder sb = new StringBuilder();
+		element.writeTo(sb);
+		return sb.toString();
+	}
+
+	@Test
+	void should_sort_attributes_with_namespaces_first() {
+		final SvgElement element = new SvgElement("svg");
+		element.setAttribute("width", "10px");
+		element.setAttribute("height", "20px");
+		element.setAttribute("xmlns", "http://www.w3.org/2000/svg");
+		element.setAttribute("height", "30px");
+
+		assertThat(toXml(element)).isEqualTo("<svg xmlns=\"http://www.w3.org/2000/svg\" height=\"30px\" width=\"10px\"/>");
+	}
+
+	@Test
+	void should_escape_attributes_and_text() {
+		final SvgElement text = new SvgElement("text");
+		text.setAttribute("id", "a<\"\u00e9\"&\n");
+		text.setTextContent("x < y & \"\u00e9\"");
+
+		assertThat(toXml(text)).isEqualTo("<text id=\"a&lt;&quot;&#233;&quot;&amp;&#10;\">x &lt; y &amp; \"&#233;\"</text>");
+	}
+
+	@Test
+	void should_serialize_children_in_order() {
+		final SvgElement g = new SvgElement("g");
+		final SvgElement rect = new SvgElement("rect");
+		rect.setAttribute("x", "1");
+		g.appendChild(rect);
+		g.appendComment("a--b-");
+		g.appendCData("p]]>q");
+
+		assertThat(toXml(g)).isEqualTo("<g><rect x=\"1\"/><!--a- -b- --><![CDATA[p]]]]><![CDATA[>q]]></g>");
+	}
+
+}
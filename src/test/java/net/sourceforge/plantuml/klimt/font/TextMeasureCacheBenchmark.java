@@ -0,0 +1,53 @@
+package net.sourceforge.plantuml.klimt.font;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simple throughput benchmark for {@link TextMeasureCache}.
+ * <p>
+ * Run it as a plain Java application: it prints the number of measurements per
+ * second for an increasing number of threads.
+ */
+public class TextMeasureCacheBenchmark {
+
+	private static final int OPERATIONS = 2_000_000;
+	private static final int DISTINCT_TEXTS = 20_000;
+
+	public static void main(String[] args) throws Exception {
+		final UFont font = UFont.sansSerif(12);
+		final String[] texts = new String[DISTINCT_TEXTS];
+		for (int i = 0; i < texts.length; i++)
+			texts[i] = "label" + i;
+
+		for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors() * 2; threads *= 2) {
+			final TextMeasureCache cache = new TextMeasureCache(10_000);
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			final int perThread = OPERATIONS / threads;
+			final long start = System.nanoTime();
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				final int seed = t;
+				futures.add(executor.submit(() -> {
+					int idx = seed * 7919;
+					for (int i = 0; i < perThread; i++) {
+						// Skewed access pattern: most lookups hit a small set of labels
+						idx = (idx * 1103515245 + 12345) & 0x7fffffff;
+						final int n = (i % 10 == 0) ? idx % DISTINCT_TEXTS : idx % 500;
+						cache.getDimension(font, texts[n]);
+					}
+				}));
+			}
+			for (Future<?> f : futures)
+				f.get();
+			final long duration = System.nanoTime() - start;
+			executor.shutdown();
+			final double opsPerSecond = 1e9 * perThread * threads / duration;
+			System.out.println(String.format("threads=%2d  %,12.0f ops/s  %s", threads, opsPerSecond, cache));
+		}
+	}
+
+}
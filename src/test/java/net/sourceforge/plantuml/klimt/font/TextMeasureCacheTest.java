@@ -0,0 +1,75 @@
+package net.sourceforge.plantuml.klimt.font;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Font;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.klimt.geom.XDimension2D;
+
+class TextMeasureCacheTest {
+
+	@Test
+	void shouldCountHitsAndMisses() {
+		final TextMeasureCache cache = new TextMeasureCache(100);
+		final UFont font = UFont.sansSerif(12);
+
+		final XDimension2D first = cache.getDimension(font, "Alice");
+		final XDimension2D second = cache.getDimension(font, "Alice");
+
+		assertThat(second).isSameAs(first);
+		assertThat(cache.getMisses()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+		assertThat(first.getWidth()).isGreaterThan(0);
+	}
+
+	@Test
+	void shouldReturnZeroForEmptyText() {
+		final TextMeasureCache cache = new TextMeasureCache(100);
+		final XDimension2D dim = cache.getDimension(UFont.sansSerif(12), "");
+
+		assertThat(dim.getWidth()).isZero();
+		assertThat(dim.getHeight()).isZero();
+		assertThat(cache.getMisses()).isZero();
+	}
+
+	@Test
+	void shouldEvictWhenFull() {
+		final TextMeasureCache cache = new TextMeasureCache(16);
+		final UFont font = UFont.build("SansSerif", Font.BOLD, 14);
+		for (int i = 0; i < 1000; i++)
+			cache.getDimension(font, "text" + i);
+
+		assertThat(cache.size()).isLessThanOrEqualTo(16);
+		assertThat(cache.getEvictions()).isEqualTo(1000 - cache.size());
+	}
+
+	@Test
+	void shouldGiveSameResultFromSeveralThreads() throws Exception {
+		final TextMeasureCache cache = new TextMeasureCache(1000);
+		final UFont font = UFont.sansSerif(12);
+		final XDimension2D expected = new TextMeasureCache(10).getDimension(font, "Hello world");
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			final List<Future<XDimension2D>> results = new ArrayList<>();
+			for (int i = 0; i < 64; i++)
+				results.add(executor.submit(() -> cache.getDimension(font, "Hello world")));
+
+			for (Future<XDimension2D> f : results) {
+				assertThat(f.get().getWidth()).isEqualTo(expected.getWidth());
+				assertThat(f.get().getHeight()).isEqualTo(expected.getHeight());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(cache.getHits() + cache.getMisses()).isEqualTo(64);
+	}
+
+}
@@ -8,9 +8,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
+import java.net.Socket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpClient.Redirect;
@@ -18,6 +22,7 @@ import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -209,6 +214,65 @@ class PicowebTest {
 
 	}
 
+	@Test
+	void get_with_matching_if_none_match_returns_304() throws Exception {
+		final String ok = getDefaultTranscoder().encode("A -> B");
+		final HttpResponse<byte[]> first = http_get("/txt/" + ok);
+		assertStatus(first, 200);
+		final String etag = first.headers().firstValue("ETag").get();
+
+		final HttpRequest req = HttpRequest.newBuilder() //
+				.uri(URI.create("http://localhost:" + port + "/txt/" + ok)) //
+				.timeout(Duration.ofSeconds(5)) //
+				.header("If-None-Match", etag) //
+				.GET() //
+				.build();
+		final HttpResponse<byte[]> second = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
+		assertStatus(second, 304);
+		assertEquals(etag, second.headers().firstValue("ETag").get());
+		assertEquals(0, second.body().length);
+	}
+
+	@Test
+	void pipelined_requests_are_answered_on_the_same_connection() throws Exception {
+		try (Socket socket = new Socket("localhost", port)) {
+			socket.setSoTimeout(5000);
+			final OutputStream os = socket.getOutputStream();
+			os.write(("GET /foo HTTP/1.1\r\nHost: localhost\r\n\r\n"
+					+ "GET /serverinfo HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(UTF_8));
+			os.flush();
+			final String response = new String(readAll(socket.getInputStream()), UTF_8);
+			assertTrue(response.startsWith("HTTP/1.1 302"), response);
+			assertTrue(response.contains("Connection: keep-alive"), response);
+			assertTrue(response.contains("HTTP/1.1 200"), response);
+			assertTrue(response.contains("Connection: close"), response);
+			assertTrue(response.contains("\"workers\""), response);
+		}
+	}
+
+	@Test
+	void idle_keep_alive_connections_do_not_starve_the_pool() throws Exception {
+		final List<Socket> idle = new ArrayList<>();
+		try {
+			boolean closed = false;
+			for (int i = 0; i < 64 && closed == false; i++) {
+				final Socket socket = new Socket("localhost", port);
+				idle.add(socket);
+				socket.setSoTimeout(5000);
+				socket.getOutputStream().write("GET /foo HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(UTF_8));
+				socket.getOutputStream().flush();
+				final String headers = readHeaders(socket.getInputStream());
+				assertTrue(headers.startsWith("HTTP/1.1 302"), headers);
+				closed = headers.contains("Connection: close");
+			}
+			assertTrue(closed, "All the connections were kept alive");
+			assertStatus(http_get("/serverinfo"), 200);
+		} finally {
+			for (Socket socket : idle)
+				socket.close();
+		}
+	}
+
 	@Test
 	@StdIo
 	void get_png_bad_graphviz(StdErr err) throws Exception {
@@ -273,6 +337,26 @@ class PicowebTest {
 		return object.toString();
 	}
 
+	private static byte[] readAll(InputStream is) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		int read;
+		while ((read = is.read(buffer)) != -1)
+			baos.write(buffer, 0, read);
+		return baos.toByteArray();
+	}
+
+	private static String readHeaders(InputStream is) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		int read;
+		while ((read = is.read()) != -1) {
+			baos.write(read);
+			if (baos.toString("UTF-8").endsWith("\r\n\r\n"))
+				break;
+		}
+		return baos.toString("UTF-8");
+	}
+
 	private String body(final HttpResponse<byte[]> resp) {
 		return new String(resp.body());
 	}
@@ -0,0 +1,38 @@
+package net.sourceforge.plantuml.picoweb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.FileFormat;
+
+class RenderCacheTest {
+
+	@Test
+	void key_depends_on_the_content_of_the_config() {
+		final String source = "@startuml\nalice -> bob\n@enduml";
+		final String before = RenderCache.key(source, FileFormat.SVG, Arrays.asList("skinparam monochrome true"),
+				"-tsvg", "-config", "my.cfg");
+		final String after = RenderCache.key(source, FileFormat.SVG, Arrays.asList("skinparam monochrome false"),
+				"-tsvg", "-config", "my.cfg");
+
+		assertThat(after).isNotEqualTo(before);
+		assertThat(RenderCache.key(source, FileFormat.SVG, Collections.<String>emptyList(), "-tsvg"))
+				.isEqualTo(RenderCache.key(source, FileFormat.SVG, "-tsvg"));
+	}
+
+	@Test
+	void sources_reading_files_are_not_cacheable() {
+		assertThat(RenderCache.isCacheable("alice -> bob : hello")).isTrue();
+		assertThat(RenderCache.isCacheable("alice -> bob : <img:logo.png>")).isFalse();
+		assertThat(RenderCache.isCacheable("title %dirpath()")).isFalse();
+		assertThat(RenderCache.isCacheable("title %filename()")).isFalse();
+		assertThat(RenderCache.isCacheable("title %filedate()")).isFalse();
+		assertThat(RenderCache.isCacheable(Arrays.asList("skinparam monochrome true", "!include common.iuml")))
+				.isFalse();
+	}
+
+}
@@ -0,0 +1,87 @@
+package net.sourceforge.plantuml.png;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class PngEncoderTest {
+
+	private static BufferedImage roundTrip(BufferedImage image, String metadata, int level) throws IOException {
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		PngEncoder.write(image, os, metadata, 96, level);
+		final byte[] data = os.toByteArray();
+		if (metadata != null)
+			assertThat(new MetadataTag(new ByteArrayInputStream(data), "plantuml").getData()).isEqualTo(metadata);
+
+		return ImageIO.read(new ByteArrayInputStream(data));
+	}
+
+	private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+		assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+		assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++)
+			for (int x = 0; x < expected.getWidth(); x++)
+				assertThat(actual.getRGB(x, y)).isEqualTo(expected.getRGB(x, y));
+	}
+
+	@Test
+	void should_encode_argb_images_on_several_blocks() throws IOException {
+		// Tall enough to be deflated as several blocks
+		final BufferedImage image = new BufferedImage(300, 1000, BufferedImage.TYPE_INT_ARGB);
+		final Random random = new Random(42);
+		for (int y = 0; y < image.getHeight(); y++)
+			for (int x = 0; x < image.getWidth(); x++)
+				image.setRGB(x, y, (x / 7 + y) % 11 == 0 ? random.nextInt() : 0xFFFFFFFF);
+
+		assertSamePixels(image, roundTrip(image, "@startuml\nalice -> bob : été\n@enduml", 6));
+		assertSamePixels(image, roundTrip(image, null, 0));
+	}
+
+	@Test
+	void should_encode_small_palettes() throws IOException {
+		for (int size : new int[] { 2, 3, 5, 17 }) {
+			final byte[] r = new byte[size];
+			final byte[] g = new byte[size];
+			final byte[] b = new byte[size];
+			final byte[] a = new byte[size];
+			for (int i = 0; i < size; i++) {
+				r[i] = (byte) (i * 13);
+				g[i] = (byte) (255 - i * 7);
+				b[i] = (byte) (i * 5);
+				a[i] = (byte) (i == 1 ? 0 : 255);
+			}
+			final BufferedImage image = new BufferedImage(37, 11, BufferedImage.TYPE_BYTE_INDEXED,
+					new IndexColorModel(8, size, r, g, b, a));
+			for (int y = 0; y < image.getHeight(); y++)
+				for (int x = 0; x < image.getWidth(); x++)
+					image.getRaster().setSample(x, y, 0, (x + y) % size);
+
+			assertSamePixels(image, roundTrip(image, "palette", 9));
+		}
+	}
+
+	@Test
+	void should_combine_adler32() {
+		final byte[] data = new byte[1000];
+		new Random(1).nextBytes(data);
+		final Adler32 all = new Adler32();
+		all.update(data);
+		final Adler32 first = new Adler32();
+		first.update(data, 0, 300);
+		final Adler32 second = new Adler32();
+		second.update(data, 300, 700);
+
+		assertThat(PngEncoder.combineAdler32(first.getValue(), second.getValue(), 700)).isEqualTo(all.getValue());
+	}
+
+}
@@ -0,0 +1,63 @@
+package net.sourceforge.plantuml.preproc.spm;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SpxArchiveTest {
+
+	@TempDir
+	Path tempDir;
+
+	private SpxArchive writeAndOpen(Map<String, byte[]> content) throws IOException {
+		final Path file = tempDir.resolve("puml.spx");
+		try (OutputStream os = Files.newOutputStream(file)) {
+			SpxArchive.write(content, os);
+		}
+		return SpxArchive.open(file.toString());
+	}
+
+	@Test
+	void test_entries_are_read_back() throws IOException {
+		final Map<String, byte[]> content = new LinkedHashMap<>();
+		for (int i = 0; i < 500; i++)
+			content.put("compute/icon" + i, ("sprite $Icon" + i + " [16x16/16z] {\n!define Icon" + i
+					+ "(e_alias) AWSEntity(e_alias, Icon" + i + ")\n}\n").getBytes(UTF_8));
+		content.put("empty", new byte[0]);
+
+		final SpxArchive archive = writeAndOpen(content);
+
+		assertThat(archive.getNames()).containsExactlyInAnyOrderElementsOf(content.keySet());
+		for (Map.Entry<String, byte[]> ent : content.entrySet())
+			assertThat(archive.read(ent.getKey())).isEqualTo(ent.getValue());
+	}
+
+	@Test
+	void test_single_entry_without_dictionary() throws IOException {
+		final Map<String, byte[]> content = new LinkedHashMap<>();
+		content.put("bootstrap", "!procedure $icon($name)\n!endprocedure\n".getBytes(UTF_8));
+
+		final SpxArchive archive = writeAndOpen(content);
+
+		assertThat(archive.read("bootstrap")).isEqualTo(content.get("bootstrap"));
+	}
+
+	@Test
+	void test_unknown_entry_and_missing_archive() throws IOException {
+		final Map<String, byte[]> content = new LinkedHashMap<>();
+		content.put("a", "a".getBytes(UTF_8));
+
+		assertThat(writeAndOpen(content).read("b")).isNull();
+		assertThat(SpxArchive.open(tempDir.resolve("none.spx").toString())).isNull();
+	}
+
+}
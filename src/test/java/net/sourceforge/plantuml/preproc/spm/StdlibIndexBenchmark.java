@@ -0,0 +1,70 @@
+package net.sourceforge.plantuml.preproc.spm;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sourceforge.plantuml.FileUtils;
+
+/**
+ * Compares the cost of a first <code>!include &lt;lib/file&gt;</code> with a
+ * <code>.spm</code> channel, which is decoded as a whole, and with an indexed
+ * archive, where only the requested entry is inflated.
+ * <p>
+ * Run it as a plain Java application from the root of the project, after
+ * having converted the stdlib:
+ *
+ * <pre>
+ * SpxConverter src/main/resources/stdlib build/generated/stdlib-index/stdlib
+ * StdlibIndexBenchmark build/generated/stdlib-index/stdlib awslib14 compute/ec2
+ * </pre>
+ */
+public class StdlibIndexBenchmark {
+
+	private static final int ROUNDS = 20;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3) {
+			System.err.println("Usage: StdlibIndexBenchmark <spx folder> <library> <file>");
+			System.exit(1);
+		}
+		final String spx = new File(new File(args[0], args[1]), SpmChannel.PUML.getIndexedFileName()).getPath();
+		final String file = args[2].toLowerCase();
+
+		long spmBest = Long.MAX_VALUE;
+		long spxBest = Long.MAX_VALUE;
+		int spmSize = 0;
+		int spxSize = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			final Map<String, byte[]> all = readWholeChannel(args[1]);
+			spmSize = all.get(file).length;
+			spmBest = Math.min(spmBest, System.nanoTime() - start);
+
+			start = System.nanoTime();
+			spxSize = SpxArchive.open(spx).read(file).length;
+			spxBest = Math.min(spxBest, System.nanoTime() - start);
+		}
+		System.out.println(String.format("spm: %,8d us (%d bytes)", spmBest / 1000, spmSize));
+		System.out.println(String.format("spx: %,8d us (%d bytes)", spxBest / 1000, spxSize));
+	}
+
+	// Same as Stdlib.initMapIfNeeded()
+	private static Map<String, byte[]> readWholeChannel(String lib) throws IOException {
+		final Map<String, byte[]> map = new HashMap<>();
+		try (InputStream is = SpmChannel.PUML.getInternalInputStream(lib);
+				DataInputStream dis = new DataInputStream(is)) {
+			final int nb = dis.readInt();
+			for (int i = 0; i < nb; i++) {
+				final String name = dis.readUTF();
+				final int len = dis.readInt();
+				map.put(name.toLowerCase(), FileUtils.readExactly(dis, len));
+			}
+		}
+		return map;
+	}
+
+}
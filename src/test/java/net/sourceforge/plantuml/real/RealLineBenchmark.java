@@ -0,0 +1,61 @@
+package net.sourceforge.plantuml.real;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the compilation of the horizontal constraints of a teoz sequence
+ * diagram: participants side by side, and messages pushing them apart.
+ * <p>
+ * Run it as a plain Java application, optionally giving the numbers of
+ * participants and of messages per participant (300 and 10 by default).
+ */
+public class RealLineBenchmark {
+
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) {
+		final int participants = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		final int messages = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		for (int nb = participants / 4; nb <= participants; nb *= 2)
+			for (int perParticipant = 1; perParticipant <= messages; perParticipant *= 3)
+				run(nb, nb * perParticipant);
+	}
+
+	private static void run(int participants, int messages) {
+		long best = Long.MAX_VALUE;
+		double width = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			final long start = System.nanoTime();
+			width = compile(participants, messages);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		System.out.println(String.format("%4d participants, %5d messages: width %,10.1f best %,6d ms", participants,
+				messages, width, best / 1000000));
+	}
+
+	static double compile(int participants, int messages) {
+		final Random random = new Random(42);
+		final RealOrigin origin = RealUtils.createOrigin();
+		final List<Real> centers = new ArrayList<>();
+		Real current = origin.addAtLeast(0);
+		for (int i = 0; i < participants; i++) {
+			final double width = 40 + random.nextInt(60);
+			centers.add(current.addFixed(width / 2));
+			current = current.addFixed(width).addAtLeast(0);
+		}
+		for (int i = 0; i < messages; i++) {
+			final int p1 = random.nextInt(participants);
+			final int p2 = random.nextInt(participants);
+			if (p1 != p2) {
+				final Real left = centers.get(Math.min(p1, p2));
+				final Real right = centers.get(Math.max(p1, p2));
+				right.ensureBiggerThan(left.addFixed(20 + random.nextInt(200)));
+			}
+		}
+		origin.compileNow();
+		return current.getCurrentValue();
+	}
+
+}
@@ -0,0 +1,68 @@
+package net.sourceforge.plantuml.real;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class RealLineTest {
+
+	@Test
+	void should_push_points_to_the_right() {
+		final RealOrigin origin = RealUtils.createOrigin();
+		final Real a = origin.addAtLeast(10);
+		final Real b = a.addAtLeast(5);
+		final Real c = b.addFixed(20).addAtLeast(0);
+		// Only known once b and c have moved, in a later pass
+		a.ensureBiggerThan(origin.addFixed(40));
+		c.ensureBiggerThan(origin.addFixed(50));
+		origin.compileNow();
+
+		assertThat(a.getCurrentValue()).isEqualTo(40);
+		assertThat(b.getCurrentValue()).isEqualTo(45);
+		assertThat(c.getCurrentValue()).isEqualTo(65);
+		assertThat(((RealImpl) origin).getLine().getAbsoluteMax()).isEqualTo(65);
+	}
+
+	@Test
+	void should_move_both_ends_of_a_middle() {
+		final RealOrigin origin = RealUtils.createOrigin();
+		final Real a = origin.addAtLeast(0);
+		final Real b = a.addAtLeast(10);
+		final Real middle = RealUtils.middle(a, b);
+		middle.ensureBiggerThan(origin.addFixed(25));
+		origin.compileNow();
+
+		assertThat(middle.getCurrentValue()).isEqualTo(25);
+		assertThat(a.getCurrentValue()).isEqualTo(20);
+		assertThat(b.getCurrentValue()).isEqualTo(30);
+	}
+
+	@Test
+	void should_compile_again_with_new_constraints() {
+		final RealOrigin origin = RealUtils.createOrigin();
+		final Real a = origin.addAtLeast(10);
+		final Real max = RealUtils.max(a, origin.addFixed(5));
+		origin.compileNow();
+		assertThat(max.getCurrentValue()).isEqualTo(10);
+
+		a.ensureBiggerThan(origin.addFixed(30));
+		origin.compileNow();
+		assertThat(a.getCurrentValue()).isEqualTo(30);
+		// A max does not change once computed
+		assertThat(max.getCurrentValue()).isEqualTo(10);
+	}
+
+	@Test
+	void should_detect_cycles() {
+		final RealOrigin origin = RealUtils.createOrigin();
+		final Real a = origin.addAtLeast(0);
+		final Real b = origin.addAtLeast(0);
+		a.ensureBiggerThan(b.addFixed(1));
+		b.ensureBiggerThan(a.addFixed(1));
+
+		assertThatThrownBy(origin::compileNow).isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("cyclic constraints");
+	}
+
+}
@@ -0,0 +1,59 @@
+package net.sourceforge.plantuml.sdot;
+
+import static gen.lib.cgraph.attr__c.agget;
+import static gen.lib.cgraph.graph__c.agopen;
+import static gen.lib.dotgen.mincross__c.mincross_options;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import h.ST_Agraph_s;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+import smetana.core.CString;
+import smetana.core.Globals;
+
+class SmetanaLayoutLimitsTest {
+
+	private static String render(String attributes) throws IOException {
+		final StringBuilder sb = new StringBuilder("@startuml\n!pragma layout smetana\n");
+		sb.append("!pragma graphattributes " + attributes + "\n");
+		sb.append("package p1 {\nclass A\nclass B\nclass C\n}\npackage p2 {\nclass D\nclass E\n}\n");
+		sb.append("A --> B\nB --> C\nA --> D\nD --> E\nE --> A\nC -> E\n@enduml\n");
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new SourceStringReader(sb.toString(), UTF_8).outputImage(baos, 0, new FileFormatOption(FileFormat.SVG));
+		return new String(baos.toByteArray(), UTF_8);
+	}
+
+	@Test
+	void should_export_the_limits_to_the_graph() {
+		final Globals zz = Globals.open();
+		try {
+			final ST_Agraph_s g = agopen(zz, new CString("g"), zz.Agdirected, null);
+			CucaDiagramFileMakerSmetana.exportLayoutLimits(zz, g, "mclimit=0.5; nslimit1=2;color=red");
+			mincross_options(zz, g);
+
+			assertThat(zz.MinQuit).isEqualTo(4);
+			assertThat(zz.MaxIter).isEqualTo(12);
+			assertThat(agget(zz, g, new CString("nslimit1")).getContent()).isEqualTo("2");
+			assertThat(agget(zz, g, new CString("color"))).isNull();
+		} finally {
+			Globals.close();
+		}
+	}
+
+	@Test
+	void should_lay_out_with_tiny_limits() throws IOException {
+		final String svg = render("mclimit=0.001;nslimit1=0.001;nslimit=0.001");
+
+		assertThat(svg).doesNotContain("An error has occured");
+		for (String name : new String[] { "A", "B", "C", "D", "E" })
+			assertThat(svg).contains(">" + name + "</text>");
+	}
+
+}
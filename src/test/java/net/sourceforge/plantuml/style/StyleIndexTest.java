@@ -0,0 +1,50 @@
+package net.sourceforge.plantuml.style;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class StyleIndexTest {
+
+	private static final SName[] NAMES = { SName.root, SName.element, SName.classDiagram, SName.class_,
+			SName.arrow, SName.note, SName.mindmapDiagram, SName.node };
+
+	private static StyleSignatureBasic randomSignature(Random random) {
+		StyleSignatureBasic signature = StyleSignatureBasic.empty();
+		for (SName name : NAMES)
+			if (random.nextInt(3) == 0)
+				signature = signature.addSName(name);
+		for (int i = 0; i < 3; i++)
+			if (random.nextInt(3) == 0)
+				signature = signature.addStereotype("s" + random.nextInt(5));
+		if (random.nextInt(4) == 0)
+			signature = signature.addLevel(random.nextInt(3));
+		if (random.nextInt(4) == 0)
+			signature = signature.addStar();
+		return signature;
+	}
+
+	@Test
+	void should_find_the_same_styles_as_a_full_scan() {
+		final Random random = new Random(42);
+		final StyleStorage storage = new StyleStorage();
+		for (int i = 0; i < 200; i++)
+			storage.put(new Style(randomSignature(random), new EnumMap<PName, Value>(PName.class)));
+
+		for (int i = 0; i < 500; i++) {
+			final StyleSignatureBasic signature = randomSignature(random);
+			final List<Style> expected = new ArrayList<>();
+			for (Style style : storage.getStyles())
+				if (style.getSignature().matchAll(signature))
+					expected.add(style);
+
+			assertThat(storage.getMatchingStyles(signature)).containsExactlyElementsOf(expected);
+		}
+	}
+
+}
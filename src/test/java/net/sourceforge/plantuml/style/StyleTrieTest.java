@@ -0,0 +1,69 @@
+package net.sourceforge.plantuml.style;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StyleTrieTest {
+
+	// Only 16 different hash codes, to exercise collisions
+	private static final class Key {
+		private final int value;
+
+		Key(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return value % 16;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).value == value;
+		}
+	}
+
+	private static Style style(String stereotype) {
+		return new Style(StyleSignatureBasic.createStereotype(stereotype), new EnumMap<PName, Value>(PName.class));
+	}
+
+	@Test
+	void should_keep_previous_versions_unchanged() {
+		StyleTrie<Key> trie = StyleTrie.empty();
+		final List<StyleTrie<Key>> versions = new ArrayList<>();
+		final List<Style> styles = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			versions.add(trie);
+			styles.add(style("s" + i));
+			trie = trie.put(new Key(i), styles.get(i), i);
+		}
+
+		for (int v = 0; v < 1000; v += 97) {
+			assertThat(versions.get(v).size()).isEqualTo(v);
+			for (int i = 0; i < 1000; i++)
+				assertThat(versions.get(v).get(new Key(i))).isSameAs(i < v ? styles.get(i) : null);
+		}
+	}
+
+	@Test
+	void should_keep_the_first_order_of_a_key() {
+		final StyleTrie<Key> trie = StyleTrie.<Key>empty().put(new Key(1), style("a"), 0).put(new Key(17), style("b"), 1);
+		final Style replacement = style("c");
+		final StyleTrie<Key> replaced = trie.put(new Key(1), replacement, 2);
+
+		assertThat(replaced.size()).isEqualTo(2);
+		assertThat(replaced.get(new Key(1))).isSameAs(replacement);
+
+		final List<StyleTrie.Entry<Key>> entries = new ArrayList<>();
+		replaced.addEntriesTo(entries);
+		for (StyleTrie.Entry<Key> entry : entries)
+			assertThat(entry.order).isEqualTo(entry.key.value == 1 ? 0 : 1);
+	}
+
+}
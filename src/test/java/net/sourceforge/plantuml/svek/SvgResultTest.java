@@ -0,0 +1,63 @@
+package net.sourceforge.plantuml.svek;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.klimt.geom.XPoint2D;
+
+class SvgResultTest {
+
+	private static final String SVG = "<svg width=\"62pt\" height=\"116pt\">\n" //
+			+ "<g id=\"node1\" class=\"node\">\n" //
+			+ "<title>ent0001</title>\n" //
+			+ "<polygon fill=\"none\" stroke=\"#010100\" points=\"54,-112 0,-112 0,-76 54,-76 54,-112\"/>\n" //
+			+ "</g>\n" //
+			+ "<g id=\"node2\" class=\"node\">\n" //
+			+ "<title>ent0002</title>\n" //
+			+ "<polygon fill=\"none\" stroke=\"#010200\" points=\"54,-36 0,-36 0,0 54,0 54,-36\"/>\n" //
+			+ "</g>\n" //
+			+ "<g id=\"edge1\" class=\"edge\">\n" //
+			+ "<title>ent0001&#45;&gt;ent0002</title>\n" //
+			+ "<path fill=\"none\" stroke=\"#010300\" d=\"M27,-75.7C27,-67.98 27,-58.71 27,-50.11\"/>\n" //
+			+ "<polygon fill=\"#010300\" stroke=\"#010300\" points=\"30.5,-50.1 27,-40.1 23.5,-50.1 30.5,-50.1\"/>\n" //
+			+ "</g>\n" //
+			+ "</svg>\n";
+
+	private final SvgResult svgResult = new SvgResult(SVG, point -> point);
+
+	@Test
+	void title_index_is_the_same_as_index_of() {
+		assertThat(svgResult.getIndexFromTitle("ent0002")).isEqualTo(SVG.indexOf("<title>ent0002</title>"));
+		assertThat(svgResult.getIndexFromTitle("ent0003")).isEqualTo(-1);
+	}
+
+	@Test
+	void color_index_is_the_same_as_index_of() {
+		assertThat(svgResult.getIndexFromColor(0x010300)).isEqualTo(SVG.indexOf("stroke=\"#010300\""));
+		assertThat(svgResult.getIndexFromClusterColor(0x010200)).isEqualTo(SVG.indexOf("=\"#010200\""));
+		assertThat(svgResult.getIndexFromColor(0x020000)).isEqualTo(-1);
+	}
+
+	@Test
+	void substring_is_a_view_on_the_svg() {
+		final int idx = svgResult.getIndexFromColor(0x010300);
+		final SvgResult tail = svgResult.substring(idx + 10);
+		assertThat(tail.getSvg()).isEqualTo(SVG.substring(idx + 10));
+		// The stroke of the path is before the view, the one of the polygon is inside
+		assertThat(tail.getIndexFromColor(0x010300))
+				.isEqualTo(SVG.substring(idx + 10).indexOf("stroke=\"#010300\""));
+		assertThat(tail.getIndexFromTitle("ent0001")).isEqualTo(-1);
+	}
+
+	@Test
+	void points_are_extracted_from_the_view() {
+		final List<XPoint2D> points = svgResult.substring(svgResult.getIndexFromTitle("ent0002"))
+				.extractList(SvgResult.POINTS_EQUALS);
+		assertThat(points).hasSize(5);
+		assertThat(SvekUtils.getMinXY(points)).isEqualTo(new XPoint2D(0, -36));
+	}
+
+}
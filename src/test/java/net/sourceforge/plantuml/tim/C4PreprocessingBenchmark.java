@@ -0,0 +1,71 @@
+package net.sourceforge.plantuml.tim;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import net.sourceforge.plantuml.BlockUml;
+import net.sourceforge.plantuml.BlockUmlBuilder;
+import net.sourceforge.plantuml.preproc.Defines;
+
+/**
+ * Measures the preprocessing time of a large C4 model, where the same
+ * procedures of the C4 stdlib are called thousands of times.
+ * <p>
+ * Run it as a plain Java application, optionally giving the number of
+ * elements (2000 by default).
+ */
+public class C4PreprocessingBenchmark {
+
+	private static final int ROUNDS = 20;
+
+	public static void main(String[] args) throws IOException {
+		final int nb = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		final String source = buildModel(nb);
+
+		long best = Long.MAX_VALUE;
+		int lines = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			final long start = System.nanoTime();
+			final BlockUmlBuilder builder = new BlockUmlBuilder(Collections.<String>emptyList(), StandardCharsets.UTF_8,
+					Defines.createEmpty(), new StringReader(source), null, null);
+			final BlockUml block = builder.getBlockUmls().get(0);
+			lines = block.getData().size();
+			final long duration = System.nanoTime() - start;
+			best = Math.min(best, duration);
+			System.out.println(String.format("round %2d: %,6d ms", i + 1, duration / 1000000));
+		}
+		System.out.println(String.format("%d elements, %d lines: best %,d ms", nb, lines, best / 1000000));
+	}
+
+	static String buildModel(int nb) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("@startuml\n");
+		sb.append("!include <C4/C4_Component>\n");
+		sb.append("Person(user, \"User\", \"A user of the system\")\n");
+		for (int b = 0; b < nb / 100; b++) {
+			sb.append("System_Boundary(sys" + b + ", \"System " + b + "\") {\n");
+			for (int i = b * 100; i < (b + 1) * 100; i++) {
+				if (i % 4 == 0)
+					sb.append("  Container(c" + i + ", \"Container " + i + "\", \"Java\", \"Does things " + i
+							+ "\", $tags=\"backend\")\n");
+				else if (i % 4 == 1)
+					sb.append("  ContainerDb(c" + i + ", \"Database " + i + "\", \"PostgreSQL\", \"Stores " + i
+							+ "\")\n");
+				else
+					sb.append("  Component(c" + i + ", \"Component " + i + "\", \"Spring\", \"Handles " + i
+							+ "\")\n");
+			}
+			sb.append("}\n");
+		}
+		for (int i = 1; i < nb; i++)
+			sb.append("Rel(c" + (i - 1) + ", c" + i + ", \"Uses\", \"HTTPS\")\n");
+
+		sb.append("Rel(user, c0, \"Uses\")\n");
+		sb.append("SHOW_LEGEND()\n");
+		sb.append("@enduml\n");
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,61 @@
+package net.sourceforge.plantuml.tim;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import net.sourceforge.plantuml.BlockUmlBuilder;
+import net.sourceforge.plantuml.preproc.Defines;
+
+/**
+ * Measures the preprocessing time of many small diagrams including the same
+ * C4 library, with and without the {@link IncludeCache}.
+ * <p>
+ * Run it as a plain Java application, optionally giving the number of diagrams
+ * (200 by default).
+ */
+public class IncludeCacheBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws IOException {
+		final int nb = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+		for (int i = 0; i < ROUNDS; i++) {
+			final long cold = run(nb, true);
+			final long warm = run(nb, false);
+			System.out.println(String.format("round %d: %d diagrams, without cache %,6d ms, with cache %,6d ms", i + 1,
+					nb, cold / 1000000, warm / 1000000));
+		}
+		final IncludeCache cache = IncludeCache.getInstance();
+		System.out.println("hits=" + cache.getHits() + " misses=" + cache.getMisses());
+	}
+
+	private static long run(int nb, boolean clearCache) throws IOException {
+		final long start = System.nanoTime();
+		for (int i = 0; i < nb; i++) {
+			if (clearCache)
+				IncludeCache.getInstance().clear();
+
+			final BlockUmlBuilder builder = new BlockUmlBuilder(Collections.<String>emptyList(), StandardCharsets.UTF_8,
+					Defines.createEmpty(), new StringReader(buildDiagram(i)), null, null);
+			builder.getBlockUmls().get(0).getData();
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static String buildDiagram(int i) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("@startuml\n");
+		sb.append("!include <C4/C4_Container>\n");
+		sb.append("Person(user, \"User " + i + "\")\n");
+		sb.append("Container(api" + i + ", \"API\", \"Java\", \"Serves " + i + "\")\n");
+		sb.append("ContainerDb(db" + i + ", \"Database\", \"PostgreSQL\")\n");
+		sb.append("Rel(user, api" + i + ", \"Uses\", \"HTTPS\")\n");
+		sb.append("Rel(api" + i + ", db" + i + ", \"Reads\")\n");
+		sb.append("@enduml\n");
+		return sb.toString();
+	}
+
+}
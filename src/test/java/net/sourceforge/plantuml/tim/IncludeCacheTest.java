@@ -0,0 +1,101 @@
+package net.sourceforge.plantuml.tim;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static test.utils.TestUtils.writeUtf8File;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import net.sourceforge.plantuml.BlockUml;
+import net.sourceforge.plantuml.BlockUmlBuilder;
+import net.sourceforge.plantuml.preproc.Defines;
+import net.sourceforge.plantuml.security.SFile;
+import net.sourceforge.plantuml.text.StringLocated;
+
+@Isolated
+class IncludeCacheTest {
+
+	private static final String LIB = "" //
+			+ "!if %variable_exists(\"$color\") == 0\n" //
+			+ "!$color = \"blue\"\n" //
+			+ "!endif\n" //
+			+ "!procedure Box($name)\n" //
+			+ "rectangle $name #$color\n" //
+			+ "!endprocedure\n" //
+			+ "note \"lib\" as N\n";
+
+	@TempDir
+	Path tempDir;
+
+	private final IncludeCache cache = IncludeCache.getInstance();
+
+	@BeforeEach
+	void beforeEach() throws IOException {
+		writeUtf8File(tempDir.resolve("lib.iuml"), LIB);
+		cache.clear();
+	}
+
+	private List<String> preprocess(String source) throws IOException {
+		final BlockUmlBuilder builder = new BlockUmlBuilder(Collections.<String>emptyList(), UTF_8,
+				Defines.createEmpty(), new StringReader(source), new SFile(tempDir.toFile().getAbsolutePath()), null);
+		final List<String> result = new ArrayList<>();
+		for (BlockUml block : builder.getBlockUmls())
+			for (StringLocated line : block.getData())
+				result.add(line.getString());
+
+		return result;
+	}
+
+	@Test
+	void should_replay_include_with_the_same_state() throws IOException {
+		final String source = "@startuml\n!include lib.iuml\nBox(a)\n@enduml\n";
+
+		final List<String> first = preprocess(source);
+		final long hits = cache.getHits();
+		final List<String> second = preprocess(source);
+
+		assertThat(second).isEqualTo(first).contains("note \"lib\" as N", "rectangle a #blue");
+		assertThat(cache.getHits()).isEqualTo(hits + 1);
+	}
+
+	@Test
+	void should_execute_again_when_a_variable_changes() throws IOException {
+		preprocess("@startuml\n!include lib.iuml\nBox(a)\n@enduml\n");
+		final List<String> result = preprocess("@startuml\n!$color = \"red\"\n!include lib.iuml\nBox(a)\n@enduml\n");
+
+		assertThat(result).contains("rectangle a #red");
+	}
+
+	@Test
+	void should_execute_again_when_the_file_changes() throws IOException {
+		final String source = "@startuml\n!include lib.iuml\nBox(a)\n@enduml\n";
+		preprocess(source);
+
+		writeUtf8File(tempDir.resolve("lib.iuml"), LIB.replace("rectangle", "node"));
+		tempDir.resolve("lib.iuml").toFile().setLastModified(System.currentTimeMillis() + 10000);
+
+		assertThat(preprocess(source)).contains("node a #blue");
+	}
+
+	@Test
+	void should_not_cache_not_deterministic_include() throws IOException {
+		writeUtf8File(tempDir.resolve("random.iuml"), "note \"%random(1000000)\" as R\n");
+		final String source = "@startuml\n!include random.iuml\n@enduml\n";
+		preprocess(source);
+		preprocess(source);
+
+		assertThat(cache.getHits()).isZero();
+		assertThat(cache.size()).isZero();
+	}
+
+}
@@ -0,0 +1,72 @@
+package net.sourceforge.plantuml.tim.expression;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.preproc.Defines;
+import net.sourceforge.plantuml.text.StringLocated;
+import net.sourceforge.plantuml.tim.EaterException;
+import net.sourceforge.plantuml.tim.TContext;
+import net.sourceforge.plantuml.tim.TMemory;
+import net.sourceforge.plantuml.tim.TMemoryGlobal;
+import net.sourceforge.plantuml.tim.TVariableScope;
+
+class CompiledExpressionTest {
+
+	private final TContext context = new TContext(null, Defines.createEmpty(), UTF_8, null);
+
+	private CompiledExpression compile(StringLocated location) throws EaterException {
+		final TokenStack tokens = new EaterMock(location).eatTokenStackPublic();
+		return CompiledExpression.compile(tokens, location.length(), location);
+	}
+
+	private TMemory memory(StringLocated location, int a, String b) throws EaterException {
+		final TMemory memory = new TMemoryGlobal();
+		memory.putVariable("$a", TValue.fromInt(a), TVariableScope.GLOBAL, location);
+		memory.putVariable("$b", TValue.fromString(b), TVariableScope.GLOBAL, location);
+		return memory;
+	}
+
+	@Test
+	void should_resolve_variables_on_each_evaluation() throws Exception {
+		final StringLocated location = new StringLocated("$a * 2 + %strlen($b)", null);
+		final CompiledExpression expression = compile(location);
+
+		assertThat(expression.evaluate(location, context, memory(location, 3, "xy")).toString()).isEqualTo("8");
+		assertThat(expression.evaluate(location, context, memory(location, 10, "")).toString()).isEqualTo("20");
+	}
+
+	@Test
+	void should_keep_unknown_variable_as_string() throws Exception {
+		final StringLocated location = new StringLocated("$b + unknown", null);
+		final CompiledExpression expression = compile(location);
+
+		assertThat(expression.evaluate(location, context, memory(location, 0, "x")).toString()).isEqualTo("xunknown");
+		assertThat(expression.evaluate(location, context, memory(location, 0, "y")).toString()).isEqualTo("yunknown");
+	}
+
+	@Test
+	void should_cache_new_expressions_once_the_cache_is_full() throws Exception {
+		final StringLocated location = new StringLocated("$a * 2", null);
+		final CompiledExpression expression = compile(location);
+		for (int i = 0; i < 20000; i++)
+			context.putCompiledExpression("$a * " + i, false, expression);
+		context.putCompiledExpression("$a + 1", false, expression);
+
+		assertThat(context.getCompiledExpression("$a + 1", false)).isSameAs(expression);
+		assertThat(context.getCompiledExpression("$a * 0", false)).isNull();
+	}
+
+	@Test
+	void should_report_syntax_error_when_evaluated() throws Exception {
+		final StringLocated location = new StringLocated("$a + b!", null);
+		final CompiledExpression expression = compile(location);
+
+		assertThatThrownBy(() -> expression.evaluate(location, context, memory(location, 1, "")))
+				.isInstanceOf(EaterException.class);
+	}
+
+}
@@ -0,0 +1,41 @@
+package smetana.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+class NetworkSimplexTest {
+
+	private static String render(String diagram) throws IOException {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		new SourceStringReader(diagram, UTF_8).outputImage(baos, 0, new FileFormatOption(FileFormat.SVG));
+		return new String(baos.toByteArray(), UTF_8);
+	}
+
+	@Test
+	void should_rank_like_the_graph_implementation() throws IOException {
+		// "validate" throws as soon as both implementations disagree
+		final StringBuilder sb = new StringBuilder("@startuml\n!pragma layout smetana\n");
+		sb.append("!pragma networksimplex validate\n");
+		for (int p = 0; p < 3; p++) {
+			sb.append("package p" + p + " {\n");
+			for (int c = 0; c < 6; c++)
+				sb.append("class C" + p + "_" + c + "\n");
+			sb.append("}\n");
+		}
+		for (int i = 0; i < 30; i++)
+			sb.append("C" + (i % 3) + "_" + (i * 7 % 6) + " --> C" + (i * 5 % 3) + "_" + (i % 6) + "\n");
+		sb.append("C0_0 -> C2_5 : label\nC2_5 -> C0_0\n@enduml\n");
+
+		assertThat(render(sb.toString())).doesNotContain("An error has occured").contains("C2_5");
+	}
+
+}